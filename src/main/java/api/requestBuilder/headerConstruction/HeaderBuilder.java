@@ -6,11 +6,15 @@
 package api.requestBuilder.headerConstruction;
 
 import api.requestBuilder.authentication.SecretsAndCertificates;
+import com.google.gson.JsonElement;
 import io.restassured.http.Header;
 import io.restassured.http.Headers;
 import io.restassured.response.Response;
+import unifiedUtils.ResponseIndex;
+import unifiedUtils.ValueReference;
 
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public class HeaderBuilder {
@@ -32,7 +36,7 @@ public class HeaderBuilder {
     /**
      * Builds dynamic headers by replacing placeholder values with actual values
      * @param unalteredHeaders - Map of headers with potential placeholders
-     * @param refResponses - Responses to extract dynamic values from
+     * @param refResponses - Responses to extract dynamic values from, each parsed at most once (see ResponseIndex)
      * @return - the current HeaderBuilder instance for method chaining.
      */
     public HeaderBuilder buildDynamicHeaders(Map<String,String> unalteredHeaders, Response... refResponses) {
@@ -41,8 +45,8 @@ public class HeaderBuilder {
             String headerValue = entry.getValue();
             if(headerValue.startsWith("%")){
                 for(Response response : refResponses){
-                    if(response.jsonPath().get(headerValue.substring(1))!=null){
-                        String dynamicValue = response.jsonPath().get(headerValue.substring(1)).toString();
+                    String dynamicValue = ResponseIndex.of(response).getString(headerValue.substring(1));
+                    if(dynamicValue!=null){
                         headers.put(headerKey, dynamicValue);
                         break;
                     }
@@ -55,6 +59,26 @@ public class HeaderBuilder {
         return this;
     }
 
+    /**
+     * Builds dynamic headers from chained values, e.g. of a scenario context (context::resolve)
+     * @param unalteredHeaders - Map of headers with potential %path, %[name].path or $[name].path placeholders
+     * @param values - value of a reference, or null when it has none
+     * @return - the current HeaderBuilder instance for method chaining.
+     */
+    public HeaderBuilder buildDynamicHeaders(Map<String,String> unalteredHeaders, Function<String, JsonElement> values) {
+        for(Map.Entry<String, String> entry : unalteredHeaders.entrySet()) {
+            if(ValueReference.isReference(entry.getValue())){
+                String dynamicValue = ResponseIndex.asText(values.apply(entry.getValue()));
+                if(dynamicValue!=null){
+                    headers.put(entry.getKey(), dynamicValue);
+                }
+            }else{
+                headers.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return this;
+    }
+
     /**
      * Adds default headers to the builder. Default headers include:
      * - Content-Type: application/json
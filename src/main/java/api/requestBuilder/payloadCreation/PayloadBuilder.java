@@ -1,98 +1,101 @@
 package api.requestBuilder.payloadCreation;
 
+import api.requestBuilder.uriConstruction.ParameterRows;
 import com.google.gson.*;
 import io.restassured.builder.ResponseBuilder;
 import io.restassured.response.Response;
-import unifiedUtils.JsonOperations;
+import unifiedUtils.JsonPathExpression;
+import unifiedUtils.ResponseIndex;
+import unifiedUtils.ValueReference;
 
 import java.util.List;
-import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 public class PayloadBuilder {
-    private static final Gson gson = new GsonBuilder().setPrettyPrinting().create();
-    JsonOperations jsonOperations;
-    private static final Pattern REF_PATTERN = Pattern.compile("^\\$\\[([a-zA-Z0-9_]+)]\\.(.+)$");
     private PayloadBuilder(){
 
     }
     public static PayloadBuilder getPayloadBuilderInstance(){
         return new PayloadBuilder();
     }
-    // Matches: $[responseName].json.path
 
     /**
-     * Payload builder with chained response value support.
+     * Compiles a payload that is generated many times, e.g. per virtual user or data row; see PayloadTemplate.
      * @param basePayload - the original payload
-     * @param modifications - the fields to modify
-     * @param namedResponses - map of named responses to extract chained values from
-     * @return - the modified payload
+     * @param modifications - the fields to modify, values may be references
+     * @return - the compiled template
      */
-    /*public static JsonObject buildRequestPayload(JsonObject basePayload, JsonObject modifications, Map<String, Response> namedResponses) {
-
-        JsonObject alteredPayload = gson.fromJson(basePayload, JsonObject.class);
-
-        for (String fieldToModify : modifications.keySet()) {
-            JsonElement valueToApply = modifications.get(fieldToModify);
-
-            if (valueToApply.isJsonPrimitive()) {
-                String valStr = valueToApply.getAsString().trim();
-                Matcher matcher = REF_PATTERN.matcher(valStr);
-
-                if (matcher.matches()) {
-                    String responseName = matcher.group(1);
-                    String jsonPath = matcher.group(2);
+    public PayloadTemplate compileTemplate(JsonObject basePayload, JsonObject modifications) {
+        return PayloadTemplate.compile(basePayload, modifications);
+    }
 
-                    if (namedResponses == null || !namedResponses.containsKey(responseName)) {
-                        System.out.println("⚠️ Skipping substitution for " + valStr + " (no response found)");
-                        updateJsonField(alteredPayload, fieldToModify, JsonNull.INSTANCE);
-                        continue;
-                    }
+    /**
+     * Bulk payload builder: a JSON array with one element per parameter row, generated while the request is sent,
+     * so bodies of millions of elements need constant memory; see StreamingPayload. Send it with
+     * RequestBody.ofStream(payload); without an identity it is not recorded or replayed.
+     * @param baseElement - the original element payload
+     * @param modifications - the fields to modify per element, %column values are taken from the row
+     * @param rows - opens the parameter rows on every send, e.g. () -> ParameterRows.fromCsv(file)
+     * @return - the streamed payload
+     */
+    public StreamingPayload buildStreamingPayload(JsonObject baseElement, JsonObject modifications, Supplier<ParameterRows> rows) {
+        return StreamingPayload.newBuilder().element(baseElement, modifications).parameterRows(rows).build();
+    }
 
-                    Object extracted = namedResponses.get(responseName).jsonPath().get(jsonPath);
-                    updateJsonField(alteredPayload, fieldToModify, gson.toJsonTree(extracted));
-                    continue;
+    /**
+     * Payload builder with chained values, e.g. from a scenario context (context::resolve), which resolves them in
+     * constant time for plain paths. Reference values are %json.path (first source having the path),
+     * %[name].json.path or $[name].json.path (the named response or payload), see ValueReference; a reference
+     * without a value leaves the base field unchanged.
+     * @param basePayload - the original payload
+     * @param modifications - the fields to modify
+     * @param values - value of a reference, or null when it has none; shared values are copied before use
+     * @return - the modified payload
+     */
+    public JsonObject buildRequestPayload(JsonObject basePayload, JsonObject modifications, Function<String, JsonElement> values) {
+        JsonObject alteredPayload = basePayload.deepCopy();
+        for (String key : modifications.keySet()) {
+            JsonElement expectedValue = modifications.get(key);
+            if (expectedValue.isJsonPrimitive() && ValueReference.isReference(expectedValue.getAsString())) {
+                JsonElement chainedValue = values.apply(expectedValue.getAsString());
+                if (chainedValue != null) {
+                    applyModification(alteredPayload, key, chainedValue.deepCopy());
                 }
+            } else {
+                applyModification(alteredPayload, key, expectedValue);
             }
-
-            updateJsonField(alteredPayload, fieldToModify, valueToApply);
         }
-
         return alteredPayload;
-    }*/
+    }
+
     public JsonObject buildRequestPayload(JsonObject basePayload, JsonObject modifications, List<Response> namedResponses) {
-        JsonObject alteredPayload = gson.fromJson(basePayload, JsonObject.class);
+        JsonObject alteredPayload = basePayload.deepCopy();
         for (String key : modifications.keySet()) {
             JsonElement expectedValue = modifications.get(key);
             if (expectedValue.getAsString().startsWith("%")) {
-                if (!namedResponses.isEmpty()) {
-                    for (Response response : namedResponses) {
-                        if (response.jsonPath().get(expectedValue.getAsString().substring(1)) != null) {
-                            JsonElement chainedValue = new Gson().toJsonTree(response.jsonPath().get(expectedValue.getAsString().substring(1)));
-                            alteredPayload.add(key, chainedValue);
-                            break;
-                        }
-                    }
+                JsonElement chainedValue = chainedValue(expectedValue.getAsString().substring(1), namedResponses);
+                if (chainedValue != null) {
+                    applyModification(alteredPayload, key, chainedValue);
                 }
             }else {
-                alteredPayload.add(key, expectedValue);
+                applyModification(alteredPayload, key, expectedValue);
             }
         }
         return alteredPayload;
     }
 
     /**
-     * Simple payload builder without chained values.
+     * Simple payload builder without chained values. Modification keys may be nested paths, see applyModification.
      * @param basePayload - the original payload
      * @param modifications - the fields to modify
      * @return - the modified payload
      */
     public JsonObject buildRequestPayload(JsonObject basePayload, JsonObject modifications) {
-        JsonObject alteredPayload = gson.fromJson(basePayload, JsonObject.class);
+        JsonObject alteredPayload = basePayload.deepCopy();
         for (String key : modifications.keySet()) {
             JsonElement expectedValue = modifications.get(key);
-            alteredPayload.add(key, expectedValue);
+            applyModification(alteredPayload, key, expectedValue);
         }
         return alteredPayload;
     }
@@ -106,98 +109,82 @@ public class PayloadBuilder {
      * @return - the modified payload
      */
     public JsonObject buildRequestPayload(JsonObject basePayload, JsonObject modifications,List<Response> namedResponses, List<JsonObject> previousPayloads) {
-        JsonObject alteredPayload = gson.fromJson(basePayload, JsonObject.class);
-        jsonOperations = new JsonOperations();
+        JsonObject alteredPayload = basePayload.deepCopy();
         for (String key : modifications.keySet()) {
-            boolean isFound=false;
             JsonElement expectedValue = modifications.get(key);
             if (expectedValue.getAsString().startsWith("%")) {
-               responseCheck:{
-                   if (namedResponses != null && !namedResponses.isEmpty()) {
-                       for (Response response : namedResponses) {
-                           if (response.jsonPath().get(expectedValue.getAsString().substring(1)) != null) {
-                               JsonElement chainedValue = new Gson().toJsonTree(response.jsonPath().get(expectedValue.getAsString().substring(1)));
-                               alteredPayload.add(key, chainedValue);
-                               isFound = true;
-                               break;
-                           }
-                       }
-                   }
-               }
-               PayloadsCheck:{
-                   if(!isFound) {
-                       for (JsonObject payload : previousPayloads) {
-                           if (!previousPayloads.isEmpty()) {
-                               if (payload.has(expectedValue.getAsString().substring(1))) {
-                                   Response convertedResponse = jsonOperations.convertJsonObjectToResponse(payload);
-                                   JsonElement chainedValue = JsonParser.parseString(convertedResponse.jsonPath().get(expectedValue.getAsString().substring(1)));
-                                   alteredPayload.add(key, chainedValue);
-                                   break;
-                               }
-                           }
-                       }
-                   }
-               }
+                String path = expectedValue.getAsString().substring(1);
+                JsonElement chainedValue = chainedValue(path, namedResponses);
+                if (chainedValue == null && previousPayloads != null) {
+                    JsonPathExpression expression = JsonPathExpression.compile(path);
+                    for (JsonObject payload : previousPayloads) {
+                        // GPath beyond plain paths is evaluated by Rest Assured, as for responses
+                        JsonElement value = expression.isSimple() ? expression.read(payload)
+                                : ResponseIndex.of(mockResponse(payload.toString())).get(path);
+                        if (value != null) {
+                            chainedValue = value.deepCopy();
+                            break;
+                        }
+                    }
+                }
+                if (chainedValue != null) {
+                    applyModification(alteredPayload, key, chainedValue);
+                }
             } else {
-                alteredPayload.add(key, expectedValue);
+                applyModification(alteredPayload, key, expectedValue);
             }
         }
         return alteredPayload;
     }
     /**
-     * Handles nested JSON creation with array support.
-     * Supports paths like team.members[0].id
+     * Looks a chained value up in the responses, in order. Every response body is parsed once and shared
+     * through its ResponseIndex, however many modifications and requests refer to it.
+     * @param path - json path of the value
+     * @param namedResponses - responses to search, may be null
+     * @return copy of the first value found, or null
      */
-    private void updateJsonField(JsonObject root, String path, JsonElement value) {
-        String[] tokens = path.split("\\.");
-
-        JsonElement current = root;
-        for (int i = 0; i < tokens.length - 1; i++) {
-            String token = tokens[i];
-            Matcher arrMatcher = Pattern.compile("(\\w+)\\[(\\d+)]").matcher(token);
-
-            if (arrMatcher.matches()) {
-                // Handle array step
-                String arrayName = arrMatcher.group(1);
-                int index = Integer.parseInt(arrMatcher.group(2));
-
-                JsonArray array = current.getAsJsonObject().has(arrayName) ? current.getAsJsonObject().getAsJsonArray(arrayName) : new JsonArray();
-
-                // Expand array if index doesn't exist yet
-                while (array.size() <= index) {
-                    array.add(new JsonObject());
-                }
-
-                current.getAsJsonObject().add(arrayName, array);
-                current = array.get(index);
-            } else {
-                // Normal object field
-                JsonObject obj = current.getAsJsonObject();
-                if (!obj.has(token) || !obj.get(token).isJsonObject()) {
-                    obj.add(token, new JsonObject());
+    private JsonElement chainedValue(String path, List<Response> namedResponses) {
+        if (namedResponses != null) {
+            for (Response response : namedResponses) {
+                JsonElement value = ResponseIndex.of(response).get(path);
+                if (value != null) {
+                    // the index shares its tree with every other lookup on the response
+                    return value.deepCopy();
                 }
-                current = obj.get(token);
             }
         }
+        return null;
+    }
 
-        // Final token (could also be array)
-        String last = tokens[tokens.length - 1];
-        Matcher arrMatcher = Pattern.compile("(\\w+)\\[(\\d+)]").matcher(last);
-        if (arrMatcher.matches()) {
-            String arrayName = arrMatcher.group(1);
-            int index = Integer.parseInt(arrMatcher.group(2));
-
-            JsonArray array = current.getAsJsonObject().has(arrayName) ? current.getAsJsonObject().getAsJsonArray(arrayName) : new JsonArray();
-
-            while (array.size() <= index) {
-                array.add(JsonNull.INSTANCE);
-            }
-
-            array.set(index, value);
-            current.getAsJsonObject().add(arrayName, array);
+    /**
+     * Applies one modification. A key naming an existing member, or without '.' and '[', replaces that top-level
+     * member as before; any other key is a compiled, cached JSON path such as team.members[0].id, items[*].price or
+     * ['a.b'].c, created as needed (see JsonPathExpression#set).
+     * @param payload - payload being built
+     * @param key - modification key
+     * @param value - new value
+     */
+    static void applyModification(JsonObject payload, String key, JsonElement value) {
+        JsonPathExpression path = pathOf(payload, key);
+        if (path == null) {
+            payload.add(key, value);
         } else {
-            current.getAsJsonObject().add(last, value);
+            path.set(payload, value);
+        }
+    }
+
+    /**
+     * @param payload - payload being built
+     * @param key - modification key
+     * @return compiled path of the key, or null when the key is a top-level member name
+     */
+    static JsonPathExpression pathOf(JsonObject payload, String key) {
+        if (payload.has(key) || (key.indexOf('.') < 0 && key.indexOf('[') < 0)) {
+            return null;
         }
+        JsonPathExpression path = JsonPathExpression.compile(key);
+        // GPath beyond plain paths cannot be written, such keys stay literal names
+        return path.isWritable() ? path : null;
     }
 
     private Response mockResponse(String jsonBody) {
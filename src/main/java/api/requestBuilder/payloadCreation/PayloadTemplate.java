@@ -0,0 +1,580 @@
+package api.requestBuilder.payloadCreation;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import unifiedUtils.JsonPathExpression;
+import unifiedUtils.ValueReference;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Base payload and modifications compiled once into a patch plan, for payloads that are generated many times.
+ * Static modifications are applied at compile time; reference values (%json.path, %[name].path, $[name].path)
+ * become slots resolved once per payload. Modification keys may be nested paths as in
+ * {@link PayloadBuilder#applyModification}; their slots are placed in the compiled tree, creating objects and array
+ * elements on the way. A slot without a value keeps the base field, as
+ * {@link PayloadBuilder#buildRequestPayload(JsonObject, JsonObject, Function)} does; when a nested slot has
+ * no value, or modifications overlap a slot, the modifications are replayed in order on a copy instead.
+ * <ul>
+ *   <li>{@link #toBytes}, {@link #toJson}, {@link #writeTo} - the JSON text is emitted directly: unchanged parts
+ *   are copied from bytes serialized at compile time and only slot values are encoded per payload</li>
+ *   <li>{@link #build} - copy-on-write tree: containers on the way to a slot are new, unchanged subtrees are shared
+ *   with the template and must be copied (deepCopy) before they are modified</li>
+ * </ul>
+ * The output is identical to {@code buildRequestPayload(...).toString()}. Templates are immutable and thread-safe.
+ */
+public final class PayloadTemplate {
+    private static final int MAX_REUSED_BUFFER = 64 * 1024;
+    private static final ThreadLocal<ByteSink> SINK = ThreadLocal.withInitial(() -> new ByteSink(1024));
+
+    private final Node root;
+    private final String[] slotReferences;
+    private final Set<String> references;
+    // base value of the first field each reference replaces, for callers converting text values to its JSON type
+    private final Map<String, JsonElement> baseValues;
+    // slots that have no base value to fall back on, the compiled tree is only used when all of them have values
+    private final int[] requiredSlots;
+    // base and modifications to replay when the compiled tree cannot be used, null when it always can
+    private final JsonObject basePayload;
+    private final List<Modification> modifications;
+
+    private PayloadTemplate(Node root, Map<String, Integer> slots, Map<String, JsonElement> baseValues, int[] requiredSlots,
+                            JsonObject basePayload, List<Modification> modifications) {
+        this.root = root;
+        this.slotReferences = slots.keySet().toArray(new String[0]);
+        this.references = Collections.unmodifiableSet(new LinkedHashSet<>(slots.keySet()));
+        this.baseValues = Collections.unmodifiableMap(baseValues);
+        this.requiredSlots = requiredSlots;
+        this.basePayload = basePayload;
+        this.modifications = modifications;
+    }
+
+    /**
+     * @param basePayload - the original payload; copied, later changes to it are not seen
+     * @param modifications - the fields to modify, keys may be nested paths, values may be references; may be null
+     * @return compiled template
+     */
+    public static PayloadTemplate compile(JsonObject basePayload, JsonObject modifications) {
+        JsonObject tree = basePayload.deepCopy();
+        Map<String, Integer> slotIndex = new LinkedHashMap<>();
+        Map<String, JsonElement> baseValues = new LinkedHashMap<>();
+        // markers are distinct instances standing for slots in the tree until it is compiled
+        Map<JsonElement, SlotNode> markers = new IdentityHashMap<>();
+        Set<Integer> required = new LinkedHashSet<>();
+        List<Modification> plan = new ArrayList<>();
+        if (modifications != null) {
+            for (Map.Entry<String, JsonElement> modification : modifications.entrySet()) {
+                String key = modification.getKey();
+                JsonElement value = modification.getValue();
+                if (value.isJsonPrimitive() && ValueReference.isReference(value.getAsString())) {
+                    String reference = value.getAsString();
+                    int index = slotIndex.computeIfAbsent(reference, ignored -> slotIndex.size());
+                    JsonPathExpression path = PayloadBuilder.pathOf(tree, key);
+                    if (path == null) {
+                        JsonElement previous = tree.get(key);
+                        if (previous != null) baseValues.putIfAbsent(reference, previous.deepCopy());
+                        JsonPrimitive marker = new JsonPrimitive(reference);
+                        markers.put(marker, new SlotNode(index, previous != null ? new StaticNode(previous) : null));
+                        tree.add(key, marker);
+                    } else {
+                        path.update(tree, previous -> {
+                            if (previous != null) baseValues.putIfAbsent(reference, previous.deepCopy());
+                            JsonPrimitive marker = new JsonPrimitive(reference);
+                            markers.put(marker, new SlotNode(index, null));
+                            required.add(index);
+                            return marker;
+                        });
+                    }
+                    plan.add(new Modification(key, null, index));
+                } else {
+                    PayloadBuilder.applyModification(tree, key, value.deepCopy());
+                    plan.add(new Modification(key, value.deepCopy(), -1));
+                }
+            }
+        }
+        int[] placed = new int[1];
+        Map<String, Node> members = new LinkedHashMap<>();
+        for (Map.Entry<String, JsonElement> member : tree.entrySet()) {
+            Node node = compile(member.getValue(), markers, placed);
+            members.put(member.getKey(), node != null ? node : new StaticNode(member.getValue()));
+        }
+        ObjectNode root = new ObjectNode(members);
+        if (placed[0] < markers.size()) {
+            // a later modification replaced or went below a slot, only replaying keeps the order of effects
+            return new PayloadTemplate(root, slotIndex, baseValues, null, basePayload.deepCopy(), plan);
+        }
+        int[] requiredSlots = required.stream().mapToInt(Integer::intValue).toArray();
+        return new PayloadTemplate(root, slotIndex, baseValues, requiredSlots,
+                requiredSlots.length > 0 ? basePayload.deepCopy() : null, requiredSlots.length > 0 ? plan : null);
+    }
+
+    // node of a subtree holding slots, null when the subtree is static
+    private static Node compile(JsonElement element, Map<JsonElement, SlotNode> markers, int[] placed) {
+        SlotNode slot = markers.get(element);
+        if (slot != null) {
+            placed[0]++;
+            return slot;
+        }
+        if (element.isJsonObject()) {
+            Map<String, Node> members = new LinkedHashMap<>();
+            boolean dynamic = false;
+            for (Map.Entry<String, JsonElement> member : element.getAsJsonObject().entrySet()) {
+                Node node = compile(member.getValue(), markers, placed);
+                dynamic |= node != null;
+                members.put(member.getKey(), node);
+            }
+            if (!dynamic) {
+                return null;
+            }
+            members.replaceAll((name, node) -> node != null ? node : new StaticNode(element.getAsJsonObject().get(name)));
+            return new ObjectNode(members);
+        }
+        if (element.isJsonArray()) {
+            JsonArray array = element.getAsJsonArray();
+            Node[] nodes = new Node[array.size()];
+            boolean dynamic = false;
+            for (int i = 0; i < nodes.length; i++) {
+                nodes[i] = compile(array.get(i), markers, placed);
+                dynamic |= nodes[i] != null;
+            }
+            if (!dynamic) {
+                return null;
+            }
+            for (int i = 0; i < nodes.length; i++) {
+                if (nodes[i] == null) nodes[i] = new StaticNode(array.get(i));
+            }
+            return new ArrayNode(nodes);
+        }
+        return null;
+    }
+
+    /**
+     * @return reference values of the slots, in modification order; empty when every payload is the same
+     */
+    public Set<String> getReferences() {
+        return references;
+    }
+
+    /**
+     * @param reference - one of {@link #getReferences()}
+     * @return value of the base field the reference replaces first, null when that field is not in the base payload
+     */
+    public JsonElement getBaseValue(String reference) {
+        JsonElement value = baseValues.get(reference);
+        return value != null ? value.deepCopy() : null;
+    }
+
+    /**
+     * @param values - value of a reference, or null to keep the base field; asked once per reference
+     * @return payload tree sharing unchanged subtrees with the template
+     */
+    public JsonObject build(Function<String, JsonElement> values) {
+        JsonElement[] resolved = resolve(values);
+        return compiled(resolved) ? root.build(resolved).getAsJsonObject() : replay(resolved);
+    }
+
+    /**
+     * @param values - value of a reference, or null to keep the base field; asked once per reference
+     * @return UTF-8 JSON text of the payload
+     */
+    public byte[] toBytes(Function<String, JsonElement> values) {
+        ByteSink sink = render(values);
+        byte[] bytes = Arrays.copyOf(sink.buffer, sink.size);
+        release(sink);
+        return bytes;
+    }
+
+    /**
+     * @param values - value of a reference, or null to keep the base field; asked once per reference
+     * @return JSON text of the payload
+     */
+    public String toJson(Function<String, JsonElement> values) {
+        ByteSink sink = render(values);
+        String json = new String(sink.buffer, 0, sink.size, StandardCharsets.UTF_8);
+        release(sink);
+        return json;
+    }
+
+    /**
+     * Writes the UTF-8 JSON text of the payload without materializing it beyond a reused per-thread buffer.
+     * @param out - target stream; not closed
+     * @param values - value of a reference, or null to keep the base field; asked once per reference
+     */
+    public void writeTo(OutputStream out, Function<String, JsonElement> values) throws IOException {
+        ByteSink sink = render(values);
+        try {
+            out.write(sink.buffer, 0, sink.size);
+        } finally {
+            release(sink);
+        }
+    }
+
+    private ByteSink render(Function<String, JsonElement> values) {
+        JsonElement[] resolved = resolve(values);
+        ByteSink sink = SINK.get();
+        sink.size = 0;
+        if (compiled(resolved)) {
+            root.write(sink, resolved);
+        } else {
+            sink.writeJson(replay(resolved));
+        }
+        return sink;
+    }
+
+    private JsonElement[] resolve(Function<String, JsonElement> values) {
+        JsonElement[] resolved = new JsonElement[slotReferences.length];
+        for (int i = 0; i < resolved.length; i++) {
+            resolved[i] = values.apply(slotReferences[i]);
+        }
+        return resolved;
+    }
+
+    private boolean compiled(JsonElement[] resolved) {
+        if (requiredSlots == null) {
+            return false;
+        }
+        for (int slot : requiredSlots) {
+            if (resolved[slot] == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // the modifications applied one by one, as PayloadBuilder does
+    private JsonObject replay(JsonElement[] resolved) {
+        JsonObject payload = basePayload.deepCopy();
+        for (Modification modification : modifications) {
+            JsonElement value = modification.slot < 0 ? modification.value : resolved[modification.slot];
+            if (value != null) {
+                PayloadBuilder.applyModification(payload, modification.key, value.deepCopy());
+            }
+        }
+        return payload;
+    }
+
+    private static void release(ByteSink sink) {
+        if (sink.buffer.length > MAX_REUSED_BUFFER) {
+            SINK.remove();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return toJson(reference -> null);
+    }
+
+    private static final class Modification {
+        private final String key;
+        private final JsonElement value;
+        // index of the reference, -1 for a static value
+        private final int slot;
+
+        private Modification(String key, JsonElement value, int slot) {
+            this.key = key;
+            this.value = value;
+            this.slot = slot;
+        }
+    }
+
+    private abstract static class Node {
+        /**
+         * @return false when the node produced nothing and the member is to be left out
+         */
+        abstract boolean write(ByteSink sink, JsonElement[] resolved);
+
+        /**
+         * @return value of the node, or null when the member is to be left out
+         */
+        abstract JsonElement build(JsonElement[] resolved);
+    }
+
+    private static final class StaticNode extends Node {
+        private final JsonElement value;
+        private final byte[] json;
+
+        private StaticNode(JsonElement value) {
+            this.value = value;
+            this.json = value.toString().getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        boolean write(ByteSink sink, JsonElement[] resolved) {
+            sink.write(json);
+            return true;
+        }
+
+        @Override
+        JsonElement build(JsonElement[] resolved) {
+            return value;
+        }
+    }
+
+    private static final class SlotNode extends Node {
+        private final int slot;
+        // base value kept when the reference has no value, null when the member is then left out
+        private final StaticNode fallback;
+
+        private SlotNode(int slot, StaticNode fallback) {
+            this.slot = slot;
+            this.fallback = fallback;
+        }
+
+        @Override
+        boolean write(ByteSink sink, JsonElement[] resolved) {
+            JsonElement value = resolved[slot];
+            if (value != null) {
+                sink.writeJson(value);
+                return true;
+            }
+            return fallback != null && fallback.write(sink, resolved);
+        }
+
+        @Override
+        JsonElement build(JsonElement[] resolved) {
+            JsonElement value = resolved[slot];
+            if (value != null) {
+                return value;
+            }
+            return fallback != null ? fallback.value : null;
+        }
+    }
+
+    private static final class ObjectNode extends Node {
+        private final String[] names;
+        private final Node[] nodes;
+        // runs of static members serialized together, e.g. "a":1,"b":{...}; null entries mark dynamic members
+        private final byte[][] runs;
+        private final byte[][] keys;
+
+        private ObjectNode(Map<String, Node> members) {
+            this.names = members.keySet().toArray(new String[0]);
+            this.nodes = members.values().toArray(new Node[0]);
+            this.keys = new byte[names.length][];
+            List<byte[]> parts = new ArrayList<>();
+            ByteSink run = new ByteSink(256);
+            for (int i = 0; i < names.length; i++) {
+                ByteSink key = new ByteSink(names[i].length() + 3);
+                key.writeString(names[i]);
+                key.write(':');
+                keys[i] = Arrays.copyOf(key.buffer, key.size);
+                if (nodes[i] instanceof StaticNode) {
+                    if (run.size > 0) run.write(',');
+                    run.write(keys[i]);
+                    nodes[i].write(run, null);
+                } else {
+                    if (run.size > 0) parts.add(Arrays.copyOf(run.buffer, run.size));
+                    run.size = 0;
+                    parts.add(null);
+                }
+            }
+            if (run.size > 0) parts.add(Arrays.copyOf(run.buffer, run.size));
+            this.runs = parts.toArray(new byte[0][]);
+        }
+
+        @Override
+        boolean write(ByteSink sink, JsonElement[] resolved) {
+            sink.write('{');
+            boolean first = true;
+            int member = 0;
+            for (byte[] run : runs) {
+                if (run != null) {
+                    if (!first) sink.write(',');
+                    sink.write(run);
+                    first = false;
+                    // skip the static members of the run
+                    while (member < nodes.length && nodes[member] instanceof StaticNode) member++;
+                    continue;
+                }
+                int mark = sink.size;
+                if (!first) sink.write(',');
+                sink.write(keys[member]);
+                if (nodes[member].write(sink, resolved)) {
+                    first = false;
+                } else {
+                    sink.size = mark;
+                }
+                member++;
+            }
+            sink.write('}');
+            return true;
+        }
+
+        @Override
+        JsonElement build(JsonElement[] resolved) {
+            JsonObject object = new JsonObject();
+            for (int i = 0; i < names.length; i++) {
+                JsonElement value = nodes[i].build(resolved);
+                if (value != null) {
+                    object.add(names[i], value);
+                }
+            }
+            return object;
+        }
+    }
+
+    private static final class ArrayNode extends Node {
+        private final Node[] nodes;
+
+        private ArrayNode(Node[] nodes) {
+            this.nodes = nodes;
+        }
+
+        @Override
+        boolean write(ByteSink sink, JsonElement[] resolved) {
+            sink.write('[');
+            for (int i = 0; i < nodes.length; i++) {
+                if (i > 0) sink.write(',');
+                // elements cannot be left out, slots in arrays always have values when the tree is used
+                if (!nodes[i].write(sink, resolved)) sink.writeAscii("null");
+            }
+            sink.write(']');
+            return true;
+        }
+
+        @Override
+        JsonElement build(JsonElement[] resolved) {
+            JsonArray array = new JsonArray(nodes.length);
+            for (Node node : nodes) {
+                JsonElement value = node.build(resolved);
+                array.add(value != null ? value : JsonNull.INSTANCE);
+            }
+            return array;
+        }
+    }
+
+    /**
+     * Growable byte buffer writing JSON the way Gson's JsonElement.toString() does, without intermediate strings.
+     */
+    private static final class ByteSink {
+        private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+        private byte[] buffer;
+        private int size;
+
+        ByteSink(int capacity) {
+            this.buffer = new byte[Math.max(16, capacity)];
+        }
+
+        void write(int b) {
+            ensure(1);
+            buffer[size++] = (byte) b;
+        }
+
+        void write(byte[] bytes) {
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buffer, size, bytes.length);
+            size += bytes.length;
+        }
+
+        void writeJson(JsonElement value) {
+            if (value.isJsonPrimitive() && value.getAsJsonPrimitive().isString()) {
+                writeString(value.getAsString());
+            } else if (value.isJsonPrimitive()) {
+                writeAscii(((JsonPrimitive) value).getAsString());
+            } else {
+                writeUtf8(value.toString());
+            }
+        }
+
+        // quoted and escaped as com.google.gson.stream.JsonWriter does without HTML escaping
+        void writeString(String value) {
+            write('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c < 0x20) {
+                    switch (c) {
+                        case '\t': writeAscii("\\t"); break;
+                        case '\b': writeAscii("\\b"); break;
+                        case '\n': writeAscii("\\n"); break;
+                        case '\r': writeAscii("\\r"); break;
+                        case '\f': writeAscii("\\f"); break;
+                        default: writeUnicodeEscape(c); break;
+                    }
+                } else if (c == '"' || c == '\\') {
+                    write('\\');
+                    write(c);
+                } else if (c == '\u2028' || c == '\u2029') {
+                    writeUnicodeEscape(c);
+                } else {
+                    writeChar(value, i, c);
+                    if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                        i++;
+                    }
+                }
+            }
+            write('"');
+        }
+
+        private void writeUtf8(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                writeChar(value, i, c);
+                if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    i++;
+                }
+            }
+        }
+
+        private void writeChar(String value, int index, char c) {
+            ensure(4);
+            if (c < 0x80) {
+                buffer[size++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[size++] = (byte) (0xC0 | (c >> 6));
+                buffer[size++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && index + 1 < value.length() && Character.isLowSurrogate(value.charAt(index + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(index + 1));
+                buffer[size++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[size++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[size++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[size++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // unpaired surrogates are replaced as String.getBytes does
+                buffer[size++] = '?';
+            } else {
+                buffer[size++] = (byte) (0xE0 | (c >> 12));
+                buffer[size++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[size++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+
+        private void writeAscii(String value) {
+            ensure(value.length());
+            for (int i = 0; i < value.length(); i++) {
+                buffer[size++] = (byte) value.charAt(i);
+            }
+        }
+
+        private void writeUnicodeEscape(char c) {
+            ensure(6);
+            buffer[size++] = '\\';
+            buffer[size++] = 'u';
+            buffer[size++] = HEX[(c >> 12) & 0xF];
+            buffer[size++] = HEX[(c >> 8) & 0xF];
+            buffer[size++] = HEX[(c >> 4) & 0xF];
+            buffer[size++] = HEX[c & 0xF];
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+            }
+        }
+    }
+}
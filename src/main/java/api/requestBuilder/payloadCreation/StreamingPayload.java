@@ -0,0 +1,359 @@
+package api.requestBuilder.payloadCreation;
+
+import api.requestBuilder.uriConstruction.ParameterRows;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * JSON array body generated element by element while it is sent, for bulk endpoints taking 10^5 elements and more.
+ * Every element is rendered from a compiled {@link PayloadTemplate} with the values of one row, straight into a
+ * small buffer the transport drains, so memory use does not depend on the number of elements and no JsonObject
+ * tree or String of the whole body is ever built.
+ * <ul>
+ *   <li>rows - opened again for every send, so retried and replayed requests generate the same body</li>
+ *   <li>envelope - optional object the array is a member of, e.g. {"source":"import","items":[...]}</li>
+ * </ul>
+ * The output is identical to serializing the array of {@code buildRequestPayload} results. The body is fingerprinted
+ * for record/replay by its identity; without one it is never recorded or replayed, since bodies generated from
+ * different rows would otherwise share one recording. Bodies are immutable and can be sent concurrently, as
+ * RequestBody#ofStream(StreamingPayload). They are sent chunked by the pooled and JDK transports; Rest Assured,
+ * used for requests with an SSLConfig, reads JSON bodies into memory before sending them.
+ */
+public final class StreamingPayload {
+    private static final int CHUNK_SIZE = 16 * 1024;
+
+    private final PayloadTemplate element;
+    private final Supplier<? extends Iterator<? extends Function<String, JsonElement>>> rows;
+    // envelope text before the first and after the last element
+    private final byte[] prefix;
+    private final byte[] suffix;
+    private final String description;
+    private final boolean identified;
+
+    private StreamingPayload(Builder builder) {
+        this.element = Objects.requireNonNull(builder.element, "element template");
+        Supplier<ParameterRows> parameterRows = builder.parameterRows;
+        this.rows = parameterRows != null ? () -> new ColumnValues(parameterRows.get(), element) : Objects.requireNonNull(builder.rows, "rows");
+        String identity = builder.identity != null ? " " + builder.identity : "";
+        if (builder.envelope == null) {
+            this.prefix = new byte[]{'['};
+            this.suffix = new byte[]{']'};
+            this.description = "generated JSON array" + identity;
+        } else {
+            String[] parts = splitEnvelope(builder.envelope, builder.member);
+            this.prefix = parts[0].getBytes(StandardCharsets.UTF_8);
+            this.suffix = parts[1].getBytes(StandardCharsets.UTF_8);
+            this.description = "generated JSON array in " + builder.member + identity;
+        }
+        this.identified = builder.identity != null;
+    }
+
+    /**
+     * Factory method to create a builder for a StreamingPayload.
+     * @return a new Builder instance
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * @return new stream generating the body; closing it closes the rows
+     */
+    public InputStream openStream() {
+        return new Generator(rows.get());
+    }
+
+    /**
+     * Writes the whole body, e.g. to a file for later uploads.
+     * @param out - target stream; not closed
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        try (Generator generator = new Generator(rows.get())) {
+            generator.transferTo(out);
+        }
+    }
+
+    /**
+     * @return short description used in logs, and as the replay fingerprint when the payload has an identity
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * @return true when an identity was set, so equal descriptions mean equal bodies
+     */
+    public boolean isIdentified() {
+        return identified;
+    }
+
+    @Override
+    public String toString() {
+        return "StreamingPayload{" + description + "}";
+    }
+
+    // envelope text around the array, which takes the place of the member or is appended as the last member
+    private static String[] splitEnvelope(JsonObject envelope, String member) {
+        JsonObject members = envelope.deepCopy();
+        members.add(member, JsonNull.INSTANCE);
+        StringBuilder text = new StringBuilder("{");
+        int split = -1;
+        for (Map.Entry<String, JsonElement> entry : members.entrySet()) {
+            if (text.length() > 1) text.append(',');
+            text.append(new JsonPrimitive(entry.getKey())).append(':');
+            if (entry.getKey().equals(member)) {
+                text.append('[');
+                split = text.length();
+                text.append(']');
+            } else {
+                text.append(entry.getValue());
+            }
+        }
+        text.append('}');
+        return new String[]{text.substring(0, split), text.substring(split)};
+    }
+
+    /**
+     * Builder for StreamingPayload objects
+     */
+    public static final class Builder {
+        private PayloadTemplate element;
+        private Supplier<? extends Iterator<? extends Function<String, JsonElement>>> rows;
+        private Supplier<ParameterRows> parameterRows;
+        private JsonObject envelope;
+        private String member;
+        private String identity;
+
+        private Builder() {
+        }
+
+        /**
+         * @param element - template of one array element, its references are resolved per row
+         */
+        public Builder element(PayloadTemplate element) {
+            this.element = element;
+            return this;
+        }
+
+        /**
+         * @param baseElement - the original element payload
+         * @param modifications - the fields to modify per element, values may be references
+         */
+        public Builder element(JsonObject baseElement, JsonObject modifications) {
+            return element(PayloadTemplate.compile(baseElement, modifications));
+        }
+
+        /**
+         * @param rows - opens the rows on every send; every row gives the values of the element's references, or
+         *             null to keep the base fields; iterators that are AutoCloseable are closed after sending
+         */
+        public Builder rows(Supplier<? extends Iterator<? extends Function<String, JsonElement>>> rows) {
+            this.rows = rows;
+            this.parameterRows = null;
+            return this;
+        }
+
+        /**
+         * Reads the element values from CSV or JSON rows: the reference %column is the value of the column, empty
+         * columns and columns the rows do not have keep the base field. A value takes the JSON type of the base
+         * field it replaces, so "5" replacing a number becomes 5 and "true" replacing a boolean becomes true; values
+         * that do not parse as that type, and values of string or new fields, are sent as JSON strings.
+         * @param rows - opens the rows on every send, e.g. () -> ParameterRows.fromCsv(file)
+         */
+        public Builder parameterRows(Supplier<ParameterRows> rows) {
+            this.parameterRows = rows;
+            this.rows = null;
+            return this;
+        }
+
+        /**
+         * @param envelope - object the array is a member of; copied
+         * @param member - name of the array member, replacing a member of the same name
+         */
+        public Builder envelope(JsonObject envelope, String member) {
+            this.envelope = envelope.deepCopy();
+            this.member = Objects.requireNonNull(member, "member");
+            return this;
+        }
+
+        /**
+         * Lets record/replay key the body on the identity instead of sending it on every run.
+         * @param identity - names the generated content, e.g. the rows file and its version; bodies generating
+         *                 different content must have different identities
+         */
+        public Builder identity(String identity) {
+            this.identity = identity;
+            return this;
+        }
+
+        public StreamingPayload build() {
+            return new StreamingPayload(this);
+        }
+    }
+
+    // parameter rows as reference values, %column -> column value in the JSON type of the base field
+    private static final class ColumnValues implements Iterator<Function<String, JsonElement>>, AutoCloseable {
+        private final ParameterRows rows;
+        private final Map<String, Integer> columns = new HashMap<>();
+        private final Map<String, JsonElement> baseValues = new HashMap<>();
+
+        private ColumnValues(ParameterRows rows, PayloadTemplate element) {
+            this.rows = rows;
+            List<String> names = rows.getColumns();
+            for (int i = 0; i < names.size(); i++) {
+                columns.putIfAbsent("%" + names.get(i), i);
+            }
+            for (String reference : element.getReferences()) {
+                JsonElement base = element.getBaseValue(reference);
+                if (base != null) baseValues.put(reference, base);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return rows.hasNext();
+        }
+
+        @Override
+        public Function<String, JsonElement> next() {
+            String[] row = rows.next();
+            return reference -> {
+                Integer column = columns.get(reference);
+                String value = column != null && column < row.length ? row[column] : null;
+                return value != null && !value.isEmpty() ? typed(value, baseValues.get(reference)) : null;
+            };
+        }
+
+        private static JsonElement typed(String value, JsonElement base) {
+            if (base == null || base.isJsonNull() || (base.isJsonPrimitive() && base.getAsJsonPrimitive().isString())) {
+                return new JsonPrimitive(value);
+            }
+            if (base.isJsonPrimitive() && base.getAsJsonPrimitive().isBoolean()) {
+                return "true".equalsIgnoreCase(value) || "false".equalsIgnoreCase(value)
+                        ? new JsonPrimitive(Boolean.parseBoolean(value)) : new JsonPrimitive(value);
+            }
+            if (base.isJsonPrimitive()) {
+                try {
+                    return new JsonPrimitive(new BigDecimal(value.trim()));
+                } catch (NumberFormatException e) {
+                    return new JsonPrimitive(value);
+                }
+            }
+            // objects and arrays are given as JSON text
+            try {
+                JsonElement parsed = JsonParser.parseString(value);
+                return parsed.isJsonObject() == base.isJsonObject() && parsed.isJsonArray() == base.isJsonArray()
+                        ? parsed : new JsonPrimitive(value);
+            } catch (JsonParseException e) {
+                return new JsonPrimitive(value);
+            }
+        }
+
+        @Override
+        public void close() {
+            rows.close();
+        }
+    }
+
+    // renders elements into one reused chunk whenever the reader has drained the previous one
+    private final class Generator extends InputStream {
+        private final Iterator<? extends Function<String, JsonElement>> source;
+        private final Chunk chunk = new Chunk();
+        private int position;
+        private boolean started;
+        private boolean finished;
+        private boolean first = true;
+
+        private Generator(Iterator<? extends Function<String, JsonElement>> source) {
+            this.source = source;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (position == chunk.size() && !fill()) {
+                return -1;
+            }
+            return chunk.bytes()[position++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (position == chunk.size() && !fill()) {
+                return -1;
+            }
+            int read = Math.min(len, chunk.size() - position);
+            System.arraycopy(chunk.bytes(), position, b, off, read);
+            position += read;
+            return read;
+        }
+
+        private boolean fill() throws IOException {
+            if (finished) {
+                return false;
+            }
+            chunk.reset();
+            position = 0;
+            if (!started) {
+                chunk.write(prefix);
+                started = true;
+            }
+            while (chunk.size() < CHUNK_SIZE && source.hasNext()) {
+                Function<String, JsonElement> values = source.next();
+                if (!first) chunk.write(',');
+                first = false;
+                element.writeTo(chunk, values != null ? values : reference -> null);
+            }
+            if (!source.hasNext()) {
+                chunk.write(suffix);
+                finished = true;
+                close();
+            }
+            return chunk.size() > 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            finished = true;
+            if (source instanceof AutoCloseable) {
+                try {
+                    ((AutoCloseable) source).close();
+                } catch (IOException | RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new IOException("Cannot close the rows of " + description, e);
+                }
+            }
+        }
+    }
+
+    private static final class Chunk extends ByteArrayOutputStream {
+        private Chunk() {
+            super(CHUNK_SIZE + 1024);
+        }
+
+        private byte[] bytes() {
+            return buf;
+        }
+    }
+}
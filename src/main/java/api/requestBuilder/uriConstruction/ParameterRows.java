@@ -0,0 +1,346 @@
+package api.requestBuilder.uriConstruction;
+
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Lazy reader of parameter rows for data-driven runs. Every row is a {@code String[]} in column order and is
+ * read only when requested, so files of any size are expanded with a single row in memory per consumer.
+ * <ul>
+ *   <li>CSV (RFC 4180) - the first record is the header naming the columns; quoted fields may contain commas,
+ *   doubled quotes and line breaks, empty fields are empty strings</li>
+ *   <li>JSON - an array of objects, or objects one after another (NDJSON); the keys of the first object name the
+ *   columns, later objects are matched by key, missing keys and nulls are null, nested values are JSON text</li>
+ * </ul>
+ * Not thread-safe; streams from {@link UrlBuilder#buildRequestUrls} read it from one thread at a time.
+ */
+public abstract class ParameterRows implements Iterator<String[]>, AutoCloseable {
+    final Reader reader;
+    private List<String> columns;
+    private String[] nextRow;
+    private boolean done;
+
+    private ParameterRows(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * @param file - UTF-8 CSV file with a header record
+     * @return rows of the file; close to release the file
+     */
+    public static ParameterRows fromCsv(Path file) {
+        return fromCsv(open(file));
+    }
+
+    /**
+     * @param reader - CSV text with a header record
+     * @return rows of the text; closing them closes the reader
+     */
+    public static ParameterRows fromCsv(Reader reader) {
+        return new Csv(reader);
+    }
+
+    /**
+     * @param file - UTF-8 JSON file with an array of objects or one object per line
+     * @return rows of the file; close to release the file
+     */
+    public static ParameterRows fromJson(Path file) {
+        return fromJson(open(file));
+    }
+
+    /**
+     * @param reader - JSON text with an array of objects or one object per line
+     * @return rows of the text; closing them closes the reader
+     */
+    public static ParameterRows fromJson(Reader reader) {
+        return new Json(reader);
+    }
+
+    /**
+     * @return column names, read from the CSV header or the first JSON object
+     */
+    public List<String> getColumns() {
+        if (columns == null) {
+            try {
+                columns = Collections.unmodifiableList(readColumns());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return columns;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (nextRow == null && !done) {
+            getColumns();
+            try {
+                nextRow = readRow();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            done = nextRow == null;
+        }
+        return nextRow != null;
+    }
+
+    @Override
+    public String[] next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        String[] row = nextRow;
+        nextRow = null;
+        return row;
+    }
+
+    @Override
+    public void close() {
+        done = true;
+        nextRow = null;
+        try {
+            reader.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    abstract List<String> readColumns() throws IOException;
+
+    // next row in column order, null at the end of the input
+    abstract String[] readRow() throws IOException;
+
+    private static Reader open(Path file) {
+        try {
+            return Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading parameter rows: " + file, e);
+        }
+    }
+
+    private static final class Csv extends ParameterRows {
+        private final char[] buffer = new char[8192];
+        private final StringBuilder field = new StringBuilder();
+        private final List<String> record = new ArrayList<>();
+        private int position;
+        private int limit;
+        private int width;
+
+        private Csv(Reader reader) {
+            super(reader);
+        }
+
+        @Override
+        List<String> readColumns() throws IOException {
+            List<String> header = readRecordOrNull();
+            if (header == null) {
+                return List.of();
+            }
+            // a byte order mark is not part of the first column name
+            if (!header.get(0).isEmpty() && header.get(0).charAt(0) == '\uFEFF') {
+                header.set(0, header.get(0).substring(1));
+            }
+            width = header.size();
+            return new ArrayList<>(header);
+        }
+
+        @Override
+        String[] readRow() throws IOException {
+            List<String> values;
+            do {
+                values = readRecordOrNull();
+                // blank lines separate nothing in CSV and are skipped
+            } while (values != null && values.size() == 1 && values.get(0).isEmpty());
+            if (values == null) {
+                return null;
+            }
+            String[] row = new String[Math.max(width, values.size())];
+            for (int i = 0; i < values.size(); i++) {
+                row[i] = values.get(i);
+            }
+            return row;
+        }
+
+        // fields of the next record, reusing one list; null at the end of the input
+        private List<String> readRecordOrNull() throws IOException {
+            record.clear();
+            field.setLength(0);
+            boolean quoted = false;
+            boolean any = false;
+            int c;
+            while ((c = read()) != -1) {
+                any = true;
+                if (quoted) {
+                    if (c == '"') {
+                        if (peek() == '"') {
+                            position++;
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    record.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n' || c == '\r') {
+                    if (c == '\r' && peek() == '\n') position++;
+                    record.add(field.toString());
+                    return record;
+                } else {
+                    field.append((char) c);
+                }
+            }
+            if (!any) {
+                return null;
+            }
+            record.add(field.toString());
+            return record;
+        }
+
+        private int read() throws IOException {
+            if (position == limit && !fill()) {
+                return -1;
+            }
+            return buffer[position++];
+        }
+
+        private int peek() throws IOException {
+            if (position == limit && !fill()) {
+                return -1;
+            }
+            return buffer[position];
+        }
+
+        private boolean fill() throws IOException {
+            int read = reader.read(buffer);
+            position = 0;
+            limit = Math.max(read, 0);
+            return read > 0;
+        }
+    }
+
+    private static final class Json extends ParameterRows {
+        private final JsonReader json;
+        private final Map<String, Integer> columnIndex = new HashMap<>();
+        private boolean array;
+        private boolean empty;
+        private String[] firstRow;
+
+        private Json(Reader reader) {
+            super(reader);
+            this.json = new JsonReader(reader);
+            // lenient reading accepts several top-level objects, one per line
+            this.json.setLenient(true);
+        }
+
+        @Override
+        List<String> readColumns() throws IOException {
+            JsonToken start;
+            try {
+                start = json.peek();
+            } catch (EOFException e) {
+                // JsonReader reports an input without any value as EOF instead of END_DOCUMENT
+                empty = true;
+                return List.of();
+            }
+            if (start == JsonToken.BEGIN_ARRAY) {
+                json.beginArray();
+                array = true;
+            }
+            if (!hasObject()) {
+                return List.of();
+            }
+            // the first object is read by name and becomes the first row
+            List<String> names = new ArrayList<>();
+            List<String> values = new ArrayList<>();
+            json.beginObject();
+            while (json.hasNext()) {
+                String name = json.nextName();
+                if (columnIndex.putIfAbsent(name, names.size()) == null) {
+                    names.add(name);
+                    values.add(nextValue());
+                } else {
+                    values.set(columnIndex.get(name), nextValue());
+                }
+            }
+            json.endObject();
+            firstRow = values.toArray(new String[0]);
+            return names;
+        }
+
+        @Override
+        String[] readRow() throws IOException {
+            if (firstRow != null) {
+                String[] row = firstRow;
+                firstRow = null;
+                return row;
+            }
+            if (empty || !hasObject()) {
+                return null;
+            }
+            String[] row = new String[columnIndex.size()];
+            json.beginObject();
+            while (json.hasNext()) {
+                Integer column = columnIndex.get(json.nextName());
+                if (column == null) {
+                    json.skipValue();
+                } else {
+                    row[column] = nextValue();
+                }
+            }
+            json.endObject();
+            return row;
+        }
+
+        private boolean hasObject() throws IOException {
+            JsonToken token = json.peek();
+            if (array && token == JsonToken.END_ARRAY) {
+                json.endArray();
+                return false;
+            }
+            if (token == JsonToken.END_DOCUMENT) {
+                return false;
+            }
+            if (token != JsonToken.BEGIN_OBJECT) {
+                throw new IllegalStateException("Expected a JSON object per parameter row but found " + token + " at " + json.getPath());
+            }
+            return true;
+        }
+
+        private String nextValue() throws IOException {
+            switch (json.peek()) {
+                case NULL:
+                    json.nextNull();
+                    return null;
+                case BOOLEAN:
+                    return Boolean.toString(json.nextBoolean());
+                case STRING:
+                case NUMBER:
+                    // numbers keep their literal text, e.g. 1.50 or 10000000000000000001
+                    return json.nextString();
+                default:
+                    return JsonParser.parseReader(json).toString();
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package api.requestBuilder.uriConstruction;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Percent-encoding helpers shared by URL construction and the request transports.
+ * All methods are stateless and thread-safe.
+ */
+public final class UriEncoder {
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+    // RFC 3986 unreserved characters
+    private static final boolean[] UNRESERVED = new boolean[128];
+    // characters allowed inside a path segment (unreserved + sub-delims + ':' + '@')
+    private static final boolean[] PATH_SEGMENT = new boolean[128];
+    // characters allowed anywhere in a URI (unreserved + reserved + '%')
+    private static final boolean[] URI_CHARS = new boolean[128];
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) UNRESERVED[c] = true;
+        for (char c = 'A'; c <= 'Z'; c++) UNRESERVED[c] = true;
+        for (char c = '0'; c <= '9'; c++) UNRESERVED[c] = true;
+        for (char c : "-._~".toCharArray()) UNRESERVED[c] = true;
+        System.arraycopy(UNRESERVED, 0, PATH_SEGMENT, 0, 128);
+        for (char c : "!$&'()*+,;=:@".toCharArray()) PATH_SEGMENT[c] = true;
+        System.arraycopy(PATH_SEGMENT, 0, URI_CHARS, 0, 128);
+        for (char c : "/?#[]%".toCharArray()) URI_CHARS[c] = true;
+    }
+
+    private UriEncoder() {
+    }
+
+    /**
+     * Encodes a value so it can be used as a single path segment ('/' is encoded).
+     * @param value - raw value
+     * @return percent-encoded value
+     */
+    public static String encodePathSegment(String value) {
+        return encode(value, PATH_SEGMENT);
+    }
+
+    /**
+     * Encodes a query parameter name or value ('&', '=', '+' and '/' are encoded).
+     * @param value - raw value
+     * @return percent-encoded value
+     */
+    public static String encodeQueryComponent(String value) {
+        return encode(value, UNRESERVED);
+    }
+
+    /**
+     * Encodes only the characters that are never legal in a URI (spaces, quotes, non-ASCII ...)
+     * and leaves everything else, including existing %XX escapes, untouched.
+     * @param url - complete url
+     * @return url that can be handed to {@link java.net.URI#create(String)}
+     */
+    public static String encodeIllegalCharacters(String url) {
+        return encode(url, URI_CHARS);
+    }
+
+    /**
+     * Appends the encoded form of a path segment to the target builder without intermediate strings.
+     */
+    public static void appendPathSegment(StringBuilder target, String value) {
+        append(target, value, PATH_SEGMENT);
+    }
+
+    /**
+     * Appends the encoded form of a query component to the target builder without intermediate strings.
+     */
+    public static void appendQueryComponent(StringBuilder target, String value) {
+        append(target, value, UNRESERVED);
+    }
+
+    /**
+     * Appends a path segment like {@link #appendPathSegment}, but leaves valid %XX escapes untouched, so values
+     * that are already encoded are not encoded twice.
+     */
+    public static void appendPathSegmentKeepingEscapes(StringBuilder target, String value) {
+        if (value != null) appendFrom(target, value, 0, PATH_SEGMENT, true);
+    }
+
+    /**
+     * Appends a query component like {@link #appendQueryComponent}, but leaves valid %XX escapes untouched.
+     */
+    public static void appendQueryComponentKeepingEscapes(StringBuilder target, String value) {
+        if (value != null) appendFrom(target, value, 0, UNRESERVED, true);
+    }
+
+    private static String encode(String value, boolean[] allowed) {
+        if (value == null) return null;
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 128 || !allowed[c]) {
+                StringBuilder sb = new StringBuilder(length + 16);
+                sb.append(value, 0, i);
+                appendFrom(sb, value, i, allowed, false);
+                return sb.toString();
+            }
+        }
+        return value;
+    }
+
+    private static void append(StringBuilder target, String value, boolean[] allowed) {
+        if (value != null) appendFrom(target, value, 0, allowed, false);
+    }
+
+    private static void appendFrom(StringBuilder target, String value, int from, boolean[] allowed, boolean keepEscapes) {
+        int length = value.length();
+        for (int i = from; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 128) {
+                if (allowed[c] || (keepEscapes && c == '%' && i + 2 < length && isHex(value.charAt(i + 1)) && isHex(value.charAt(i + 2)))) {
+                    target.append(c);
+                } else {
+                    appendEscaped(target, c);
+                }
+                continue;
+            }
+            // non-ASCII: encode the UTF-8 bytes of the (possibly surrogate pair) code point
+            int end = Character.isHighSurrogate(c) && i + 1 < length ? i + 2 : i + 1;
+            for (byte b : value.substring(i, end).getBytes(StandardCharsets.UTF_8)) {
+                appendEscaped(target, b & 0xFF);
+            }
+            i = end - 1;
+        }
+    }
+
+    private static boolean isHex(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'A' && c <= 'F') || (c >= 'a' && c <= 'f');
+    }
+
+    private static void appendEscaped(StringBuilder target, int b) {
+        target.append('%').append(HEX[(b >> 4) & 0x0F]).append(HEX[b & 0x0F]);
+    }
+}
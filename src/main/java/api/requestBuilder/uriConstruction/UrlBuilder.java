@@ -1,8 +1,13 @@
 package api.requestBuilder.uriConstruction;
 
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class UrlBuilder {
 
@@ -14,36 +19,152 @@ public class UrlBuilder {
      * @param queryParam - query parameters in form of a map
      *
      * @param pathParam - path parameters in form of a map
-     * @return complete modified request url
+     * @return complete modified request url, with path and query values percent-encoded; a '/' in a path value
+     * is encoded as %2F, %XX escapes already in a value are kept
      */
     public String buildRequestUrl(String baseUrl, String apiVersion, String endpoint, Map<String, String> queryParam, Map<String, String> pathParam) {
-        // Immutable copies for thread safety
-        Map<String, String> safePathParam = pathParam != null ? Map.copyOf(pathParam) : Map.of();
-        Map<String, String> safeQueryParam = queryParam != null ? Map.copyOf(queryParam) : Map.of();
         String apiVersionString = (apiVersion != null && !apiVersion.isEmpty()) ? apiVersion : "";
-        String url = baseUrl + apiVersionString + endpoint;
-        if (safePathParam != null) {
-            for (Map.Entry<String, String> entry : safePathParam.entrySet()) {
-                String key = entry.getKey();
-                String replacementValue = entry.getValue();
-                url = url.replace("{" + key + "}", replacementValue);
+        // the template is parsed once per distinct url and expanded in a single pass, see UrlTemplate
+        return UrlTemplate.compile(baseUrl + apiVersionString + endpoint).expand(queryParam, pathParam);
+    }
+
+    /**
+     * Creates the request URL inserting the values as given, e.g. a path value "a/b" spanning two segments or a
+     * query value that is already encoded; only characters that are never legal in a URI are encoded when sent.
+     * @param baseUrl - base URL
+     * @param apiVersion - api version
+     * @param endpoint - endpoint ( includes everything apart from the base url and api version )
+     * @param queryParam - query parameters in form of a map
+     * @param pathParam - path parameters in form of a map
+     * @return complete modified request url
+     */
+    public String buildRawRequestUrl(String baseUrl, String apiVersion, String endpoint, Map<String, String> queryParam, Map<String, String> pathParam) {
+        String apiVersionString = (apiVersion != null && !apiVersion.isEmpty()) ? apiVersion : "";
+        return UrlTemplate.compile(baseUrl + apiVersionString + endpoint).expandRaw(queryParam, pathParam);
+    }
+
+    /**
+     * Expands one URL template against every parameter row, lazily: a row is read only when the stream pulls the
+     * next URL, so millions of rows never sit in memory. Columns are bound to the placeholders of the same name
+     * once; rows are expanded by index, without per-row maps.
+     * e.g. {@code buildRequestUrls(base, "v2", "/users/{id}/orders?status={}", ParameterRows.fromCsv(file), true)
+     * .map(url -> ApiRequest.newBuilder(Method.GET, url).build())}
+     * @param baseUrl - base URL
+     * @param apiVersion - api version
+     * @param endpoint - endpoint with {name} and key={} placeholders
+     * @param rows - parameter rows; closed when the stream is closed
+     * @param parallel - expand rows on the common fork-join pool; the rows are still read one batch at a time
+     * @return stream of expanded urls, in row order unless consumed unordered
+     */
+    public Stream<String> buildRequestUrls(String baseUrl, String apiVersion, String endpoint, ParameterRows rows, boolean parallel) {
+        String apiVersionString = (apiVersion != null && !apiVersion.isEmpty()) ? apiVersion : "";
+        UrlTemplate.Binding binding = UrlTemplate.compile(baseUrl + apiVersionString + endpoint).bind(rows.getColumns());
+        return StreamSupport.stream(new RowSpliterator(rows), parallel).map(binding::expand).onClose(rows::close);
+    }
+
+    public Stream<String> buildRequestUrls(String baseUrl, String apiVersion, String endpoint, ParameterRows rows) {
+        return buildRequestUrls(baseUrl, apiVersion, endpoint, rows, false);
+    }
+
+    /**
+     * Hands rows to parallel workers in batches of a fixed size. Fork-join keeps splitting a source of unknown
+     * size until it is exhausted, so at most a window of batches may be handed out and not yet expanded; the
+     * splitting thread waits for a batch to finish before reading on, otherwise a large file would end up queued
+     * in memory faster than workers expand it. The wait is a managed block, so the pool adds a worker instead
+     * of stalling when all of its workers are waiting.
+     */
+    private static final class RowSpliterator extends Spliterators.AbstractSpliterator<String[]> {
+        private static final int BATCH_SIZE = 1024;
+        private static final int BATCHES_PER_WINDOW = 4 * Math.max(1, ForkJoinPool.getCommonPoolParallelism());
+        private final ParameterRows rows;
+        private final Semaphore window = new Semaphore(BATCHES_PER_WINDOW);
+
+        private RowSpliterator(ParameterRows rows) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.rows = rows;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super String[]> action) {
+            if (!rows.hasNext()) {
+                return false;
+            }
+            action.accept(rows.next());
+            return true;
+        }
+
+        @Override
+        public Spliterator<String[]> trySplit() {
+            if (!rows.hasNext()) {
+                return null;
+            }
+            acquireWindow();
+            String[][] batch = new String[BATCH_SIZE][];
+            int size = 0;
+            while (size < BATCH_SIZE && rows.hasNext()) {
+                batch[size++] = rows.next();
             }
+            return new Batch(batch, size, window);
         }
-        if (safeQueryParam != null ) {
-            // Regex to match ?key={} or &key={}
-            Pattern pattern = Pattern.compile("([?&])(\\w+)=\\{}");
-            Matcher matcher = pattern.matcher(url);
-            StringBuffer result = new StringBuffer();
 
-            while (matcher.find()) {
-                String key = matcher.group(2);
-                String replacementValue = safeQueryParam.getOrDefault(key, "");
-                matcher.appendReplacement(result, matcher.group(1) + key + "=" + replacementValue);
+        private void acquireWindow() {
+            try {
+                ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+                    @Override
+                    public boolean block() throws InterruptedException {
+                        window.acquire();
+                        return true;
+                    }
+
+                    @Override
+                    public boolean isReleasable() {
+                        return window.tryAcquire();
+                    }
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for parameter rows to be expanded", e);
             }
-            matcher.appendTail(result);
-            url = result.toString();
         }
-        return url;
     }
-}
 
+    // rows handed out by one split; returns its window permit once every row has been consumed
+    private static final class Batch extends Spliterators.AbstractSpliterator<String[]> {
+        private final String[][] rows;
+        private final int size;
+        private final Semaphore window;
+        private int position;
+
+        private Batch(String[][] rows, int size, Semaphore window) {
+            super(size, Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.SIZED | Spliterator.SUBSIZED);
+            this.rows = rows;
+            this.size = size;
+            this.window = window;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super String[]> action) {
+            if (position == size) {
+                return false;
+            }
+            String[] row = rows[position];
+            rows[position++] = null;
+            try {
+                action.accept(row);
+            } finally {
+                if (position == size) window.release();
+            }
+            return true;
+        }
+
+        @Override
+        public Spliterator<String[]> trySplit() {
+            return null;
+        }
+
+        @Override
+        public long estimateSize() {
+            return size - position;
+        }
+    }
+}
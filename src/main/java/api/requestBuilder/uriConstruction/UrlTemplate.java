@@ -0,0 +1,290 @@
+package api.requestBuilder.uriConstruction;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * URL template parsed once into literal and placeholder segments, e.g.
+ * {@code https://api.example.com/v2/users/{user}/{id}/orders?status={}&limit={}}.
+ * <ul>
+ *   <li>{name} - path placeholder, replaced by the path parameter of that name; left as is when the parameter is
+ *   missing, so it can still be resolved later through {@link api.requestExecutor.ApiRequest} path parameters</li>
+ *   <li>key={} - query placeholder, replaced by the query parameter named key; empty when the parameter is missing</li>
+ * </ul>
+ * Values are percent-encoded as path segments before the '?' and as query components after it, so a '/' in a
+ * path value stays inside its segment; valid %XX escapes are kept, so values that are already encoded are not
+ * encoded twice. {@link #expandRaw} inserts values as given instead. Templates are immutable and cached by their text, so repeated expansion costs a single pass.
+ */
+public final class UrlTemplate {
+    // templates are written by hand and finite; the cap only guards against templates built from data
+    private static final int MAX_CACHED_TEMPLATES = 4096;
+    private static final Map<String, UrlTemplate> CACHE = new ConcurrentHashMap<>();
+    private static final int MAX_REUSED_BUILDER = 8 * 1024;
+    private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    private final String template;
+    private final Segment[] segments;
+    private final int literalLength;
+    private final Set<String> pathParameterNames;
+    private final Set<String> queryParameterNames;
+
+    private UrlTemplate(String template) {
+        this.template = template;
+        List<Segment> parsed = new ArrayList<>();
+        Set<String> pathNames = new LinkedHashSet<>();
+        Set<String> queryNames = new LinkedHashSet<>();
+        boolean inQuery = false;
+        int literalStart = 0;
+        int length = 0;
+        for (int i = 0; i < template.length(); i++) {
+            char c = template.charAt(i);
+            if (c == '?') {
+                inQuery = true;
+                continue;
+            }
+            if (c != '{') {
+                continue;
+            }
+            int close = template.indexOf('}', i + 1);
+            if (close < 0) {
+                break;
+            }
+            Segment placeholder = null;
+            if (close == i + 1) {
+                String key = queryKeyBefore(i);
+                if (key != null) {
+                    placeholder = new Segment(key, Kind.QUERY);
+                    queryNames.add(key);
+                }
+            } else {
+                String name = template.substring(i + 1, close);
+                placeholder = new Segment(name, inQuery ? Kind.PATH_IN_QUERY : Kind.PATH);
+                pathNames.add(name);
+            }
+            if (placeholder != null) {
+                if (i > literalStart) {
+                    parsed.add(new Segment(template.substring(literalStart, i), Kind.LITERAL));
+                    length += i - literalStart;
+                }
+                parsed.add(placeholder);
+                literalStart = close + 1;
+                i = close;
+            }
+        }
+        if (literalStart < template.length()) {
+            parsed.add(new Segment(template.substring(literalStart), Kind.LITERAL));
+            length += template.length() - literalStart;
+        }
+        this.segments = parsed.toArray(new Segment[0]);
+        this.literalLength = length;
+        this.pathParameterNames = Collections.unmodifiableSet(pathNames);
+        this.queryParameterNames = Collections.unmodifiableSet(queryNames);
+    }
+
+    /**
+     * Returns the compiled template for the given text, parsing it on first use only.
+     * @param template - url template
+     * @return shared compiled template
+     */
+    public static UrlTemplate compile(String template) {
+        UrlTemplate compiled = CACHE.get(template);
+        if (compiled == null) {
+            compiled = new UrlTemplate(template);
+            if (CACHE.size() < MAX_CACHED_TEMPLATES) {
+                UrlTemplate existing = CACHE.putIfAbsent(template, compiled);
+                if (existing != null) compiled = existing;
+            }
+        }
+        return compiled;
+    }
+
+    public String getTemplate() {
+        return template;
+    }
+
+    /**
+     * @return names of the {name} placeholders in template order
+     */
+    public Set<String> getPathParameterNames() {
+        return pathParameterNames;
+    }
+
+    /**
+     * @return keys of the key={} placeholders in template order
+     */
+    public Set<String> getQueryParameterNames() {
+        return queryParameterNames;
+    }
+
+    /**
+     * Expands the template in a single pass into a builder reused by the calling thread.
+     * @param queryParams - values of the key={} placeholders, may be null
+     * @param pathParams - values of the {name} placeholders, may be null
+     * @return expanded url
+     */
+    public String expand(Map<String, String> queryParams, Map<String, String> pathParams) {
+        StringBuilder sb = BUILDER.get();
+        sb.setLength(0);
+        expandTo(sb, queryParams, pathParams);
+        return toStringAndRelease(sb);
+    }
+
+    /**
+     * Expands the template inserting the values as given, e.g. "a/b" as two path segments. Only characters that
+     * are never legal in a URI are encoded later, when the request is sent.
+     * @param queryParams - values of the key={} placeholders, may be null
+     * @param pathParams - values of the {name} placeholders, may be null
+     * @return expanded url
+     */
+    public String expandRaw(Map<String, String> queryParams, Map<String, String> pathParams) {
+        StringBuilder sb = BUILDER.get();
+        sb.setLength(0);
+        sb.ensureCapacity(literalLength + 16 * (segments.length - 1));
+        for (Segment segment : segments) {
+            Map<String, String> values = segment.kind == Kind.QUERY ? queryParams : pathParams;
+            String value = segment.kind != Kind.LITERAL && values != null ? values.get(segment.text) : null;
+            if (segment.kind == Kind.LITERAL) {
+                sb.append(segment.text);
+            } else if (value != null) {
+                sb.append(value);
+            } else if (segment.kind != Kind.QUERY) {
+                sb.append('{').append(segment.text).append('}');
+            }
+        }
+        return toStringAndRelease(sb);
+    }
+
+    /**
+     * Appends the expanded template to the target builder.
+     * @param target - builder the url is appended to
+     * @param queryParams - values of the key={} placeholders, may be null
+     * @param pathParams - values of the {name} placeholders, may be null
+     */
+    public void expandTo(StringBuilder target, Map<String, String> queryParams, Map<String, String> pathParams) {
+        target.ensureCapacity(target.length() + literalLength + 16 * (segments.length - 1));
+        for (Segment segment : segments) {
+            Map<String, String> values = segment.kind == Kind.QUERY ? queryParams : pathParams;
+            appendSegment(target, segment, segment.kind != Kind.LITERAL && values != null ? values.get(segment.text) : null);
+        }
+    }
+
+    /**
+     * Binds the placeholders to the columns of parameter rows, so rows are expanded by index without maps.
+     * A column feeds every placeholder of its name, whether path or query.
+     * @param columns - column names of the rows, e.g. a CSV header
+     * @return binding expanding rows of these columns
+     */
+    public Binding bind(List<String> columns) {
+        int[] columnOf = new int[segments.length];
+        for (int i = 0; i < segments.length; i++) {
+            columnOf[i] = segments[i].kind == Kind.LITERAL ? -1 : columns.indexOf(segments[i].text);
+        }
+        return new Binding(columnOf);
+    }
+
+    private static void appendSegment(StringBuilder target, Segment segment, String value) {
+        switch (segment.kind) {
+            case LITERAL:
+                target.append(segment.text);
+                break;
+            case QUERY:
+                if (value != null) UriEncoder.appendQueryComponentKeepingEscapes(target, value);
+                break;
+            default:
+                if (value == null) {
+                    target.append('{').append(segment.text).append('}');
+                } else if (segment.kind == Kind.PATH) {
+                    UriEncoder.appendPathSegmentKeepingEscapes(target, value);
+                } else {
+                    UriEncoder.appendQueryComponentKeepingEscapes(target, value);
+                }
+                break;
+        }
+    }
+
+    private static String toStringAndRelease(StringBuilder sb) {
+        String url = sb.toString();
+        if (sb.capacity() > MAX_REUSED_BUILDER) {
+            BUILDER.remove();
+        }
+        return url;
+    }
+
+    // key of a "?key={}" or "&key={}" placeholder starting at braceIndex, null when the braces are not preceded by one
+    private String queryKeyBefore(int braceIndex) {
+        int equals = braceIndex - 1;
+        if (equals < 1 || template.charAt(equals) != '=') {
+            return null;
+        }
+        int start = equals;
+        while (start > 0 && isWordChar(template.charAt(start - 1))) {
+            start--;
+        }
+        if (start == equals || start == 0 || (template.charAt(start - 1) != '?' && template.charAt(start - 1) != '&')) {
+            return null;
+        }
+        return template.substring(start, equals);
+    }
+
+    private static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    @Override
+    public String toString() {
+        return template;
+    }
+
+    /**
+     * Template bound to the column order of parameter rows. Thread-safe; rows may be expanded in parallel.
+     */
+    public final class Binding {
+        private final int[] columnOf;
+
+        private Binding(int[] columnOf) {
+            this.columnOf = columnOf;
+        }
+
+        /**
+         * @param row - values in column order; missing or null values are treated like missing parameters
+         * @return expanded url
+         */
+        public String expand(String[] row) {
+            StringBuilder sb = BUILDER.get();
+            sb.setLength(0);
+            expandTo(sb, row);
+            return toStringAndRelease(sb);
+        }
+
+        public void expandTo(StringBuilder target, String[] row) {
+            target.ensureCapacity(target.length() + literalLength + 16 * (segments.length - 1));
+            for (int i = 0; i < segments.length; i++) {
+                int column = columnOf[i];
+                appendSegment(target, segments[i], column >= 0 && column < row.length ? row[column] : null);
+            }
+        }
+
+        public UrlTemplate getTemplate() {
+            return UrlTemplate.this;
+        }
+    }
+
+    private enum Kind {
+        LITERAL, PATH, PATH_IN_QUERY, QUERY
+    }
+
+    private static final class Segment {
+        private final String text;
+        private final Kind kind;
+
+        private Segment(String text, Kind kind) {
+            this.text = text;
+            this.kind = kind;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package api.requestExecutor;
+
+import io.restassured.response.Response;
+import unifiedUtils.ResponseBodyBuffer;
+
+/**
+ * Response of an API call together with its per-phase timings and its once-read body.
+ */
+public final class ApiCallResult {
+    private final Response response;
+    private final RequestTimings timings;
+
+    public ApiCallResult(Response response, RequestTimings timings) {
+        this.response = response;
+        this.timings = timings;
+    }
+
+    public Response getResponse() {
+        return response;
+    }
+
+    public RequestTimings getTimings() {
+        return timings;
+    }
+
+    /**
+     * @return body buffer shared with the loggers and value chaining
+     */
+    public ResponseBodyBuffer getBody() {
+        return ResponseBodyBuffer.of(response);
+    }
+
+    /**
+     * @param loggingNanos - time spent logging the call
+     * @return copy of this result whose timings include the logging overhead
+     */
+    ApiCallResult withLoggingNanos(long loggingNanos) {
+        return new ApiCallResult(response, timings.withLoggingNanos(loggingNanos));
+    }
+}
@@ -0,0 +1,62 @@
+package api.requestExecutor;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executors shared by the non-blocking request APIs.
+ * On Java 21+ runtimes every request runs on its own virtual thread; older runtimes fall back to a
+ * cached pool of daemon platform threads so the library still works on the Java 17 baseline.
+ */
+public final class ApiExecutors {
+    private static final boolean VIRTUAL_THREADS;
+    private static final ExecutorService REQUEST_EXECUTOR;
+
+    static {
+        ExecutorService executor;
+        boolean virtual;
+        try {
+            executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            virtual = true;
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            executor = Executors.newCachedThreadPool(daemonThreadFactory("api-request-"));
+            virtual = false;
+        }
+        REQUEST_EXECUTOR = executor;
+        VIRTUAL_THREADS = virtual;
+    }
+
+    private ApiExecutors() {
+    }
+
+    /**
+     * @return executor running one task per request, never blocking the submitting test thread
+     */
+    public static ExecutorService requestExecutor() {
+        return REQUEST_EXECUTOR;
+    }
+
+    /**
+     * @return true when requests run on virtual threads
+     */
+    public static boolean usesVirtualThreads() {
+        return VIRTUAL_THREADS;
+    }
+
+    /**
+     * Creates a thread factory producing named daemon threads, so background work never blocks JVM exit.
+     * @param prefix - thread name prefix
+     * @return thread factory
+     */
+    public static ThreadFactory daemonThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
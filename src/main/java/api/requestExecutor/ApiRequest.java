@@ -0,0 +1,316 @@
+package api.requestExecutor;
+
+import api.requestBuilder.uriConstruction.UriEncoder;
+import io.restassured.config.SSLConfig;
+import io.restassured.http.Method;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable description of a single API call. Instances are safe to share between threads
+ * and can be executed any number of times through {@link InvokeApiRequest}.
+ */
+public final class ApiRequest {
+    private final Method method;
+    private final String url;
+    // as given to the builder; see getContentType for the type that is sent
+    private final String contentType;
+    private final Map<String, String> headers;
+    private final Map<String, String> formParams;
+    private final RequestBody body;
+    private final Map<String, String> queryParams;
+    private final Map<String, String> pathParams;
+    private final SSLConfig sslConfig;
+    private final boolean memoized;
+    private volatile URI resolvedUri;
+
+    private ApiRequest(Builder builder) {
+        this.method = builder.method;
+        this.url = builder.url;
+        this.contentType = builder.contentType;
+        this.headers = copyOf(builder.headers);
+        this.formParams = copyOf(builder.formParams);
+        this.body = builder.body;
+        this.queryParams = copyOf(builder.queryParams);
+        this.pathParams = copyOf(builder.pathParams);
+        this.sslConfig = builder.sslConfig;
+        this.memoized = builder.memoized;
+    }
+
+    /**
+     * Factory method to create a new request builder.
+     * @param method - HTTP method (GET, POST, etc.)
+     * @param url - full endpoint URL, usually produced by UrlBuilder
+     * @return a new Builder instance
+     */
+    public static Builder newBuilder(Method method, String url) {
+        return new Builder(method, url);
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * @return content type of the body if it has one, e.g. multipart with its boundary, else the one given to the builder
+     */
+    public String getContentType() {
+        // a multipart body only parses with its own boundary, so its content type wins
+        return body != null && body.getContentType() != null ? body.getContentType() : contentType;
+    }
+
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    public Map<String, String> getFormParams() {
+        return formParams;
+    }
+
+    /**
+     * @return body text for logging and chaining: text bodies as given, byte bodies decoded with
+     * {@link #getBodyCharset()}, streamed bodies as a short description; null without a body
+     */
+    public String getBody() {
+        return body != null ? body.asString(getBodyCharset()) : null;
+    }
+
+    /**
+     * @return body as sent by the transports, or null without a body
+     */
+    public RequestBody getRequestBody() {
+        return body;
+    }
+
+    /**
+     * @return charset parameter of the content type (explicit or from the Content-Type header), UTF-8 when absent or unknown
+     */
+    public Charset getBodyCharset() {
+        String type = getContentType();
+        if (type == null) {
+            for (Map.Entry<String, String> header : headers.entrySet()) {
+                if ("Content-Type".equalsIgnoreCase(header.getKey())) type = header.getValue();
+            }
+        }
+        if (type != null) {
+            for (String parameter : type.split(";")) {
+                String trimmed = parameter.trim();
+                if (trimmed.regionMatches(true, 0, "charset=", 0, 8)) {
+                    try {
+                        return Charset.forName(trimmed.substring(8).replace("\"", "").trim());
+                    } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+                        return StandardCharsets.UTF_8;
+                    }
+                }
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    public Map<String, String> getQueryParams() {
+        return queryParams;
+    }
+
+    public Map<String, String> getPathParams() {
+        return pathParams;
+    }
+
+    public SSLConfig getSslConfig() {
+        return sslConfig;
+    }
+
+    /**
+     * @return true when the response is fetched once and reused for the rest of the suite
+     */
+    public boolean isMemoized() {
+        return memoized;
+    }
+
+    /**
+     * @return a builder initialized with every attribute of this request; the content type is the one given to
+     * the builder, so replacing a multipart body does not keep its boundary
+     */
+    public Builder toBuilder() {
+        Builder builder = new Builder(method, url);
+        builder.contentType = contentType;
+        builder.headers = headers;
+        builder.formParams = formParams;
+        builder.body = body;
+        builder.queryParams = queryParams;
+        builder.pathParams = pathParams;
+        builder.sslConfig = sslConfig;
+        builder.memoized = memoized;
+        return builder;
+    }
+
+    /**
+     * Resolves the final request URI: path parameters are substituted into {name} placeholders,
+     * query parameters are appended and every value is percent-encoded. The result is computed once per request.
+     * @return the URI that goes on the wire
+     */
+    public URI resolveUri() {
+        URI uri = resolvedUri;
+        if (uri == null) {
+            uri = buildUri();
+            resolvedUri = uri;
+        }
+        return uri;
+    }
+
+    private URI buildUri() {
+        String resolved = url;
+        for (Map.Entry<String, String> entry : pathParams.entrySet()) {
+            resolved = resolved.replace("{" + entry.getKey() + "}", UriEncoder.encodePathSegment(entry.getValue()));
+        }
+        if (!queryParams.isEmpty()) {
+            StringBuilder sb = new StringBuilder(resolved);
+            char separator = resolved.indexOf('?') >= 0 ? '&' : '?';
+            for (Map.Entry<String, String> entry : queryParams.entrySet()) {
+                sb.append(separator);
+                UriEncoder.appendQueryComponent(sb, entry.getKey());
+                sb.append('=');
+                UriEncoder.appendQueryComponent(sb, entry.getValue());
+                separator = '&';
+            }
+            resolved = sb.toString();
+        }
+        return URI.create(UriEncoder.encodeIllegalCharacters(resolved));
+    }
+
+    private static Map<String, String> copyOf(Map<String, String> source) {
+        return source == null || source.isEmpty() ? Collections.emptyMap() : Collections.unmodifiableMap(new LinkedHashMap<>(source));
+    }
+
+    public static final class Builder {
+        private final Method method;
+        private final String url;
+        private String contentType;
+        private Map<String, String> headers;
+        private Map<String, String> formParams;
+        private RequestBody body;
+        private Map<String, String> queryParams;
+        private Map<String, String> pathParams;
+        private SSLConfig sslConfig;
+        private boolean memoized;
+
+        private Builder(Method method, String url) {
+            if (method == null || url == null) {
+                throw new IllegalArgumentException("HTTP method and url are mandatory");
+            }
+            this.method = method;
+            this.url = url;
+        }
+
+        public Builder contentType(String contentType) {
+            this.contentType = contentType;
+            return this;
+        }
+
+        public Builder headers(Map<String, String> headers) {
+            this.headers = headers;
+            return this;
+        }
+
+        /**
+         * Adds a single header, replacing an existing header of the same name.
+         */
+        public Builder header(String name, String value) {
+            Map<String, String> merged = new LinkedHashMap<>();
+            if (headers != null) {
+                headers.forEach((existing, existingValue) -> {
+                    if (!existing.equalsIgnoreCase(name)) merged.put(existing, existingValue);
+                });
+            }
+            merged.put(name, value);
+            this.headers = merged;
+            return this;
+        }
+
+        public Builder formParams(Map<String, String> formParams) {
+            this.formParams = formParams;
+            return this;
+        }
+
+        public Builder body(String body) {
+            this.body = RequestBody.ofString(body);
+            return this;
+        }
+
+        /**
+         * @param body - pre-encoded body, sent without re-encoding; the array must not be modified afterwards
+         */
+        public Builder body(byte[] body) {
+            this.body = RequestBody.ofBytes(body);
+            return this;
+        }
+
+        /**
+         * @param body - pre-encoded body between the buffer's position and limit
+         */
+        public Builder body(ByteBuffer body) {
+            this.body = RequestBody.ofByteBuffer(body);
+            return this;
+        }
+
+        /**
+         * @param file - file streamed as the body on every send
+         */
+        public Builder body(Path file) {
+            this.body = RequestBody.ofFile(file);
+            return this;
+        }
+
+        /**
+         * @param body - body as sent by the transports; a multipart body replaces the content type with its own
+         */
+        public Builder body(RequestBody body) {
+            this.body = body;
+            return this;
+        }
+
+        public Builder queryParams(Map<String, String> queryParams) {
+            this.queryParams = queryParams;
+            return this;
+        }
+
+        public Builder pathParams(Map<String, String> pathParams) {
+            this.pathParams = pathParams;
+            return this;
+        }
+
+        public Builder sslConfig(SSLConfig sslConfig) {
+            this.sslConfig = sslConfig;
+            return this;
+        }
+
+        /**
+         * Marks a GET request as suite-scoped reference data: the first response is cached and every later
+         * execution of an equal request is served from the cache without revalidation.
+         * See {@link api.requestExecutor.cache.CachingTransport}.
+         */
+        public Builder memoize() {
+            this.memoized = true;
+            return this;
+        }
+
+        public ApiRequest build() {
+            if (memoized && method != Method.GET) {
+                throw new IllegalArgumentException("Only GET requests can be memoized, not " + method);
+            }
+            return new ApiRequest(this);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package api.requestExecutor;
+
+import io.restassured.response.Response;
+import unifiedReports.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs a list of independent requests with a bounded number in flight and returns the results
+ * in input order. Intended for data-driven tests that would otherwise loop over rows with one
+ * blocking call each.
+ */
+public final class BatchRequestExecutor {
+    private final InvokeApiRequest invokeApiRequest;
+    private final int maxConcurrency;
+
+    private BatchRequestExecutor(Builder builder) {
+        this.invokeApiRequest = builder.invokeApiRequest != null ? builder.invokeApiRequest : new InvokeApiRequest();
+        this.maxConcurrency = builder.maxConcurrency;
+    }
+
+    /**
+     * Factory method to create a new builder.
+     * @return a new Builder instance
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Executes every request and waits for all of them. A failing request does not stop the batch,
+     * its exception is reported on the corresponding {@link BatchResult}.
+     *
+     * @param requests - request definitions
+     * @return one result per request, in the same order as the input list
+     */
+    public List<BatchResult> execute(List<ApiRequest> requests) {
+        BatchResult[] results = new BatchResult[requests.size()];
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[requests.size()];
+        Semaphore permits = new Semaphore(maxConcurrency);
+        try {
+            for (int i = 0; i < requests.size(); i++) {
+                int index = i;
+                ApiRequest request = requests.get(i);
+                // blocks the submitting thread once maxConcurrency requests are in flight
+                permits.acquire();
+                long start = System.nanoTime();
+                futures[i] = invokeApiRequest.callAsync(request).handle((result, failure) -> {
+                    long durationMillis = (System.nanoTime() - start) / 1_000_000;
+                    results[index] = new BatchResult(index, request, result, unwrap(failure), durationMillis);
+                    permits.release();
+                    return result;
+                });
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while submitting batch requests", e);
+        } finally {
+            CompletableFuture.allOf(Arrays.stream(futures).filter(Objects::nonNull).toArray(CompletableFuture[]::new)).join();
+            LoggerFactory.getApiReportLogger().flushPendingLogs();
+        }
+        return new ArrayList<>(Arrays.asList(results));
+    }
+
+    /**
+     * Convenience variant returning only the responses; fails if any request failed.
+     *
+     * @param requests - request definitions
+     * @return responses in input order
+     */
+    public List<Response> executeAndGetResponses(List<ApiRequest> requests) {
+        List<BatchResult> results = execute(requests);
+        List<Response> responses = new ArrayList<>(results.size());
+        for (BatchResult result : results) {
+            if (!result.isCompleted()) {
+                throw new IllegalStateException("Batch request failed: " + result, result.getFailure());
+            }
+            responses.add(result.getResponse());
+        }
+        return responses;
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    }
+
+    public static final class Builder {
+        private InvokeApiRequest invokeApiRequest;
+        private int maxConcurrency = 10;
+
+        private Builder() {
+        }
+
+        /**
+         * @param invokeApiRequest - executor (and therefore transport) used for the batch; defaults to a new InvokeApiRequest
+         */
+        public Builder invokeApiRequest(InvokeApiRequest invokeApiRequest) {
+            this.invokeApiRequest = invokeApiRequest;
+            return this;
+        }
+
+        /**
+         * @param maxConcurrency - maximum number of requests in flight at any time
+         */
+        public Builder maxConcurrency(int maxConcurrency) {
+            if (maxConcurrency < 1) {
+                throw new IllegalArgumentException("maxConcurrency must be at least 1");
+            }
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        public BatchRequestExecutor build() {
+            return new BatchRequestExecutor(this);
+        }
+    }
+}
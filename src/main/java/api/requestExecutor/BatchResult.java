@@ -0,0 +1,72 @@
+package api.requestExecutor;
+
+import io.restassured.response.Response;
+
+/**
+ * Outcome of one request of a batch run through {@link BatchRequestExecutor}.
+ */
+public final class BatchResult {
+    private final int index;
+    private final ApiRequest request;
+    private final ApiCallResult result;
+    private final Throwable failure;
+    private final long durationMillis;
+
+    BatchResult(int index, ApiRequest request, ApiCallResult result, Throwable failure, long durationMillis) {
+        this.index = index;
+        this.request = request;
+        this.result = result;
+        this.failure = failure;
+        this.durationMillis = durationMillis;
+    }
+
+    /**
+     * @return position of the request in the submitted list
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public ApiRequest getRequest() {
+        return request;
+    }
+
+    /**
+     * @return response, or null when the request failed before a response was received
+     */
+    public Response getResponse() {
+        return result != null ? result.getResponse() : null;
+    }
+
+    /**
+     * @return per-phase timings of the call, or null when the request failed
+     */
+    public RequestTimings getTimings() {
+        return result != null ? result.getTimings() : null;
+    }
+
+    /**
+     * @return exception raised while sending the request, or null
+     */
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    /**
+     * @return true when a response was received, regardless of its status code
+     */
+    public boolean isCompleted() {
+        return failure == null;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResult{index=" + index + ", " + request.getMethod() + " " + request.getUrl()
+                + (failure == null ? ", status=" + result.getResponse().getStatusCode() : ", failure=" + failure)
+                + ", duration=" + durationMillis + "ms}";
+    }
+}
@@ -0,0 +1,276 @@
+package api.requestExecutor;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Supplier;
+
+/**
+ * Contiguous piece of a streamed {@link RequestBody}: encoded bytes (multipart headers, text fields), a
+ * region of a file or content generated while it is sent. File regions are read with positional reads and
+ * generated content is produced again on every send, so a body can be sent any number of times, also
+ * concurrently, and is never held on heap.
+ */
+abstract class BodySegment {
+
+    /**
+     * @return number of bytes the segment writes, -1 when it is only known once the segment was written
+     */
+    abstract long length() throws IOException;
+
+    /**
+     * Writes the whole segment to the target, with FileChannel.transferTo for file regions.
+     * @param target - channel the body is written to
+     */
+    abstract void transferTo(WritableByteChannel target) throws IOException;
+
+    /**
+     * @return stream over the segment, for clients that pull the body instead of having it written
+     */
+    abstract InputStream openStream() throws IOException;
+
+    /**
+     * @return short description used in logs and replay fingerprints
+     */
+    abstract String describe();
+
+    static BodySegment ofBytes(byte[] bytes) {
+        return new Bytes(bytes);
+    }
+
+    static BodySegment ofFile(Path file) {
+        return new FileRegion(file);
+    }
+
+    static BodySegment ofChannel(FileChannel channel, long position, long count) {
+        return new ChannelRegion(channel, position, count);
+    }
+
+    static BodySegment ofGenerated(Supplier<? extends InputStream> source, String description) {
+        return new Generated(source, description);
+    }
+
+    private static final class Bytes extends BodySegment {
+        private final byte[] bytes;
+
+        private Bytes(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        long length() {
+            return bytes.length;
+        }
+
+        @Override
+        void transferTo(WritableByteChannel target) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                target.write(buffer);
+            }
+        }
+
+        @Override
+        InputStream openStream() {
+            return new ByteArrayInputStream(bytes);
+        }
+
+        @Override
+        String describe() {
+            return bytes.length + " bytes";
+        }
+    }
+
+    // the file is opened per send and its size read when the request goes out
+    private static final class FileRegion extends BodySegment {
+        private final Path file;
+
+        private FileRegion(Path file) {
+            this.file = file;
+        }
+
+        @Override
+        long length() throws IOException {
+            return Files.size(file);
+        }
+
+        @Override
+        void transferTo(WritableByteChannel target) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                transfer(channel, 0, channel.size(), target);
+            }
+        }
+
+        @Override
+        InputStream openStream() throws IOException {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+            return new RegionInputStream(channel, 0, channel.size(), true);
+        }
+
+        @Override
+        String describe() {
+            String size;
+            try {
+                size = String.valueOf(length());
+            } catch (IOException e) {
+                size = "?";
+            }
+            return "file " + file + ", " + size + " bytes";
+        }
+    }
+
+    // the channel belongs to the caller and is neither moved nor closed
+    private static final class ChannelRegion extends BodySegment {
+        private final FileChannel channel;
+        private final long position;
+        private final long count;
+
+        private ChannelRegion(FileChannel channel, long position, long count) {
+            this.channel = channel;
+            this.position = position;
+            this.count = count;
+        }
+
+        @Override
+        long length() {
+            return count;
+        }
+
+        @Override
+        void transferTo(WritableByteChannel target) throws IOException {
+            transfer(channel, position, count, target);
+        }
+
+        @Override
+        InputStream openStream() {
+            return new RegionInputStream(channel, position, count, false);
+        }
+
+        @Override
+        String describe() {
+            return "channel region " + position + "+" + count + " bytes";
+        }
+    }
+
+    // a new stream is opened per send; its length is unknown, so the body goes out with chunked transfer encoding
+    private static final class Generated extends BodySegment {
+        private static final int CHUNK_SIZE = 8192;
+
+        private final Supplier<? extends InputStream> source;
+        private final String description;
+
+        private Generated(Supplier<? extends InputStream> source, String description) {
+            this.source = source;
+            this.description = description;
+        }
+
+        @Override
+        long length() {
+            return -1;
+        }
+
+        @Override
+        void transferTo(WritableByteChannel target) throws IOException {
+            try (InputStream in = openStream()) {
+                byte[] chunk = new byte[CHUNK_SIZE];
+                ByteBuffer buffer = ByteBuffer.wrap(chunk);
+                int read;
+                while ((read = in.read(chunk)) != -1) {
+                    buffer.clear().limit(read);
+                    while (buffer.hasRemaining()) {
+                        target.write(buffer);
+                    }
+                }
+            }
+        }
+
+        @Override
+        InputStream openStream() throws IOException {
+            try {
+                return source.get();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+
+        @Override
+        String describe() {
+            return description;
+        }
+    }
+
+    // transferTo may move fewer bytes than asked for, e.g. when the target is a non-blocking or wrapped stream
+    private static void transfer(FileChannel channel, long position, long count, WritableByteChannel target) throws IOException {
+        long end = position + count;
+        while (position < end) {
+            long transferred = channel.transferTo(position, end - position, target);
+            if (transferred <= 0 && position >= channel.size()) {
+                throw new EOFException("File shrank while it was sent: " + (end - position) + " bytes missing");
+            }
+            position += transferred;
+        }
+    }
+
+    private static final class RegionInputStream extends InputStream {
+        private final FileChannel channel;
+        private final long end;
+        private final boolean closeChannel;
+        private long position;
+
+        private RegionInputStream(FileChannel channel, long position, long count, boolean closeChannel) {
+            this.channel = channel;
+            this.position = position;
+            this.end = position + count;
+            this.closeChannel = closeChannel;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (position >= end) {
+                return -1;
+            }
+            int read = channel.read(ByteBuffer.wrap(b, off, (int) Math.min(len, end - position)), position);
+            if (read < 0) {
+                throw new EOFException("File shrank while it was sent: " + (end - position) + " bytes missing");
+            }
+            position += read;
+            return read;
+        }
+
+        @Override
+        public long skip(long n) {
+            long skipped = Math.max(0, Math.min(n, end - position));
+            position += skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(Integer.MAX_VALUE, end - position);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closeChannel) {
+                channel.close();
+            }
+        }
+    }
+}
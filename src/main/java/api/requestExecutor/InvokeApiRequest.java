@@ -1,16 +1,94 @@
 package api.requestExecutor;
 
-import io.restassured.RestAssured;
+import api.requestExecutor.cache.CachingTransport;
+import api.requestExecutor.download.Download;
+import api.requestExecutor.download.DownloadResult;
+import api.requestExecutor.replay.RecordReplayTransport;
+import api.requestExecutor.replay.ReplayMode;
+import api.requestExecutor.resilience.HostProtectionTransport;
+import api.requestExecutor.resilience.RateLimitingTransport;
+import api.requestExecutor.retry.RetryingTransport;
+import api.requestExecutor.stream.EventStream;
+import api.requestExecutor.stream.EventStreamReader;
+import api.requestExecutor.stream.StreamFormat;
+import api.requestExecutor.stream.StreamResult;
+import api.requestExecutor.transport.HttpTransport;
+import api.requestExecutor.transport.HttpTransports;
+import api.requestExecutor.transport.RestAssuredResponses;
+import api.requestExecutor.transport.RestAssuredTransport;
 import io.restassured.config.SSLConfig;
 import io.restassured.http.Method;
 import io.restassured.response.Response;
-import io.restassured.specification.RequestSpecification;
 import unifiedReports.LoggerFactory;
 
-import java.time.Duration;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
 
 public class InvokeApiRequest {
+    private final HttpTransport transport;
+    private final HttpTransport sslTransport;
+    // undecorated transports for streamed responses, which are neither cached, recorded nor retried
+    private final HttpTransport streamingTransport;
+
+    /**
+     * Creates an executor backed by the shared transport selected with -Dunified.http.transport, see
+     * {@link HttpTransports}. Responses are recorded or replayed when -Dunified.replay.mode is set,
+     * see {@link RecordReplayTransport}, cached as described in {@link CachingTransport}, retried
+     * as configured for {@link RetryingTransport}, paced by {@link RateLimitingTransport} and guarded per
+     * host by {@link HostProtectionTransport}.
+     */
+    public InvokeApiRequest() {
+        this(HttpTransports.fromSystemProperties());
+    }
+
+    /**
+     * Creates an executor backed by the given transport. Responses are recorded or replayed when
+     * -Dunified.replay.mode is set, see {@link RecordReplayTransport}, cached as described in
+     * {@link CachingTransport} and retried as configured for {@link RetryingTransport}. Endpoint specific
+     * retry and hedging policies are applied by passing a RetryingTransport built around the transport; it
+     * replaces the retries configured with system properties and is placed above rate limiting and host
+     * protection, so each of its attempts is paced and passes the circuit breaker.
+     * @param transport - transport used for every request without an SSL configuration
+     */
+    public InvokeApiRequest(HttpTransport transport) {
+        this.transport = decorate(transport, null, null);
+        this.sslTransport = decorate(RestAssuredTransport.getInstance(), null, null);
+        this.streamingTransport = transport instanceof RetryingTransport ? ((RetryingTransport) transport).getDelegate() : transport;
+    }
+
+    /**
+     * Creates an executor that records responses into, or replays them from, the given store file.
+     * @param mode - OFF, RECORD or REPLAY
+     * @param recordingFile - replay store shared by every executor using the same file
+     */
+    public InvokeApiRequest(ReplayMode mode, Path recordingFile) {
+        this.transport = decorate(HttpTransports.fromSystemProperties(), mode, recordingFile);
+        this.sslTransport = decorate(RestAssuredTransport.getInstance(), mode, recordingFile);
+        this.streamingTransport = HttpTransports.fromSystemProperties();
+    }
+
+    // host protection, rate limiting and retries sit closest to the wire, so every retry attempt is paced and
+    // passes the circuit breaker, and replayed and cached responses are never retried; a caller's
+    // RetryingTransport is moved to the same place
+    private static HttpTransport decorate(HttpTransport transport, ReplayMode replayMode, Path recordingFile) {
+        RetryingTransport retries = transport instanceof RetryingTransport ? (RetryingTransport) transport : null;
+        HttpTransport decorated = HostProtectionTransport.fromSystemProperties(retries != null ? retries.getDelegate() : transport);
+        decorated = RateLimitingTransport.fromSystemProperties(decorated);
+        decorated = retries != null ? retries.withDelegate(decorated) : RetryingTransport.fromSystemProperties(decorated);
+        decorated = replayMode == null
+                ? RecordReplayTransport.fromSystemProperties(decorated)
+                : RecordReplayTransport.newBuilder(decorated).mode(replayMode).storeFile(recordingFile).build();
+        return CachingTransport.fromSystemProperties(decorated);
+    }
+
     /**
      * Executes an API request with full flexibility and logs request/response details.
      *
@@ -26,24 +104,262 @@ public class InvokeApiRequest {
      * @return Rest Assured Response
      */
     public Response requestAsync(Method method, String contentType, String completeUrl, Map<String, String> defaultHeaders, Map<String, String> formParams, String requestPayload, Map<String, String> queryParams, Map<String, String> pathParams, SSLConfig sslConfig) {
-        long start = System.currentTimeMillis();
-        long duration = System.currentTimeMillis() - start;
-        RestAssured.reset();
-        RequestSpecification requestSpecification = RestAssured.given();
-        if (contentType != null) requestSpecification.contentType(contentType);
-        if (requestPayload != null) requestSpecification.body(requestPayload);
-        if (defaultHeaders != null) requestSpecification.headers(defaultHeaders);
-        if (formParams != null) requestSpecification.formParams(formParams);
-        if (queryParams != null) requestSpecification.queryParams(queryParams);
-        if (pathParams != null) requestSpecification.pathParams(pathParams);
-        if (sslConfig != null) requestSpecification.config(RestAssured.config().sslConfig(sslConfig));
-
-        Response response = requestSpecification.request(method, completeUrl);
+        ApiRequest request = ApiRequest.newBuilder(method, completeUrl)
+                .contentType(contentType)
+                .headers(defaultHeaders)
+                .formParams(formParams)
+                .body(requestPayload)
+                .queryParams(queryParams)
+                .pathParams(pathParams)
+                .sslConfig(sslConfig)
+                .build();
+        return execute(request);
+    }
+
+    /**
+     * Variant of {@link #requestAsync} taking a pre-encoded or file-backed body, see {@link RequestBody}:
+     * RequestBody.ofBytes / ofByteBuffer bodies are sent without re-encoding, ofFile / ofFileChannel and multipart bodies
+     * (RequestBody.newMultipartBuilder) are streamed from disk on every send, so uploads of any size need no heap;
+     * RequestBody.ofStream bodies, e.g. bulk payloads from StreamingPayload, are generated while they are sent.
+     *
+     * @return Rest Assured Response
+     */
+    public Response requestAsync(Method method, String contentType, String completeUrl, Map<String, String> defaultHeaders, Map<String, String> formParams, RequestBody requestPayload, Map<String, String> queryParams, Map<String, String> pathParams, SSLConfig sslConfig) {
+        ApiRequest request = ApiRequest.newBuilder(method, completeUrl)
+                .contentType(contentType)
+                .headers(defaultHeaders)
+                .formParams(formParams)
+                .body(requestPayload)
+                .queryParams(queryParams)
+                .pathParams(pathParams)
+                .sslConfig(sslConfig)
+                .build();
+        return execute(request);
+    }
+
+    /**
+     * Non-blocking variant of {@link #requestAsync}. The request, console logging and report rendering run on a
+     * request worker thread (a virtual thread on Java 21+) or on the transport's own asynchronous client;
+     * the calling test thread returns immediately.
+     * Report entries are written once the test thread calls {@link #joinAll(List)} or its next blocking request.
+     *
+     * @return future completed with the Rest Assured Response
+     */
+    public CompletableFuture<Response> submitRequest(Method method, String contentType, String completeUrl, Map<String, String> defaultHeaders, Map<String, String> formParams, String requestPayload, Map<String, String> queryParams, Map<String, String> pathParams, SSLConfig sslConfig) {
+        ApiRequest request = ApiRequest.newBuilder(method, completeUrl)
+                .contentType(contentType)
+                .headers(defaultHeaders)
+                .formParams(formParams)
+                .body(requestPayload)
+                .queryParams(queryParams)
+                .pathParams(pathParams)
+                .sslConfig(sslConfig)
+                .build();
+        return executeAsync(request);
+    }
+
+    /**
+     * Non-blocking variant of {@link #requestAsync} taking a pre-encoded or file-backed body, see {@link RequestBody}.
+     *
+     * @return future completed with the Rest Assured Response
+     */
+    public CompletableFuture<Response> submitRequest(Method method, String contentType, String completeUrl, Map<String, String> defaultHeaders, Map<String, String> formParams, RequestBody requestPayload, Map<String, String> queryParams, Map<String, String> pathParams, SSLConfig sslConfig) {
+        ApiRequest request = ApiRequest.newBuilder(method, completeUrl)
+                .contentType(contentType)
+                .headers(defaultHeaders)
+                .formParams(formParams)
+                .body(requestPayload)
+                .queryParams(queryParams)
+                .pathParams(pathParams)
+                .sslConfig(sslConfig)
+                .build();
+        return executeAsync(request);
+    }
+
+    /**
+     * Executes a prepared API request and logs request/response details.
+     *
+     * @param request request definition
+     * @return Rest Assured Response
+     */
+    public Response execute(ApiRequest request) {
+        return call(request).getResponse();
+    }
+
+    /**
+     * Sends a request prepared for repeated execution and logs request/response details.
+     *
+     * @param request request with its body already encoded
+     * @return Rest Assured Response
+     */
+    public Response execute(PreparedRequest request) {
+        return execute(request.getRequest());
+    }
+
+    /**
+     * Executes a prepared API request on a request worker thread.
+     *
+     * @param request request definition
+     * @return future completed with the Rest Assured Response, or exceptionally if the call failed
+     */
+    public CompletableFuture<Response> executeAsync(ApiRequest request) {
+        return callAsync(request).thenApply(ApiCallResult::getResponse);
+    }
+
+    /**
+     * Sends a request prepared for repeated execution on a request worker thread.
+     *
+     * @param request request with its body already encoded
+     * @return future completed with the Rest Assured Response, or exceptionally if the call failed
+     */
+    public CompletableFuture<Response> executeAsync(PreparedRequest request) {
+        return executeAsync(request.getRequest());
+    }
+
+    /**
+     * Executes a prepared API request, logs request/response details and returns the response together with
+     * the per-phase timings (DNS, connect, TLS, time to first byte, download, logging overhead).
+     *
+     * @param request request definition
+     * @return response and timings
+     */
+    public ApiCallResult call(ApiRequest request) {
+        LoggerFactory.getApiReportLogger().flushPendingLogs();
+        return send(request, null);
+    }
+
+    /**
+     * Non-blocking variant of {@link #call(ApiRequest)}.
+     *
+     * @param request request definition
+     * @return future completed with the response and timings, or exceptionally if the call failed
+     */
+    public CompletableFuture<ApiCallResult> callAsync(ApiRequest request) {
+        return callAsync(request, LoggerFactory.getApiReportLogger().pendingLogsOfCurrentThread());
+    }
+
+    /**
+     * Non-blocking variant of {@link #call(ApiRequest)} for requests submitted from worker threads on behalf of a test,
+     * e.g. a step started when the steps it depends on complete.
+     *
+     * @param request request definition
+     * @param pendingReportLogs queue of the test thread, see {@link unifiedReports.requestLogger.APIReportLogger#pendingLogsOfCurrentThread()}
+     * @return future completed with the response and timings, or exceptionally if the call failed
+     */
+    public CompletableFuture<ApiCallResult> callAsync(ApiRequest request, Queue<String> pendingReportLogs) {
+        return selectTransport(request).executeAsync(request).thenApply(result -> log(request, result, pendingReportLogs));
+    }
+
+    /**
+     * Streams a response body to a file or channel, computing its size and checksums on the fly, and verifies
+     * them against the download's expectations. The body is never buffered: the report and console show a
+     * one line summary (size, target, checksums, throughput) instead, or the beginning of a non-2xx body.
+     * Downloads go straight to the transport, without caching, record/replay, retries or rate limiting.
+     * Requests with an SSL configuration are buffered by Rest Assured before they are written.
+     *
+     * @param download download definition
+     * @return byte count, checksums and timings of the body
+     * @throws api.requestExecutor.download.DownloadVerificationException when an expectation is not met
+     */
+    public DownloadResult download(Download download) {
+        LoggerFactory.getApiReportLogger().flushPendingLogs();
+        ApiRequest request = download.getRequest();
+        DownloadResult result;
+        try (StreamedResponse response = selectStreamingTransport(request).open(request)) {
+            result = download.transfer(response);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Download failed: " + request.getMethod() + " " + request.getUrl(), e);
+        }
+        // the summary stands in for the body, so the loggers never see the downloaded bytes
+        Response summary = RestAssuredResponses.of(result.getStatusCode(), result.getStatusLine(), result.getHeaders(),
+                result.toString().getBytes(StandardCharsets.UTF_8));
+        log(request, new ApiCallResult(summary, result.getTimings()), null);
+        download.verify(result);
+        return result;
+    }
+
+    /**
+     * Opens a streaming response for events pulled by the caller, see {@link EventStreamReader}. The call is not
+     * logged; use {@link #consumeStream(EventStream)} for logged consumption.
+     *
+     * @param request request opening the stream
+     * @param format  framing of the body, AUTO to choose it from the Content-Type
+     * @return reader to be closed by the caller
+     */
+    public EventStreamReader openStream(ApiRequest request, StreamFormat format) {
+        return EventStreamReader.of(selectStreamingTransport(request).open(request), format);
+    }
+
+    /**
+     * Consumes a streaming response (SSE, NDJSON or chunked) event by event until it closes or a stop condition of
+     * the stream is met, and logs the call with a summary (event count, stop reason, last event) as its body.
+     * Like downloads, streams bypass caching, record/replay, retries and rate limiting.
+     *
+     * @param stream stream definition
+     * @return stop reason, events and per-event timings
+     */
+    public StreamResult consumeStream(EventStream stream) {
+        LoggerFactory.getApiReportLogger().flushPendingLogs();
+        ApiRequest request = stream.getRequest();
+        StreamResult result;
+        try (EventStreamReader reader = openStream(request, stream.getFormat())) {
+            result = stream.consume(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Stream failed: " + request.getMethod() + " " + request.getUrl(), e);
+        }
+        Response summary = RestAssuredResponses.of(result.getStatusCode(), result.getStatusLine(), Collections.emptyList(),
+                result.toString().getBytes(StandardCharsets.UTF_8));
+        log(request, new ApiCallResult(summary, result.getTimings()), null);
+        return result;
+    }
+
+    /**
+     * Waits for all submitted requests and writes their report entries into the current test.
+     *
+     * @param futures futures returned by {@link #submitRequest} / {@link #executeAsync}
+     * @return responses in the order of the given futures
+     */
+    public List<Response> joinAll(List<CompletableFuture<Response>> futures) {
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+            List<Response> responses = new ArrayList<>(futures.size());
+            for (CompletableFuture<Response> future : futures) {
+                responses.add(future.join());
+            }
+            return responses;
+        } finally {
+            LoggerFactory.getApiReportLogger().flushPendingLogs();
+        }
+    }
+
+    private ApiCallResult send(ApiRequest request, Queue<String> pendingReportLogs) {
+        return log(request, selectTransport(request).execute(request), pendingReportLogs);
+    }
+
+    // client certificates are configured per Rest Assured specification, everything else goes through the transport
+    private HttpTransport selectTransport(ApiRequest request) {
+        return request.getSslConfig() != null ? sslTransport : transport;
+    }
+
+    // Rest Assured buffers the body, so requests with client certificates are streamed from memory
+    private HttpTransport selectStreamingTransport(ApiRequest request) {
+        return request.getSslConfig() != null ? RestAssuredTransport.getInstance() : streamingTransport;
+    }
+
+    private ApiCallResult log(ApiRequest request, ApiCallResult result, Queue<String> pendingReportLogs) {
+        Response response = result.getResponse();
+        RequestTimings timings = result.getTimings();
+        long loggingStart = System.nanoTime();
         // log to console
-        LoggerFactory.getApiConsoleLogger().logRequest(method, completeUrl, defaultHeaders, requestPayload, queryParams, pathParams, response, duration);
-        // log to Allure report
-        LoggerFactory.getApiReportLogger().logApiDetails(method.name(), completeUrl, requestPayload, response.getStatusCode(), response.getBody().asString(), String.valueOf(response.getStatusCode()).startsWith("2"), duration);
+        LoggerFactory.getApiConsoleLogger().logRequest(request.getMethod(), request.getUrl(), request.getHeaders(), request.getBody(), request.getQueryParams(), request.getPathParams(), response, timings);
+        // log to Allure report, or park the entry for the submitting test thread when running asynchronously
+        boolean isPassed = String.valueOf(response.getStatusCode()).startsWith("2");
+        if (pendingReportLogs == null) {
+            LoggerFactory.getApiReportLogger().logApiDetails(request.getMethod().name(), request.getUrl(), request.getBody(), response.getStatusCode(), result.getBody(), isPassed, timings);
+        } else {
+            LoggerFactory.getApiReportLogger().deferApiDetails(pendingReportLogs, request.getMethod().name(), request.getUrl(), request.getBody(), response.getStatusCode(), result.getBody(), isPassed, timings);
+        }
 
-        return response;
+        return result.withLoggingNanos(System.nanoTime() - loggingStart);
     }
 }
@@ -0,0 +1,38 @@
+package api.requestExecutor;
+
+/**
+ * Request ready to be sent any number of times without repeating per-send work: the body is encoded with
+ * the request's charset and the URI is resolved once, when the request is prepared. Replay mode
+ * fingerprints it once as well. Intended for load runs, polling and replayed suites that send the same
+ * request over and over.
+ */
+public final class PreparedRequest {
+    private final ApiRequest request;
+
+    private PreparedRequest(ApiRequest request) {
+        this.request = request;
+    }
+
+    /**
+     * Encodes the body and resolves the URI of the request.
+     * @param request - request definition; text bodies are encoded once, byte and streamed bodies are used as they are
+     * @return prepared request
+     */
+    public static PreparedRequest of(ApiRequest request) {
+        RequestBody body = request.getRequestBody();
+        if (body != null && !body.isStreamed()) {
+            body.toByteArray(request.getBodyCharset());
+        }
+        request.resolveUri();
+        return new PreparedRequest(request);
+    }
+
+    public ApiRequest getRequest() {
+        return request;
+    }
+
+    @Override
+    public String toString() {
+        return "PreparedRequest{" + request.getMethod() + " " + request.resolveUri() + (request.getRequestBody() != null ? ", " + request.getRequestBody() : "") + "}";
+    }
+}
@@ -0,0 +1,515 @@
+package api.requestExecutor;
+
+import api.requestBuilder.payloadCreation.StreamingPayload;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Immutable request body that is encoded at most once, however often the request is sent.
+ * <ul>
+ *   <li>text - encoded with the charset of the request's content type on first use, then cached</li>
+ *   <li>bytes - pre-encoded, sent as is</li>
+ *   <li>streamed - a file, a file channel region or a multipart/form-data body with file parts, written to the
+ *   connection with FileChannel.transferTo on every send and never held on heap</li>
+ *   <li>generated - produced by a stream opened on every send, e.g. a bulk payload rendered row by row; its
+ *   length is unknown, so it is sent with chunked transfer encoding</li>
+ * </ul>
+ */
+public final class RequestBody {
+    private final String text;
+    private final byte[] bytes;
+    private final List<BodySegment> segments;
+    private final Path file;
+    private final String contentType;
+    private final String description;
+    private final boolean replayable;
+    // last encoding of a text body, or decoding of a byte body for logging
+    private volatile Encoded encoded;
+
+    private RequestBody(String text, byte[] bytes) {
+        this.text = text;
+        this.bytes = bytes;
+        this.segments = null;
+        this.file = null;
+        this.contentType = null;
+        this.description = null;
+        this.replayable = true;
+    }
+
+    private RequestBody(List<BodySegment> segments, Path file, String contentType, String description) {
+        this(segments, file, contentType, description, true);
+    }
+
+    private RequestBody(List<BodySegment> segments, Path file, String contentType, String description, boolean replayable) {
+        this.text = null;
+        this.bytes = null;
+        this.segments = segments;
+        this.file = file;
+        this.contentType = contentType;
+        this.description = description;
+        this.replayable = replayable;
+    }
+
+    /**
+     * @param text - body text, encoded with the charset of the content type when sent
+     * @return body, or null for a null text
+     */
+    public static RequestBody ofString(String text) {
+        return text != null ? new RequestBody(text, null) : null;
+    }
+
+    /**
+     * @param bytes - encoded body; the array is not copied and must not be modified afterwards
+     * @return body, or null for a null array
+     */
+    public static RequestBody ofBytes(byte[] bytes) {
+        return bytes != null ? new RequestBody(null, bytes) : null;
+    }
+
+    /**
+     * @param buffer - encoded body between position and limit; copied once unless it wraps a whole array
+     * @return body, or null for a null buffer
+     */
+    public static RequestBody ofByteBuffer(ByteBuffer buffer) {
+        if (buffer == null) {
+            return null;
+        }
+        if (buffer.hasArray() && buffer.arrayOffset() + buffer.position() == 0 && buffer.remaining() == buffer.array().length) {
+            return new RequestBody(null, buffer.array());
+        }
+        byte[] copy = new byte[buffer.remaining()];
+        buffer.duplicate().get(copy);
+        return new RequestBody(null, copy);
+    }
+
+    /**
+     * @param file - file streamed as the body on every send
+     * @return body, or null for a null path
+     */
+    public static RequestBody ofFile(Path file) {
+        if (file == null) {
+            return null;
+        }
+        requireRegularFile(file);
+        BodySegment segment = BodySegment.ofFile(file);
+        return new RequestBody(Collections.singletonList(segment), file, null, null);
+    }
+
+    /**
+     * @param channel - open file channel; it is read with positional reads, so neither its position nor the
+     *                file is changed, and it must stay open as long as the request is sent
+     * @param position - offset of the first byte of the body
+     * @param count - number of bytes sent from the position
+     * @return body streamed from the channel region on every send
+     */
+    public static RequestBody ofFileChannel(FileChannel channel, long position, long count) {
+        if (position < 0 || count < 0) {
+            throw new IllegalArgumentException("Invalid channel region " + position + "+" + count);
+        }
+        return new RequestBody(Collections.singletonList(BodySegment.ofChannel(channel, position, count)), null, null, null);
+    }
+
+    /**
+     * @param channel - open file channel, sent from its current position to its end
+     * @return body streamed from the channel on every send
+     */
+    public static RequestBody ofFileChannel(FileChannel channel) {
+        try {
+            return ofFileChannel(channel, channel.position(), channel.size() - channel.position());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read the size of the channel", e);
+        }
+    }
+
+    /**
+     * @param source - opens a new stream over the body on every send; the stream is closed after sending and
+     *               may throw UncheckedIOException when it cannot be opened
+     * @param contentType - content type the body must be sent with, or null for the request's
+     * @param description - short description used in logs and replay fingerprints instead of the content
+     * @return body generated while it is sent, of unknown length
+     */
+    public static RequestBody ofStream(Supplier<? extends InputStream> source, String contentType, String description) {
+        return ofStream(source, contentType, description, true);
+    }
+
+    /**
+     * @param source - opens a new stream over the body on every send, as for {@link #ofStream(Supplier, String, String)}
+     * @param contentType - content type the body must be sent with, or null for the request's
+     * @param description - short description used in logs
+     * @param identifying - true when bodies of equal descriptions have equal content, so the description can key
+     *                    recorded responses; other bodies are neither recorded nor replayed
+     * @return body generated while it is sent, of unknown length
+     */
+    public static RequestBody ofStream(Supplier<? extends InputStream> source, String contentType, String description, boolean identifying) {
+        return new RequestBody(Collections.singletonList(BodySegment.ofGenerated(source, description)), null, contentType, description, identifying);
+    }
+
+    /**
+     * @param payload - bulk JSON array generated row by row, see StreamingPayload
+     * @return body sent with the request's content type, recorded and replayed only when the payload has an identity
+     */
+    public static RequestBody ofStream(StreamingPayload payload) {
+        return ofStream(payload, null);
+    }
+
+    /**
+     * @param payload - bulk JSON array generated row by row, see StreamingPayload
+     * @param contentType - content type the body must be sent with, or null for the request's
+     * @return body generated while it is sent, of unknown length
+     */
+    public static RequestBody ofStream(StreamingPayload payload, String contentType) {
+        return ofStream(payload::openStream, contentType, payload.getDescription(), payload.isIdentified());
+    }
+
+    /**
+     * Factory method to create a builder for a multipart/form-data body. File parts are streamed, only the part
+     * headers and text fields are kept in memory.
+     * @return a new MultipartBuilder instance
+     */
+    public static MultipartBuilder newMultipartBuilder() {
+        return new MultipartBuilder();
+    }
+
+    /**
+     * @return file the body is streamed from when the whole body is one file, otherwise null
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * @return true for file, channel, multipart and generated bodies, which are written by {@link #writeTo} or read through
+     * {@link #openStream} on every send and cannot be materialized with {@link #toByteArray}
+     */
+    public boolean isStreamed() {
+        return segments != null;
+    }
+
+    /**
+     * @return true for bodies given as text, which are encoded with the request's charset
+     */
+    public boolean isText() {
+        return text != null;
+    }
+
+    /**
+     * @return content type the body must be sent with (multipart bodies carry their boundary), otherwise null
+     */
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * @param charset - charset of the request's content type, used for text bodies
+     * @return encoded body; the returned array is shared and must not be modified
+     * @throws IllegalStateException for streamed bodies
+     */
+    public byte[] toByteArray(Charset charset) {
+        if (bytes != null) {
+            return bytes;
+        }
+        if (segments != null) {
+            throw new IllegalStateException("Streamed bodies are not materialized: " + this);
+        }
+        Encoded current = encoded;
+        if (current == null || !current.charset.equals(charset)) {
+            current = new Encoded(charset, text.getBytes(charset), text);
+            encoded = current;
+        }
+        return current.bytes;
+    }
+
+    /**
+     * @param charset - charset of the request's content type
+     * @return body length in bytes, -1 for generated bodies; file sizes are read when called
+     */
+    public long contentLength(Charset charset) {
+        if (segments == null) {
+            return toByteArray(charset).length;
+        }
+        long length = 0;
+        try {
+            for (BodySegment segment : segments) {
+                long segmentLength = segment.length();
+                if (segmentLength < 0) {
+                    return -1;
+                }
+                length += segmentLength;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read the size of " + this, e);
+        }
+        return length;
+    }
+
+    /**
+     * Writes the body to the target. File regions go through FileChannel.transferTo, which the JDK turns into
+     * a kernel copy when the target is a socket or file channel and into a bounded buffered copy otherwise.
+     * @param target - channel the body is written to; not closed
+     * @param charset - charset of the request's content type, used for text bodies
+     */
+    public void writeTo(WritableByteChannel target, Charset charset) throws IOException {
+        if (segments == null) {
+            ByteBuffer buffer = ByteBuffer.wrap(toByteArray(charset));
+            while (buffer.hasRemaining()) {
+                target.write(buffer);
+            }
+            return;
+        }
+        for (BodySegment segment : segments) {
+            segment.transferTo(target);
+        }
+    }
+
+    /**
+     * @param charset - charset of the request's content type, used for text bodies
+     * @return new stream over the body for clients that pull it; the caller closes it
+     */
+    public InputStream openStream(Charset charset) throws IOException {
+        if (segments == null) {
+            return new ByteArrayInputStream(toByteArray(charset));
+        }
+        return new SegmentsInputStream(segments);
+    }
+
+    /**
+     * @return false for generated bodies whose description does not identify their content; requests carrying
+     * them go to the network even when responses are replayed
+     */
+    public boolean isReplayable() {
+        return replayable;
+    }
+
+    /**
+     * @param charset - charset of the request's content type, used to decode byte bodies
+     * @return body text for logging and fingerprinting; a short description for streamed bodies
+     */
+    public String asString(Charset charset) {
+        if (text != null) {
+            return text;
+        }
+        if (segments != null) {
+            return "<" + (description != null ? description : segments.get(0).describe()) + ">";
+        }
+        Encoded current = encoded;
+        if (current == null || !current.charset.equals(charset)) {
+            current = new Encoded(charset, bytes, new String(bytes, charset));
+            encoded = current;
+        }
+        return current.text;
+    }
+
+    @Override
+    public String toString() {
+        if (segments != null) return "RequestBody{" + (description != null ? description : segments.get(0).describe()) + "}";
+        if (bytes != null) return "RequestBody{" + bytes.length + " bytes}";
+        return "RequestBody{" + text.length() + " chars}";
+    }
+
+    private static void requireRegularFile(Path file) {
+        if (!Files.isRegularFile(file)) {
+            throw new IllegalArgumentException("Not a readable file: " + file);
+        }
+    }
+
+    /**
+     * Builder of a multipart/form-data body (RFC 7578). Parts are sent in the order they are added.
+     */
+    public static final class MultipartBuilder {
+        private static final byte[] CRLF = {'\r', '\n'};
+
+        private final List<Part> parts = new ArrayList<>();
+        private String boundary;
+
+        private MultipartBuilder() {
+        }
+
+        /**
+         * Adds a text field, encoded as UTF-8.
+         * @param name - form field name
+         * @param value - field value
+         */
+        public MultipartBuilder field(String name, String value) {
+            parts.add(new Part(name, null, null, value.getBytes(StandardCharsets.UTF_8), null, name + "=" + value));
+            return this;
+        }
+
+        /**
+         * Adds a file part named after the file, with the content type probed from the file name.
+         * @param name - form field name
+         * @param file - file streamed as the part content
+         */
+        public MultipartBuilder file(String name, Path file) {
+            String contentType;
+            try {
+                contentType = Files.probeContentType(file);
+            } catch (IOException e) {
+                contentType = null;
+            }
+            return file(name, file, file.getFileName().toString(), contentType != null ? contentType : "application/octet-stream");
+        }
+
+        /**
+         * @param name - form field name
+         * @param file - file streamed as the part content
+         * @param filename - file name sent to the server
+         * @param contentType - content type of the part
+         */
+        public MultipartBuilder file(String name, Path file, String filename, String contentType) {
+            requireRegularFile(file);
+            parts.add(new Part(name, filename, contentType, null, BodySegment.ofFile(file), name + "=" + filename));
+            return this;
+        }
+
+        /**
+         * @param name - form field name
+         * @param content - part content; the array is not copied
+         * @param filename - file name sent to the server
+         * @param contentType - content type of the part
+         */
+        public MultipartBuilder bytes(String name, byte[] content, String filename, String contentType) {
+            parts.add(new Part(name, filename, contentType, content, null, name + "=" + filename + " (" + content.length + " bytes)"));
+            return this;
+        }
+
+        /**
+         * @param boundary - part delimiter, random by default; it is not part of logs or replay fingerprints
+         */
+        public MultipartBuilder boundary(String boundary) {
+            this.boundary = boundary;
+            return this;
+        }
+
+        public RequestBody build() {
+            if (parts.isEmpty()) {
+                throw new IllegalArgumentException("A multipart body needs at least one part");
+            }
+            String delimiter = boundary != null ? boundary : "----unified" + Long.toHexString(ThreadLocalRandom.current().nextLong());
+            // consecutive in-memory pieces are merged so that a file part is surrounded by just two small buffers
+            List<BodySegment> segments = new ArrayList<>();
+            ByteArrayOutputStream pending = new ByteArrayOutputStream();
+            List<String> described = new ArrayList<>();
+            for (Part part : parts) {
+                StringBuilder head = new StringBuilder("--").append(delimiter).append("\r\n")
+                        .append("Content-Disposition: form-data; name=\"").append(escape(part.name)).append('"');
+                if (part.filename != null) head.append("; filename=\"").append(escape(part.filename)).append('"');
+                head.append("\r\n");
+                if (part.contentType != null) head.append("Content-Type: ").append(part.contentType).append("\r\n");
+                head.append("\r\n");
+                pending.writeBytes(head.toString().getBytes(StandardCharsets.UTF_8));
+                if (part.file != null) {
+                    segments.add(BodySegment.ofBytes(pending.toByteArray()));
+                    pending.reset();
+                    segments.add(part.file);
+                    described.add(part.description + " (" + part.file.describe() + ")");
+                } else {
+                    pending.writeBytes(part.content);
+                    described.add(part.description);
+                }
+                pending.writeBytes(CRLF);
+            }
+            pending.writeBytes(("--" + delimiter + "--\r\n").getBytes(StandardCharsets.UTF_8));
+            segments.add(BodySegment.ofBytes(pending.toByteArray()));
+            return new RequestBody(Collections.unmodifiableList(segments), null,
+                    "multipart/form-data; boundary=" + delimiter, "multipart/form-data: " + String.join(", ", described));
+        }
+
+        // quotes and line breaks are percent-encoded as browsers do
+        private static String escape(String value) {
+            return value.replace("\"", "%22").replace("\r", "%0D").replace("\n", "%0A");
+        }
+    }
+
+    private static final class Part {
+        private final String name;
+        private final String filename;
+        private final String contentType;
+        private final byte[] content;
+        private final BodySegment file;
+        private final String description;
+
+        private Part(String name, String filename, String contentType, byte[] content, BodySegment file, String description) {
+            this.name = name;
+            this.filename = filename;
+            this.contentType = contentType;
+            this.content = content;
+            this.file = file;
+            this.description = description;
+        }
+    }
+
+    // opens the segments one after the other, so at most one file is open at a time
+    private static final class SegmentsInputStream extends InputStream {
+        private final List<BodySegment> segments;
+        private int next;
+        private InputStream current;
+
+        private SegmentsInputStream(List<BodySegment> segments) {
+            this.segments = segments;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            while (true) {
+                if (current == null) {
+                    if (next == segments.size()) {
+                        return -1;
+                    }
+                    current = segments.get(next++).openStream();
+                }
+                int read = current.read(b, off, len);
+                if (read > 0) {
+                    return read;
+                }
+                current.close();
+                current = null;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (current != null) {
+                current.close();
+                current = null;
+            }
+            next = segments.size();
+        }
+    }
+
+    private static final class Encoded {
+        private final Charset charset;
+        private final byte[] bytes;
+        private final String text;
+
+        private Encoded(Charset charset, byte[] bytes, String text) {
+            this.charset = charset;
+            this.bytes = bytes;
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package api.requestExecutor;
+
+/**
+ * Per-phase timings of one API call. Phases that did not happen (DNS, connect and TLS on a reused
+ * pooled connection) or that the transport cannot observe are reported as 0.
+ * <ul>
+ *   <li>dns - host name resolution</li>
+ *   <li>connect - TCP connect</li>
+ *   <li>tls - TLS handshake</li>
+ *   <li>ttfb - from sending the request on an open connection until the response headers arrived</li>
+ *   <li>download - reading the response body</li>
+ *   <li>total - complete transport time, from issuing the request to the converted response</li>
+ *   <li>logging - console and report logging done by InvokeApiRequest after the call</li>
+ * </ul>
+ */
+public final class RequestTimings {
+    private final long dnsNanos;
+    private final long connectNanos;
+    private final long tlsNanos;
+    private final long ttfbNanos;
+    private final long downloadNanos;
+    private final long totalNanos;
+    private final long loggingNanos;
+    private final boolean connectionReused;
+
+    private RequestTimings(long dnsNanos, long connectNanos, long tlsNanos, long ttfbNanos, long downloadNanos,
+                           long totalNanos, long loggingNanos, boolean connectionReused) {
+        this.dnsNanos = dnsNanos;
+        this.connectNanos = connectNanos;
+        this.tlsNanos = tlsNanos;
+        this.ttfbNanos = ttfbNanos;
+        this.downloadNanos = downloadNanos;
+        this.totalNanos = totalNanos;
+        this.loggingNanos = loggingNanos;
+        this.connectionReused = connectionReused;
+    }
+
+    /**
+     * Creates timings for a call whose phases were all observed by the transport.
+     */
+    public static RequestTimings of(long dnsNanos, long connectNanos, long tlsNanos, long ttfbNanos, long downloadNanos,
+                                    long totalNanos, boolean connectionReused) {
+        return new RequestTimings(dnsNanos, connectNanos, tlsNanos, ttfbNanos, downloadNanos, totalNanos, 0, connectionReused);
+    }
+
+    /**
+     * Creates timings for a transport that can only measure the complete call.
+     */
+    public static RequestTimings totalOnly(long totalNanos) {
+        return new RequestTimings(0, 0, 0, 0, 0, totalNanos, 0, false);
+    }
+
+    /**
+     * @param loggingNanos - time spent logging the call
+     * @return copy of these timings including the logging overhead
+     */
+    public RequestTimings withLoggingNanos(long loggingNanos) {
+        return new RequestTimings(dnsNanos, connectNanos, tlsNanos, ttfbNanos, downloadNanos, totalNanos, loggingNanos, connectionReused);
+    }
+
+    public double getDnsMillis() {
+        return toMillis(dnsNanos);
+    }
+
+    public double getConnectMillis() {
+        return toMillis(connectNanos);
+    }
+
+    public double getTlsMillis() {
+        return toMillis(tlsNanos);
+    }
+
+    public double getTtfbMillis() {
+        return toMillis(ttfbNanos);
+    }
+
+    public double getDownloadMillis() {
+        return toMillis(downloadNanos);
+    }
+
+    public double getTotalMillis() {
+        return toMillis(totalNanos);
+    }
+
+    public double getLoggingMillis() {
+        return toMillis(loggingNanos);
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * @return true when the call ran on a pooled connection that was already open
+     */
+    public boolean isConnectionReused() {
+        return connectionReused;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("dns=%.2fms connect=%.2fms tls=%.2fms ttfb=%.2fms download=%.2fms total=%.2fms%s",
+                getDnsMillis(), getConnectMillis(), getTlsMillis(), getTtfbMillis(), getDownloadMillis(), getTotalMillis(),
+                connectionReused ? " (reused connection)" : "");
+    }
+}
@@ -0,0 +1,121 @@
+package api.requestExecutor;
+
+import io.restassured.http.Header;
+import unifiedUtils.ResponseBodyBuffer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Response whose body has not been read yet: status and headers are available as soon as they arrive and the
+ * body is consumed incrementally from {@link #getBody()}. Closing the response before the body is exhausted
+ * aborts the transfer instead of draining it, so a stream can be left as soon as the expected data arrived.
+ */
+public final class StreamedResponse implements AutoCloseable {
+    private final int statusCode;
+    private final String statusLine;
+    private final List<Header> headers;
+    private final InputStream body;
+    private final Closeable connection;
+    private final long startNanos;
+    private final long headersNanos;
+
+    /**
+     * @param statusCode - HTTP status code
+     * @param statusLine - status line, e.g. "HTTP/1.1 200 OK"
+     * @param headers - response headers in wire order
+     * @param body - unread body
+     * @param connection - closed instead of the body, aborting the exchange if the body was not read to its end;
+     *                   null when closing the body does that already
+     * @param startNanos - System.nanoTime() when the request was sent
+     */
+    public StreamedResponse(int statusCode, String statusLine, List<Header> headers, InputStream body, Closeable connection, long startNanos) {
+        this.statusCode = statusCode;
+        this.statusLine = statusLine;
+        this.headers = Collections.unmodifiableList(headers);
+        this.body = body;
+        this.connection = connection;
+        this.startNanos = startNanos;
+        this.headersNanos = System.nanoTime();
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public String getStatusLine() {
+        return statusLine;
+    }
+
+    public List<Header> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * @param name - header name, case-insensitive
+     * @return first value of the header, or null
+     */
+    public String getHeader(String name) {
+        for (Header header : headers) {
+            if (header.getName().equalsIgnoreCase(name)) return header.getValue();
+        }
+        return null;
+    }
+
+    public String getContentType() {
+        return getHeader("Content-Type");
+    }
+
+    /**
+     * @return charset of the Content-Type, UTF-8 when absent
+     */
+    public Charset getCharset() {
+        return ResponseBodyBuffer.charsetOf(getContentType());
+    }
+
+    /**
+     * @return announced body length, -1 when unknown (chunked or streamed responses)
+     */
+    public long getContentLength() {
+        String length = getHeader("Content-Length");
+        try {
+            return length != null ? Long.parseLong(length.trim()) : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * @return unread body; read it once, from a single thread
+     */
+    public InputStream getBody() {
+        return body;
+    }
+
+    /**
+     * @return System.nanoTime() when the request was sent
+     */
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    /**
+     * @return time from sending the request until the response headers arrived
+     */
+    public long getTimeToHeadersNanos() {
+        return headersNanos - startNanos;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (connection != null) {
+            connection.close();
+        } else {
+            body.close();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package api.requestExecutor.cache;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Parsed Cache-Control header; directive names are case-insensitive.
+ */
+final class CacheControl {
+    private static final CacheControl EMPTY = new CacheControl(Map.of());
+
+    private final Map<String, String> directives;
+
+    private CacheControl(Map<String, String> directives) {
+        this.directives = directives;
+    }
+
+    /**
+     * @param headerValue - Cache-Control header value, may be null
+     * @return parsed directives
+     */
+    static CacheControl parse(String headerValue) {
+        if (headerValue == null || headerValue.isBlank()) {
+            return EMPTY;
+        }
+        Map<String, String> directives = new HashMap<>();
+        for (String directive : headerValue.split(",")) {
+            int separator = directive.indexOf('=');
+            String name = (separator < 0 ? directive : directive.substring(0, separator)).trim().toLowerCase(Locale.ROOT);
+            String value = separator < 0 ? "" : directive.substring(separator + 1).trim().replace("\"", "");
+            if (!name.isEmpty()) directives.put(name, value);
+        }
+        return new CacheControl(directives);
+    }
+
+    boolean has(String directive) {
+        return directives.containsKey(directive);
+    }
+
+    /**
+     * @return value of a delta-seconds directive such as max-age, or -1 when absent or malformed
+     */
+    long seconds(String directive) {
+        String value = directives.get(directive);
+        if (value == null || value.isEmpty()) return -1;
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package api.requestExecutor.cache;
+
+import api.requestExecutor.transport.RestAssuredResponses;
+import io.restassured.http.Header;
+import io.restassured.response.Response;
+import org.apache.hc.client5.http.utils.DateUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable cache entry: the response as received plus the freshness and validators derived from its headers.
+ */
+final class CachedResponse {
+    private static final int HEADER_OVERHEAD_BYTES = 32;
+
+    private final int statusCode;
+    private final String statusLine;
+    private final List<Header> headers;
+    private final byte[] body;
+    private final Map<String, String> varyValues;
+    private final long freshUntilMillis;
+    private final boolean alwaysRevalidate;
+    private final boolean memoized;
+    private final long sizeBytes;
+
+    private CachedResponse(int statusCode, String statusLine, List<Header> headers, byte[] body, Map<String, String> varyValues,
+                           long freshUntilMillis, boolean alwaysRevalidate, boolean memoized) {
+        this.statusCode = statusCode;
+        this.statusLine = statusLine;
+        this.headers = List.copyOf(headers);
+        this.body = body;
+        this.varyValues = varyValues;
+        this.freshUntilMillis = freshUntilMillis;
+        this.alwaysRevalidate = alwaysRevalidate;
+        this.memoized = memoized;
+        long size = body.length;
+        for (Header header : headers) {
+            size += HEADER_OVERHEAD_BYTES + header.getName().length() + header.getValue().length();
+        }
+        this.sizeBytes = size;
+    }
+
+    /**
+     * Creates an entry for a memoized request; it never expires.
+     * @param varyValues - values of the request headers named by the Vary response header
+     */
+    static CachedResponse memoized(int statusCode, String statusLine, List<Header> headers, byte[] body, Map<String, String> varyValues) {
+        return new CachedResponse(statusCode, statusLine, headers, body, varyValues, Long.MAX_VALUE, false, true);
+    }
+
+    /**
+     * Creates an entry following HTTP caching rules.
+     * @param varyValues - values of the request headers named by the Vary response header
+     * @param nowMillis - time the response was received
+     * @return entry, or null when the response must not be stored
+     */
+    static CachedResponse http(int statusCode, String statusLine, List<Header> headers, byte[] body,
+                               Map<String, String> varyValues, long nowMillis) {
+        if (statusCode != 200 && statusCode != 203) {
+            return null;
+        }
+        CacheControl cacheControl = CacheControl.parse(headerValue(headers, "Cache-Control"));
+        if (cacheControl.has("no-store") || "*".equals(headerValue(headers, "Vary"))) {
+            return null;
+        }
+        long lifetimeMillis = freshnessLifetimeMillis(cacheControl, headers);
+        boolean hasValidators = headerValue(headers, "ETag") != null || headerValue(headers, "Last-Modified") != null;
+        if (lifetimeMillis <= 0 && !hasValidators) {
+            // nothing to serve without going to the server, and nothing to revalidate with
+            return null;
+        }
+        boolean alwaysRevalidate = cacheControl.has("no-cache");
+        return new CachedResponse(statusCode, statusLine, headers, body, varyValues, nowMillis + Math.max(lifetimeMillis, 0),
+                alwaysRevalidate, false);
+    }
+
+    /**
+     * Applies a 304 Not Modified: headers sent with it replace the stored ones and freshness is recomputed.
+     * @return refreshed entry, or null when the updated headers forbid storing it
+     */
+    CachedResponse revalidated(List<Header> notModifiedHeaders, long nowMillis) {
+        List<Header> merged = new ArrayList<>();
+        for (Header header : headers) {
+            if (headerValue(notModifiedHeaders, header.getName()) == null) merged.add(header);
+        }
+        merged.addAll(notModifiedHeaders);
+        return http(statusCode, statusLine, merged, body, varyValues, nowMillis);
+    }
+
+    boolean isFresh(long nowMillis) {
+        return !alwaysRevalidate && nowMillis < freshUntilMillis;
+    }
+
+    boolean isMemoized() {
+        return memoized;
+    }
+
+    String getETag() {
+        return headerValue(headers, "ETag");
+    }
+
+    String getLastModified() {
+        return headerValue(headers, "Last-Modified");
+    }
+
+    Map<String, String> getVaryValues() {
+        return varyValues;
+    }
+
+    long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    /**
+     * @return a new Rest Assured Response for every hit, so callers on different threads never share one
+     */
+    Response toResponse() {
+        return RestAssuredResponses.of(statusCode, statusLine, headers, body);
+    }
+
+    // max-age wins over Expires; the Age header accounts for time already spent in intermediary caches
+    private static long freshnessLifetimeMillis(CacheControl cacheControl, List<Header> headers) {
+        long age = parseSeconds(headerValue(headers, "Age"));
+        long maxAge = cacheControl.seconds("max-age");
+        if (maxAge >= 0) {
+            return (maxAge - Math.max(age, 0)) * 1000;
+        }
+        String expires = headerValue(headers, "Expires");
+        if (expires != null) {
+            Instant expiresAt = DateUtils.parseStandardDate(expires);
+            if (expiresAt == null) return 0; // invalid dates such as "0" mean already expired
+            String date = headerValue(headers, "Date");
+            Instant dateAt = date != null ? DateUtils.parseStandardDate(date) : null;
+            return expiresAt.toEpochMilli() - (dateAt != null ? dateAt.toEpochMilli() : System.currentTimeMillis());
+        }
+        return 0;
+    }
+
+    private static long parseSeconds(String value) {
+        if (value == null) return -1;
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    static String headerValue(List<Header> headers, String name) {
+        for (Header header : headers) {
+            if (header.getName().equalsIgnoreCase(name)) return header.getValue();
+        }
+        return null;
+    }
+}
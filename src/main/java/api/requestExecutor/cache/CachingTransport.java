@@ -0,0 +1,331 @@
+package api.requestExecutor.cache;
+
+import api.requestExecutor.ApiCallResult;
+import api.requestExecutor.ApiRequest;
+import api.requestExecutor.RequestTimings;
+import api.requestExecutor.transport.HttpTransport;
+import io.restassured.http.Header;
+import io.restassured.http.Method;
+import io.restassured.response.Response;
+import unifiedUtils.ResponseBodyBuffer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Transport decorator serving GET responses from a {@link ResponseCache}.
+ * <ul>
+ *   <li>Memoized requests ({@link ApiRequest.Builder#memoize()}) are fetched once per suite and then always
+ *   served from the cache; concurrent first calls share a single fetch.</li>
+ *   <li>When HTTP caching is enabled, other GET responses are cached according to Cache-Control, Expires
+ *   and Vary, and stale entries are revalidated with If-None-Match / If-Modified-Since.</li>
+ * </ul>
+ * Entries are keyed by the resolved URI and every request header except conditional and cache directive headers
+ * (see {@link #KEY_EXCLUDED_HEADERS}), so callers authenticating with Authorization, Cookie, API key or tenant
+ * headers, or asking for a different Accept, never see each other's responses. Requests carrying per-call headers
+ * such as trace ids therefore only hit entries of identical calls. Memoized and HTTP entries both also check the
+ * request headers named by Vary.
+ */
+public final class CachingTransport implements HttpTransport {
+    // headers that control caching itself rather than select the response, lower case
+    static final Set<String> KEY_EXCLUDED_HEADERS = Set.of("cache-control", "pragma", "if-none-match", "if-modified-since",
+            "if-match", "if-unmodified-since", "if-range", "connection");
+
+    private final HttpTransport delegate;
+    private final ResponseCache cache;
+    private final boolean httpCaching;
+
+    private CachingTransport(Builder builder) {
+        this.delegate = builder.delegate;
+        this.cache = builder.cache != null ? builder.cache : ResponseCache.getSharedInstance();
+        this.httpCaching = builder.httpCaching;
+    }
+
+    /**
+     * Factory method to create a builder wrapping the given transport.
+     * @param delegate - transport used on cache misses and revalidations
+     * @return a new Builder instance
+     */
+    public static Builder newBuilder(HttpTransport delegate) {
+        return new Builder(delegate);
+    }
+
+    /**
+     * Wraps a transport with the shared cache. Memoized requests are always cached; HTTP caching of other
+     * GET requests is enabled with -Dunified.http.cache=true.
+     * @param delegate - transport used on cache misses and revalidations
+     * @return the delegate itself when it is already a CachingTransport, otherwise a new CachingTransport
+     */
+    public static HttpTransport fromSystemProperties(HttpTransport delegate) {
+        if (delegate instanceof CachingTransport) {
+            return delegate;
+        }
+        return newBuilder(delegate).httpCaching(Boolean.getBoolean("unified.http.cache")).build();
+    }
+
+    @Override
+    public ApiCallResult execute(ApiRequest request) {
+        if (request.isMemoized()) {
+            return executeMemoized(request);
+        }
+        if (!isHttpCached(request)) {
+            return delegate.execute(request);
+        }
+        long start = System.nanoTime();
+        String key = cacheKey(request);
+        CachedResponse cached = matching(cache.get(key), request);
+        if (isFreshFor(cached, request)) {
+            return hit(cached, start);
+        }
+        if (isRevalidatable(cached)) {
+            return revalidated(key, request, cached, delegate.execute(conditional(request, cached)));
+        }
+        cache.recordMiss();
+        return stored(key, request, delegate.execute(request));
+    }
+
+    /**
+     * Serves cache hits right away and sends misses and revalidations through the delegate's asynchronous
+     * call, so no thread waits for the network.
+     */
+    @Override
+    public CompletableFuture<ApiCallResult> executeAsync(ApiRequest request) {
+        if (request.isMemoized()) {
+            return executeMemoizedAsync(request);
+        }
+        if (!isHttpCached(request)) {
+            return delegate.executeAsync(request);
+        }
+        long start = System.nanoTime();
+        String key = cacheKey(request);
+        CachedResponse cached = matching(cache.get(key), request);
+        if (isFreshFor(cached, request)) {
+            return CompletableFuture.completedFuture(hit(cached, start));
+        }
+        if (isRevalidatable(cached)) {
+            return delegate.executeAsync(conditional(request, cached)).thenApply(result -> revalidated(key, request, cached, result));
+        }
+        cache.recordMiss();
+        return delegate.executeAsync(request).thenApply(result -> stored(key, request, result));
+    }
+
+    /**
+     * @return cache shared by this transport
+     */
+    public ResponseCache getCache() {
+        return cache;
+    }
+
+    private ApiCallResult executeMemoized(ApiRequest request) {
+        long start = System.nanoTime();
+        String key = memoKey(request);
+        CachedResponse cached = matching(cache.get(key), request);
+        if (cached == null) {
+            CompletableFuture<Void> loader = new CompletableFuture<>();
+            CompletableFuture<Void> currentLoader = cache.startLoading(key, loader);
+            if (currentLoader == null) {
+                try {
+                    cache.recordMiss();
+                    return memoized(key, request, delegate.execute(request));
+                } finally {
+                    cache.finishLoading(key, loader);
+                }
+            }
+            // another thread is fetching the same reference data; wait for it instead of sending a duplicate
+            currentLoader.join();
+            cached = matching(cache.get(key), request);
+            if (cached == null) {
+                return delegate.execute(request);
+            }
+        }
+        return hit(cached, start);
+    }
+
+    private CompletableFuture<ApiCallResult> executeMemoizedAsync(ApiRequest request) {
+        long start = System.nanoTime();
+        String key = memoKey(request);
+        CachedResponse cached = matching(cache.get(key), request);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(hit(cached, start));
+        }
+        CompletableFuture<Void> loader = new CompletableFuture<>();
+        CompletableFuture<Void> currentLoader = cache.startLoading(key, loader);
+        if (currentLoader == null) {
+            cache.recordMiss();
+            CompletableFuture<ApiCallResult> call;
+            try {
+                call = delegate.executeAsync(request);
+            } catch (RuntimeException e) {
+                cache.finishLoading(key, loader);
+                throw e;
+            }
+            return call.thenApply(result -> memoized(key, request, result))
+                    .whenComplete((result, failure) -> cache.finishLoading(key, loader));
+        }
+        // another call is fetching the same reference data; continue once it is done instead of sending a duplicate
+        return currentLoader.thenCompose(loaded -> {
+            CachedResponse entry = matching(cache.get(key), request);
+            return entry != null ? CompletableFuture.completedFuture(hit(entry, start)) : delegate.executeAsync(request);
+        });
+    }
+
+    private boolean isHttpCached(ApiRequest request) {
+        return httpCaching && request.getMethod() == Method.GET
+                && !CacheControl.parse(headerValue(request, "Cache-Control")).has("no-store");
+    }
+
+    private static boolean isFreshFor(CachedResponse cached, ApiRequest request) {
+        boolean forceRevalidation = CacheControl.parse(headerValue(request, "Cache-Control")).has("no-cache")
+                || "no-cache".equalsIgnoreCase(headerValue(request, "Pragma"));
+        return cached != null && !forceRevalidation && cached.isFresh(System.currentTimeMillis());
+    }
+
+    private static boolean isRevalidatable(CachedResponse cached) {
+        return cached != null && (cached.getETag() != null || cached.getLastModified() != null);
+    }
+
+    private static ApiRequest conditional(ApiRequest request, CachedResponse cached) {
+        ApiRequest.Builder conditional = request.toBuilder();
+        if (cached.getETag() != null) conditional.header("If-None-Match", cached.getETag());
+        if (cached.getLastModified() != null) conditional.header("If-Modified-Since", cached.getLastModified());
+        return conditional.build();
+    }
+
+    private ApiCallResult hit(CachedResponse cached, long start) {
+        cache.recordHit();
+        return new ApiCallResult(cached.toResponse(), RequestTimings.totalOnly(System.nanoTime() - start));
+    }
+
+    // a 304 refreshes the entry and serves its body, any other response replaces it
+    private ApiCallResult revalidated(String key, ApiRequest request, CachedResponse cached, ApiCallResult result) {
+        Response response = result.getResponse();
+        if (response.getStatusCode() != 304) {
+            store(key, request, response);
+            return result;
+        }
+        cache.recordRevalidation();
+        CachedResponse refreshed = cached.revalidated(response.getHeaders().asList(), System.currentTimeMillis());
+        if (refreshed != null) {
+            cache.put(key, refreshed);
+        } else {
+            cache.remove(key);
+        }
+        return new ApiCallResult(cached.toResponse(), result.getTimings());
+    }
+
+    private ApiCallResult stored(String key, ApiRequest request, ApiCallResult result) {
+        store(key, request, result.getResponse());
+        return result;
+    }
+
+    // failures are not memoized, the next call tries again
+    private ApiCallResult memoized(String key, ApiRequest request, ApiCallResult result) {
+        Response response = result.getResponse();
+        if (response.getStatusCode() >= 200 && response.getStatusCode() < 300) {
+            List<Header> headers = response.getHeaders().asList();
+            cache.put(key, CachedResponse.memoized(response.getStatusCode(), response.getStatusLine(),
+                    headers, ResponseBodyBuffer.of(response).bytes(), varyValues(request, headers)));
+        }
+        return result;
+    }
+
+    private void store(String key, ApiRequest request, Response response) {
+        List<Header> headers = response.getHeaders().asList();
+        CachedResponse cached = CachedResponse.http(response.getStatusCode(), response.getStatusLine(), headers,
+                ResponseBodyBuffer.of(response).bytes(), varyValues(request, headers), System.currentTimeMillis());
+        if (cached != null) {
+            cache.put(key, cached);
+        } else {
+            cache.remove(key);
+        }
+    }
+
+    // the entry when the request sends the header values its response varies on, otherwise null
+    private static CachedResponse matching(CachedResponse cached, ApiRequest request) {
+        if (cached != null && !cached.getVaryValues().equals(varyValues(request, cached.getVaryValues().keySet()))) {
+            return null;
+        }
+        return cached;
+    }
+
+    // values of the request headers named by the response's Vary header
+    private static Map<String, String> varyValues(ApiRequest request, List<Header> responseHeaders) {
+        String vary = CachedResponse.headerValue(responseHeaders, "Vary");
+        if (vary == null || vary.isBlank() || "*".equals(vary.trim())) {
+            return Map.of();
+        }
+        List<String> names = new ArrayList<>();
+        for (String name : vary.split(",")) {
+            names.add(name.trim().toLowerCase(Locale.ROOT));
+        }
+        return varyValues(request, names);
+    }
+
+    private static Map<String, String> varyValues(ApiRequest request, Iterable<String> names) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String name : names) {
+            values.put(name, Objects.toString(headerValue(request, name), ""));
+        }
+        return values;
+    }
+
+    private static String memoKey(ApiRequest request) {
+        return "memo " + cacheKey(request);
+    }
+
+    static String cacheKey(ApiRequest request) {
+        StringBuilder key = new StringBuilder(request.resolveUri().toASCIIString());
+        Map<String, String> headers = new TreeMap<>();
+        for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+            String name = header.getKey().toLowerCase(Locale.ROOT);
+            if (!KEY_EXCLUDED_HEADERS.contains(name)) headers.put(name, header.getValue());
+        }
+        headers.forEach((name, value) -> key.append('\n').append(name).append(": ").append(value));
+        return key.toString();
+    }
+
+    private static String headerValue(ApiRequest request, String name) {
+        for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+            if (header.getKey().equalsIgnoreCase(name)) return header.getValue();
+        }
+        return null;
+    }
+
+    public static final class Builder {
+        private final HttpTransport delegate;
+        private ResponseCache cache;
+        private boolean httpCaching;
+
+        private Builder(HttpTransport delegate) {
+            this.delegate = delegate;
+        }
+
+        /**
+         * @param cache - cache to use, the shared suite-wide cache by default
+         */
+        public Builder cache(ResponseCache cache) {
+            this.cache = cache;
+            return this;
+        }
+
+        /**
+         * @param httpCaching - cache GET responses following Cache-Control and revalidate stale entries;
+         *                    memoized requests are cached either way
+         */
+        public Builder httpCaching(boolean httpCaching) {
+            this.httpCaching = httpCaching;
+            return this;
+        }
+
+        public CachingTransport build() {
+            return new CachingTransport(this);
+        }
+    }
+}
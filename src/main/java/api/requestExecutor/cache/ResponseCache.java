@@ -0,0 +1,166 @@
+package api.requestExecutor.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, thread-safe LRU store of responses shared by {@link CachingTransport} instances.
+ * Both the number of entries and the total size of the cached bodies and headers are capped; the least
+ * recently used entries are evicted first.
+ */
+public final class ResponseCache {
+    private static volatile ResponseCache sharedInstance;
+
+    private final int maxEntries;
+    private final long maxBytes;
+    // access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, CachedResponse> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, CompletableFuture<Void>> loading = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder revalidations = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private long currentBytes;
+
+    private ResponseCache(Builder builder) {
+        this.maxEntries = builder.maxEntries;
+        this.maxBytes = builder.maxBytes;
+    }
+
+    /**
+     * Returns the suite-wide cache, sized with -Dunified.http.cache.maxEntries (default 1000) and
+     * -Dunified.http.cache.maxBytes (default 64 MiB).
+     * @return shared ResponseCache
+     */
+    public static ResponseCache getSharedInstance() {
+        if (sharedInstance == null) {
+            synchronized (ResponseCache.class) {
+                if (sharedInstance == null) {
+                    sharedInstance = newBuilder()
+                            .maxEntries(Integer.getInteger("unified.http.cache.maxEntries", 1000))
+                            .maxBytes(Long.getLong("unified.http.cache.maxBytes", 64L * 1024 * 1024))
+                            .build();
+                }
+            }
+        }
+        return sharedInstance;
+    }
+
+    /**
+     * Factory method to create a builder for a dedicated cache.
+     * @return a new Builder instance
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    synchronized CachedResponse get(String key) {
+        return entries.get(key);
+    }
+
+    synchronized void put(String key, CachedResponse response) {
+        if (response.getSizeBytes() > maxBytes) {
+            remove(key);
+            return;
+        }
+        CachedResponse previous = entries.put(key, response);
+        if (previous != null) currentBytes -= previous.getSizeBytes();
+        currentBytes += response.getSizeBytes();
+        Iterator<CachedResponse> eldest = entries.values().iterator();
+        while ((entries.size() > maxEntries || currentBytes > maxBytes) && eldest.hasNext()) {
+            CachedResponse evicted = eldest.next();
+            eldest.remove();
+            currentBytes -= evicted.getSizeBytes();
+            evictions.increment();
+        }
+    }
+
+    synchronized void remove(String key) {
+        CachedResponse removed = entries.remove(key);
+        if (removed != null) currentBytes -= removed.getSizeBytes();
+    }
+
+    /**
+     * Registers the calling thread as the loader of a key.
+     * @return null when the caller must load the entry and then call {@link #finishLoading}, otherwise
+     * a future completed once the current loader is done
+     */
+    CompletableFuture<Void> startLoading(String key, CompletableFuture<Void> loader) {
+        return loading.putIfAbsent(key, loader);
+    }
+
+    void finishLoading(String key, CompletableFuture<Void> loader) {
+        loading.remove(key, loader);
+        loader.complete(null);
+    }
+
+    void recordHit() {
+        hits.increment();
+    }
+
+    void recordMiss() {
+        misses.increment();
+    }
+
+    void recordRevalidation() {
+        revalidations.increment();
+    }
+
+    /**
+     * Drops every entry, including memoized ones.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        currentBytes = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return approximate size of the cached bodies and headers
+     */
+    public synchronized long getSizeBytes() {
+        return currentBytes;
+    }
+
+    /**
+     * @return entries, size, hits, misses, revalidations and evictions, for the console log
+     */
+    public String getStats() {
+        synchronized (this) {
+            return "entries=" + entries.size() + " bytes=" + currentBytes + " hits=" + hits.sum() + " misses=" + misses.sum()
+                    + " revalidated=" + revalidations.sum() + " evictions=" + evictions.sum();
+        }
+    }
+
+    public static final class Builder {
+        private int maxEntries = 1000;
+        private long maxBytes = 64L * 1024 * 1024;
+
+        private Builder() {
+        }
+
+        public Builder maxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+            return this;
+        }
+
+        /**
+         * @param maxBytes - cap on the total size of cached bodies and headers; larger responses are not cached
+         */
+        public Builder maxBytes(long maxBytes) {
+            this.maxBytes = maxBytes;
+            return this;
+        }
+
+        public ResponseCache build() {
+            return new ResponseCache(this);
+        }
+    }
+}
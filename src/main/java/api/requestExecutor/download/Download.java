@@ -0,0 +1,230 @@
+package api.requestExecutor.download;
+
+import api.requestExecutor.ApiRequest;
+import api.requestExecutor.RequestTimings;
+import api.requestExecutor.StreamedResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.zip.CRC32;
+
+/**
+ * Download of a response body that is streamed to a file, a channel or only through the digests, with
+ * SHA-256, CRC32 and the byte count computed incrementally. Memory use is bounded by the copy buffer
+ * however large the body is. Executed with {@link api.requestExecutor.InvokeApiRequest#download(Download)}.
+ */
+public final class Download {
+    // beginning of a non-2xx body kept for the logs and the result
+    private static final int ERROR_BODY_LIMIT = 64 * 1024;
+
+    private final ApiRequest request;
+    private final Path file;
+    private final WritableByteChannel channel;
+    private final boolean sha256;
+    private final boolean crc32;
+    private final long expectedSize;
+    private final String expectedSha256;
+    private final long expectedCrc32;
+    private final int bufferSize;
+
+    private Download(Builder builder) {
+        this.request = builder.request;
+        this.file = builder.file;
+        this.channel = builder.channel;
+        this.sha256 = builder.sha256 || builder.expectedSha256 != null;
+        this.crc32 = builder.crc32 || builder.expectedCrc32 >= 0;
+        this.expectedSize = builder.expectedSize;
+        this.expectedSha256 = builder.expectedSha256;
+        this.expectedCrc32 = builder.expectedCrc32;
+        this.bufferSize = builder.bufferSize;
+    }
+
+    /**
+     * Factory method to create a download builder. Without a target the body is only counted and digested.
+     * @param request - request whose response body is downloaded
+     * @return a new Builder instance
+     */
+    public static Builder newBuilder(ApiRequest request) {
+        return new Builder(request);
+    }
+
+    public ApiRequest getRequest() {
+        return request;
+    }
+
+    /**
+     * Reads the body of an open response into the target. Non-2xx bodies are not written; their beginning is
+     * kept as the error body and the rest is discarded when the response is closed.
+     * @param response - response opened for the request; not closed
+     * @return byte count and checksums of the body
+     */
+    public DownloadResult transfer(StreamedResponse response) throws IOException {
+        InputStream body = response.getBody();
+        if (response.getStatusCode() < 200 || response.getStatusCode() >= 300) {
+            byte[] start = body.readNBytes(ERROR_BODY_LIMIT);
+            return result(response, null, start.length, null, -1, new String(start, response.getCharset()));
+        }
+        MessageDigest sha = sha256 ? sha256Digest() : null;
+        CRC32 crc = crc32 ? new CRC32() : null;
+        byte[] buffer = new byte[bufferSize];
+        long count = 0;
+        WritableByteChannel target = file != null ? openFile() : channel;
+        try {
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                if (sha != null) sha.update(buffer, 0, read);
+                if (crc != null) crc.update(buffer, 0, read);
+                if (target != null) {
+                    ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                    while (chunk.hasRemaining()) {
+                        target.write(chunk);
+                    }
+                }
+                count += read;
+            }
+        } finally {
+            // a caller's channel stays open, e.g. to append further downloads
+            if (file != null) target.close();
+        }
+        return result(response, file, count, sha != null ? HexFormat.of().formatHex(sha.digest()) : null, crc != null ? crc.getValue() : -1, null);
+    }
+
+    /**
+     * @param result - result of {@link #transfer}
+     * @throws DownloadVerificationException when the status, size or a checksum differs from the expectation
+     */
+    public void verify(DownloadResult result) {
+        boolean expectations = expectedSize >= 0 || expectedSha256 != null || expectedCrc32 >= 0;
+        if (expectations && !result.isSuccessful()) {
+            throw new DownloadVerificationException("Download of " + request.getUrl() + " failed: " + result.getStatusLine(), result);
+        }
+        if (expectedSize >= 0 && result.getByteCount() != expectedSize) {
+            throw new DownloadVerificationException("Download of " + request.getUrl() + " has " + result.getByteCount()
+                    + " bytes, expected " + expectedSize, result);
+        }
+        if (expectedSha256 != null && !expectedSha256.equalsIgnoreCase(result.getSha256())) {
+            throw new DownloadVerificationException("Download of " + request.getUrl() + " has SHA-256 " + result.getSha256()
+                    + ", expected " + expectedSha256.toLowerCase(), result);
+        }
+        if (expectedCrc32 >= 0 && result.getCrc32() != expectedCrc32) {
+            throw new DownloadVerificationException("Download of " + request.getUrl() + " has CRC32 " + Long.toHexString(result.getCrc32())
+                    + ", expected " + Long.toHexString(expectedCrc32), result);
+        }
+    }
+
+    private WritableByteChannel openFile() throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    }
+
+    private static DownloadResult result(StreamedResponse response, Path file, long count, String sha, long crc, String errorBody) {
+        long total = System.nanoTime() - response.getStartNanos();
+        long headers = response.getTimeToHeadersNanos();
+        return new DownloadResult(response.getStatusCode(), response.getStatusLine(), response.getHeaders(), file, count, sha, crc,
+                RequestTimings.of(0, 0, 0, headers, total - headers, total, false), errorBody);
+    }
+
+    private static MessageDigest sha256Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public static final class Builder {
+        private final ApiRequest request;
+        private Path file;
+        private WritableByteChannel channel;
+        private boolean sha256 = true;
+        private boolean crc32 = true;
+        private long expectedSize = -1;
+        private String expectedSha256;
+        private long expectedCrc32 = -1;
+        private int bufferSize = 256 * 1024;
+
+        private Builder(ApiRequest request) {
+            if (request == null) {
+                throw new IllegalArgumentException("Request is mandatory");
+            }
+            this.request = request;
+        }
+
+        /**
+         * @param file - file the body is written to; created with its parent directories, replaced if it exists
+         */
+        public Builder toFile(Path file) {
+            this.file = file;
+            this.channel = null;
+            return this;
+        }
+
+        /**
+         * @param channel - channel the body is written to, e.g. a digesting or counting sink; not closed
+         */
+        public Builder toChannel(WritableByteChannel channel) {
+            this.channel = channel;
+            this.file = null;
+            return this;
+        }
+
+        /**
+         * @param sha256 - compute the SHA-256 of the body, on by default
+         */
+        public Builder sha256(boolean sha256) {
+            this.sha256 = sha256;
+            return this;
+        }
+
+        /**
+         * @param crc32 - compute the CRC32 of the body, on by default
+         */
+        public Builder crc32(boolean crc32) {
+            this.crc32 = crc32;
+            return this;
+        }
+
+        public Builder expectSize(long bytes) {
+            this.expectedSize = bytes;
+            return this;
+        }
+
+        /**
+         * @param sha256 - expected hex SHA-256, case-insensitive
+         */
+        public Builder expectSha256(String sha256) {
+            this.expectedSha256 = sha256;
+            return this;
+        }
+
+        public Builder expectCrc32(long crc32) {
+            this.expectedCrc32 = crc32;
+            return this;
+        }
+
+        /**
+         * @param bufferSize - copy buffer size in bytes, 256 KB by default
+         */
+        public Builder bufferSize(int bufferSize) {
+            if (bufferSize <= 0) {
+                throw new IllegalArgumentException("Buffer size must be positive: " + bufferSize);
+            }
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        public Download build() {
+            return new Download(this);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package api.requestExecutor.download;
+
+import api.requestExecutor.RequestTimings;
+import io.restassured.http.Header;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Outcome of a streamed download: status, headers, byte count and the checksums computed while the body
+ * was written. The body itself is not kept, except the beginning of an error response.
+ */
+public final class DownloadResult {
+    private final int statusCode;
+    private final String statusLine;
+    private final List<Header> headers;
+    private final Path file;
+    private final long byteCount;
+    private final String sha256;
+    private final long crc32;
+    private final RequestTimings timings;
+    private final String errorBody;
+
+    DownloadResult(int statusCode, String statusLine, List<Header> headers, Path file, long byteCount, String sha256,
+                   long crc32, RequestTimings timings, String errorBody) {
+        this.statusCode = statusCode;
+        this.statusLine = statusLine;
+        this.headers = headers;
+        this.file = file;
+        this.byteCount = byteCount;
+        this.sha256 = sha256;
+        this.crc32 = crc32;
+        this.timings = timings;
+        this.errorBody = errorBody;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public String getStatusLine() {
+        return statusLine;
+    }
+
+    public List<Header> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * @return true for 2xx responses, whose body was written to the target
+     */
+    public boolean isSuccessful() {
+        return statusCode >= 200 && statusCode < 300;
+    }
+
+    /**
+     * @return file the body was written to, null when it went to a channel or was only digested
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * @return number of body bytes received
+     */
+    public long getByteCount() {
+        return byteCount;
+    }
+
+    /**
+     * @return lowercase hex SHA-256 of the body, null when not computed
+     */
+    public String getSha256() {
+        return sha256;
+    }
+
+    /**
+     * @return CRC32 of the body, -1 when not computed
+     */
+    public long getCrc32() {
+        return crc32;
+    }
+
+    /**
+     * @return time to the response headers (ttfb), body transfer (download) and total time of the call
+     */
+    public RequestTimings getTimings() {
+        return timings;
+    }
+
+    /**
+     * @return body bytes per second over the whole call
+     */
+    public double getBytesPerSecond() {
+        return timings.getTotalNanos() > 0 ? byteCount * 1_000_000_000.0 / timings.getTotalNanos() : 0;
+    }
+
+    /**
+     * @return beginning of the body of a non-2xx response, which is not written to the target; null otherwise
+     */
+    public String getErrorBody() {
+        return errorBody;
+    }
+
+    /**
+     * @return one line summary used as the logged response body
+     */
+    @Override
+    public String toString() {
+        if (!isSuccessful()) {
+            return errorBody != null ? errorBody : "";
+        }
+        StringBuilder sb = new StringBuilder("<").append(byteCount).append(" bytes");
+        if (file != null) sb.append(" written to ").append(file);
+        if (sha256 != null) sb.append(", sha256=").append(sha256);
+        if (crc32 >= 0) sb.append(", crc32=").append(Long.toHexString(crc32));
+        return sb.append(String.format(", %.1f MB/s>", getBytesPerSecond() / (1024 * 1024))).toString();
+    }
+}
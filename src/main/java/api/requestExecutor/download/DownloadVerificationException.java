@@ -0,0 +1,22 @@
+package api.requestExecutor.download;
+
+/**
+ * Thrown when a downloaded body does not have the expected status, size or checksum.
+ */
+public class DownloadVerificationException extends IllegalStateException {
+    private static final long serialVersionUID = 1L;
+
+    private final transient DownloadResult result;
+
+    public DownloadVerificationException(String message, DownloadResult result) {
+        super(message);
+        this.result = result;
+    }
+
+    /**
+     * @return the download that failed verification, or null once the exception has been deserialized
+     */
+    public DownloadResult getResult() {
+        return result;
+    }
+}
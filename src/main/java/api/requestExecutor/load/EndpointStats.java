@@ -0,0 +1,108 @@
+package api.requestExecutor.load;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and outcome counters of one endpoint during a load run.
+ * <ul>
+ *   <li>response time - measured from the intended send time, so queueing caused by a slow system under test
+ *   or a stalled load generator is included (coordinated omission corrected)</li>
+ *   <li>service time - measured from the moment the request was actually handed to the transport</li>
+ * </ul>
+ */
+public final class EndpointStats {
+    private final String name;
+    private final LatencyHistogram responseTime = new LatencyHistogram();
+    private final LatencyHistogram serviceTime = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder inFlight = new LongAdder();
+    private final LongAdder abandoned = new LongAdder();
+
+    EndpointStats(String name) {
+        this.name = name;
+    }
+
+    void recordStart() {
+        inFlight.increment();
+    }
+
+    // every call of recordStart is followed by exactly one call of this method
+    void recordCompletion(long intendedStartNanos, long actualStartNanos, long endNanos, boolean success) {
+        responseTime.recordNanos(endNanos - intendedStartNanos);
+        serviceTime.recordNanos(endNanos - actualStartNanos);
+        if (!success) errors.increment();
+        inFlight.decrement();
+    }
+
+    /**
+     * Copies the counters at the end of a run; requests still in flight are counted as abandoned, and whatever
+     * happens to them later, e.g. failing because the run closed its connections, is not seen by the copy.
+     * @return copy of the counters
+     */
+    EndpointStats snapshot() {
+        EndpointStats copy = new EndpointStats(name);
+        copy.add(this);
+        copy.abandoned.add(Math.max(0, inFlight.sum()));
+        return copy;
+    }
+
+    void recordDropped() {
+        dropped.increment();
+    }
+
+    void add(EndpointStats other) {
+        responseTime.add(other.responseTime);
+        serviceTime.add(other.serviceTime);
+        errors.add(other.errors.sum());
+        dropped.add(other.dropped.sum());
+        abandoned.add(other.abandoned.sum());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public LatencyHistogram getResponseTime() {
+        return responseTime;
+    }
+
+    public LatencyHistogram getServiceTime() {
+        return serviceTime;
+    }
+
+    /**
+     * @return completed requests, successful or not
+     */
+    public long getCompletedCount() {
+        return responseTime.getTotalCount();
+    }
+
+    /**
+     * @return requests answered with a status code of 400 or above, or that failed without a response
+     */
+    public long getErrorCount() {
+        return errors.sum();
+    }
+
+    /**
+     * @return requests that were due but not sent because the in-flight limit was reached, or, for virtual users,
+     * because their references could not be resolved
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * @return requests still outstanding when the graceful stop timeout expired; they are neither completed nor
+     * errors, since the system under test may still answer them
+     */
+    public long getAbandonedCount() {
+        return abandoned.sum();
+    }
+
+    public double getErrorRate() {
+        long attempted = getCompletedCount() + getDroppedCount();
+        return attempted == 0 ? 0 : (getErrorCount() + getDroppedCount()) / (double) attempted;
+    }
+}
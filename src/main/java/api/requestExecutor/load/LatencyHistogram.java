@@ -0,0 +1,127 @@
+package api.requestExecutor.load;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe, fixed-memory latency histogram using HDR-style log-linear buckets.
+ * Values are recorded in microseconds; values below 256µs are exact and larger values keep a relative
+ * error below 0.8% (7 significant bits), from 1µs up to roughly 12 days.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_HALF = 1 << SUB_BUCKET_BITS;      // 128
+    private static final int LINEAR_LIMIT = SUB_BUCKET_HALF << 1;        // 256, exact below this value
+    private static final int MAX_MAGNITUDE = 40;                          // 2^40 µs
+    private static final long MAX_TRACKABLE = (1L << MAX_MAGNITUDE) - 1;
+    private static final int BUCKETS = LINEAR_LIMIT + (MAX_MAGNITUDE - SUB_BUCKET_BITS - 1) * SUB_BUCKET_HALF;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder totalCount = new LongAdder();
+    private final LongAdder totalMicros = new LongAdder();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    /**
+     * Records a single latency value.
+     * @param micros - latency in microseconds
+     */
+    public void recordMicros(long micros) {
+        long value = Math.min(Math.max(micros, 0), MAX_TRACKABLE);
+        counts.incrementAndGet(indexOf(value));
+        totalCount.increment();
+        totalMicros.add(value);
+        maxMicros.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * Records a latency measured in nanoseconds.
+     * @param nanos - latency in nanoseconds
+     */
+    public void recordNanos(long nanos) {
+        recordMicros(nanos / 1_000);
+    }
+
+    /**
+     * Records a value measured by a closed-loop caller and back-fills the samples that were never sent
+     * because the caller was stuck waiting (coordinated omission correction, as in HdrHistogram).
+     * @param micros - measured latency in microseconds
+     * @param expectedIntervalMicros - expected interval between two requests of the same caller
+     */
+    public void recordMicrosWithExpectedInterval(long micros, long expectedIntervalMicros) {
+        recordMicros(micros);
+        if (expectedIntervalMicros <= 0) return;
+        for (long missing = micros - expectedIntervalMicros; missing >= expectedIntervalMicros; missing -= expectedIntervalMicros) {
+            recordMicros(missing);
+        }
+    }
+
+    /**
+     * Adds every sample of another histogram to this one.
+     * @param other - histogram to merge
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long count = other.counts.get(i);
+            if (count > 0) counts.addAndGet(i, count);
+        }
+        totalCount.add(other.totalCount.sum());
+        totalMicros.add(other.totalMicros.sum());
+        maxMicros.accumulateAndGet(other.maxMicros.get(), Math::max);
+    }
+
+    public long getTotalCount() {
+        return totalCount.sum();
+    }
+
+    public double getMeanMillis() {
+        long count = totalCount.sum();
+        return count == 0 ? 0 : totalMicros.sum() / (double) count / 1_000.0;
+    }
+
+    public double getMaxMillis() {
+        return maxMicros.get() / 1_000.0;
+    }
+
+    /**
+     * Returns the value below which the given percentage of samples fall.
+     * @param percentile - percentile between 0 and 100, e.g. 99.9
+     * @return latency in milliseconds (highest value equivalent to the matching bucket)
+     */
+    public double getPercentileMillis(double percentile) {
+        long count = totalCount.sum();
+        if (count == 0) return 0;
+        long target = Math.max(1, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * count));
+        long cumulative = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            cumulative += counts.get(i);
+            if (cumulative >= target) {
+                return Math.min(highestEquivalentValue(i), maxMicros.get()) / 1_000.0;
+            }
+        }
+        return getMaxMillis();
+    }
+
+    static int indexOf(long value) {
+        if (value < LINEAR_LIMIT) return (int) value;
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        int shift = magnitude - SUB_BUCKET_BITS;
+        int mantissa = (int) (value >>> shift);                           // in [128, 255]
+        return LINEAR_LIMIT + (shift - 1) * SUB_BUCKET_HALF + (mantissa - SUB_BUCKET_HALF);
+    }
+
+    static long highestEquivalentValue(int index) {
+        if (index < LINEAR_LIMIT) return index;
+        int offset = index - LINEAR_LIMIT;
+        int shift = offset / SUB_BUCKET_HALF + 1;
+        long mantissa = SUB_BUCKET_HALF + (offset % SUB_BUCKET_HALF);
+        return ((mantissa + 1) << shift) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d mean=%.2fms p50=%.2fms p90=%.2fms p99=%.2fms p99.9=%.2fms max=%.2fms",
+                getTotalCount(), getMeanMillis(), getPercentileMillis(50), getPercentileMillis(90),
+                getPercentileMillis(99), getPercentileMillis(99.9), getMaxMillis());
+    }
+}
@@ -0,0 +1,191 @@
+package api.requestExecutor.load;
+
+import api.requestExecutor.ApiExecutors;
+import api.requestExecutor.ApiRequest;
+import api.requestExecutor.transport.HttpTransport;
+import api.requestExecutor.transport.HttpTransports;
+import api.requestExecutor.transport.RestAssuredTransport;
+import io.restassured.response.Response;
+import unifiedReports.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Open-model load generator. Requests are issued at the arrival rate described by a {@link LoadProfile},
+ * independently of how long earlier requests take, and every latency is measured from the intended send time
+ * so a slow system under test cannot hide its queueing delay (coordinated omission).
+ * Requests are built with the same UrlBuilder / HeaderBuilder / PayloadBuilder code as functional tests;
+ * individual calls are not logged, only the final {@link LoadReport}.
+ */
+public final class LoadGenerator {
+    private final HttpTransport transport;
+    private final LoadProfile profile;
+    private final List<Endpoint> endpoints;
+    private final double totalWeight;
+    private final int maxInFlight;
+    private final Duration gracefulStop;
+
+    private LoadGenerator(Builder builder) {
+        this.transport = builder.transport != null ? builder.transport : HttpTransports.fromSystemProperties();
+        this.profile = builder.profile;
+        this.endpoints = new ArrayList<>(builder.endpoints);
+        this.totalWeight = endpoints.stream().mapToDouble(endpoint -> endpoint.weight).sum();
+        this.maxInFlight = builder.maxInFlight;
+        this.gracefulStop = builder.gracefulStop;
+    }
+
+    /**
+     * Factory method to create a new builder.
+     * @param profile - arrival-rate profile
+     * @return a new Builder instance
+     */
+    public static Builder newBuilder(LoadProfile profile) {
+        return new Builder(profile);
+    }
+
+    /**
+     * Runs the profile to completion, waits for in-flight requests (up to the graceful stop timeout),
+     * logs the report to the console and returns it. Requests still in flight then are reported as abandoned.
+     * @return load report
+     */
+    public LoadReport run() {
+        ExecutorService executor = ApiExecutors.requestExecutor();
+        AtomicInteger inFlight = new AtomicInteger();
+        PrimitiveIterator.OfLong arrivals = profile.arrivalOffsets();
+        long runStart = System.nanoTime();
+        while (arrivals.hasNext()) {
+            long intendedStart = runStart + arrivals.nextLong();
+            long wait;
+            while ((wait = intendedStart - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Endpoint endpoint = pickEndpoint();
+            if (inFlight.get() >= maxInFlight) {
+                endpoint.stats.recordDropped();
+                continue;
+            }
+            inFlight.incrementAndGet();
+            endpoint.stats.recordStart();
+            executor.execute(() -> {
+                long actualStart = System.nanoTime();
+                boolean success = false;
+                try {
+                    ApiRequest request = endpoint.requestSupplier.get();
+                    HttpTransport selectedTransport = request.getSslConfig() != null ? RestAssuredTransport.getInstance() : transport;
+                    Response response = selectedTransport.execute(request).getResponse();
+                    success = response.getStatusCode() < 400;
+                } catch (RuntimeException e) {
+                    // counted as an error below
+                } finally {
+                    endpoint.stats.recordCompletion(intendedStart, actualStart, System.nanoTime(), success);
+                    inFlight.decrementAndGet();
+                }
+            });
+        }
+        long stopDeadline = System.nanoTime() + gracefulStop.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < stopDeadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+        }
+        // requests completing after this point are not seen by the report
+        List<EndpointStats> stats = new ArrayList<>();
+        endpoints.forEach(endpoint -> stats.add(endpoint.stats.snapshot()));
+        LoadReport report = new LoadReport(stats, System.nanoTime() - runStart);
+        LoggerFactory.getApiConsoleLogger().logMessage(report.toString());
+        return report;
+    }
+
+    private Endpoint pickEndpoint() {
+        if (endpoints.size() == 1) return endpoints.get(0);
+        double point = ThreadLocalRandom.current().nextDouble(totalWeight);
+        for (Endpoint endpoint : endpoints) {
+            point -= endpoint.weight;
+            if (point < 0) return endpoint;
+        }
+        return endpoints.get(endpoints.size() - 1);
+    }
+
+    private static final class Endpoint {
+        private final double weight;
+        private final Supplier<ApiRequest> requestSupplier;
+        private final EndpointStats stats;
+
+        private Endpoint(String name, double weight, Supplier<ApiRequest> requestSupplier) {
+            this.weight = weight;
+            this.requestSupplier = requestSupplier;
+            this.stats = new EndpointStats(name);
+        }
+    }
+
+    public static final class Builder {
+        private final LoadProfile profile;
+        private final List<Endpoint> endpoints = new ArrayList<>();
+        private HttpTransport transport;
+        private int maxInFlight = 10_000;
+        private Duration gracefulStop = Duration.ofSeconds(30);
+
+        private Builder(LoadProfile profile) {
+            this.profile = profile;
+        }
+
+        /**
+         * Adds an endpoint receiving a share of the arrivals proportional to its weight.
+         * @param name - name used in the report
+         * @param weight - relative weight
+         * @param requestSupplier - called for every arrival, so each request can carry fresh data
+         */
+        public Builder addEndpoint(String name, double weight, Supplier<ApiRequest> requestSupplier) {
+            if (weight <= 0) {
+                throw new IllegalArgumentException("Endpoint weight must be positive");
+            }
+            endpoints.add(new Endpoint(name, weight, requestSupplier));
+            return this;
+        }
+
+        /**
+         * Adds an endpoint that always sends the same request.
+         */
+        public Builder addEndpoint(String name, double weight, ApiRequest request) {
+            return addEndpoint(name, weight, () -> request);
+        }
+
+        /**
+         * @param transport - transport under load, the one selected with -Dunified.http.transport by default
+         */
+        public Builder transport(HttpTransport transport) {
+            this.transport = transport;
+            return this;
+        }
+
+        /**
+         * @param maxInFlight - arrivals beyond this many outstanding requests are dropped and reported as errors
+         */
+        public Builder maxInFlight(int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+            return this;
+        }
+
+        /**
+         * @param gracefulStop - how long to wait for in-flight requests once the profile has ended
+         */
+        public Builder gracefulStop(Duration gracefulStop) {
+            this.gracefulStop = gracefulStop;
+            return this;
+        }
+
+        public LoadGenerator build() {
+            if (endpoints.isEmpty()) {
+                throw new IllegalStateException("At least one endpoint is required");
+            }
+            return new LoadGenerator(this);
+        }
+    }
+}
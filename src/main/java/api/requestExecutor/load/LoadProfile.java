@@ -0,0 +1,130 @@
+package api.requestExecutor.load;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Arrival-rate profile of an open-model load run: a sequence of stages, each with a constant
+ * or linearly ramping rate in requests per second. Arrival times depend only on the profile,
+ * never on how fast the system under test answers.
+ */
+public final class LoadProfile {
+    private final List<Stage> stages;
+
+    private LoadProfile(List<Stage> stages) {
+        this.stages = Collections.unmodifiableList(stages);
+    }
+
+    /**
+     * Starts a profile with a constant arrival rate.
+     * @param requestsPerSecond - arrival rate
+     * @param duration - stage duration
+     * @return new profile
+     */
+    public static LoadProfile constantRate(double requestsPerSecond, Duration duration) {
+        return new LoadProfile(new ArrayList<>()).thenConstantRate(requestsPerSecond, duration);
+    }
+
+    /**
+     * Starts a profile with a rate ramping linearly from one value to another.
+     * @param fromRequestsPerSecond - rate at the start of the stage
+     * @param toRequestsPerSecond - rate at the end of the stage
+     * @param duration - stage duration
+     * @return new profile
+     */
+    public static LoadProfile rampRate(double fromRequestsPerSecond, double toRequestsPerSecond, Duration duration) {
+        return new LoadProfile(new ArrayList<>()).thenRampRate(fromRequestsPerSecond, toRequestsPerSecond, duration);
+    }
+
+    public LoadProfile thenConstantRate(double requestsPerSecond, Duration duration) {
+        return thenRampRate(requestsPerSecond, requestsPerSecond, duration);
+    }
+
+    public LoadProfile thenRampRate(double fromRequestsPerSecond, double toRequestsPerSecond, Duration duration) {
+        if (fromRequestsPerSecond < 0 || toRequestsPerSecond < 0 || duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("Rates must be >= 0 and the duration positive");
+        }
+        List<Stage> extended = new ArrayList<>(stages);
+        extended.add(new Stage(fromRequestsPerSecond, toRequestsPerSecond, duration.toNanos()));
+        return new LoadProfile(extended);
+    }
+
+    /**
+     * @return total duration of all stages
+     */
+    public Duration getDuration() {
+        return Duration.ofNanos(stages.stream().mapToLong(stage -> stage.durationNanos).sum());
+    }
+
+    /**
+     * @return intended send times, as nanosecond offsets from the start of the run, in increasing order
+     */
+    PrimitiveIterator.OfLong arrivalOffsets() {
+        return new PrimitiveIterator.OfLong() {
+            private int stageIndex;
+            private long stageStart;
+            private long arrivalInStage;
+            private long next = -1;
+
+            @Override
+            public boolean hasNext() {
+                while (next < 0 && stageIndex < stages.size()) {
+                    Stage stage = stages.get(stageIndex);
+                    long offset = stage.offsetOfArrival(++arrivalInStage);
+                    if (offset < stage.durationNanos) {
+                        next = stageStart + offset;
+                    } else {
+                        stageStart += stage.durationNanos;
+                        stageIndex++;
+                        arrivalInStage = 0;
+                    }
+                }
+                return next >= 0;
+            }
+
+            @Override
+            public long nextLong() {
+                if (!hasNext()) throw new NoSuchElementException();
+                long result = next;
+                next = -1;
+                return result;
+            }
+        };
+    }
+
+    private static final class Stage {
+        private final double fromRate;
+        private final double toRate;
+        private final long durationNanos;
+
+        private Stage(double fromRate, double toRate, long durationNanos) {
+            this.fromRate = fromRate;
+            this.toRate = toRate;
+            this.durationNanos = durationNanos;
+        }
+
+        /**
+         * Solves N(t) = k for the k-th arrival, where N(t) = from*t + (to-from)*t^2/(2*duration) is the expected
+         * number of arrivals after t seconds. Returns a value >= duration when the stage has no k-th arrival.
+         */
+        private long offsetOfArrival(long k) {
+            double durationSeconds = durationNanos / 1e9;
+            double a = (toRate - fromRate) / (2 * durationSeconds);
+            double b = fromRate;
+            double seconds;
+            if (Math.abs(a) < 1e-12) {
+                if (b <= 0) return Long.MAX_VALUE;
+                seconds = k / b;
+            } else {
+                double discriminant = b * b + 4 * a * k;
+                if (discriminant < 0) return Long.MAX_VALUE;
+                seconds = (-b + Math.sqrt(discriminant)) / (2 * a);
+            }
+            return seconds * 1e9 >= Long.MAX_VALUE ? Long.MAX_VALUE : (long) (seconds * 1e9);
+        }
+    }
+}
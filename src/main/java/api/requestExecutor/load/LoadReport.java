@@ -0,0 +1,66 @@
+package api.requestExecutor.load;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Summary of a finished load run: per-endpoint statistics plus the aggregate over all endpoints.
+ */
+public final class LoadReport {
+    private final List<EndpointStats> endpoints;
+    private final EndpointStats total;
+    private final long elapsedNanos;
+
+    LoadReport(List<EndpointStats> endpoints, long elapsedNanos) {
+        this.endpoints = Collections.unmodifiableList(endpoints);
+        this.elapsedNanos = elapsedNanos;
+        this.total = new EndpointStats("TOTAL");
+        endpoints.forEach(total::add);
+    }
+
+    public List<EndpointStats> getEndpoints() {
+        return endpoints;
+    }
+
+    public EndpointStats getTotal() {
+        return total;
+    }
+
+    public double getElapsedSeconds() {
+        return elapsedNanos / 1e9;
+    }
+
+    /**
+     * @param stats - endpoint (or total) statistics of this report
+     * @return completed requests per second over the whole run
+     */
+    public double getThroughput(EndpointStats stats) {
+        return elapsedNanos == 0 ? 0 : stats.getCompletedCount() / getElapsedSeconds();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("\n====================== LOAD REPORT ======================\n");
+        sb.append(String.format("Duration      : %.1f s%n", getElapsedSeconds()));
+        sb.append(String.format("%-24s %8s %8s %7s %9s %9s %9s %9s %9s %9s%n",
+                "Endpoint", "Count", "Errors", "Err%", "Req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (EndpointStats stats : endpoints) {
+            appendRow(sb, stats);
+        }
+        appendRow(sb, total);
+        if (total.getAbandonedCount() > 0) {
+            sb.append(String.format("Abandoned     : %d requests still in flight after the graceful stop%n", total.getAbandonedCount()));
+        }
+        return sb.toString();
+    }
+
+    private void appendRow(StringBuilder sb, EndpointStats stats) {
+        LatencyHistogram latency = stats.getResponseTime();
+        sb.append(String.format("%-24s %8d %8d %6.2f%% %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                stats.getName(), stats.getCompletedCount(), stats.getErrorCount() + stats.getDroppedCount(),
+                stats.getErrorRate() * 100, getThroughput(stats), latency.getPercentileMillis(50),
+                latency.getPercentileMillis(90), latency.getPercentileMillis(99), latency.getPercentileMillis(99.9),
+                latency.getMaxMillis()));
+    }
+}
@@ -0,0 +1,264 @@
+package api.requestExecutor.load;
+
+import api.requestExecutor.ApiExecutors;
+import api.requestExecutor.ApiRequest;
+import api.requestExecutor.scenario.Scenario;
+import api.requestExecutor.scenario.ScenarioContext;
+import api.requestExecutor.scenario.ScenarioStep;
+import api.requestExecutor.transport.HttpTransport;
+import api.requestExecutor.transport.HttpTransports;
+import api.requestExecutor.transport.PooledHttpTransport;
+import api.requestExecutor.transport.RestAssuredTransport;
+import io.restassured.response.Response;
+import unifiedReports.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Closed-model load runner. Each of N virtual users runs a chained {@link Scenario} over and over, one step
+ * after another with think time in between, so the same flows used by functional tests become soak or
+ * capacity tests. Users are started evenly over the ramp-up period and stop starting steps once the
+ * duration is over; on Java 21+ every user is a virtual thread, so thousands of users cost little more
+ * than their open connections.
+ * <p>
+ * Unlike {@link LoadGenerator}, the offered load adapts to the system under test: a user waits for each
+ * response before thinking and sending the next request. Latencies are therefore measured from the actual
+ * send time, after the step's references are resolved, and aggregated per step. Individual calls are not logged, only the final {@link LoadReport}.
+ * An iteration ends early when a step fails without a response, or when its references cannot be resolved,
+ * which the report counts as a dropped request.
+ * <p>
+ * Steps still outstanding when the graceful stop timeout expires are reported as abandoned.
+ * <p>
+ * Without an explicit transport, a suite using the pooled transport gets a dedicated pool with one connection
+ * per virtual user for each run, so the users are not capped by the shared pool's per-host limit.
+ */
+public final class VirtualUserRunner {
+    private final Scenario scenario;
+    private final List<ScenarioStep> steps;
+    private final HttpTransport transport;
+    private final boolean dedicatedPool;
+    private final int virtualUsers;
+    private final long rampUpNanos;
+    private final long durationNanos;
+    private final long maxIterations;
+    private final long minThinkNanos;
+    private final long maxThinkNanos;
+    private final Duration gracefulStop;
+
+    private VirtualUserRunner(Builder builder) {
+        this.scenario = builder.scenario;
+        this.steps = builder.scenario.getSteps();
+        this.transport = builder.transport != null ? builder.transport : HttpTransports.fromSystemProperties();
+        this.dedicatedPool = builder.transport == null && transport instanceof PooledHttpTransport;
+        this.virtualUsers = builder.virtualUsers;
+        this.rampUpNanos = builder.rampUp.toNanos();
+        this.durationNanos = builder.duration.toNanos();
+        this.maxIterations = builder.maxIterations;
+        this.minThinkNanos = builder.minThinkTime.toNanos();
+        this.maxThinkNanos = builder.maxThinkTime.toNanos();
+        this.gracefulStop = builder.gracefulStop;
+    }
+
+    /**
+     * Factory method to create a new builder.
+     * @param scenario - flow every virtual user runs; its steps run in dependency order
+     * @return a new Builder instance
+     */
+    public static Builder newBuilder(Scenario scenario) {
+        return new Builder(scenario);
+    }
+
+    /**
+     * Runs all virtual users until the duration is over (or each has completed its iterations), waits for
+     * outstanding steps up to the graceful stop timeout, logs the report to the console and returns it.
+     * A dedicated pool is opened for each run and closed when it ends, so a runner can be run again.
+     * @return load report with one entry per step
+     */
+    public LoadReport run() {
+        Map<String, EndpointStats> stats = new LinkedHashMap<>();
+        steps.forEach(step -> stats.put(step.getName(), new EndpointStats(step.getName())));
+        LongAdder iterations = new LongAdder();
+        CountDownLatch finished = new CountDownLatch(virtualUsers);
+        List<EndpointStats> snapshot = new ArrayList<>();
+        long runStart = System.nanoTime();
+        long deadline = runStart + durationNanos;
+        long elapsed;
+        HttpTransport runTransport = dedicatedPool
+                ? PooledHttpTransport.newBuilder().maxConnectionsPerRoute(virtualUsers).maxConnectionsTotal(virtualUsers).build()
+                : transport;
+        try {
+            for (int user = 0; user < virtualUsers; user++) {
+                long userStart = runStart + rampUpNanos * user / virtualUsers;
+                ApiExecutors.requestExecutor().execute(() -> {
+                    try {
+                        sleepUntil(userStart);
+                        for (long iteration = 0; (maxIterations == 0 || iteration < maxIterations) && System.nanoTime() < deadline; iteration++) {
+                            if (runIteration(runTransport, stats, deadline)) iterations.increment();
+                        }
+                    } finally {
+                        finished.countDown();
+                    }
+                });
+            }
+            try {
+                finished.await(Math.max(0, deadline - System.nanoTime()) + gracefulStop.toNanos(), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            // taken before the pool is closed, so users cut off by closing it are reported as abandoned, not as errors
+            stats.values().forEach(endpoint -> snapshot.add(endpoint.snapshot()));
+            elapsed = System.nanoTime() - runStart;
+        } finally {
+            if (dedicatedPool) ((PooledHttpTransport) runTransport).close();
+        }
+        LoadReport report = new LoadReport(snapshot, elapsed);
+        LoggerFactory.getApiConsoleLogger().logMessage(report + String.format("Virtual users : %d, completed iterations: %d%n", virtualUsers, iterations.sum()));
+        return report;
+    }
+
+    // returns true when every step of the iteration received a response
+    private boolean runIteration(HttpTransport runTransport, Map<String, EndpointStats> stats, long deadline) {
+        // every response is indexed once, when it arrives
+        ScenarioContext context = scenario.newContext();
+        for (ScenarioStep step : steps) {
+            if (System.nanoTime() >= deadline) {
+                return false;
+            }
+            ApiRequest request;
+            try {
+                request = step.resolve(context);
+            } catch (RuntimeException e) {
+                stats.get(step.getName()).recordDropped();
+                return false;
+            }
+            EndpointStats endpoint = stats.get(step.getName());
+            endpoint.recordStart();
+            long start = System.nanoTime();
+            Response response = null;
+            try {
+                HttpTransport selectedTransport = request.getSslConfig() != null ? RestAssuredTransport.getInstance() : runTransport;
+                response = selectedTransport.execute(request).getResponse();
+            } catch (RuntimeException e) {
+                // counted as an error below
+            } finally {
+                endpoint.recordCompletion(start, start, System.nanoTime(), response != null && response.getStatusCode() < 400);
+            }
+            if (response == null) {
+                return false;
+            }
+            context.addResponse(step.getName(), response);
+            think();
+        }
+        return true;
+    }
+
+    private void think() {
+        if (maxThinkNanos > 0) {
+            sleepUntil(System.nanoTime() + (maxThinkNanos > minThinkNanos ? ThreadLocalRandom.current().nextLong(minThinkNanos, maxThinkNanos + 1) : minThinkNanos));
+        }
+    }
+
+    private static void sleepUntil(long nanoTime) {
+        long wait;
+        while ((wait = nanoTime - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(wait);
+        }
+    }
+
+    public static final class Builder {
+        private final Scenario scenario;
+        private HttpTransport transport;
+        private int virtualUsers = 1;
+        private Duration rampUp = Duration.ZERO;
+        private Duration duration = Duration.ofMinutes(1);
+        private long maxIterations;
+        private Duration minThinkTime = Duration.ZERO;
+        private Duration maxThinkTime = Duration.ZERO;
+        private Duration gracefulStop = Duration.ofSeconds(30);
+
+        private Builder(Scenario scenario) {
+            this.scenario = scenario;
+        }
+
+        /**
+         * @param virtualUsers - number of concurrent users, each running the scenario in a loop
+         */
+        public Builder virtualUsers(int virtualUsers) {
+            if (virtualUsers < 1) {
+                throw new IllegalArgumentException("virtualUsers must be at least 1");
+            }
+            this.virtualUsers = virtualUsers;
+            return this;
+        }
+
+        /**
+         * @param rampUp - period over which the users are started evenly, zero to start all at once
+         */
+        public Builder rampUp(Duration rampUp) {
+            this.rampUp = rampUp;
+            return this;
+        }
+
+        /**
+         * @param duration - run time including the ramp-up; no step is started afterwards
+         */
+        public Builder duration(Duration duration) {
+            this.duration = duration;
+            return this;
+        }
+
+        /**
+         * @param maxIterations - scenario runs per user, 0 (the default) to loop until the duration is over
+         */
+        public Builder maxIterations(long maxIterations) {
+            this.maxIterations = maxIterations;
+            return this;
+        }
+
+        /**
+         * Pause of each user after every step, drawn uniformly from the given range.
+         * @param min - shortest think time
+         * @param max - longest think time
+         */
+        public Builder thinkTime(Duration min, Duration max) {
+            if (min.isNegative() || max.compareTo(min) < 0) {
+                throw new IllegalArgumentException("Expected 0 <= min <= max think time");
+            }
+            this.minThinkTime = min;
+            this.maxThinkTime = max;
+            return this;
+        }
+
+        /**
+         * @param transport - transport under load, the one selected with -Dunified.http.transport by default
+         */
+        public Builder transport(HttpTransport transport) {
+            this.transport = transport;
+            return this;
+        }
+
+        /**
+         * @param gracefulStop - how long to wait for outstanding steps once the duration is over
+         */
+        public Builder gracefulStop(Duration gracefulStop) {
+            this.gracefulStop = gracefulStop;
+            return this;
+        }
+
+        public VirtualUserRunner build() {
+            if (rampUp.compareTo(duration) > 0) {
+                throw new IllegalArgumentException("rampUp must not exceed the duration");
+            }
+            return new VirtualUserRunner(this);
+        }
+    }
+}
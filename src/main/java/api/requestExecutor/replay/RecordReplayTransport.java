@@ -0,0 +1,142 @@
+package api.requestExecutor.replay;
+
+import api.requestExecutor.ApiCallResult;
+import api.requestExecutor.ApiRequest;
+import api.requestExecutor.RequestBody;
+import api.requestExecutor.RequestTimings;
+import api.requestExecutor.transport.HttpTransport;
+import io.restassured.response.Response;
+import unifiedUtils.ResponseBodyBuffer;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Transport decorator that records responses of the wrapped transport into a {@link ReplayStore}, or
+ * serves them back from the store without touching the network. Requests are matched on their
+ * normalized method, URL and body, so chained flows replay unchanged as long as the recorded
+ * responses produce the same chained values. Requests whose body is not {@link RequestBody#isReplayable()
+ * replayable}, e.g. a generated bulk payload without an identity, are always sent to the wrapped transport.
+ */
+public final class RecordReplayTransport implements HttpTransport {
+    private final HttpTransport delegate;
+    private final ReplayMode mode;
+    private final ReplayStore store;
+    // requests are immutable, so a request sent repeatedly (e.g. a PreparedRequest) is fingerprinted once
+    private final Map<ApiRequest, byte[]> fingerprints = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private RecordReplayTransport(Builder builder) {
+        this.delegate = builder.delegate;
+        this.mode = builder.mode;
+        this.store = builder.mode != ReplayMode.OFF ? ReplayStore.open(builder.storeFile) : null;
+    }
+
+    /**
+     * Factory method to create a builder wrapping the given transport.
+     * @param delegate - transport used when requests go to the network
+     * @return a new Builder instance
+     */
+    public static Builder newBuilder(HttpTransport delegate) {
+        return new Builder(delegate);
+    }
+
+    /**
+     * Wraps a transport according to -Dunified.replay.mode and -Dunified.replay.file.
+     * @param delegate - transport used when requests go to the network
+     * @return the delegate itself when replay is off or already applied, otherwise a RecordReplayTransport
+     */
+    public static HttpTransport fromSystemProperties(HttpTransport delegate) {
+        ReplayMode mode = ReplayMode.fromSystemProperties();
+        if (mode == ReplayMode.OFF || delegate instanceof RecordReplayTransport) {
+            return delegate;
+        }
+        return newBuilder(delegate).mode(mode).build();
+    }
+
+    @Override
+    public ApiCallResult execute(ApiRequest request) {
+        if (mode == ReplayMode.OFF || !isReplayable(request)) {
+            return delegate.execute(request);
+        }
+        byte[] key = fingerprint(request);
+        if (mode == ReplayMode.RECORD) {
+            return record(key, delegate.execute(request));
+        }
+        long start = System.nanoTime();
+        RecordedResponse recorded = store.lookup(key);
+        if (recorded == null) {
+            throw new IllegalStateException("No recorded response for " + request.getMethod() + " " + request.resolveUri()
+                    + " in " + store.getFile() + "; record it with -Dunified.replay.mode=record");
+        }
+        return new ApiCallResult(recorded.toResponse(), RequestTimings.totalOnly(System.nanoTime() - start));
+    }
+
+    @Override
+    public CompletableFuture<ApiCallResult> executeAsync(ApiRequest request) {
+        if (mode == ReplayMode.OFF || !isReplayable(request)) {
+            return delegate.executeAsync(request);
+        }
+        if (mode == ReplayMode.RECORD) {
+            byte[] key = fingerprint(request);
+            return delegate.executeAsync(request).thenApply(result -> record(key, result));
+        }
+        return HttpTransport.super.executeAsync(request);
+    }
+
+    private static boolean isReplayable(ApiRequest request) {
+        RequestBody body = request.getRequestBody();
+        return body == null || body.isReplayable();
+    }
+
+    private byte[] fingerprint(ApiRequest request) {
+        return fingerprints.computeIfAbsent(request, RequestFingerprint::of);
+    }
+
+    private ApiCallResult record(byte[] key, ApiCallResult result) {
+        Response response = result.getResponse();
+        store.append(key, new RecordedResponse(response.getStatusCode(), response.getStatusLine(),
+                response.getHeaders().asList(), ResponseBodyBuffer.of(response).bytes()));
+        return result;
+    }
+
+    public ReplayMode getMode() {
+        return mode;
+    }
+
+    /**
+     * @return store the transport records into or replays from, null when the mode is OFF
+     */
+    public ReplayStore getStore() {
+        return store;
+    }
+
+    public static final class Builder {
+        private final HttpTransport delegate;
+        private ReplayMode mode = ReplayMode.fromSystemProperties();
+        private Path storeFile = ReplayStore.defaultFile();
+
+        private Builder(HttpTransport delegate) {
+            this.delegate = delegate;
+        }
+
+        public Builder mode(ReplayMode mode) {
+            this.mode = mode;
+            return this;
+        }
+
+        /**
+         * @param storeFile - file the responses are recorded into and replayed from
+         */
+        public Builder storeFile(Path storeFile) {
+            this.storeFile = storeFile;
+            return this;
+        }
+
+        public RecordReplayTransport build() {
+            return new RecordReplayTransport(this);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package api.requestExecutor.replay;
+
+import api.requestExecutor.transport.RestAssuredResponses;
+import io.restassured.http.Header;
+import io.restassured.response.Response;
+
+import java.util.List;
+
+/**
+ * Status, headers and body of a response as kept in a {@link ReplayStore}.
+ */
+public final class RecordedResponse {
+    private final int statusCode;
+    private final String statusLine;
+    private final List<Header> headers;
+    private final byte[] body;
+
+    RecordedResponse(int statusCode, String statusLine, List<Header> headers, byte[] body) {
+        this.statusCode = statusCode;
+        this.statusLine = statusLine;
+        this.headers = List.copyOf(headers);
+        this.body = body;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public String getStatusLine() {
+        return statusLine;
+    }
+
+    public List<Header> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * @return body bytes; callers must not modify the array
+     */
+    public byte[] getBody() {
+        return body;
+    }
+
+    /**
+     * @return a new Rest Assured Response equivalent to the recorded one
+     */
+    public Response toResponse() {
+        return RestAssuredResponses.of(statusCode, statusLine, headers, body);
+    }
+}
@@ -0,0 +1,23 @@
+package api.requestExecutor.replay;
+
+import java.util.Locale;
+
+/**
+ * How {@link RecordReplayTransport} treats the network.
+ * <ul>
+ *   <li>OFF - requests go to the network, nothing is recorded</li>
+ *   <li>RECORD - requests go to the network and every response is appended to the store</li>
+ *   <li>REPLAY - responses are served from the store, the network is never touched</li>
+ * </ul>
+ */
+public enum ReplayMode {
+    OFF, RECORD, REPLAY;
+
+    /**
+     * @return mode configured with -Dunified.replay.mode=off|record|replay, OFF when not set
+     */
+    public static ReplayMode fromSystemProperties() {
+        String mode = System.getProperty("unified.replay.mode");
+        return mode == null || mode.isBlank() ? OFF : valueOf(mode.trim().toUpperCase(Locale.ROOT));
+    }
+}
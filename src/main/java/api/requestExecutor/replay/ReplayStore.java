@@ -0,0 +1,225 @@
+package api.requestExecutor.replay;
+
+import io.restassured.http.Header;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Append-only, memory-mapped file of recorded responses keyed by {@link RequestFingerprint}.
+ * <p>
+ * Opening a store scans the mapped file once and indexes the offset of every entry; entries are only
+ * decoded when they are looked up. Recording the same request again appends a new entry that supersedes
+ * the older one, nothing is ever rewritten in place. A torn entry left by an interrupted run is cut off
+ * when the store is opened.
+ * <p>
+ * Layout: an 8 byte header (magic, version) followed by entries of
+ * {@code length | key[32] | status | statusLine | headerCount | (name | value)* | bodyLength | body},
+ * where integers are big-endian ints and strings are length-prefixed UTF-8.
+ */
+public final class ReplayStore implements AutoCloseable {
+    private static final int MAGIC = 0x55524543; // "UREC"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 8;
+    private static final Map<Path, ReplayStore> OPEN_STORES = new ConcurrentHashMap<>();
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final Path file;
+    private final FileChannel channel;
+    private final Map<String, Long> offsets = new ConcurrentHashMap<>();
+    private volatile MappedByteBuffer mapped;
+    private long end;
+
+    private ReplayStore(Path file) {
+        this.file = file;
+        try {
+            if (file.getParent() != null) Files.createDirectories(file.getParent());
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (channel.size() == 0) {
+                channel.write(ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION).flip(), 0);
+            }
+            this.end = channel.size();
+            checkMappable(end);
+            this.mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, end);
+            if (end < HEADER_BYTES || mapped.getInt(0) != MAGIC || mapped.getInt(4) != VERSION) {
+                throw new IllegalStateException("Not a replay store: " + file);
+            }
+            long validEnd = index();
+            if (validEnd < end) {
+                channel.truncate(validEnd);
+                end = validEnd;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open replay store " + file, e);
+        }
+    }
+
+    /**
+     * Opens a store, sharing one instance per file across every transport of the JVM.
+     * @param file - store file, created with its parent directories when missing
+     * @return open store
+     */
+    public static ReplayStore open(Path file) {
+        return OPEN_STORES.computeIfAbsent(file.toAbsolutePath().normalize(), ReplayStore::new);
+    }
+
+    /**
+     * @return file configured with -Dunified.replay.file, src/test/resources/api-recordings/responses.rec by default
+     */
+    public static Path defaultFile() {
+        return Paths.get(System.getProperty("unified.replay.file", "src/test/resources/api-recordings/responses.rec"));
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * @return number of distinct requests recorded in the store
+     */
+    public int size() {
+        return offsets.size();
+    }
+
+    /**
+     * @param key - request fingerprint
+     * @return latest response recorded for the key, or null
+     */
+    RecordedResponse lookup(byte[] key) {
+        Long offset = offsets.get(HEX.formatHex(key));
+        if (offset == null) {
+            return null;
+        }
+        MappedByteBuffer buffer = mappedUpTo(offset + 4);
+        int entryLength = buffer.getInt(offset.intValue());
+        buffer = mappedUpTo(offset + 4 + entryLength);
+        int position = offset.intValue() + 4 + RequestFingerprint.LENGTH;
+        int statusCode = buffer.getInt(position);
+        position += 4;
+        byte[] statusLine = readBytes(buffer, position);
+        position += 4 + statusLine.length;
+        int headerCount = buffer.getInt(position);
+        position += 4;
+        List<Header> headers = new ArrayList<>(headerCount);
+        for (int i = 0; i < headerCount; i++) {
+            byte[] name = readBytes(buffer, position);
+            position += 4 + name.length;
+            byte[] value = readBytes(buffer, position);
+            position += 4 + value.length;
+            headers.add(new Header(new String(name, StandardCharsets.UTF_8), new String(value, StandardCharsets.UTF_8)));
+        }
+        byte[] body = readBytes(buffer, position);
+        return new RecordedResponse(statusCode, new String(statusLine, StandardCharsets.UTF_8), headers, body);
+    }
+
+    /**
+     * Appends a response to the end of the file; it supersedes earlier entries with the same key.
+     * @param key - request fingerprint
+     * @param response - response to record
+     */
+    void append(byte[] key, RecordedResponse response) {
+        List<byte[]> strings = new ArrayList<>();
+        strings.add(response.getStatusLine().getBytes(StandardCharsets.UTF_8));
+        for (Header header : response.getHeaders()) {
+            strings.add(header.getName().getBytes(StandardCharsets.UTF_8));
+            strings.add(header.getValue().getBytes(StandardCharsets.UTF_8));
+        }
+        int entryLength = RequestFingerprint.LENGTH + 4 + 4 + 4 + response.getBody().length;
+        for (byte[] string : strings) {
+            entryLength += 4 + string.length;
+        }
+        ByteBuffer entry = ByteBuffer.allocate(4 + entryLength)
+                .putInt(entryLength)
+                .put(key)
+                .putInt(response.getStatusCode())
+                .putInt(strings.get(0).length).put(strings.get(0))
+                .putInt(response.getHeaders().size());
+        for (int i = 1; i < strings.size(); i++) {
+            entry.putInt(strings.get(i).length).put(strings.get(i));
+        }
+        entry.putInt(response.getBody().length).put(response.getBody()).flip();
+        synchronized (this) {
+            long offset = end;
+            checkMappable(offset + entry.remaining());
+            try {
+                while (entry.hasRemaining()) {
+                    end += channel.write(entry, end);
+                }
+            } catch (IOException e) {
+                end = offset;
+                throw new UncheckedIOException("Cannot append to replay store " + file, e);
+            }
+            offsets.put(HEX.formatHex(key), offset);
+        }
+    }
+
+    @Override
+    public void close() {
+        OPEN_STORES.remove(file, this);
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // walks the entries once, reading only their length and key; returns the end of the last complete entry
+    private long index() {
+        int position = HEADER_BYTES;
+        while (position + 4 <= end) {
+            int entryLength = mapped.getInt(position);
+            if (entryLength < RequestFingerprint.LENGTH || (long) position + 4 + entryLength > end) {
+                break;
+            }
+            byte[] key = new byte[RequestFingerprint.LENGTH];
+            mapped.get(position + 4, key);
+            offsets.put(HEX.formatHex(key), (long) position);
+            position += 4 + entryLength;
+        }
+        return position;
+    }
+
+    // entries appended after the last mapping are made visible by mapping the file again
+    private MappedByteBuffer mappedUpTo(long requiredEnd) {
+        MappedByteBuffer buffer = mapped;
+        if (buffer.capacity() < requiredEnd) {
+            synchronized (this) {
+                buffer = mapped;
+                if (buffer.capacity() < requiredEnd) {
+                    try {
+                        buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, end);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Cannot map replay store " + file, e);
+                    }
+                    mapped = buffer;
+                }
+            }
+        }
+        return buffer;
+    }
+
+    private static byte[] readBytes(MappedByteBuffer buffer, int position) {
+        byte[] bytes = new byte[buffer.getInt(position)];
+        buffer.get(position + 4, bytes);
+        return bytes;
+    }
+
+    private void checkMappable(long size) {
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Replay store " + file + " exceeds 2 GB, record into a separate file");
+        }
+    }
+}
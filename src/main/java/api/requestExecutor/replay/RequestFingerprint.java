@@ -0,0 +1,109 @@
+package api.requestExecutor.replay;
+
+import api.requestExecutor.ApiRequest;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeMap;
+
+/**
+ * SHA-256 key of a request, computed from its normalized method, URL and body.
+ * Headers are deliberately left out: tokens and correlation ids change between runs while the
+ * response they lead to does not.
+ */
+final class RequestFingerprint {
+    static final int LENGTH = 32;
+
+    private RequestFingerprint() {
+    }
+
+    /**
+     * @param request - request to fingerprint
+     * @return 32 byte SHA-256 digest
+     */
+    static byte[] of(ApiRequest request) {
+        StringBuilder canonical = new StringBuilder(256);
+        canonical.append(request.getMethod().name()).append('\n');
+        appendUri(canonical, request.resolveUri());
+        canonical.append('\n');
+        if (request.getBody() != null) {
+            appendBody(canonical, request.getBody());
+        } else {
+            // form parameters in name order, independent of the map implementation used by the caller
+            new TreeMap<>(request.getFormParams()).forEach((name, value) -> canonical.append(name).append('=').append(value).append('&'));
+        }
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(canonical.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    // scheme and host are case-insensitive, default ports are dropped and query parameters are sorted
+    private static void appendUri(StringBuilder canonical, URI uri) {
+        String scheme = uri.getScheme() != null ? uri.getScheme().toLowerCase(Locale.ROOT) : "";
+        int port = uri.getPort();
+        boolean defaultPort = port == -1 || ("http".equals(scheme) && port == 80) || ("https".equals(scheme) && port == 443);
+        canonical.append(scheme).append("://");
+        if (uri.getRawAuthority() != null && uri.getHost() == null) {
+            canonical.append(uri.getRawAuthority());
+        } else if (uri.getHost() != null) {
+            canonical.append(uri.getHost().toLowerCase(Locale.ROOT));
+            if (!defaultPort) canonical.append(':').append(port);
+        }
+        String path = uri.getRawPath();
+        canonical.append(path == null || path.isEmpty() ? "/" : path);
+        String query = uri.getRawQuery();
+        if (query != null && !query.isEmpty()) {
+            String[] parameters = query.split("&");
+            Arrays.sort(parameters);
+            canonical.append('?').append(String.join("&", parameters));
+        }
+    }
+
+    // JSON bodies are canonicalized so that key order and whitespace do not change the key
+    private static void appendBody(StringBuilder canonical, String body) {
+        try {
+            appendJson(canonical, JsonParser.parseString(body));
+        } catch (JsonParseException e) {
+            canonical.append(body);
+        }
+    }
+
+    private static void appendJson(StringBuilder canonical, JsonElement element) {
+        if (element.isJsonObject()) {
+            JsonObject object = element.getAsJsonObject();
+            List<String> keys = new ArrayList<>(object.keySet());
+            keys.sort(null);
+            canonical.append('{');
+            for (int i = 0; i < keys.size(); i++) {
+                if (i > 0) canonical.append(',');
+                canonical.append(new JsonPrimitive(keys.get(i))).append(':');
+                appendJson(canonical, object.get(keys.get(i)));
+            }
+            canonical.append('}');
+        } else if (element.isJsonArray()) {
+            JsonArray array = element.getAsJsonArray();
+            canonical.append('[');
+            for (int i = 0; i < array.size(); i++) {
+                if (i > 0) canonical.append(',');
+                appendJson(canonical, array.get(i));
+            }
+            canonical.append(']');
+        } else {
+            canonical.append(element);
+        }
+    }
+}
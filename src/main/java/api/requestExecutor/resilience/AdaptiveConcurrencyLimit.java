@@ -0,0 +1,222 @@
+package api.requestExecutor.resilience;
+
+import unifiedReports.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AIMD concurrency limit for one host, driven by latency gradients in the spirit of TCP Vegas.
+ * <p>
+ * The limit grows by one per limit's worth of fast completions while it is actually being used. It is cut
+ * multiplicatively when a call fails or is dropped (5xx, 429, transport error), or when the short-term
+ * round trip exceeds the tolerated multiple of the long-term one, which signals queueing at the server.
+ * Both are averages over the same mix of endpoints, so a host with fast and slow endpoints is not mistaken
+ * for a congested one, as comparing against the best round trip ever seen would. The long-term baseline
+ * follows lasting changes over {@link Builder#baselineWindow} calls and recovers quickly once queueing ends.
+ * Callers beyond the limit wait for a slot, so a degrading host sees fewer concurrent requests instead
+ * of an ever-growing queue of calls that all run into their timeouts.
+ */
+public final class AdaptiveConcurrencyLimit {
+    private static final double RTT_SMOOTHING = 0.2;
+    // the baseline is pulled down this much per call while the short-term round trip is far below it
+    private static final double BASELINE_RECOVERY = 0.95;
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double rttTolerance;
+    private final double baselineSmoothing;
+    private final long maxWaitNanos;
+    private double limit;
+    private int inFlight;
+    private double baselineRttNanos;
+    private double smoothedRttNanos;
+    private long lastDecrease;
+
+    private AdaptiveConcurrencyLimit(Builder builder, String name) {
+        this.name = name;
+        this.minLimit = builder.minLimit;
+        this.maxLimit = builder.maxLimit;
+        this.backoffRatio = builder.backoffRatio;
+        this.rttTolerance = builder.rttTolerance;
+        this.baselineSmoothing = 1.0 / builder.baselineWindow;
+        this.maxWaitNanos = builder.maxWait.toNanos();
+        this.limit = builder.initialLimit;
+    }
+
+    /**
+     * Factory method to create the settings shared by the limits of every host.
+     * @return a new Builder instance
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Waits until the number of calls in flight is below the current limit and takes a slot.
+     * @throws IllegalStateException when no slot frees up within the maximum wait
+     */
+    public synchronized void acquire() {
+        long deadline = System.nanoTime() + maxWaitNanos;
+        while (inFlight >= (int) limit) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                throw new IllegalStateException("No concurrency slot for " + name + " within " + Duration.ofNanos(maxWaitNanos).toMillis()
+                        + "ms (limit " + (int) limit + ")");
+            }
+            try {
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a concurrency slot for " + name, e);
+            }
+        }
+        inFlight++;
+    }
+
+    /**
+     * Takes a slot only if one is free right away.
+     * @return false when the limit is reached and the caller would have to wait
+     */
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * Frees the slot of a completed call and adapts the limit.
+     * @param rttNanos - round trip of the call
+     * @param dropped - true when the call failed in a way that signals overload
+     */
+    public synchronized void release(long rttNanos, boolean dropped) {
+        boolean wasSaturated = inFlight >= (int) limit / 2;
+        inFlight--;
+        if (!dropped) {
+            if (smoothedRttNanos == 0) {
+                smoothedRttNanos = rttNanos;
+                baselineRttNanos = rttNanos;
+            } else {
+                smoothedRttNanos += RTT_SMOOTHING * (rttNanos - smoothedRttNanos);
+                baselineRttNanos += baselineSmoothing * (rttNanos - baselineRttNanos);
+                if (smoothedRttNanos * rttTolerance < baselineRttNanos) {
+                    // a baseline raised by a long overload would hide the next one
+                    baselineRttNanos *= BASELINE_RECOVERY;
+                }
+            }
+        }
+        boolean queueing = !dropped && smoothedRttNanos > rttTolerance * baselineRttNanos;
+        if (dropped || queueing) {
+            decrease(dropped ? "call failed" : "round trip " + Math.round(smoothedRttNanos / 1e6) + "ms vs baseline "
+                    + Math.round(baselineRttNanos / 1e6) + "ms");
+        } else if (wasSaturated && limit < maxLimit) {
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+        notifyAll();
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return name + " limit=" + (int) limit + " inFlight=" + inFlight;
+    }
+
+    // at most one cut per round trip, so a burst of slow completions counts as one congestion event
+    private void decrease(String reason) {
+        long now = System.nanoTime();
+        if (now - lastDecrease < smoothedRttNanos) {
+            return;
+        }
+        lastDecrease = now;
+        int before = (int) limit;
+        limit = Math.max(minLimit, limit * backoffRatio);
+        if ((int) limit != before) {
+            LoggerFactory.getApiConsoleLogger().logMessage("Concurrency limit for " + name + " " + before + " -> " + (int) limit + ": " + reason);
+        }
+    }
+
+    public static final class Builder {
+        private int initialLimit = 20;
+        private int minLimit = 1;
+        private int maxLimit = 200;
+        private double backoffRatio = 0.9;
+        private double rttTolerance = 2.0;
+        private int baselineWindow = 500;
+        private Duration maxWait = Duration.ofMinutes(2);
+
+        private Builder() {
+        }
+
+        public Builder initialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+            return this;
+        }
+
+        public Builder minLimit(int minLimit) {
+            this.minLimit = minLimit;
+            return this;
+        }
+
+        public Builder maxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+            return this;
+        }
+
+        /**
+         * @param backoffRatio - factor the limit is multiplied with on overload, 0.9 by default
+         */
+        public Builder backoffRatio(double backoffRatio) {
+            this.backoffRatio = backoffRatio;
+            return this;
+        }
+
+        /**
+         * @param rttTolerance - short-term round trips above this multiple of the long-term one count as queueing,
+         *                     2.0 by default
+         */
+        public Builder rttTolerance(double rttTolerance) {
+            this.rttTolerance = rttTolerance;
+            return this;
+        }
+
+        /**
+         * @param baselineWindow - number of calls the long-term round trip averages over, 500 by default
+         */
+        public Builder baselineWindow(int baselineWindow) {
+            this.baselineWindow = baselineWindow;
+            return this;
+        }
+
+        /**
+         * @param maxWait - how long a caller waits for a slot before giving up
+         */
+        public Builder maxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+            return this;
+        }
+
+        /**
+         * @param name - host the limit applies to, used in log messages
+         * @return a new limit starting at the initial limit
+         */
+        public AdaptiveConcurrencyLimit build(String name) {
+            if (minLimit < 1 || minLimit > maxLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+                throw new IllegalArgumentException("Expected 1 <= minLimit <= initialLimit <= maxLimit");
+            }
+            if (baselineWindow < 1) {
+                throw new IllegalArgumentException("Expected baselineWindow >= 1");
+            }
+            return new AdaptiveConcurrencyLimit(this, name);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package api.requestExecutor.resilience;
+
+import unifiedReports.LoggerFactory;
+
+import java.time.Duration;
+
+/**
+ * Count-based circuit breaker for one host.
+ * <ul>
+ *   <li>CLOSED - calls pass; once at least minimumCalls of the last windowSize calls are recorded and the
+ *   failure rate reaches the threshold, the circuit opens</li>
+ *   <li>OPEN - calls fail fast with {@link CircuitOpenException} until openDuration has passed</li>
+ *   <li>HALF_OPEN - up to halfOpenCalls probe calls pass; if all succeed the circuit closes, any failure
+ *   opens it again</li>
+ * </ul>
+ * Every call holds the {@link Permit} it was let through with. Each state change starts a new generation,
+ * and outcomes of calls let through in an earlier generation are ignored, so a slow call sent while the
+ * circuit was closed is never mistaken for a probe.
+ * State changes are written to the console log.
+ */
+public final class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final double failureRateThreshold;
+    private final int minimumCalls;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final boolean[] window;
+    private int windowPosition;
+    private int recordedCalls;
+    private int failedCalls;
+    private State state = State.CLOSED;
+    private long generation;
+    private long openedAt;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    private CircuitBreaker(Builder builder, String name) {
+        this.name = name;
+        this.failureRateThreshold = builder.failureRateThreshold;
+        this.minimumCalls = builder.minimumCalls;
+        this.openNanos = builder.openDuration.toNanos();
+        this.halfOpenCalls = builder.halfOpenCalls;
+        this.window = new boolean[builder.windowSize];
+    }
+
+    /**
+     * Factory method to create the settings shared by the breakers of every host.
+     * @return a new Builder instance
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Lets a call through, or refuses it while the circuit is open.
+     * @return permit to pass to {@link #record(Permit, boolean)} once the call completed
+     * @throws CircuitOpenException when the call must fail fast
+     */
+    public synchronized Permit acquire() {
+        if (state == State.OPEN) {
+            long remaining = openedAt + openNanos - System.nanoTime();
+            if (remaining > 0) {
+                throw new CircuitOpenException("Circuit for " + name + " is open, failing fast for another "
+                        + Duration.ofNanos(remaining).toMillis() + "ms");
+            }
+            transition(State.HALF_OPEN, "probing with " + halfOpenCalls + " calls");
+            halfOpenPermits = halfOpenCalls;
+            halfOpenSuccesses = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermits == 0) {
+                throw new CircuitOpenException("Circuit for " + name + " is half-open and its probe calls are in flight");
+            }
+            halfOpenPermits--;
+        }
+        return new Permit(generation);
+    }
+
+    /**
+     * Records the outcome of a call let through by {@link #acquire()}. Outcomes of calls let through
+     * before the last state change are ignored.
+     * @param permit - permit the call was let through with
+     * @param success - false for transport failures, server errors and slow calls
+     */
+    public synchronized void record(Permit permit, boolean success) {
+        if (permit.generation != generation) {
+            return; // a call that started before the circuit opened, probed or closed
+        }
+        if (state == State.HALF_OPEN) {
+            if (!success) {
+                open("probe call failed");
+            } else if (++halfOpenSuccesses >= halfOpenCalls) {
+                resetWindow();
+                transition(State.CLOSED, halfOpenSuccesses + " probe calls succeeded");
+            }
+            return;
+        }
+        if (recordedCalls == window.length) {
+            if (!window[windowPosition]) failedCalls--;
+        } else {
+            recordedCalls++;
+        }
+        window[windowPosition] = success;
+        if (!success) failedCalls++;
+        windowPosition = (windowPosition + 1) % window.length;
+        if (recordedCalls >= minimumCalls && failedCalls >= failureRateThreshold * recordedCalls) {
+            open(failedCalls + " of the last " + recordedCalls + " calls failed");
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return name + " circuit=" + state + " failures=" + failedCalls + "/" + recordedCalls;
+    }
+
+    private void open(String reason) {
+        openedAt = System.nanoTime();
+        resetWindow();
+        transition(State.OPEN, reason + ", failing fast for " + Duration.ofNanos(openNanos).toMillis() + "ms");
+    }
+
+    private void resetWindow() {
+        recordedCalls = 0;
+        failedCalls = 0;
+        windowPosition = 0;
+    }
+
+    private void transition(State next, String reason) {
+        LoggerFactory.getApiConsoleLogger().logMessage("Circuit for " + name + " " + state + " -> " + next + ": " + reason);
+        state = next;
+        generation++;
+    }
+
+    /**
+     * Proof that a call was let through, tied to the state the circuit was in at that moment.
+     */
+    public static final class Permit {
+        private final long generation;
+
+        private Permit(long generation) {
+            this.generation = generation;
+        }
+    }
+
+    public static final class Builder {
+        private double failureRateThreshold = 0.5;
+        private int minimumCalls = 20;
+        private int windowSize = 50;
+        private Duration openDuration = Duration.ofSeconds(30);
+        private int halfOpenCalls = 3;
+
+        private Builder() {
+        }
+
+        /**
+         * @param failureRateThreshold - failed share of the recorded calls that opens the circuit, 0.5 by default
+         */
+        public Builder failureRateThreshold(double failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+            return this;
+        }
+
+        /**
+         * @param minimumCalls - calls recorded before the failure rate is evaluated
+         */
+        public Builder minimumCalls(int minimumCalls) {
+            this.minimumCalls = minimumCalls;
+            return this;
+        }
+
+        /**
+         * @param windowSize - number of most recent calls the failure rate is computed over
+         */
+        public Builder windowSize(int windowSize) {
+            this.windowSize = windowSize;
+            return this;
+        }
+
+        /**
+         * @param openDuration - how long calls fail fast before the circuit is probed again
+         */
+        public Builder openDuration(Duration openDuration) {
+            this.openDuration = openDuration;
+            return this;
+        }
+
+        public Builder halfOpenCalls(int halfOpenCalls) {
+            this.halfOpenCalls = halfOpenCalls;
+            return this;
+        }
+
+        /**
+         * @param name - host or endpoint the breaker protects, used in log messages
+         * @return a new breaker in the CLOSED state
+         */
+        public CircuitBreaker build(String name) {
+            if (minimumCalls > windowSize) {
+                throw new IllegalArgumentException("minimumCalls must not exceed windowSize");
+            }
+            return new CircuitBreaker(this, name);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package api.requestExecutor.resilience;
+
+/**
+ * Thrown instead of sending a request while the circuit breaker of its host is open.
+ */
+public class CircuitOpenException extends IllegalStateException {
+    private static final long serialVersionUID = 1L;
+
+    public CircuitOpenException(String message) {
+        super(message);
+    }
+}
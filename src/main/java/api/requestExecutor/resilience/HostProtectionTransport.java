@@ -0,0 +1,215 @@
+package api.requestExecutor.resilience;
+
+import api.requestExecutor.ApiCallResult;
+import api.requestExecutor.ApiExecutors;
+import api.requestExecutor.ApiRequest;
+import api.requestExecutor.transport.HttpTransport;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Transport decorator that protects each downstream host with its own {@link CircuitBreaker} and
+ * {@link AdaptiveConcurrencyLimit}. A degrading host first gets fewer concurrent requests; once most of
+ * its calls fail, further calls fail fast with {@link CircuitOpenException} instead of waiting out their
+ * timeouts. Calls to other hosts are not affected.
+ * <p>
+ * Transport errors, 5xx responses and calls slower than the configured slow call threshold count as
+ * failures; 429 responses only shrink the concurrency limit.
+ */
+public final class HostProtectionTransport implements HttpTransport {
+    // executors created from system properties share the state of each host
+    private static final Map<HttpTransport, HostProtectionTransport> SHARED = new ConcurrentHashMap<>();
+    private final HttpTransport delegate;
+    private final CircuitBreaker.Builder breakerSettings;
+    private final AdaptiveConcurrencyLimit.Builder limitSettings;
+    private final long slowCallNanos;
+    private final Map<String, Host> hosts = new ConcurrentHashMap<>();
+
+    private HostProtectionTransport(Builder builder) {
+        this.delegate = builder.delegate;
+        this.breakerSettings = builder.breakerSettings;
+        this.limitSettings = builder.limitSettings;
+        this.slowCallNanos = builder.slowCallNanos;
+    }
+
+    /**
+     * Factory method to create a builder wrapping the given transport.
+     * @param delegate - transport that sends the requests
+     * @return a new Builder instance
+     */
+    public static Builder newBuilder(HttpTransport delegate) {
+        return new Builder(delegate);
+    }
+
+    /**
+     * Wraps a transport according to -Dunified.circuitBreaker and -Dunified.adaptiveConcurrency, both
+     * using the default settings. Every call for the same delegate returns the same instance, so all
+     * executors see one circuit and one limit per host.
+     * @param delegate - transport that sends the requests
+     * @return the delegate itself when both are off or already applied, otherwise a HostProtectionTransport
+     */
+    public static HttpTransport fromSystemProperties(HttpTransport delegate) {
+        boolean breaker = Boolean.getBoolean("unified.circuitBreaker");
+        boolean adaptive = Boolean.getBoolean("unified.adaptiveConcurrency");
+        if ((!breaker && !adaptive) || delegate instanceof HostProtectionTransport) {
+            return delegate;
+        }
+        return SHARED.computeIfAbsent(delegate, transport -> {
+            Builder builder = newBuilder(transport);
+            if (breaker) builder.circuitBreaker(CircuitBreaker.newBuilder());
+            if (adaptive) builder.adaptiveConcurrency(AdaptiveConcurrencyLimit.newBuilder());
+            return builder.build();
+        });
+    }
+
+    @Override
+    public ApiCallResult execute(ApiRequest request) {
+        Host host = hosts.computeIfAbsent(request.resolveUri().getAuthority(), this::newHost);
+        CircuitBreaker.Permit permit = host.breaker != null ? host.breaker.acquire() : null;
+        if (host.limit != null) {
+            try {
+                host.limit.acquire();
+            } catch (RuntimeException e) {
+                if (permit != null) host.breaker.record(permit, false);
+                throw e;
+            }
+        }
+        long start = System.nanoTime();
+        int statusCode = 0;
+        try {
+            ApiCallResult result = delegate.execute(request);
+            statusCode = result.getResponse().getStatusCode();
+            return result;
+        } finally {
+            release(host, permit, System.nanoTime() - start, statusCode);
+        }
+    }
+
+    /**
+     * Sends the request through the delegate's asynchronous call. Only a call that has to wait for a
+     * concurrency slot occupies a request worker while it waits.
+     */
+    @Override
+    public CompletableFuture<ApiCallResult> executeAsync(ApiRequest request) {
+        Host host = hosts.computeIfAbsent(request.resolveUri().getAuthority(), this::newHost);
+        CircuitBreaker.Permit permit;
+        try {
+            permit = host.breaker != null ? host.breaker.acquire() : null;
+        } catch (CircuitOpenException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<Void> slot = host.limit == null || host.limit.tryAcquire()
+                ? CompletableFuture.completedFuture(null)
+                : CompletableFuture.runAsync(host.limit::acquire, ApiExecutors.requestExecutor());
+        return slot.whenComplete((acquired, failure) -> {
+            if (failure != null && permit != null) host.breaker.record(permit, false);
+        }).thenCompose(acquired -> {
+            long start = System.nanoTime();
+            CompletableFuture<ApiCallResult> call;
+            try {
+                call = delegate.executeAsync(request);
+            } catch (RuntimeException e) {
+                call = CompletableFuture.failedFuture(e);
+            }
+            return call.whenComplete((result, failure) ->
+                    release(host, permit, System.nanoTime() - start, result != null ? result.getResponse().getStatusCode() : 0));
+        });
+    }
+
+    // status 0 stands for a transport failure
+    private void release(Host host, CircuitBreaker.Permit permit, long elapsed, int statusCode) {
+        if (host.limit != null) {
+            host.limit.release(elapsed, statusCode == 0 || statusCode == 429 || statusCode >= 500);
+        }
+        if (permit != null) {
+            host.breaker.record(permit, statusCode != 0 && statusCode < 500 && (slowCallNanos <= 0 || elapsed <= slowCallNanos));
+        }
+    }
+
+    private Host newHost(String authority) {
+        return new Host(breakerSettings != null ? breakerSettings.build(authority) : null,
+                limitSettings != null ? limitSettings.build(authority) : null);
+    }
+
+    /**
+     * @param authority - host and port as in the request URL
+     * @return circuit breaker of the host, null when it has not been called yet or breaking is off
+     */
+    public CircuitBreaker getCircuitBreaker(String authority) {
+        Host host = hosts.get(authority);
+        return host != null ? host.breaker : null;
+    }
+
+    /**
+     * @param authority - host and port as in the request URL
+     * @return concurrency limit of the host, null when it has not been called yet or the limit is off
+     */
+    public AdaptiveConcurrencyLimit getConcurrencyLimit(String authority) {
+        Host host = hosts.get(authority);
+        return host != null ? host.limit : null;
+    }
+
+    /**
+     * @return one line per host called so far with its circuit state and concurrency limit
+     */
+    public List<String> getStatus() {
+        List<String> status = new ArrayList<>();
+        hosts.forEach((authority, host) -> status.add((host.breaker != null ? host.breaker.toString() : authority)
+                + (host.limit != null ? " limit=" + host.limit.getLimit() + " inFlight=" + host.limit.getInFlight() : "")));
+        return status;
+    }
+
+    private static final class Host {
+        private final CircuitBreaker breaker;
+        private final AdaptiveConcurrencyLimit limit;
+
+        private Host(CircuitBreaker breaker, AdaptiveConcurrencyLimit limit) {
+            this.breaker = breaker;
+            this.limit = limit;
+        }
+    }
+
+    public static final class Builder {
+        private final HttpTransport delegate;
+        private CircuitBreaker.Builder breakerSettings;
+        private AdaptiveConcurrencyLimit.Builder limitSettings;
+        private long slowCallNanos;
+
+        private Builder(HttpTransport delegate) {
+            this.delegate = delegate;
+        }
+
+        /**
+         * @param settings - settings every host's circuit breaker is built from
+         */
+        public Builder circuitBreaker(CircuitBreaker.Builder settings) {
+            this.breakerSettings = settings;
+            return this;
+        }
+
+        /**
+         * @param settings - settings every host's concurrency limit is built from
+         */
+        public Builder adaptiveConcurrency(AdaptiveConcurrencyLimit.Builder settings) {
+            this.limitSettings = settings;
+            return this;
+        }
+
+        /**
+         * @param slowCallThreshold - calls slower than this count as failures for the circuit breaker
+         */
+        public Builder slowCallThreshold(Duration slowCallThreshold) {
+            this.slowCallNanos = slowCallThreshold.toNanos();
+            return this;
+        }
+
+        public HostProtectionTransport build() {
+            return new HostProtectionTransport(this);
+        }
+    }
+}
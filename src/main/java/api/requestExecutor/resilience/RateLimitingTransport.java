@@ -0,0 +1,226 @@
+package api.requestExecutor.resilience;
+
+import api.requestExecutor.ApiCallResult;
+import api.requestExecutor.ApiExecutors;
+import api.requestExecutor.ApiRequest;
+import api.requestExecutor.transport.HttpTransport;
+import io.restassured.response.Response;
+import org.apache.hc.client5.http.utils.DateUtils;
+import unifiedReports.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transport decorator pacing requests through {@link TokenBucket}s shared by every thread: one bucket per
+ * configured route (longest URL template prefix wins), else one per host.
+ * <p>
+ * A 429 or 503 response carrying Retry-After pauses the bucket until the given time, so every caller of
+ * that host or route waits instead of being rejected too. Only a 429 is sent again once the pause is over
+ * and lowers the bucket's rate: the server refused it before processing, so resending cannot duplicate a
+ * write. A 503 may have been processed and is returned to the caller. Retry-After values longer than the
+ * configured maximum, and responses without it, are returned as well.
+ * <p>
+ * {@link api.requestExecutor.retry.RetryingTransport} wraps this transport and alone decides whether a 503,
+ * or a 429 still limited after the last resend, is retried, applying its idempotency rule and attempt limit.
+ * Its retries go through the paused bucket, so they wait out the Retry-After too.
+ */
+public final class RateLimitingTransport implements HttpTransport {
+    private static final Map<HttpTransport, RateLimitingTransport> SHARED = new ConcurrentHashMap<>();
+
+    private final HttpTransport delegate;
+    private final double hostRate;
+    private final int hostBurst;
+    private final Map<String, TokenBucket> routeBuckets;
+    private final Map<String, TokenBucket> hostBuckets = new ConcurrentHashMap<>();
+    private final long maxRetryAfterNanos;
+    private final int maxResends;
+
+    private RateLimitingTransport(Builder builder) {
+        this.delegate = builder.delegate;
+        this.hostRate = builder.hostRate;
+        this.hostBurst = builder.hostBurst;
+        this.routeBuckets = new LinkedHashMap<>(builder.routeBuckets);
+        this.maxRetryAfterNanos = builder.maxRetryAfter.toNanos();
+        this.maxResends = builder.maxResends;
+    }
+
+    /**
+     * Factory method to create a builder wrapping the given transport.
+     * @param delegate - transport that sends the requests
+     * @return a new Builder instance
+     */
+    public static Builder newBuilder(HttpTransport delegate) {
+        return new Builder(delegate);
+    }
+
+    /**
+     * Wraps a transport according to -Dunified.rateLimit.perSecond (per host) and -Dunified.rateLimit.burst,
+     * which defaults to one second worth of permits. Every call for the same delegate returns the same
+     * instance, so all executors share the buckets.
+     * @param delegate - transport that sends the requests
+     * @return the delegate itself when no rate is configured or it is already rate limited
+     */
+    public static HttpTransport fromSystemProperties(HttpTransport delegate) {
+        String perSecond = System.getProperty("unified.rateLimit.perSecond");
+        if (perSecond == null || perSecond.isBlank() || delegate instanceof RateLimitingTransport) {
+            return delegate;
+        }
+        double rate = Double.parseDouble(perSecond.trim());
+        int burst = Integer.getInteger("unified.rateLimit.burst", (int) Math.max(1, Math.ceil(rate)));
+        return SHARED.computeIfAbsent(delegate, transport -> newBuilder(transport).hostRate(rate, burst).build());
+    }
+
+    @Override
+    public ApiCallResult execute(ApiRequest request) {
+        TokenBucket bucket = bucketFor(request);
+        for (int resend = 0; ; resend++) {
+            long sentAt = bucket != null ? bucket.acquire() : System.nanoTime();
+            ApiCallResult result = delegate.execute(request);
+            bucket = resendThrough(request, bucket, sentAt, result.getResponse(), resend);
+            if (bucket == null) {
+                return result;
+            }
+        }
+    }
+
+    /**
+     * Schedules the request for the moment its permit is due instead of sleeping, and sends it through the
+     * delegate's asynchronous call.
+     */
+    @Override
+    public CompletableFuture<ApiCallResult> executeAsync(ApiRequest request) {
+        return sendAsync(request, bucketFor(request), 0);
+    }
+
+    private CompletableFuture<ApiCallResult> sendAsync(ApiRequest request, TokenBucket bucket, int resend) {
+        long waitNanos = bucket != null ? bucket.reserve() : 0;
+        long sentAt = System.nanoTime() + waitNanos;
+        CompletableFuture<ApiCallResult> sent = waitNanos > 0
+                ? CompletableFuture.supplyAsync(() -> request, CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS,
+                        ApiExecutors.requestExecutor())).thenCompose(delegate::executeAsync)
+                : delegate.executeAsync(request);
+        return sent.thenCompose(result -> {
+            TokenBucket next = resendThrough(request, bucket, sentAt, result.getResponse(), resend);
+            return next == null ? CompletableFuture.completedFuture(result) : sendAsync(request, next, resend + 1);
+        });
+    }
+
+    // learns from the response; returns the bucket to send the request through again, or null to return the response
+    private TokenBucket resendThrough(ApiRequest request, TokenBucket bucket, long sentAt, Response response, int resend) {
+        int statusCode = response.getStatusCode();
+        if (statusCode != 429 && statusCode != 503) {
+            if (bucket != null) bucket.onAccepted();
+            return null;
+        }
+        long retryAfterNanos = retryAfterNanos(response.getHeader("Retry-After"));
+        if (retryAfterNanos < 0 || retryAfterNanos > maxRetryAfterNanos) {
+            return null;
+        }
+        if (bucket == null) {
+            bucket = hostBuckets.computeIfAbsent(request.resolveUri().getAuthority(), host -> new TokenBucket(host, Double.POSITIVE_INFINITY, 1));
+        }
+        if (bucket.pause(sentAt, System.nanoTime() + retryAfterNanos, statusCode == 429)) {
+            LoggerFactory.getApiConsoleLogger().logMessage("Rate limited by " + bucket.getName() + " (status " + statusCode
+                    + "), pausing requests for " + TimeUnit.NANOSECONDS.toMillis(retryAfterNanos) + "ms, " + bucket);
+        }
+        return statusCode == 429 && resend < maxResends ? bucket : null;
+    }
+
+    private TokenBucket bucketFor(ApiRequest request) {
+        String longestPrefix = null;
+        for (String prefix : routeBuckets.keySet()) {
+            if (request.getUrl().startsWith(prefix) && (longestPrefix == null || prefix.length() > longestPrefix.length())) {
+                longestPrefix = prefix;
+            }
+        }
+        if (longestPrefix != null) {
+            return routeBuckets.get(longestPrefix);
+        }
+        if (hostRate <= 0) {
+            return hostBuckets.get(request.resolveUri().getAuthority());
+        }
+        return hostBuckets.computeIfAbsent(request.resolveUri().getAuthority(), host -> new TokenBucket(host, hostRate, hostBurst));
+    }
+
+    // Retry-After is either delay-seconds or an HTTP date; -1 when absent or invalid
+    private static long retryAfterNanos(String retryAfter) {
+        if (retryAfter == null || retryAfter.isBlank()) {
+            return -1;
+        }
+        try {
+            return TimeUnit.SECONDS.toNanos(Math.max(0, Long.parseLong(retryAfter.trim())));
+        } catch (NumberFormatException e) {
+            Instant at = DateUtils.parseStandardDate(retryAfter.trim());
+            return at != null ? TimeUnit.MILLISECONDS.toNanos(Math.max(0, at.toEpochMilli() - System.currentTimeMillis())) : -1;
+        }
+    }
+
+    /**
+     * @param request - request whose host or route is looked up
+     * @return bucket pacing the request, null when it is not limited and has not been rate limited by the server
+     */
+    public TokenBucket getBucket(ApiRequest request) {
+        return bucketFor(request);
+    }
+
+    public static final class Builder {
+        private final HttpTransport delegate;
+        private double hostRate;
+        private int hostBurst;
+        private final Map<String, TokenBucket> routeBuckets = new LinkedHashMap<>();
+        private Duration maxRetryAfter = Duration.ofSeconds(60);
+        private int maxResends = 3;
+
+        private Builder(HttpTransport delegate) {
+            this.delegate = delegate;
+        }
+
+        /**
+         * Limits every host that has no route limit. Without it, hosts are only paced after a Retry-After.
+         * @param permitsPerSecond - sustained requests per second per host
+         * @param burst - requests allowed at once after a quiet period
+         */
+        public Builder hostRate(double permitsPerSecond, int burst) {
+            this.hostRate = permitsPerSecond;
+            this.hostBurst = burst;
+            return this;
+        }
+
+        /**
+         * Limits all requests whose URL template starts with the prefix through one shared bucket.
+         * @param urlPrefix - URL template prefix, e.g. "https://api.example.com/v1/search"
+         * @param permitsPerSecond - sustained requests per second for the route
+         * @param burst - requests allowed at once after a quiet period
+         */
+        public Builder routeRate(String urlPrefix, double permitsPerSecond, int burst) {
+            routeBuckets.put(urlPrefix, new TokenBucket(urlPrefix, permitsPerSecond, burst));
+            return this;
+        }
+
+        /**
+         * @param maxRetryAfter - longest Retry-After the transport waits out and resends for, 60s by default
+         */
+        public Builder maxRetryAfter(Duration maxRetryAfter) {
+            this.maxRetryAfter = maxRetryAfter;
+            return this;
+        }
+
+        /**
+         * @param maxResends - how often one request is sent again after a 429 with Retry-After, 3 by default
+         */
+        public Builder maxResends(int maxResends) {
+            this.maxResends = maxResends;
+            return this;
+        }
+
+        public RateLimitingTransport build() {
+            return new RateLimitingTransport(this);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package api.requestExecutor.resilience;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket shared by every thread calling one host or route. Permits are handed out at a steady rate
+ * with bursts up to the bucket capacity; callers beyond that are paced by sleeping until their permit is
+ * due rather than being rejected.
+ * <p>
+ * The bucket learns from the server: {@link #pause(long, long, boolean)} holds every permit back until a
+ * Retry-After has passed and, for 429 responses, lowers the rate. Successful calls raise it again
+ * additively up to the configured rate.
+ */
+public final class TokenBucket {
+    private static final double BACKOFF_RATIO = 0.8;
+    private static final double MIN_RATE_RATIO = 0.1;
+    private static final double RECOVERY_RATIO = 0.01;
+
+    private final String name;
+    private final double configuredRate;
+    private final double capacity;
+    private double rate;
+    private double storedPermits;
+    private long nextFreeNanos = System.nanoTime();
+    private long pausedAtNanos = Long.MIN_VALUE;
+    private long pausedUntilNanos;
+
+    /**
+     * @param name - host or route the bucket paces, used in log messages
+     * @param permitsPerSecond - sustained rate, Double.POSITIVE_INFINITY to only honor pauses
+     * @param burst - permits that may be used at once after a quiet period
+     */
+    public TokenBucket(String name, double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive and burst at least 1");
+        }
+        this.name = name;
+        this.configuredRate = permitsPerSecond;
+        this.rate = permitsPerSecond;
+        this.capacity = burst;
+        this.storedPermits = burst;
+    }
+
+    /**
+     * Takes one permit, sleeping until it is due.
+     * @return System.nanoTime() the permit was granted at, to be passed to {@link #pause(long, long, boolean)}
+     */
+    public long acquire() {
+        long waitNanos = reserve();
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a rate limit permit for " + name, e);
+            }
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * Holds every permit back until the server asked callers to come back. Rejections of requests sent
+     * before the current pause began are already accounted for and do not extend it.
+     * @param sentAtNanos - System.nanoTime() the rejected request was sent at
+     * @param untilNanos - System.nanoTime() the pause ends at
+     * @param slowDown - true to also lower the rate, as for 429 responses
+     * @return true when this call started or extended the pause
+     */
+    public synchronized boolean pause(long sentAtNanos, long untilNanos, boolean slowDown) {
+        if (sentAtNanos < pausedAtNanos || untilNanos <= pausedUntilNanos) {
+            return false;
+        }
+        pausedAtNanos = System.nanoTime();
+        pausedUntilNanos = untilNanos;
+        resync(System.nanoTime());
+        nextFreeNanos = Math.max(nextFreeNanos, untilNanos);
+        storedPermits = 0;
+        if (slowDown) {
+            rate = Math.max(configuredRate * MIN_RATE_RATIO, rate * BACKOFF_RATIO);
+        }
+        return true;
+    }
+
+    /**
+     * Records a call the server accepted, raising a lowered rate back toward the configured one.
+     */
+    public synchronized void onAccepted() {
+        if (rate < configuredRate) {
+            rate = Math.min(configuredRate, rate + configuredRate * RECOVERY_RATIO);
+        }
+    }
+
+    public synchronized double getRate() {
+        return rate;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public synchronized String toString() {
+        if (Double.isInfinite(configuredRate)) {
+            return name + " rate=unlimited";
+        }
+        return name + " rate=" + String.format("%.2f", rate) + "/s of " + configuredRate + "/s";
+    }
+
+    /**
+     * Takes one permit without waiting for it, for callers that schedule their request instead of sleeping.
+     * @return nanoseconds until the permit is due, 0 when it can be used right away
+     */
+    synchronized long reserve() {
+        long now = System.nanoTime();
+        resync(now);
+        long waitNanos = Math.max(0, nextFreeNanos - now);
+        double fromStore = Math.min(1, storedPermits);
+        storedPermits -= fromStore;
+        nextFreeNanos += (long) ((1 - fromStore) * intervalNanos());
+        return waitNanos;
+    }
+
+    private void resync(long now) {
+        if (now > nextFreeNanos) {
+            storedPermits = Math.min(capacity, storedPermits + (now - nextFreeNanos) / intervalNanos());
+            nextFreeNanos = now;
+        }
+    }
+
+    private double intervalNanos() {
+        return TimeUnit.SECONDS.toNanos(1) / rate;
+    }
+}
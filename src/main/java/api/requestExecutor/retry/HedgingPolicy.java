@@ -0,0 +1,92 @@
+package api.requestExecutor.retry;
+
+import java.time.Duration;
+
+/**
+ * When {@link RetryingTransport} sends a duplicate of a slow GET. The hedge is sent once the first attempt
+ * has been outstanding longer than the configured percentile of the endpoint's recent latencies, so only
+ * the slowest few percent of calls cost an extra request. Until enough samples exist, the initial delay is used.
+ */
+public final class HedgingPolicy {
+    private final double percentile;
+    private final int minSamples;
+    private final Duration initialDelay;
+    private final Duration minDelay;
+
+    private HedgingPolicy(Builder builder) {
+        this.percentile = builder.percentile;
+        this.minSamples = builder.minSamples;
+        this.initialDelay = builder.initialDelay;
+        this.minDelay = builder.minDelay;
+    }
+
+    /**
+     * Factory method to create a new policy builder.
+     * @return a new Builder instance
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    public double getPercentile() {
+        return percentile;
+    }
+
+    public int getMinSamples() {
+        return minSamples;
+    }
+
+    public Duration getInitialDelay() {
+        return initialDelay;
+    }
+
+    public Duration getMinDelay() {
+        return minDelay;
+    }
+
+    public static final class Builder {
+        private double percentile = 95.0;
+        private int minSamples = 20;
+        private Duration initialDelay = Duration.ofSeconds(1);
+        private Duration minDelay = Duration.ofMillis(10);
+
+        private Builder() {
+        }
+
+        /**
+         * @param percentile - latency percentile of the endpoint after which the hedge is sent, 95 by default
+         */
+        public Builder percentile(double percentile) {
+            this.percentile = percentile;
+            return this;
+        }
+
+        /**
+         * @param minSamples - completed calls of an endpoint required before its percentile is trusted
+         */
+        public Builder minSamples(int minSamples) {
+            this.minSamples = minSamples;
+            return this;
+        }
+
+        /**
+         * @param initialDelay - hedge delay used until an endpoint has enough samples
+         */
+        public Builder initialDelay(Duration initialDelay) {
+            this.initialDelay = initialDelay;
+            return this;
+        }
+
+        /**
+         * @param minDelay - lower bound of the hedge delay, so very fast endpoints are not hedged on every call
+         */
+        public Builder minDelay(Duration minDelay) {
+            this.minDelay = minDelay;
+            return this;
+        }
+
+        public HedgingPolicy build() {
+            return new HedgingPolicy(this);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package api.requestExecutor.retry;
+
+import api.requestExecutor.ApiRequest;
+import io.restassured.http.Method;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * When and how often {@link RetryingTransport} retries a request.
+ * <p>
+ * Only idempotent requests are retried by default: GET, HEAD, OPTIONS, PUT, DELETE, TRACE, and any request
+ * carrying an Idempotency-Key header. Requests are retried after transport failures (connection reset,
+ * timeout) and on the configured status codes. The wait before attempt n is drawn uniformly from
+ * [0, min(maxBackoff, initialBackoff * multiplier^(n-2))] ("full jitter"), so clients that failed together
+ * do not retry together.
+ */
+public final class RetryPolicy {
+    private static final Set<Method> IDEMPOTENT_METHODS = EnumSet.of(Method.GET, Method.HEAD, Method.OPTIONS, Method.PUT, Method.DELETE, Method.TRACE);
+    private static final RetryPolicy NONE = newBuilder().maxAttempts(1).build();
+
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final double multiplier;
+    private final Set<Integer> retryableStatusCodes;
+    private final boolean retryNonIdempotent;
+
+    private RetryPolicy(Builder builder) {
+        this.maxAttempts = builder.maxAttempts;
+        this.initialBackoff = builder.initialBackoff;
+        this.maxBackoff = builder.maxBackoff;
+        this.multiplier = builder.multiplier;
+        this.retryableStatusCodes = Set.copyOf(builder.retryableStatusCodes);
+        this.retryNonIdempotent = builder.retryNonIdempotent;
+    }
+
+    /**
+     * Factory method to create a new policy builder.
+     * @return a new Builder instance
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * @return policy that sends every request exactly once
+     */
+    public static RetryPolicy none() {
+        return NONE;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * @param request - request about to be retried
+     * @return true when the request may safely be sent more than once under this policy
+     */
+    public boolean isRetryable(ApiRequest request) {
+        if (retryNonIdempotent || IDEMPOTENT_METHODS.contains(request.getMethod())) {
+            return true;
+        }
+        for (String header : request.getHeaders().keySet()) {
+            if ("Idempotency-Key".equalsIgnoreCase(header)) return true;
+        }
+        return false;
+    }
+
+    public boolean isRetryableStatus(int statusCode) {
+        return retryableStatusCodes.contains(statusCode);
+    }
+
+    /**
+     * @param attempt - attempt about to be made, starting at 2 for the first retry
+     * @return jittered wait before the attempt
+     */
+    public long backoffNanos(int attempt) {
+        double ceiling = initialBackoff.toNanos() * Math.pow(multiplier, Math.max(attempt - 2, 0));
+        long cap = (long) Math.min(ceiling, maxBackoff.toNanos());
+        return cap <= 0 ? 0 : ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    public static final class Builder {
+        private int maxAttempts = 3;
+        private Duration initialBackoff = Duration.ofMillis(100);
+        private Duration maxBackoff = Duration.ofSeconds(5);
+        private double multiplier = 2.0;
+        private Set<Integer> retryableStatusCodes = new HashSet<>(Set.of(502, 503, 504));
+        private boolean retryNonIdempotent;
+
+        private Builder() {
+        }
+
+        /**
+         * @param maxAttempts - total number of attempts including the first one; 1 disables retries
+         */
+        public Builder maxAttempts(int maxAttempts) {
+            if (maxAttempts < 1) {
+                throw new IllegalArgumentException("maxAttempts must be at least 1");
+            }
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        public Builder initialBackoff(Duration initialBackoff) {
+            this.initialBackoff = initialBackoff;
+            return this;
+        }
+
+        public Builder maxBackoff(Duration maxBackoff) {
+            this.maxBackoff = maxBackoff;
+            return this;
+        }
+
+        public Builder multiplier(double multiplier) {
+            this.multiplier = multiplier;
+            return this;
+        }
+
+        /**
+         * @param statusCodes - response codes that trigger a retry, 502, 503 and 504 by default
+         */
+        public Builder retryOnStatus(Integer... statusCodes) {
+            this.retryableStatusCodes = new HashSet<>(Set.of(statusCodes));
+            return this;
+        }
+
+        /**
+         * Also retries POST and PATCH requests without an Idempotency-Key. Only enable this for endpoints
+         * known to tolerate duplicates.
+         */
+        public Builder retryNonIdempotent() {
+            this.retryNonIdempotent = true;
+            return this;
+        }
+
+        public RetryPolicy build() {
+            return new RetryPolicy(this);
+        }
+    }
+}
@@ -0,0 +1,373 @@
+package api.requestExecutor.retry;
+
+import api.requestExecutor.ApiCallResult;
+import api.requestExecutor.ApiExecutors;
+import api.requestExecutor.ApiRequest;
+import api.requestExecutor.load.LatencyHistogram;
+import api.requestExecutor.transport.HttpTransport;
+import io.restassured.http.Method;
+import unifiedReports.LoggerFactory;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Transport decorator adding retries with jittered exponential backoff and, optionally, hedged GET requests.
+ * <p>
+ * The retry policy is chosen per request: the policy of the longest matching endpoint prefix (matched
+ * against the URL template, before path parameters are substituted), else the policy of the HTTP method,
+ * else the default policy. See {@link RetryPolicy} for which requests and failures are retried.
+ * <p>
+ * With a {@link HedgingPolicy}, a GET that is still outstanding after the endpoint's p95 latency is sent a
+ * second time and whichever response arrives first is used; the slower call completes in the background
+ * and is discarded. Each hedged pair counts as a single attempt for the retry policy.
+ * <p>
+ * Latencies are tracked per route rather than per URL, so calls for different ids share one percentile:
+ * the longest endpoint policy prefix when one matches, else the path with the query and id-like segments
+ * (numbers, and tokens of eight or more characters containing a digit, such as UUIDs) removed. At most
+ * {@link #MAX_ROUTES} routes are tracked; calls to further routes share one histogram per method.
+ */
+public final class RetryingTransport implements HttpTransport {
+    /** Routes whose latencies are tracked separately for hedging. */
+    public static final int MAX_ROUTES = 256;
+    private static final Pattern ID_SEGMENT = Pattern.compile("\\d+|(?=[^/]*\\d)[0-9A-Za-z_-]{8,}");
+
+    private final HttpTransport delegate;
+    private final RetryPolicy defaultPolicy;
+    private final Map<Method, RetryPolicy> methodPolicies;
+    private final Map<String, RetryPolicy> endpointPolicies;
+    private final HedgingPolicy hedgingPolicy;
+    private final Map<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+
+    private RetryingTransport(Builder builder) {
+        this.delegate = builder.delegate;
+        this.defaultPolicy = builder.defaultPolicy;
+        this.methodPolicies = new EnumMap<>(builder.methodPolicies);
+        this.endpointPolicies = new LinkedHashMap<>(builder.endpointPolicies);
+        this.hedgingPolicy = builder.hedgingPolicy;
+    }
+
+    /**
+     * Factory method to create a builder wrapping the given transport.
+     * @param delegate - transport every attempt is sent through
+     * @return a new Builder instance
+     */
+    public static Builder newBuilder(HttpTransport delegate) {
+        return new Builder(delegate);
+    }
+
+    /**
+     * Wraps a transport according to -Dunified.retry.maxAttempts (retries with the default backoff) and
+     * -Dunified.retry.hedge=true (p95 hedging of GET requests).
+     * @param delegate - transport every attempt is sent through
+     * @return the delegate itself when neither is configured or it already retries
+     */
+    public static HttpTransport fromSystemProperties(HttpTransport delegate) {
+        int maxAttempts = Integer.getInteger("unified.retry.maxAttempts", 1);
+        boolean hedge = Boolean.getBoolean("unified.retry.hedge");
+        if ((maxAttempts <= 1 && !hedge) || delegate instanceof RetryingTransport) {
+            return delegate;
+        }
+        Builder builder = newBuilder(delegate).defaultPolicy(RetryPolicy.newBuilder().maxAttempts(Math.max(maxAttempts, 1)).build());
+        if (hedge) builder.hedging(HedgingPolicy.newBuilder().build());
+        return builder.build();
+    }
+
+    @Override
+    public ApiCallResult execute(ApiRequest request) {
+        RetryPolicy policy = policyFor(request);
+        int maxAttempts = policy.isRetryable(request) ? policy.getMaxAttempts() : 1;
+        for (int attempt = 1; ; attempt++) {
+            ApiCallResult result;
+            try {
+                result = send(request);
+            } catch (RuntimeException e) {
+                if (attempt >= maxAttempts || !isTransportFailure(e)) throw e;
+                backoff(request, policy, attempt + 1, maxAttempts, e.getMessage());
+                continue;
+            }
+            int statusCode = result.getResponse().getStatusCode();
+            if (attempt >= maxAttempts || !policy.isRetryableStatus(statusCode)) {
+                return result;
+            }
+            backoff(request, policy, attempt + 1, maxAttempts, "status " + statusCode);
+        }
+    }
+
+    /**
+     * Sends each attempt through the delegate's asynchronous call and waits out backoffs on a timer, so no
+     * thread is blocked between attempts.
+     */
+    @Override
+    public CompletableFuture<ApiCallResult> executeAsync(ApiRequest request) {
+        RetryPolicy policy = policyFor(request);
+        return attemptAsync(request, policy, 1, policy.isRetryable(request) ? policy.getMaxAttempts() : 1);
+    }
+
+    /**
+     * @return transport every attempt is sent through
+     */
+    public HttpTransport getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Creates a transport with the same policies that sends its attempts through another transport, e.g. the
+     * delegate wrapped in rate limiting, so every attempt is paced.
+     * @param delegate - transport every attempt is sent through
+     * @return this transport when the delegate is the same, otherwise a new RetryingTransport that starts
+     * without the latencies observed for hedging so far
+     */
+    public RetryingTransport withDelegate(HttpTransport delegate) {
+        if (delegate == this.delegate) {
+            return this;
+        }
+        Builder builder = newBuilder(delegate).defaultPolicy(defaultPolicy).hedging(hedgingPolicy);
+        methodPolicies.forEach(builder::methodPolicy);
+        endpointPolicies.forEach(builder::endpointPolicy);
+        return builder.build();
+    }
+
+    /**
+     * @param request - request whose route is looked up
+     * @return observed latencies of the route that drive its hedge delay, or null when it was never hedged
+     */
+    public LatencyHistogram getLatencies(ApiRequest request) {
+        LatencyHistogram histogram = latencies.get(routeKey(request));
+        return histogram != null || latencies.size() < MAX_ROUTES ? histogram : latencies.get(request.getMethod() + " *");
+    }
+
+    private RetryPolicy policyFor(ApiRequest request) {
+        String longestPrefix = longestPrefix(request);
+        if (longestPrefix != null) {
+            return endpointPolicies.get(longestPrefix);
+        }
+        return methodPolicies.getOrDefault(request.getMethod(), defaultPolicy);
+    }
+
+    private String longestPrefix(ApiRequest request) {
+        String longestPrefix = null;
+        for (String prefix : endpointPolicies.keySet()) {
+            if (request.getUrl().startsWith(prefix) && (longestPrefix == null || prefix.length() > longestPrefix.length())) {
+                longestPrefix = prefix;
+            }
+        }
+        return longestPrefix;
+    }
+
+    private LatencyHistogram histogramFor(ApiRequest request) {
+        String route = routeKey(request);
+        LatencyHistogram histogram = latencies.get(route);
+        if (histogram != null) {
+            return histogram;
+        }
+        if (latencies.size() >= MAX_ROUTES) {
+            route = request.getMethod() + " *";
+        }
+        return latencies.computeIfAbsent(route, key -> new LatencyHistogram());
+    }
+
+    private String routeKey(ApiRequest request) {
+        String longestPrefix = longestPrefix(request);
+        if (longestPrefix != null) {
+            return request.getMethod() + " " + longestPrefix;
+        }
+        String url = request.getUrl();
+        int end = url.length();
+        for (char delimiter : new char[]{'?', '#'}) {
+            int index = url.indexOf(delimiter);
+            if (index >= 0) end = Math.min(end, index);
+        }
+        StringBuilder route = new StringBuilder(request.getMethod().name()).append(' ');
+        for (String segment : url.substring(0, end).split("/", -1)) {
+            if (route.charAt(route.length() - 1) != ' ') route.append('/');
+            route.append(ID_SEGMENT.matcher(segment).matches() ? "{id}" : segment);
+        }
+        return route.toString();
+    }
+
+    private CompletableFuture<ApiCallResult> attemptAsync(ApiRequest request, RetryPolicy policy, int attempt, int maxAttempts) {
+        return sendAsync(request).handle((result, failure) -> {
+            if (failure != null) {
+                RuntimeException cause = unwrap(failure);
+                if (attempt >= maxAttempts || !isTransportFailure(cause)) {
+                    return CompletableFuture.<ApiCallResult>failedFuture(cause);
+                }
+                return retryAsync(request, policy, attempt + 1, maxAttempts, cause.getMessage());
+            }
+            int statusCode = result.getResponse().getStatusCode();
+            if (attempt >= maxAttempts || !policy.isRetryableStatus(statusCode)) {
+                return CompletableFuture.completedFuture(result);
+            }
+            return retryAsync(request, policy, attempt + 1, maxAttempts, "status " + statusCode);
+        }).thenCompose(Function.identity());
+    }
+
+    private CompletableFuture<ApiCallResult> retryAsync(ApiRequest request, RetryPolicy policy, int nextAttempt, int maxAttempts, String reason) {
+        long waitNanos = policy.backoffNanos(nextAttempt);
+        logRetry(request, nextAttempt, maxAttempts, waitNanos, reason);
+        Executor afterBackoff = CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS, ApiExecutors.requestExecutor());
+        return CompletableFuture.supplyAsync(() -> attemptAsync(request, policy, nextAttempt, maxAttempts), afterBackoff)
+                .thenCompose(Function.identity());
+    }
+
+    private ApiCallResult send(ApiRequest request) {
+        if (hedgingPolicy == null || request.getMethod() != Method.GET) {
+            return delegate.execute(request);
+        }
+        try {
+            return hedged(request).get();
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + request.getMethod() + " " + request.getUrl(), e);
+        }
+    }
+
+    private CompletableFuture<ApiCallResult> sendAsync(ApiRequest request) {
+        try {
+            return hedgingPolicy == null || request.getMethod() != Method.GET ? delegate.executeAsync(request) : hedged(request);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    // the hedge is only sent when the first call is still outstanding after the delay
+    private CompletableFuture<ApiCallResult> hedged(ApiRequest request) {
+        LatencyHistogram histogram = histogramFor(request);
+        long delayNanos = hedgeDelayNanos(histogram);
+        CompletableFuture<ApiCallResult> primary = timed(request, histogram);
+        CompletableFuture<ApiCallResult> delay = CompletableFuture.supplyAsync(() -> null,
+                CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS, ApiExecutors.requestExecutor()));
+        return primary.applyToEither(delay, Function.identity()).thenCompose(result -> {
+            if (result != null) {
+                return CompletableFuture.completedFuture(result);
+            }
+            CompletableFuture<ApiCallResult> hedge = timed(request, histogram);
+            LoggerFactory.getApiConsoleLogger().logMessage("Hedging " + request.getMethod() + " " + request.getUrl()
+                    + " after " + TimeUnit.NANOSECONDS.toMillis(delayNanos) + "ms");
+            return firstSuccessful(primary, hedge);
+        });
+    }
+
+    // every call records its own latency, so hedging does not hide the endpoint's real tail from the percentile
+    private CompletableFuture<ApiCallResult> timed(ApiRequest request, LatencyHistogram histogram) {
+        long start = System.nanoTime();
+        return delegate.executeAsync(request).whenComplete((result, failure) -> {
+            if (failure == null) histogram.recordNanos(System.nanoTime() - start);
+        });
+    }
+
+    private long hedgeDelayNanos(LatencyHistogram histogram) {
+        long delayNanos = histogram.getTotalCount() >= hedgingPolicy.getMinSamples()
+                ? (long) (histogram.getPercentileMillis(hedgingPolicy.getPercentile()) * 1_000_000)
+                : hedgingPolicy.getInitialDelay().toNanos();
+        return Math.max(delayNanos, hedgingPolicy.getMinDelay().toNanos());
+    }
+
+    private static CompletableFuture<ApiCallResult> firstSuccessful(CompletableFuture<ApiCallResult> primary, CompletableFuture<ApiCallResult> hedge) {
+        CompletableFuture<ApiCallResult> winner = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        BiConsumer<ApiCallResult, Throwable> onComplete = (result, failure) -> {
+            if (failure == null) {
+                winner.complete(result);
+            } else if (failures.incrementAndGet() == 2) {
+                winner.completeExceptionally(failure);
+            }
+        };
+        primary.whenComplete(onComplete);
+        hedge.whenComplete(onComplete);
+        return winner;
+    }
+
+    private static void backoff(ApiRequest request, RetryPolicy policy, int nextAttempt, int maxAttempts, String reason) {
+        long waitNanos = policy.backoffNanos(nextAttempt);
+        logRetry(request, nextAttempt, maxAttempts, waitNanos, reason);
+        try {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while backing off " + request.getMethod() + " " + request.getUrl(), e);
+        }
+    }
+
+    private static void logRetry(ApiRequest request, int nextAttempt, int maxAttempts, long waitNanos, String reason) {
+        LoggerFactory.getApiConsoleLogger().logMessage("Retrying " + request.getMethod() + " " + request.getUrl()
+                + " (attempt " + nextAttempt + " of " + maxAttempts + ") in " + TimeUnit.NANOSECONDS.toMillis(waitNanos) + "ms after " + reason);
+    }
+
+    // connection resets, timeouts and refused connections surface as (wrapped) IOExceptions
+    private static boolean isTransportFailure(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof IOException) return true;
+        }
+        return false;
+    }
+
+    private static RuntimeException unwrap(Throwable failure) {
+        Throwable cause = failure;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause instanceof RuntimeException ? (RuntimeException) cause : new IllegalStateException(cause);
+    }
+
+    public static final class Builder {
+        private final HttpTransport delegate;
+        private RetryPolicy defaultPolicy = RetryPolicy.newBuilder().build();
+        private final Map<Method, RetryPolicy> methodPolicies = new EnumMap<>(Method.class);
+        private final Map<String, RetryPolicy> endpointPolicies = new LinkedHashMap<>();
+        private HedgingPolicy hedgingPolicy;
+
+        private Builder(HttpTransport delegate) {
+            this.delegate = delegate;
+        }
+
+        /**
+         * @param policy - policy for requests without a method or endpoint specific policy
+         */
+        public Builder defaultPolicy(RetryPolicy policy) {
+            this.defaultPolicy = policy;
+            return this;
+        }
+
+        public Builder methodPolicy(Method method, RetryPolicy policy) {
+            methodPolicies.put(method, policy);
+            return this;
+        }
+
+        /**
+         * @param urlPrefix - prefix of the URL template, e.g. "https://gateway/orders"; the longest match wins
+         * @param policy - policy for requests to matching endpoints
+         */
+        public Builder endpointPolicy(String urlPrefix, RetryPolicy policy) {
+            endpointPolicies.put(urlPrefix, policy);
+            return this;
+        }
+
+        /**
+         * @param hedgingPolicy - enables hedged GET requests, off by default
+         */
+        public Builder hedging(HedgingPolicy hedgingPolicy) {
+            this.hedgingPolicy = hedgingPolicy;
+            return this;
+        }
+
+        public RetryingTransport build() {
+            return new RetryingTransport(this);
+        }
+    }
+}
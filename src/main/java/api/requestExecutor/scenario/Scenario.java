@@ -0,0 +1,245 @@
+package api.requestExecutor.scenario;
+
+import api.requestExecutor.ApiExecutors;
+import api.requestExecutor.ApiRequest;
+import api.requestExecutor.InvokeApiRequest;
+import unifiedReports.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Runs chained requests as a dependency graph instead of strictly in sequence. The graph is inferred from
+ * the references of every {@link ScenarioStep}: a step starts as soon as the steps it takes values from
+ * have completed, and the scenario takes as long as its longest chain rather than the sum of all calls.
+ * <p>
+ * <b>Only named references let branches run concurrently.</b> A step using %[step].json.path or
+ * $[step].json.path, or declaring {@link ScenarioStep.Builder#dependsOn(String...)}, waits for exactly those
+ * steps. A plain %json.path does not say which response it reads, so its step waits for every step declared
+ * before it, and a scenario written only with plain references runs fully in sequence. {@link #getLevels()}
+ * tells how many sequential round trips remain, and the run logs how many steps wait for all earlier ones.
+ * <p>
+ * A step whose dependency failed is skipped and reported with the failure of that dependency; other
+ * branches keep running.
+ */
+public final class Scenario {
+    private final InvokeApiRequest invokeApiRequest;
+    private final Map<String, ScenarioStep> steps;
+    // every step's dependencies in declaration order, keyed in topological order
+    private final Map<String, List<String>> dependencies;
+    private final int levels;
+    // steps whose unnamed references make them wait for every earlier step
+    private final int serializedSteps;
+
+    private Scenario(Builder builder) {
+        this.invokeApiRequest = builder.invokeApiRequest != null ? builder.invokeApiRequest : new InvokeApiRequest();
+        this.steps = new LinkedHashMap<>(builder.steps);
+        Map<String, List<String>> declared = new LinkedHashMap<>();
+        List<String> earlier = new ArrayList<>();
+        int serialized = 0;
+        for (ScenarioStep step : steps.values()) {
+            Set<String> names = new LinkedHashSet<>();
+            if (step.hasUnnamedReferences()) {
+                names.addAll(earlier);
+                if (!earlier.isEmpty()) serialized++;
+            }
+            for (String name : step.namedDependencies()) {
+                if (!steps.containsKey(name)) {
+                    throw new IllegalArgumentException("Step " + step.getName() + " references unknown step " + name);
+                }
+                names.add(name);
+            }
+            List<String> ordered = new ArrayList<>();
+            for (String name : steps.keySet()) {
+                if (names.contains(name)) ordered.add(name);
+            }
+            declared.put(step.getName(), ordered);
+            earlier.add(step.getName());
+        }
+        this.dependencies = new LinkedHashMap<>();
+        Map<String, Integer> depth = new HashMap<>();
+        for (String name : declared.keySet()) {
+            sort(name, declared, depth, new LinkedHashSet<>());
+        }
+        this.levels = depth.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+        this.serializedSteps = serialized;
+    }
+
+    /**
+     * Factory method to create a new builder.
+     * @return a new Builder instance
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    // depth-first topological sort recording each step's level, the length of its longest dependency chain
+    private int sort(String name, Map<String, List<String>> declared, Map<String, Integer> depth, Set<String> path) {
+        Integer known = depth.get(name);
+        if (known != null) {
+            return known;
+        }
+        if (!path.add(name)) {
+            throw new IllegalArgumentException("Steps depend on each other in a cycle: " + String.join(" -> ", path) + " -> " + name);
+        }
+        int level = 1;
+        for (String dependency : declared.get(name)) {
+            level = Math.max(level, sort(dependency, declared, depth, path) + 1);
+        }
+        path.remove(name);
+        depth.put(name, level);
+        dependencies.put(name, declared.get(name));
+        return level;
+    }
+
+    /**
+     * Runs every step and waits for all of them. Report entries are written into the test on the calling thread.
+     * @return results by step name in declaration order
+     */
+    public ScenarioResult run() {
+        LoggerFactory.getApiConsoleLogger().logMessage("Running scenario of " + steps.size() + " steps in " + levels + " dependency levels"
+                + (serializedSteps > 0 ? ", " + serializedSteps + " steps wait for every earlier step because of unnamed % references" : ""));
+        Queue<String> pendingReportLogs = LoggerFactory.getApiReportLogger().pendingLogsOfCurrentThread();
+        long start = System.nanoTime();
+        ScenarioContext context = newContext();
+        Map<String, CompletableFuture<StepResult>> futures = new HashMap<>();
+        try {
+            for (Map.Entry<String, List<String>> entry : dependencies.entrySet()) {
+                List<CompletableFuture<StepResult>> inputs = new ArrayList<>();
+                for (String dependency : entry.getValue()) {
+                    inputs.add(futures.get(dependency));
+                }
+                ScenarioStep step = steps.get(entry.getKey());
+                futures.put(step.getName(), CompletableFuture.allOf(inputs.toArray(new CompletableFuture<?>[0]))
+                        .thenComposeAsync(ignored -> runStep(step, inputs, context, pendingReportLogs, start), ApiExecutors.requestExecutor()));
+            }
+            CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[0])).join();
+        } finally {
+            LoggerFactory.getApiReportLogger().flushPendingLogs();
+        }
+        Map<String, StepResult> results = new LinkedHashMap<>();
+        for (String name : steps.keySet()) {
+            results.put(name, futures.get(name).join());
+        }
+        return new ScenarioResult(results, context, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Context for running the steps one by one outside {@link #run()}: every step is declared in declaration
+     * order, so unnamed references of a step resolve as they do in run(). Add each response once it arrives.
+     * @return new empty context
+     */
+    public ScenarioContext newContext() {
+        ScenarioContext context = new ScenarioContext();
+        steps.keySet().forEach(context::declare);
+        return context;
+    }
+
+    /**
+     * @return number of steps on the longest dependency chain, the minimum number of sequential round trips
+     */
+    public int getLevels() {
+        return levels;
+    }
+
+    /**
+     * @return steps in an order that runs every step after its dependencies
+     */
+    public List<ScenarioStep> getSteps() {
+        List<ScenarioStep> ordered = new ArrayList<>();
+        dependencies.keySet().forEach(name -> ordered.add(steps.get(name)));
+        return ordered;
+    }
+
+    /**
+     * @param stepName - name of a declared step
+     * @return steps the given step waits for, in declaration order
+     */
+    public List<String> getDependencies(String stepName) {
+        List<String> names = dependencies.get(stepName);
+        if (names == null) {
+            throw new IllegalArgumentException("Unknown step: " + stepName);
+        }
+        return new ArrayList<>(names);
+    }
+
+    private CompletableFuture<StepResult> runStep(ScenarioStep step, List<CompletableFuture<StepResult>> inputs, ScenarioContext context,
+                                                  Queue<String> pendingReportLogs, long scenarioStart) {
+        long stepStart = System.nanoTime();
+        long startMillis = (stepStart - scenarioStart) / 1_000_000;
+        for (CompletableFuture<StepResult> input : inputs) {
+            StepResult dependency = input.join();
+            if (!dependency.isCompleted()) {
+                return CompletableFuture.completedFuture(new StepResult(step.getName(), null, null,
+                        new IllegalStateException("Skipped because step " + dependency.getName() + " failed", dependency.getFailure()), startMillis, 0));
+            }
+        }
+        ApiRequest request;
+        try {
+            // unnamed references see the steps declared before this one, whatever else already completed
+            request = step.resolve(context);
+        } catch (RuntimeException e) {
+            return CompletableFuture.completedFuture(new StepResult(step.getName(), null, null, e, startMillis, 0));
+        }
+        return invokeApiRequest.callAsync(request, pendingReportLogs).handle((result, failure) -> {
+            StepResult stepResult = new StepResult(step.getName(), request, result,
+                    failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure,
+                    startMillis, (System.nanoTime() - stepStart) / 1_000_000);
+            // indexed before dependent steps are started
+            if (stepResult.isCompleted()) {
+                context.addResponse(step.getName(), stepResult.getResponse());
+            }
+            return stepResult;
+        });
+    }
+
+    public static final class Builder {
+        private InvokeApiRequest invokeApiRequest;
+        private final Map<String, ScenarioStep> steps = new LinkedHashMap<>();
+
+        private Builder() {
+        }
+
+        /**
+         * @param invokeApiRequest - executor (and therefore transport) used for every step; defaults to a new InvokeApiRequest
+         */
+        public Builder invokeApiRequest(InvokeApiRequest invokeApiRequest) {
+            this.invokeApiRequest = invokeApiRequest;
+            return this;
+        }
+
+        /**
+         * @param step - step to add; unnamed %json.path references see the steps added before it
+         */
+        public Builder step(ScenarioStep step) {
+            if (steps.putIfAbsent(step.getName(), step) != null) {
+                throw new IllegalArgumentException("Duplicate step name: " + step.getName());
+            }
+            return this;
+        }
+
+        /**
+         * Adds a step without a payload template.
+         * @param name - unique step name
+         * @param request - request template whose header and parameter values may contain references
+         */
+        public Builder step(String name, ApiRequest request) {
+            return step(ScenarioStep.newBuilder(name, request).build());
+        }
+
+        /**
+         * @throws IllegalArgumentException when a reference names an unknown step or steps depend on each other in a cycle
+         */
+        public Scenario build() {
+            return new Scenario(this);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package api.requestExecutor.scenario;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import io.restassured.response.Response;
+import unifiedUtils.JsonPathExpression;
+import unifiedUtils.ResponseBodyBuffer;
+import unifiedUtils.ResponseIndex;
+import unifiedUtils.ValueReference;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread-safe store of the values chained requests take from earlier responses and payloads. Every source is
+ * flattened into a map from canonical path to value when it is added, so references resolve with hash lookups
+ * instead of scanning and re-querying every earlier response:
+ * <ul>
+ *   <li>%json.path - value of the first source, in declaration order, that has a value at json.path</li>
+ *   <li>%[name].path or $[name].path - value at path in the source of that name</li>
+ * </ul>
+ * References are parsed by {@link ValueReference}; source names start with a letter and %[0].path is an unnamed
+ * path into a root array, as in PayloadBuilder.
+ * Paths that address several values (wildcards, member collection over arrays) or use GPath beyond plain paths
+ * are walked on the stored trees instead. Returned values are shared and must be copied before they are modified.
+ */
+public final class ScenarioContext {
+    // beyond this many values a source is only walked, so one huge response does not dominate the heap
+    private static final int MAX_INDEXED_PATHS_PER_SOURCE = 100_000;
+
+    private final Map<String, Integer> order = new ConcurrentHashMap<>();
+    private final AtomicInteger nextOrder = new AtomicInteger();
+    private final Map<String, Source> byName = new ConcurrentHashMap<>();
+    private final ConcurrentNavigableMap<Integer, Source> byOrder = new ConcurrentSkipListMap<>();
+    // canonical path -> value of the earliest declared source having it
+    private final Map<String, Source.Value> firstByPath = new ConcurrentHashMap<>();
+
+    /**
+     * Reserves the position of a source in declaration order before it arrives, so unnamed references find the
+     * same value however concurrent sources complete. Sources added without being declared are appended.
+     * @param name - source name starting with a letter, e.g. a step name
+     * @return position of the source
+     */
+    public int declare(String name) {
+        if (!ValueReference.isName(name)) {
+            throw new IllegalArgumentException("Source name must start with a letter: " + name);
+        }
+        return order.computeIfAbsent(name, ignored -> nextOrder.getAndIncrement());
+    }
+
+    /**
+     * @param name - source name
+     * @return position of the declared source, Integer.MAX_VALUE when it was not declared
+     */
+    int position(String name) {
+        return order.getOrDefault(name, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Indexes the JSON body of a response; bodies that are not JSON are kept for GPath lookups only.
+     * @param name - source name used in %[name] and $[name] references, starting with a letter; replaces an
+     *             earlier source of the name
+     * @param response - response, parsed once through its shared body buffer
+     */
+    public void addResponse(String name, Response response) {
+        add(new Source(name, declare(name), ResponseBodyBuffer.of(response).asJson(), ResponseIndex.of(response)));
+    }
+
+    /**
+     * @param name - source name used in %[name] and $[name] references, starting with a letter; replaces an
+     *             earlier source of the name
+     * @param payload - payload that was sent; copied, later changes to it are not seen
+     */
+    public void addPayload(String name, JsonObject payload) {
+        add(new Source(name, declare(name), payload.deepCopy(), null));
+    }
+
+    /**
+     * @param reference - %path, %[name].path or $[name].path
+     * @return referenced value, or null when no source has it or the value is JSON null
+     */
+    public JsonElement resolve(String reference) {
+        return resolve(reference, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param reference - reference as for {@link #resolve(String)}
+     * @param before - unnamed references only see sources declared before this position
+     */
+    JsonElement resolve(String reference, int before) {
+        ValueReference parsed = ValueReference.parse(reference);
+        if (parsed.getName() != null) {
+            Source source = byName.get(parsed.getName());
+            return source != null ? source.get(parsed.getPath()) : null;
+        }
+        return find(parsed.getPath(), before);
+    }
+
+    /**
+     * @param name - source name
+     * @param path - json path in the source
+     * @return value, or null when the source or the path is missing
+     */
+    public JsonElement get(String name, String path) {
+        Source source = byName.get(name);
+        return source != null ? source.get(JsonPathExpression.compile(path)) : null;
+    }
+
+    /**
+     * @param path - json path
+     * @return value of the first source in declaration order having the path, or null
+     */
+    public JsonElement find(String path) {
+        return find(JsonPathExpression.compile(path), Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param name - source name
+     * @return true when a source of the name was added
+     */
+    public boolean contains(String name) {
+        return byName.containsKey(name);
+    }
+
+    private JsonElement find(JsonPathExpression expression, int before) {
+        String key = expression.getIndexKey();
+        if (key != null) {
+            Source.Value first = firstByPath.get(key);
+            if (first != null && first.source.order < before && byName.get(first.source.name) == first.source) {
+                return first.value;
+            }
+        }
+        // not indexed: addresses several values, was beyond the index limit, or the first source was replaced
+        for (Source source : byOrder.headMap(before).values()) {
+            JsonElement value = source.get(expression);
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private void add(Source source) {
+        Source replaced = byName.put(source.name, source);
+        byOrder.put(source.order, source);
+        if (replaced != null) {
+            replaced.indexed.forEach((key, value) -> firstByPath.remove(key, value));
+        }
+        source.indexed.forEach((key, value) -> firstByPath.merge(key, value,
+                (current, candidate) -> candidate.source.order <= current.source.order ? candidate : current));
+    }
+
+    private static final class Source {
+        private final String name;
+        private final int order;
+        private final JsonElement root;
+        private final ResponseIndex gpath;
+        private final Map<String, Value> indexed = new HashMap<>();
+
+        private Source(String name, int order, JsonElement root, ResponseIndex gpath) {
+            this.name = name;
+            this.order = order;
+            this.root = root;
+            this.gpath = gpath;
+            if (root != null) {
+                flatten(root, new StringBuilder());
+            }
+        }
+
+        private void flatten(JsonElement node, StringBuilder key) {
+            if (indexed.size() >= MAX_INDEXED_PATHS_PER_SOURCE) {
+                return;
+            }
+            if (key.length() > 0 && !node.isJsonNull()) {
+                indexed.put(key.toString(), new Value(this, node));
+            }
+            int mark = key.length();
+            if (node.isJsonObject()) {
+                for (Map.Entry<String, JsonElement> member : node.getAsJsonObject().entrySet()) {
+                    JsonPathExpression.appendName(key, member.getKey());
+                    flatten(member.getValue(), key);
+                    key.setLength(mark);
+                }
+            } else if (node.isJsonArray()) {
+                int index = 0;
+                for (JsonElement element : node.getAsJsonArray()) {
+                    JsonPathExpression.appendIndex(key, index++);
+                    flatten(element, key);
+                    key.setLength(mark);
+                }
+            }
+        }
+
+        private JsonElement get(JsonPathExpression expression) {
+            String key = expression.getIndexKey();
+            if (key != null && !key.isEmpty()) {
+                Value value = indexed.get(key);
+                if (value != null) {
+                    return value.value;
+                }
+            }
+            // also reached by plain paths collecting a member over an array, e.g. items.id
+            if (root == null) {
+                return null;
+            }
+            if (expression.isSimple()) {
+                return expression.read(root);
+            }
+            return gpath != null ? gpath.get(expression.getPath()) : null;
+        }
+
+        private static final class Value {
+            private final Source source;
+            private final JsonElement value;
+
+            private Value(Source source, JsonElement value) {
+                this.source = source;
+                this.value = value;
+            }
+        }
+    }
+}
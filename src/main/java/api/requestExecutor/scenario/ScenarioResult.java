@@ -0,0 +1,73 @@
+package api.requestExecutor.scenario;
+
+import io.restassured.response.Response;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Results of a {@link Scenario} run, by step name in declaration order.
+ */
+public final class ScenarioResult {
+    private final Map<String, StepResult> steps;
+    private final ScenarioContext context;
+    private final long durationMillis;
+
+    ScenarioResult(Map<String, StepResult> steps, ScenarioContext context, long durationMillis) {
+        this.steps = Collections.unmodifiableMap(steps);
+        this.context = context;
+        this.durationMillis = durationMillis;
+    }
+
+    /**
+     * @return values of every completed step, for checks on chained values or as the start of a follow-up run
+     */
+    public ScenarioContext getContext() {
+        return context;
+    }
+
+    /**
+     * @param stepName - name of a declared step
+     * @return result of the step
+     */
+    public StepResult getStep(String stepName) {
+        StepResult result = steps.get(stepName);
+        if (result == null) {
+            throw new IllegalArgumentException("Unknown step: " + stepName);
+        }
+        return result;
+    }
+
+    /**
+     * @param stepName - name of a declared step
+     * @return response of the step, or null when it failed or was skipped
+     */
+    public Response getResponse(String stepName) {
+        return getStep(stepName).getResponse();
+    }
+
+    public List<StepResult> getSteps() {
+        return new ArrayList<>(steps.values());
+    }
+
+    /**
+     * @return true when every step received a response
+     */
+    public boolean isCompleted() {
+        return steps.values().stream().allMatch(StepResult::isCompleted);
+    }
+
+    /**
+     * @return wall-clock time of the whole scenario
+     */
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "ScenarioResult{duration=" + durationMillis + "ms, steps=" + steps.values() + "}";
+    }
+}
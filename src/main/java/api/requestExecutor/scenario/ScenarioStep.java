@@ -0,0 +1,218 @@
+package api.requestExecutor.scenario;
+
+import api.requestBuilder.payloadCreation.PayloadTemplate;
+import api.requestExecutor.ApiRequest;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import io.restassured.response.Response;
+import unifiedUtils.ResponseIndex;
+import unifiedUtils.ValueReference;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One request of a {@link Scenario}. Header, path, query and form parameter values as well as payload
+ * modifications may reference earlier responses:
+ * <ul>
+ *   <li>%[step].json.path or $[step].json.path - value at json.path in the response of the named step; the
+ *   step depends on that step only</li>
+ *   <li>%json.path - first response containing json.path, as in PayloadBuilder and HeaderBuilder; since
+ *   the producing step is not named, the step depends on every step declared before it and never runs
+ *   concurrently with them</li>
+ * </ul>
+ * Step names start with a letter, so %[0].id keeps addressing the first element of a root array response.
+ * References are resolved against a {@link ScenarioContext}, in constant time for plain paths.
+ */
+public final class ScenarioStep {
+    private static final Pattern NAMED_REFERENCE = Pattern.compile("^[%$]\\[([A-Za-z][A-Za-z0-9_.-]*)]\\.(.+)$");
+
+    private final String name;
+    private final ApiRequest request;
+    private final JsonObject modifications;
+    // compiled once, the payload is rendered from it on every resolve
+    private final PayloadTemplate payload;
+    private final Set<String> explicitDependencies;
+
+    private ScenarioStep(Builder builder) {
+        this.name = builder.name;
+        this.request = builder.request;
+        this.modifications = builder.modifications;
+        this.payload = builder.basePayload != null ? PayloadTemplate.compile(builder.basePayload, builder.modifications) : null;
+        this.explicitDependencies = Collections.unmodifiableSet(new LinkedHashSet<>(builder.dependencies));
+    }
+
+    /**
+     * Factory method to create a step builder.
+     * @param name - unique name other steps use in %[name] references, starting with a letter
+     * @param request - request template; its header and parameter values may contain references
+     * @return a new Builder instance
+     */
+    public static Builder newBuilder(String name, ApiRequest request) {
+        return new Builder(name, request);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ApiRequest getRequest() {
+        return request;
+    }
+
+    /**
+     * Resolves every reference of the step. Every call indexes the given responses again; code resolving several
+     * steps keeps one context, e.g. from {@link Scenario#newContext()}, and resolves against that instead.
+     * @param responses - responses of the steps this step depends on, by step name in declaration order
+     * @return the request to send
+     * @throws IllegalStateException when a header or parameter reference, or a named payload reference, has no value
+     */
+    public ApiRequest resolve(Map<String, Response> responses) {
+        ScenarioContext context = new ScenarioContext();
+        responses.forEach(context::addResponse);
+        return resolve(context);
+    }
+
+    /**
+     * Resolves every reference of the step against the values collected so far. When the step is declared in the
+     * context, unnamed references only see the sources declared before it.
+     * @param context - responses and payloads of earlier steps
+     * @return the request to send
+     * @throws IllegalStateException when a header or parameter reference, or a named payload reference, has no value
+     */
+    public ApiRequest resolve(ScenarioContext context) {
+        return resolve(context, context.position(name));
+    }
+
+    /**
+     * @param before - unnamed references only see steps declared before this position
+     */
+    ApiRequest resolve(ScenarioContext context, int before) {
+        ApiRequest.Builder builder = request.toBuilder()
+                .headers(resolveValues(request.getHeaders(), context, before))
+                .pathParams(resolveValues(request.getPathParams(), context, before))
+                .queryParams(resolveValues(request.getQueryParams(), context, before))
+                .formParams(resolveValues(request.getFormParams(), context, before));
+        if (payload != null) {
+            builder.body(resolvePayload(context, before));
+        }
+        return builder.build();
+    }
+
+    private Map<String, String> resolveValues(Map<String, String> values, ScenarioContext context, int before) {
+        Map<String, String> resolved = new LinkedHashMap<>(values);
+        for (Map.Entry<String, String> entry : resolved.entrySet()) {
+            if (ValueReference.isReference(entry.getValue())) {
+                entry.setValue(ResponseIndex.asText(valueOf(entry.getValue(), context, before)));
+            }
+        }
+        return resolved;
+    }
+
+    // named references must resolve; unnamed ones without a value leave the base payload field as PayloadBuilder does
+    private String resolvePayload(ScenarioContext context, int before) {
+        return payload.toJson(reference -> ValueReference.referencedName(reference) != null
+                ? valueOf(reference, context, before)
+                : context.resolve(reference, before));
+    }
+
+    private JsonElement valueOf(String reference, ScenarioContext context, int before) {
+        String step = ValueReference.referencedName(reference);
+        if (step != null && !context.contains(step)) {
+            throw new IllegalStateException("Step " + name + ": the response of step " + step + " is not available");
+        }
+        JsonElement value = context.resolve(reference, before);
+        if (value == null) {
+            String path = step != null ? reference.substring(step.length() + 4) : reference.substring(1);
+            throw new IllegalStateException(step != null
+                    ? "Step " + name + ": no value at " + path + " in the response of step " + step
+                    : "Step " + name + ": no earlier response has a value at " + path);
+        }
+        return value;
+    }
+
+    /**
+     * @return names of the steps referenced with %[name] or declared with {@link Builder#dependsOn(String...)}
+     */
+    Set<String> namedDependencies() {
+        Set<String> names = new LinkedHashSet<>(explicitDependencies);
+        forEachReference(value -> {
+            Matcher matcher = NAMED_REFERENCE.matcher(value);
+            if (matcher.matches()) names.add(matcher.group(1));
+        });
+        return names;
+    }
+
+    /**
+     * @return true when a %json.path reference does not name the step producing the value
+     */
+    boolean hasUnnamedReferences() {
+        boolean[] found = new boolean[1];
+        forEachReference(value -> found[0] |= !NAMED_REFERENCE.matcher(value).matches());
+        return found[0];
+    }
+
+    private void forEachReference(Consumer<String> action) {
+        for (Map<String, String> values : List.of(request.getHeaders(), request.getPathParams(), request.getQueryParams(), request.getFormParams())) {
+            for (String value : values.values()) {
+                if (ValueReference.isReference(value)) action.accept(value);
+            }
+        }
+        if (modifications != null) {
+            for (Map.Entry<String, JsonElement> entry : modifications.entrySet()) {
+                JsonElement value = entry.getValue();
+                if (value.isJsonPrimitive() && ValueReference.isReference(value.getAsString())) action.accept(value.getAsString());
+            }
+        }
+    }
+
+    public static final class Builder {
+        private final String name;
+        private final ApiRequest request;
+        private JsonObject basePayload;
+        private JsonObject modifications;
+        private final Set<String> dependencies = new LinkedHashSet<>();
+
+        private Builder(String name, ApiRequest request) {
+            if (name == null || name.isBlank()) {
+                throw new IllegalArgumentException("Step name must not be blank");
+            }
+            if (!ValueReference.isName(name)) {
+                throw new IllegalArgumentException("Step name must start with a letter: " + name);
+            }
+            this.name = name;
+            this.request = request;
+        }
+
+        /**
+         * Builds the request body from a base payload, see PayloadBuilder#buildRequestPayload.
+         * @param basePayload - the original payload
+         * @param modifications - the fields to modify, values may be references
+         */
+        public Builder payload(JsonObject basePayload, JsonObject modifications) {
+            this.basePayload = basePayload;
+            this.modifications = modifications;
+            return this;
+        }
+
+        /**
+         * Orders the step after others it does not take values from, e.g. a cleanup after a check.
+         * @param stepNames - steps that must complete first
+         */
+        public Builder dependsOn(String... stepNames) {
+            Collections.addAll(dependencies, stepNames);
+            return this;
+        }
+
+        public ScenarioStep build() {
+            return new ScenarioStep(this);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package api.requestExecutor.scenario;
+
+import api.requestExecutor.ApiCallResult;
+import api.requestExecutor.ApiRequest;
+import api.requestExecutor.RequestTimings;
+import io.restassured.response.Response;
+
+/**
+ * Outcome of one step of a {@link Scenario} run.
+ */
+public final class StepResult {
+    private final String name;
+    private final ApiRequest request;
+    private final ApiCallResult result;
+    private final Throwable failure;
+    private final long startMillis;
+    private final long durationMillis;
+
+    StepResult(String name, ApiRequest request, ApiCallResult result, Throwable failure, long startMillis, long durationMillis) {
+        this.name = name;
+        this.request = request;
+        this.result = result;
+        this.failure = failure;
+        this.startMillis = startMillis;
+        this.durationMillis = durationMillis;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return request with every reference resolved, or null when the step was not sent
+     */
+    public ApiRequest getRequest() {
+        return request;
+    }
+
+    /**
+     * @return response, or null when the step failed or was skipped
+     */
+    public Response getResponse() {
+        return result != null ? result.getResponse() : null;
+    }
+
+    /**
+     * @return per-phase timings of the call, or null when the step failed or was skipped
+     */
+    public RequestTimings getTimings() {
+        return result != null ? result.getTimings() : null;
+    }
+
+    /**
+     * @return exception raised while resolving or sending the step, or because a dependency failed; null on success
+     */
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    /**
+     * @return milliseconds between the start of the scenario and the start of the step
+     */
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    /**
+     * @return true when a response was received, regardless of its status code
+     */
+    public boolean isCompleted() {
+        return failure == null;
+    }
+
+    @Override
+    public String toString() {
+        return "StepResult{" + name + (failure == null ? ", status=" + result.getResponse().getStatusCode() : ", failure=" + failure)
+                + ", start=" + startMillis + "ms, duration=" + durationMillis + "ms}";
+    }
+}
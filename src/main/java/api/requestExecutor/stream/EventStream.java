@@ -0,0 +1,196 @@
+package api.requestExecutor.stream;
+
+import api.requestExecutor.ApiRequest;
+import api.requestExecutor.RequestTimings;
+import api.requestExecutor.StreamedResponse;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Incremental consumption of a streaming response (server-sent events, NDJSON or chunks). Every event is handed
+ * to the callback as soon as it is complete, on the reading thread, so the next event is only read once the
+ * callback returned. Consumption stops when the server closes the stream, an event matches the stop condition,
+ * the maximum number of events arrived or the timeout expired; an open stream is then aborted, not drained.
+ * Executed with {@link api.requestExecutor.InvokeApiRequest#consumeStream(EventStream)}.
+ */
+public final class EventStream {
+    private final ApiRequest request;
+    private final StreamFormat format;
+    private final Consumer<StreamEvent> onEvent;
+    private final Predicate<StreamEvent> until;
+    private final int maxEvents;
+    private final Duration timeout;
+    private final boolean retainEvents;
+
+    private EventStream(Builder builder) {
+        this.request = builder.request;
+        this.format = builder.format;
+        this.onEvent = builder.onEvent;
+        this.until = builder.until;
+        this.maxEvents = builder.maxEvents;
+        this.timeout = builder.timeout;
+        this.retainEvents = builder.retainEvents;
+    }
+
+    /**
+     * Factory method to create a builder. Requests for server-sent events get "Accept: text/event-stream"
+     * unless they set an Accept header themselves.
+     * @param request - request opening the stream
+     * @return a new Builder instance
+     */
+    public static Builder newBuilder(ApiRequest request) {
+        return new Builder(request);
+    }
+
+    public ApiRequest getRequest() {
+        return request;
+    }
+
+    public StreamFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * Reads events until one of the stop conditions is met.
+     * @param reader - reader over the opened response; not closed
+     * @return stop reason, events and timings
+     */
+    public StreamResult consume(EventStreamReader reader) throws IOException {
+        AtomicBoolean timedOut = new AtomicBoolean();
+        CompletableFuture<Void> deadline = new CompletableFuture<>();
+        if (timeout != null) {
+            // completing the deadline first cancels the timer
+            deadline.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS).whenComplete((ignored, failure) -> {
+                if (failure != null) {
+                    timedOut.set(true);
+                    closeQuietly(reader);
+                }
+            });
+        }
+        List<StreamEvent> events = new ArrayList<>();
+        int count = 0;
+        StreamEvent last = null;
+        StreamResult.StopReason reason = StreamResult.StopReason.COMPLETED;
+        try {
+            StreamEvent event;
+            while ((event = reader.next()) != null) {
+                count++;
+                last = event;
+                if (retainEvents) events.add(event);
+                if (onEvent != null) onEvent.accept(event);
+                if (until != null && until.test(event)) {
+                    reason = StreamResult.StopReason.MATCHED;
+                    break;
+                }
+                if (maxEvents > 0 && count >= maxEvents) {
+                    reason = StreamResult.StopReason.MAX_EVENTS;
+                    break;
+                }
+            }
+            // an aborted stream may also end like a closed one
+            if (reason == StreamResult.StopReason.COMPLETED && timedOut.get()) {
+                reason = StreamResult.StopReason.TIMEOUT;
+            }
+        } catch (IOException | UncheckedIOException e) {
+            if (!timedOut.get()) throw e;
+            reason = StreamResult.StopReason.TIMEOUT;
+        } finally {
+            deadline.complete(null);
+        }
+        StreamedResponse response = reader.getResponse();
+        long total = System.nanoTime() - response.getStartNanos();
+        long headers = response.getTimeToHeadersNanos();
+        return new StreamResult(response.getStatusCode(), response.getStatusLine(), reason, count, events, last,
+                RequestTimings.of(0, 0, 0, headers, total - headers, total, false));
+    }
+
+    private static void closeQuietly(EventStreamReader reader) {
+        try {
+            reader.close();
+        } catch (IOException | RuntimeException e) {
+            // the reading thread reports the timeout
+        }
+    }
+
+    public static final class Builder {
+        private ApiRequest request;
+        private StreamFormat format = StreamFormat.AUTO;
+        private Consumer<StreamEvent> onEvent;
+        private Predicate<StreamEvent> until;
+        private int maxEvents;
+        private Duration timeout;
+        private boolean retainEvents = true;
+
+        private Builder(ApiRequest request) {
+            if (request == null) {
+                throw new IllegalArgumentException("Request is mandatory");
+            }
+            this.request = request;
+        }
+
+        /**
+         * @param format - framing of the body, AUTO (from the Content-Type) by default
+         */
+        public Builder format(StreamFormat format) {
+            this.format = format;
+            return this;
+        }
+
+        /**
+         * @param onEvent - called on the reading thread for every event, before the stop condition is checked;
+         *                an exception thrown here aborts the stream and is rethrown to the caller
+         */
+        public Builder onEvent(Consumer<StreamEvent> onEvent) {
+            this.onEvent = onEvent;
+            return this;
+        }
+
+        /**
+         * @param until - stop condition; the first matching event ends consumption
+         */
+        public Builder until(Predicate<StreamEvent> until) {
+            this.until = until;
+            return this;
+        }
+
+        /**
+         * @param maxEvents - number of events after which consumption stops, 0 (default) for no limit
+         */
+        public Builder maxEvents(int maxEvents) {
+            this.maxEvents = maxEvents;
+            return this;
+        }
+
+        /**
+         * @param timeout - maximum time events are consumed once the response headers arrived, no limit by default
+         */
+        public Builder timeout(Duration timeout) {
+            this.timeout = timeout;
+            return this;
+        }
+
+        /**
+         * @param retainEvents - keep every event in the result, on by default; turn off for long streams
+         */
+        public Builder retainEvents(boolean retainEvents) {
+            this.retainEvents = retainEvents;
+            return this;
+        }
+
+        public EventStream build() {
+            if (format == StreamFormat.SSE && request.getHeaders().keySet().stream().noneMatch("Accept"::equalsIgnoreCase)) {
+                request = request.toBuilder().header("Accept", "text/event-stream").build();
+            }
+            return new EventStream(this);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package api.requestExecutor.stream;
+
+import api.requestExecutor.StreamedResponse;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Pull parser over a {@link StreamedResponse}: every {@link #next()} blocks until the next complete event
+ * arrived. Nothing is read ahead of the caller, so a slow consumer slows the server down through TCP flow
+ * control instead of piling events up in memory.
+ */
+public final class EventStreamReader implements AutoCloseable {
+    private static final int CHUNK_BUFFER_SIZE = 64 * 1024;
+
+    private final StreamedResponse response;
+    private final StreamFormat format;
+    private final Charset charset;
+    private final BufferedReader lines;
+    private final byte[] chunkBuffer;
+    private int index;
+    private long previousNanos;
+    // the last event id carries over to later events without an id field
+    private String lastEventId;
+
+    private EventStreamReader(StreamedResponse response, StreamFormat format) {
+        this.response = response;
+        this.format = format.resolve(response.getContentType());
+        // event streams are always UTF-8, other formats follow the Content-Type
+        this.charset = this.format == StreamFormat.SSE ? StandardCharsets.UTF_8 : response.getCharset();
+        InputStream body = response.getBody();
+        this.lines = this.format == StreamFormat.CHUNKS ? null : new BufferedReader(new InputStreamReader(body, charset));
+        this.chunkBuffer = this.format == StreamFormat.CHUNKS ? new byte[CHUNK_BUFFER_SIZE] : null;
+        this.previousNanos = response.getStartNanos() + response.getTimeToHeadersNanos();
+    }
+
+    /**
+     * @param response - open response; closed together with the reader
+     * @param format - framing of the body, AUTO to choose it from the Content-Type
+     * @return reader positioned before the first event
+     */
+    public static EventStreamReader of(StreamedResponse response, StreamFormat format) {
+        return new EventStreamReader(response, format);
+    }
+
+    public StreamedResponse getResponse() {
+        return response;
+    }
+
+    /**
+     * @return framing used to parse the body, never AUTO
+     */
+    public StreamFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * Blocks until the next event is complete.
+     * @return next event, or null when the server closed the stream
+     */
+    public StreamEvent next() throws IOException {
+        switch (format) {
+            case SSE:
+                return nextServerSentEvent();
+            case NDJSON:
+                return nextLine();
+            default:
+                return nextChunk();
+        }
+    }
+
+    // https://html.spec.whatwg.org/multipage/server-sent-events.html#event-stream-interpretation
+    private StreamEvent nextServerSentEvent() throws IOException {
+        String type = null;
+        StringBuilder data = null;
+        String line;
+        while ((line = lines.readLine()) != null) {
+            if (line.isEmpty()) {
+                if (data != null) {
+                    return event(type != null ? type : "message", lastEventId, data.toString());
+                }
+                type = null;
+                continue;
+            }
+            if (line.charAt(0) == ':') {
+                continue;
+            }
+            int colon = line.indexOf(':');
+            String field = colon >= 0 ? line.substring(0, colon) : line;
+            String value = colon >= 0 ? line.substring(colon + (line.startsWith(" ", colon + 1) ? 2 : 1)) : "";
+            switch (field) {
+                case "data":
+                    data = data == null ? new StringBuilder(value) : data.append('\n').append(value);
+                    break;
+                case "event":
+                    type = value;
+                    break;
+                case "id":
+                    if (value.indexOf('\0') < 0) lastEventId = value;
+                    break;
+                default:
+                    // retry and unknown fields are ignored
+                    break;
+            }
+        }
+        // an event without its terminating blank line is incomplete and dropped, as browsers do
+        return null;
+    }
+
+    private StreamEvent nextLine() throws IOException {
+        String line;
+        while ((line = lines.readLine()) != null) {
+            if (!line.isBlank()) {
+                return event(null, null, line);
+            }
+        }
+        return null;
+    }
+
+    private StreamEvent nextChunk() throws IOException {
+        int read = response.getBody().read(chunkBuffer);
+        while (read == 0) {
+            read = response.getBody().read(chunkBuffer);
+        }
+        return read < 0 ? null : event(null, null, new String(chunkBuffer, 0, read, charset));
+    }
+
+    private StreamEvent event(String type, String id, String data) {
+        long now = System.nanoTime();
+        StreamEvent event = new StreamEvent(index++, type, id, data, now, now - response.getStartNanos(), now - previousNanos);
+        previousNanos = now;
+        return event;
+    }
+
+    /**
+     * Closes the response; a stream that is still open is aborted, not drained.
+     */
+    @Override
+    public void close() throws IOException {
+        response.close();
+    }
+}
@@ -0,0 +1,95 @@
+package api.requestExecutor.stream;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+
+/**
+ * One event of a consumed stream, stamped with its arrival time.
+ */
+public final class StreamEvent {
+    private final int index;
+    private final String type;
+    private final String id;
+    private final String data;
+    private final long receivedNanos;
+    private final long sinceRequestNanos;
+    private final long sincePreviousNanos;
+    private volatile JsonElement json;
+
+    StreamEvent(int index, String type, String id, String data, long receivedNanos, long sinceRequestNanos, long sincePreviousNanos) {
+        this.index = index;
+        this.type = type;
+        this.id = id;
+        this.data = data;
+        this.receivedNanos = receivedNanos;
+        this.sinceRequestNanos = sinceRequestNanos;
+        this.sincePreviousNanos = sincePreviousNanos;
+    }
+
+    /**
+     * @return zero based position of the event in the stream
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return SSE event name, "message" for SSE events without one, null for other formats
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * @return SSE event id, null when absent or for other formats
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @return event payload: joined SSE data lines, one NDJSON line or one chunk
+     */
+    public String getData() {
+        return data;
+    }
+
+    /**
+     * @return payload parsed as JSON once, on first use
+     */
+    public JsonElement asJson() {
+        JsonElement parsed = json;
+        if (parsed == null) {
+            parsed = JsonParser.parseString(data);
+            json = parsed;
+        }
+        return parsed;
+    }
+
+    /**
+     * @return System.nanoTime() when the event was complete
+     */
+    public long getReceivedNanos() {
+        return receivedNanos;
+    }
+
+    /**
+     * @return time from sending the request until the event was complete
+     */
+    public double getSinceRequestMillis() {
+        return sinceRequestNanos / 1_000_000.0;
+    }
+
+    /**
+     * @return time since the previous event, or since the response headers for the first event
+     */
+    public double getSincePreviousMillis() {
+        return sincePreviousNanos / 1_000_000.0;
+    }
+
+    @Override
+    public String toString() {
+        return "#" + index + (type != null ? " " + type : "") + (id != null ? " id=" + id : "")
+                + String.format(" +%.1fms: ", getSinceRequestMillis()) + data;
+    }
+}
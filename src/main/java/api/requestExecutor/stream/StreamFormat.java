@@ -0,0 +1,31 @@
+package api.requestExecutor.stream;
+
+import java.util.Locale;
+
+/**
+ * Framing of an incrementally consumed response body.
+ */
+public enum StreamFormat {
+    /** text/event-stream: events separated by blank lines, with event, id and data fields */
+    SSE,
+    /** newline delimited JSON (or any line oriented text): every non-blank line is an event */
+    NDJSON,
+    /** every read as delivered by the transport, usually one HTTP chunk of a chunked response */
+    CHUNKS,
+    /** chosen from the response Content-Type: SSE, NDJSON or CHUNKS */
+    AUTO;
+
+    /**
+     * @param contentType - Content-Type of the response, may be null
+     * @return this format, or the format matching the content type for AUTO
+     */
+    public StreamFormat resolve(String contentType) {
+        if (this != AUTO) {
+            return this;
+        }
+        String type = contentType != null ? contentType.toLowerCase(Locale.ROOT) : "";
+        if (type.startsWith("text/event-stream")) return SSE;
+        if (type.contains("ndjson") || type.contains("jsonl") || type.contains("json-seq") || type.contains("stream+json")) return NDJSON;
+        return CHUNKS;
+    }
+}
@@ -0,0 +1,104 @@
+package api.requestExecutor.stream;
+
+import api.requestExecutor.RequestTimings;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a consumed stream: why consumption stopped, the retained events and their timing.
+ */
+public final class StreamResult {
+    private static final int SUMMARY_EVENT_CHARS = 500;
+
+    public enum StopReason {
+        /** the server closed the stream */
+        COMPLETED,
+        /** an event matched the stop condition */
+        MATCHED,
+        /** the maximum number of events was reached */
+        MAX_EVENTS,
+        /** the stream was still open when the timeout expired */
+        TIMEOUT
+    }
+
+    private final int statusCode;
+    private final String statusLine;
+    private final StopReason stopReason;
+    private final int eventCount;
+    private final List<StreamEvent> events;
+    private final StreamEvent lastEvent;
+    private final RequestTimings timings;
+
+    StreamResult(int statusCode, String statusLine, StopReason stopReason, int eventCount, List<StreamEvent> events,
+                 StreamEvent lastEvent, RequestTimings timings) {
+        this.statusCode = statusCode;
+        this.statusLine = statusLine;
+        this.stopReason = stopReason;
+        this.eventCount = eventCount;
+        this.events = Collections.unmodifiableList(events);
+        this.lastEvent = lastEvent;
+        this.timings = timings;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public String getStatusLine() {
+        return statusLine;
+    }
+
+    public StopReason getStopReason() {
+        return stopReason;
+    }
+
+    /**
+     * @return number of events received, including events that were not retained
+     */
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * @return retained events in arrival order, empty when retention is off
+     */
+    public List<StreamEvent> getEvents() {
+        return events;
+    }
+
+    /**
+     * @return last event received, which is the matching event for {@link StopReason#MATCHED}; null without events
+     */
+    public StreamEvent getLastEvent() {
+        return lastEvent;
+    }
+
+    /**
+     * @return the event that matched the stop condition, or null
+     */
+    public StreamEvent getMatchedEvent() {
+        return stopReason == StopReason.MATCHED ? lastEvent : null;
+    }
+
+    /**
+     * @return time to the response headers (ttfb), consumption of the events (download) and total time
+     */
+    public RequestTimings getTimings() {
+        return timings;
+    }
+
+    /**
+     * @return one line summary used as the logged response body
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("<").append(eventCount).append(" events in ")
+                .append(String.format("%.1fms", timings.getTotalMillis())).append(", ").append(stopReason);
+        if (lastEvent != null) {
+            String last = lastEvent.toString();
+            sb.append(", last ").append(last.length() > SUMMARY_EVENT_CHARS ? last.substring(0, SUMMARY_EVENT_CHARS) + "..." : last);
+        }
+        return sb.append('>').toString();
+    }
+}
@@ -0,0 +1,47 @@
+package api.requestExecutor.transport;
+
+import api.requestExecutor.ApiCallResult;
+import api.requestExecutor.ApiExecutors;
+import api.requestExecutor.ApiRequest;
+import api.requestExecutor.StreamedResponse;
+import io.restassured.response.Response;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sends an {@link ApiRequest} over the wire and returns a Rest Assured compatible response.
+ * Implementations must be thread-safe; a single instance is shared by every test thread of a suite.
+ */
+public interface HttpTransport {
+
+    /**
+     * Executes the request and fully reads the response.
+     * @param request - request to send
+     * @return Rest Assured Response with the timings of the call
+     */
+    ApiCallResult execute(ApiRequest request);
+
+    /**
+     * Executes the request without blocking the caller. Transports with a native asynchronous client
+     * override this; the default runs {@link #execute(ApiRequest)} on a request worker thread.
+     * @param request - request to send
+     * @return future completed with the response and timings, or exceptionally if the call failed
+     */
+    default CompletableFuture<ApiCallResult> executeAsync(ApiRequest request) {
+        return CompletableFuture.supplyAsync(() -> execute(request), ApiExecutors.requestExecutor());
+    }
+
+    /**
+     * Sends the request and returns as soon as the response headers arrived, leaving the body on the wire.
+     * Transports that can stream override this; the default executes the request and serves the buffered body.
+     * @param request - request to send
+     * @return response to be read and closed by the caller
+     */
+    default StreamedResponse open(ApiRequest request) {
+        long start = System.nanoTime();
+        Response response = execute(request).getResponse();
+        return new StreamedResponse(response.getStatusCode(), response.getStatusLine(), response.getHeaders().asList(),
+                new ByteArrayInputStream(response.getBody().asByteArray()), null, start);
+    }
+}
@@ -0,0 +1,33 @@
+package api.requestExecutor.transport;
+
+import java.util.Locale;
+
+/**
+ * Selects the transport used by executors that are not given one explicitly.
+ */
+public final class HttpTransports {
+
+    private HttpTransports() {
+    }
+
+    /**
+     * Returns the shared transport configured for the suite with -Dunified.http.transport:
+     * <ul>
+     *   <li>pooled (default) - {@link PooledHttpTransport}, HTTP/1.1 over a keep-alive connection pool</li>
+     *   <li>jdk - {@link JdkHttpTransport}, HTTP/2 with multiplexing when the server supports it</li>
+     * </ul>
+     * @return shared transport instance
+     */
+    public static HttpTransport fromSystemProperties() {
+        String transport = System.getProperty("unified.http.transport", "pooled").trim().toLowerCase(Locale.ROOT);
+        switch (transport) {
+            case "pooled":
+                return PooledHttpTransport.getSharedInstance();
+            case "jdk":
+            case "http2":
+                return JdkHttpTransport.getSharedInstance();
+            default:
+                throw new IllegalArgumentException("Unknown unified.http.transport '" + transport + "', expected pooled or jdk");
+        }
+    }
+}
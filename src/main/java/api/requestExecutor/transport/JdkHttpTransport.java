@@ -0,0 +1,264 @@
+package api.requestExecutor.transport;
+
+import api.requestExecutor.ApiCallResult;
+import api.requestExecutor.ApiRequest;
+import api.requestExecutor.RequestBody;
+import api.requestExecutor.RequestTimings;
+import api.requestExecutor.StreamedResponse;
+import io.restassured.http.Header;
+import io.restassured.response.Response;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.impl.EnglishReasonPhraseCatalog;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+/**
+ * HTTP transport backed by the JDK {@link HttpClient}. HTTP/2 is negotiated by default (ALPN over TLS),
+ * so concurrent requests to the same gateway are multiplexed over a single connection instead of one
+ * socket per in-flight request; servers without HTTP/2 are served over HTTP/1.1.
+ * <p>
+ * The JDK client does not expose DNS, connect or TLS phases, so the time to first byte reported in
+ * {@link RequestTimings} includes connection setup, and connection reuse is not reported.
+ */
+public final class JdkHttpTransport implements HttpTransport {
+    // rejected by the JDK client, which manages them itself
+    private static final Set<String> RESTRICTED_HEADERS = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+    private static volatile JdkHttpTransport sharedInstance;
+
+    static {
+        RESTRICTED_HEADERS.addAll(List.of("Connection", "Content-Length", "Expect", "Host", "Upgrade"));
+    }
+
+    private final HttpClient httpClient;
+    private final Duration responseTimeout;
+
+    private JdkHttpTransport(Builder builder) {
+        HttpClient.Builder clientBuilder = HttpClient.newBuilder()
+                .version(builder.version)
+                .connectTimeout(builder.connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL);
+        if (builder.executor != null) {
+            clientBuilder.executor(builder.executor);
+        }
+        this.httpClient = clientBuilder.build();
+        this.responseTimeout = builder.responseTimeout;
+    }
+
+    /**
+     * Returns the lazily created transport shared by every executor selecting -Dunified.http.transport=jdk.
+     * @return shared JdkHttpTransport
+     */
+    public static JdkHttpTransport getSharedInstance() {
+        if (sharedInstance == null) {
+            synchronized (JdkHttpTransport.class) {
+                if (sharedInstance == null) {
+                    sharedInstance = newBuilder().build();
+                }
+            }
+        }
+        return sharedInstance;
+    }
+
+    /**
+     * Factory method to create a builder for a dedicated client.
+     * @return a new Builder instance
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    @Override
+    public ApiCallResult execute(ApiRequest request) {
+        try {
+            return executeAsync(request).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + request.getMethod() + " " + request.getUrl(), e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new IllegalStateException(e.getCause());
+        }
+    }
+
+    @Override
+    public CompletableFuture<ApiCallResult> executeAsync(ApiRequest request) {
+        HttpRequest httpRequest = createRequest(request);
+        long start = System.nanoTime();
+        long[] headersReceived = new long[1];
+        HttpResponse.BodyHandler<byte[]> bodyHandler = responseInfo -> {
+            headersReceived[0] = System.nanoTime();
+            return HttpResponse.BodySubscribers.ofByteArray();
+        };
+        return httpClient.sendAsync(httpRequest, bodyHandler).handle((httpResponse, failure) -> {
+            if (failure != null) {
+                Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+                if (cause instanceof IOException) {
+                    throw new UncheckedIOException("Request failed: " + request.getMethod() + " " + request.getUrl(), (IOException) cause);
+                }
+                throw cause instanceof RuntimeException ? (RuntimeException) cause : new CompletionException(cause);
+            }
+            long bodyRead = System.nanoTime();
+            Response response = toResponse(httpResponse);
+            long end = System.nanoTime();
+            RequestTimings timings = RequestTimings.of(0, 0, 0, headersReceived[0] - start, bodyRead - headersReceived[0], end - start, false);
+            return new ApiCallResult(response, timings);
+        });
+    }
+
+    /**
+     * Sends the request and returns once the headers arrived; closing the body stream cancels the exchange.
+     */
+    @Override
+    public StreamedResponse open(ApiRequest request) {
+        HttpRequest httpRequest = createRequest(request);
+        long start = System.nanoTime();
+        try {
+            HttpResponse<InputStream> httpResponse = httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofInputStream());
+            return new StreamedResponse(httpResponse.statusCode(), statusLine(httpResponse), headersOf(httpResponse), httpResponse.body(), null, start);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Request failed: " + request.getMethod() + " " + request.getUrl(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + request.getMethod() + " " + request.getUrl(), e);
+        }
+    }
+
+    private HttpRequest createRequest(ApiRequest request) {
+        HttpRequest.Builder requestBuilder = HttpRequest.newBuilder(request.resolveUri()).timeout(responseTimeout);
+        String contentType = request.getContentType();
+        for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+            if (RESTRICTED_HEADERS.contains(header.getKey())) continue;
+            if ("Content-Type".equalsIgnoreCase(header.getKey())) {
+                // an explicit content type always wins over the header map
+                if (contentType == null) contentType = header.getValue();
+                continue;
+            }
+            requestBuilder.header(header.getKey(), header.getValue());
+        }
+        HttpRequest.BodyPublisher bodyPublisher = HttpRequest.BodyPublishers.noBody();
+        RequestBody body = request.getRequestBody();
+        if (body != null) {
+            ContentType type = contentType != null ? ContentType.parseLenient(contentType) : ContentType.TEXT_PLAIN;
+            Charset charset = type.getCharset() != null ? type.getCharset() : StandardCharsets.UTF_8;
+            bodyPublisher = body.isStreamed() ? streamPublisher(body, charset) : HttpRequest.BodyPublishers.ofByteArray(body.toByteArray(charset));
+            if (contentType == null) contentType = ContentType.TEXT_PLAIN.toString();
+        } else if (!request.getFormParams().isEmpty()) {
+            StringBuilder form = new StringBuilder();
+            request.getFormParams().forEach((name, value) -> {
+                if (form.length() > 0) form.append('&');
+                form.append(URLEncoder.encode(name, StandardCharsets.UTF_8)).append('=').append(URLEncoder.encode(value, StandardCharsets.UTF_8));
+            });
+            bodyPublisher = HttpRequest.BodyPublishers.ofString(form.toString(), StandardCharsets.UTF_8);
+            if (contentType == null) contentType = "application/x-www-form-urlencoded; charset=UTF-8";
+        }
+        if (contentType != null) {
+            requestBuilder.header("Content-Type", contentType);
+        }
+        return requestBuilder.method(request.getMethod().name(), bodyPublisher).build();
+    }
+
+    // a whole file is published by the client itself; regions and multipart bodies are pulled from the body's
+    // stream, both in small chunks and with a known Content-Length; generated bodies are sent chunked
+    private static HttpRequest.BodyPublisher streamPublisher(RequestBody body, Charset charset) {
+        if (body.getFile() != null) {
+            try {
+                return HttpRequest.BodyPublishers.ofFile(body.getFile());
+            } catch (FileNotFoundException e) {
+                throw new UncheckedIOException("Cannot read request body " + body.getFile(), e);
+            }
+        }
+        HttpRequest.BodyPublisher stream = HttpRequest.BodyPublishers.ofInputStream(() -> {
+            try {
+                return body.openStream(charset);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read request body " + body, e);
+            }
+        });
+        long length = body.contentLength(charset);
+        return length > 0 ? HttpRequest.BodyPublishers.fromPublisher(stream, length) : stream;
+    }
+
+    private static Response toResponse(HttpResponse<byte[]> httpResponse) {
+        return RestAssuredResponses.of(httpResponse.statusCode(), statusLine(httpResponse), headersOf(httpResponse), httpResponse.body());
+    }
+
+    private static List<Header> headersOf(HttpResponse<?> httpResponse) {
+        List<Header> headers = new ArrayList<>();
+        httpResponse.headers().map().forEach((name, values) -> {
+            // HTTP/2 pseudo headers such as :status are not response headers
+            if (name.startsWith(":")) return;
+            for (String value : values) {
+                headers.add(new Header(name, value));
+            }
+        });
+        return headers;
+    }
+
+    private static String statusLine(HttpResponse<?> httpResponse) {
+        String version = httpResponse.version() == HttpClient.Version.HTTP_2 ? "HTTP/2" : "HTTP/1.1";
+        String reason = EnglishReasonPhraseCatalog.INSTANCE.getReason(httpResponse.statusCode(), Locale.ENGLISH);
+        return version + " " + httpResponse.statusCode() + (reason != null ? " " + reason : "");
+    }
+
+    public static final class Builder {
+        private HttpClient.Version version = HttpClient.Version.HTTP_2;
+        private Duration connectTimeout = Duration.ofSeconds(30);
+        private Duration responseTimeout = Duration.ofMinutes(2);
+        private Executor executor;
+
+        private Builder() {
+        }
+
+        /**
+         * @param version - preferred protocol version, HTTP_2 by default; HTTP_1_1 disables the upgrade
+         */
+        public Builder version(HttpClient.Version version) {
+            this.version = version;
+            return this;
+        }
+
+        public Builder connectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        /**
+         * @param responseTimeout - maximum time from sending the request until the response headers arrive
+         */
+        public Builder responseTimeout(Duration responseTimeout) {
+            this.responseTimeout = responseTimeout;
+            return this;
+        }
+
+        /**
+         * @param executor - executor for the client's asynchronous tasks, the JDK default when not set
+         */
+        public Builder executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        public JdkHttpTransport build() {
+            return new JdkHttpTransport(this);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package api.requestExecutor.transport;
+
+import api.requestExecutor.RequestTimings;
+import org.apache.hc.client5.http.DnsResolver;
+import org.apache.hc.client5.http.SystemDefaultDnsResolver;
+import org.apache.hc.client5.http.socket.PlainConnectionSocketFactory;
+import org.apache.hc.client5.http.ssl.SSLConnectionSocketFactory;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+import javax.net.ssl.SSLContext;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.UnknownHostException;
+
+/**
+ * Collects the connection phases of the call running on the current thread. The classic httpclient5
+ * API resolves, connects and handshakes on the calling thread, so the instrumented resolver and socket
+ * factories below can report into a thread-local recorder without touching the request.
+ */
+final class PhaseRecorder {
+    private static final ThreadLocal<PhaseRecorder> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos = System.nanoTime();
+    private long dnsNanos;
+    private long connectNanos;
+    private long tlsNanos;
+    private long headersReceivedNanos;
+    private long bodyReadNanos;
+    private boolean connected;
+
+    private PhaseRecorder() {
+    }
+
+    static PhaseRecorder start() {
+        PhaseRecorder recorder = new PhaseRecorder();
+        CURRENT.set(recorder);
+        return recorder;
+    }
+
+    void markHeadersReceived() {
+        headersReceivedNanos = System.nanoTime();
+    }
+
+    void markBodyRead() {
+        bodyReadNanos = System.nanoTime();
+    }
+
+    /**
+     * Stops recording on this thread and returns the timings of the finished call.
+     */
+    RequestTimings finish() {
+        CURRENT.remove();
+        long end = System.nanoTime();
+        long headers = headersReceivedNanos > 0 ? headersReceivedNanos : end;
+        long bodyRead = bodyReadNanos > 0 ? bodyReadNanos : end;
+        long ttfb = Math.max(0, headers - startNanos - dnsNanos - connectNanos - tlsNanos);
+        return RequestTimings.of(dnsNanos, connectNanos, tlsNanos, ttfb, bodyRead - headers, end - startNanos, !connected);
+    }
+
+    static void abandon() {
+        CURRENT.remove();
+    }
+
+    private static void addDns(long nanos) {
+        PhaseRecorder recorder = CURRENT.get();
+        if (recorder != null) recorder.dnsNanos += nanos;
+    }
+
+    private static void addConnect(long nanos) {
+        PhaseRecorder recorder = CURRENT.get();
+        if (recorder != null) {
+            recorder.connectNanos += nanos;
+            recorder.connected = true;
+        }
+    }
+
+    private static void addTls(long nanos) {
+        PhaseRecorder recorder = CURRENT.get();
+        if (recorder != null) recorder.tlsNanos += nanos;
+    }
+
+    /**
+     * DNS resolver timing every lookup of the system resolver.
+     */
+    static final class TimedDnsResolver implements DnsResolver {
+        @Override
+        public InetAddress[] resolve(String host) throws UnknownHostException {
+            long start = System.nanoTime();
+            try {
+                return SystemDefaultDnsResolver.INSTANCE.resolve(host);
+            } finally {
+                addDns(System.nanoTime() - start);
+            }
+        }
+
+        @Override
+        public String resolveCanonicalHostname(String host) throws UnknownHostException {
+            return SystemDefaultDnsResolver.INSTANCE.resolveCanonicalHostname(host);
+        }
+    }
+
+    /**
+     * Plain socket factory timing the TCP connect.
+     */
+    static final class TimedPlainSocketFactory extends PlainConnectionSocketFactory {
+        @Override
+        public Socket connectSocket(TimeValue connectTimeout, Socket socket, HttpHost host, InetSocketAddress remoteAddress,
+                                    InetSocketAddress localAddress, HttpContext context) throws IOException {
+            long start = System.nanoTime();
+            try {
+                return super.connectSocket(connectTimeout, socket, host, remoteAddress, localAddress, context);
+            } finally {
+                addConnect(System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * TLS socket factory timing the TCP connect and the TLS handshake separately.
+     */
+    static final class TimedSslSocketFactory extends SSLConnectionSocketFactory {
+        TimedSslSocketFactory(SSLContext sslContext) {
+            super(sslContext);
+        }
+
+        @Override
+        protected void connectSocket(Socket socket, InetSocketAddress remoteAddress, Timeout connectTimeout, HttpContext context) throws IOException {
+            long start = System.nanoTime();
+            try {
+                super.connectSocket(socket, remoteAddress, connectTimeout, context);
+            } finally {
+                addConnect(System.nanoTime() - start);
+            }
+        }
+
+        @Override
+        public Socket createLayeredSocket(Socket socket, String target, int port, Object attachment, HttpContext context) throws IOException {
+            long start = System.nanoTime();
+            try {
+                return super.createLayeredSocket(socket, target, port, attachment, context);
+            } finally {
+                addTls(System.nanoTime() - start);
+            }
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package api.requestExecutor.transport;
+
+import api.requestExecutor.ApiCallResult;
+import api.requestExecutor.ApiRequest;
+import api.requestExecutor.RequestBody;
+import api.requestExecutor.StreamedResponse;
+import io.restassured.http.Header;
+import io.restassured.response.Response;
+import org.apache.hc.client5.http.classic.methods.HttpUriRequestBase;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.entity.UrlEncodedFormEntity;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.socket.ConnectionSocketFactory;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.NameValuePair;
+import org.apache.hc.core5.http.config.Registry;
+import org.apache.hc.core5.http.config.RegistryBuilder;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.http.io.entity.ByteArrayEntity;
+import org.apache.hc.core5.http.message.BasicNameValuePair;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.pool.PoolReusePolicy;
+import org.apache.hc.core5.ssl.SSLContexts;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * HTTP transport backed by a shared, thread-safe httpclient5 connection pool.
+ * Connections are kept alive and reused across requests and test threads, idle connections are evicted
+ * in the background, and no global Rest Assured state is read or modified.
+ */
+public final class PooledHttpTransport implements HttpTransport, AutoCloseable {
+    private static volatile PooledHttpTransport sharedInstance;
+
+    private final CloseableHttpClient httpClient;
+    private final PoolingHttpClientConnectionManager connectionManager;
+
+    private PooledHttpTransport(Builder builder) {
+        // instrumented resolver and socket factories feed the per-phase request timings
+        Registry<ConnectionSocketFactory> socketFactories = RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", new PhaseRecorder.TimedPlainSocketFactory())
+                .register("https", new PhaseRecorder.TimedSslSocketFactory(SSLContexts.createDefault()))
+                .build();
+        this.connectionManager = new PoolingHttpClientConnectionManager(socketFactories, PoolConcurrencyPolicy.STRICT,
+                PoolReusePolicy.LIFO, TimeValue.NEG_ONE_MILLISECOND, null, new PhaseRecorder.TimedDnsResolver(), null);
+        connectionManager.setMaxTotal(builder.maxConnectionsTotal);
+        connectionManager.setDefaultMaxPerRoute(builder.maxConnectionsPerRoute);
+        connectionManager.setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.of(builder.connectTimeout))
+                .setSocketTimeout(Timeout.of(builder.responseTimeout))
+                .setValidateAfterInactivity(TimeValue.ofSeconds(1))
+                .build());
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.of(builder.connectTimeout))
+                .setResponseTimeout(Timeout.of(builder.responseTimeout))
+                .setConnectionKeepAlive(TimeValue.of(builder.keepAlive))
+                .build();
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                // cookies must never leak between tests sharing the pool
+                .disableCookieManagement()
+                // retries are a test decision, not a transport one
+                .disableAutomaticRetries()
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(builder.idleEviction))
+                .build();
+    }
+
+    /**
+     * Returns the lazily created transport shared by every InvokeApiRequest that does not specify its own.
+     * @return shared PooledHttpTransport
+     */
+    public static PooledHttpTransport getSharedInstance() {
+        if (sharedInstance == null) {
+            synchronized (PooledHttpTransport.class) {
+                if (sharedInstance == null) {
+                    sharedInstance = newBuilder().build();
+                    Runtime.getRuntime().addShutdownHook(new Thread(sharedInstance::close, "pooled-http-transport-shutdown"));
+                }
+            }
+        }
+        return sharedInstance;
+    }
+
+    /**
+     * Factory method to create a builder for a dedicated pool.
+     * @return a new Builder instance
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    @Override
+    public ApiCallResult execute(ApiRequest request) {
+        HttpUriRequestBase httpRequest = createRequest(request);
+        PhaseRecorder recorder = PhaseRecorder.start();
+        try {
+            Response response = httpClient.execute(httpRequest, httpResponse -> {
+                recorder.markHeadersReceived();
+                HttpEntity responseEntity = httpResponse.getEntity();
+                byte[] body = responseEntity != null ? EntityUtils.toByteArray(responseEntity) : new byte[0];
+                recorder.markBodyRead();
+                List<Header> headers = new ArrayList<>();
+                for (org.apache.hc.core5.http.Header header : httpResponse.getHeaders()) {
+                    headers.add(new Header(header.getName(), header.getValue()));
+                }
+                return RestAssuredResponses.of(httpResponse.getCode(),
+                        httpResponse.getVersion() + " " + httpResponse.getCode() + " " + httpResponse.getReasonPhrase(), headers, body);
+            });
+            return new ApiCallResult(response, recorder.finish());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Request failed: " + request.getMethod() + " " + request.getUrl(), e);
+        } finally {
+            PhaseRecorder.abandon();
+        }
+    }
+
+    /**
+     * Sends the request and returns once the headers arrived. Closing the response before its body is exhausted
+     * discards the connection instead of draining it.
+     */
+    @Override
+    public StreamedResponse open(ApiRequest request) {
+        HttpUriRequestBase httpRequest = createRequest(request);
+        long start = System.nanoTime();
+        try {
+            ClassicHttpResponse httpResponse = httpClient.executeOpen(null, httpRequest, null);
+            List<Header> headers = new ArrayList<>();
+            for (org.apache.hc.core5.http.Header header : httpResponse.getHeaders()) {
+                headers.add(new Header(header.getName(), header.getValue()));
+            }
+            HttpEntity responseEntity = httpResponse.getEntity();
+            InputStream body = responseEntity != null ? responseEntity.getContent() : InputStream.nullInputStream();
+            return new StreamedResponse(httpResponse.getCode(), httpResponse.getVersion() + " " + httpResponse.getCode() + " " + httpResponse.getReasonPhrase(),
+                    // closing the body or the response drains it; a fully read body has already released its connection,
+                    // so cancelling only aborts unfinished exchanges
+                    headers, body, httpRequest::cancel, start);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Request failed: " + request.getMethod() + " " + request.getUrl(), e);
+        }
+    }
+
+    private HttpUriRequestBase createRequest(ApiRequest request) {
+        HttpUriRequestBase httpRequest = new HttpUriRequestBase(request.getMethod().name(), request.resolveUri());
+        String contentType = request.getContentType();
+        for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+            if (contentType != null && "Content-Type".equalsIgnoreCase(header.getKey())) continue;
+            httpRequest.addHeader(header.getKey(), header.getValue());
+        }
+        if (contentType == null && httpRequest.getFirstHeader("Content-Type") != null) {
+            contentType = httpRequest.getFirstHeader("Content-Type").getValue();
+            httpRequest.removeHeaders("Content-Type");
+        }
+        if (contentType != null) {
+            // sent verbatim; an explicit header always wins over the entity's own content type
+            httpRequest.addHeader("Content-Type", contentType);
+        }
+        httpRequest.setEntity(createEntity(request, contentType));
+        return httpRequest;
+    }
+
+    private HttpEntity createEntity(ApiRequest request, String contentType) {
+        RequestBody body = request.getRequestBody();
+        if (body != null) {
+            ContentType type = contentType != null ? ContentType.parseLenient(contentType) : ContentType.TEXT_PLAIN;
+            Charset charset = type.getCharset() != null ? type.getCharset() : StandardCharsets.UTF_8;
+            if (body.isStreamed()) {
+                return new RequestBodyEntity(body, type, charset);
+            }
+            return new ByteArrayEntity(body.toByteArray(charset), type);
+        }
+        if (!request.getFormParams().isEmpty()) {
+            List<NameValuePair> pairs = new ArrayList<>();
+            request.getFormParams().forEach((name, value) -> pairs.add(new BasicNameValuePair(name, value)));
+            return new UrlEncodedFormEntity(pairs, StandardCharsets.UTF_8);
+        }
+        return null;
+    }
+
+    /**
+     * @return pool statistics (leased, pending, available, max) for diagnostics
+     */
+    public String getPoolStats() {
+        return connectionManager.getTotalStats().toString();
+    }
+
+    @Override
+    public void close() {
+        try {
+            httpClient.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static final class Builder {
+        private int maxConnectionsTotal = 200;
+        private int maxConnectionsPerRoute = 50;
+        private Duration connectTimeout = Duration.ofSeconds(30);
+        private Duration responseTimeout = Duration.ofMinutes(2);
+        private Duration keepAlive = Duration.ofMinutes(1);
+        private Duration idleEviction = Duration.ofSeconds(30);
+
+        private Builder() {
+        }
+
+        public Builder maxConnectionsTotal(int maxConnectionsTotal) {
+            this.maxConnectionsTotal = maxConnectionsTotal;
+            return this;
+        }
+
+        public Builder maxConnectionsPerRoute(int maxConnectionsPerRoute) {
+            this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+            return this;
+        }
+
+        public Builder connectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        public Builder responseTimeout(Duration responseTimeout) {
+            this.responseTimeout = responseTimeout;
+            return this;
+        }
+
+        /**
+         * Keep-alive used when the server does not send a Keep-Alive header.
+         */
+        public Builder keepAlive(Duration keepAlive) {
+            this.keepAlive = keepAlive;
+            return this;
+        }
+
+        /**
+         * Connections idle for longer than this are closed by the background evictor.
+         */
+        public Builder idleEviction(Duration idleEviction) {
+            this.idleEviction = idleEviction;
+            return this;
+        }
+
+        public PooledHttpTransport build() {
+            return new PooledHttpTransport(this);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package api.requestExecutor.transport;
+
+import api.requestExecutor.RequestBody;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.io.entity.AbstractHttpEntity;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+
+/**
+ * httpclient5 entity over a streamed {@link RequestBody}. The body is written straight to the connection's
+ * output stream on every send with a known Content-Length, or chunked for generated bodies, so it is repeatable
+ * and never buffered.
+ */
+final class RequestBodyEntity extends AbstractHttpEntity {
+    private final RequestBody body;
+    private final Charset charset;
+
+    RequestBodyEntity(RequestBody body, ContentType contentType, Charset charset) {
+        super(contentType, null);
+        this.body = body;
+        this.charset = charset;
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public long getContentLength() {
+        return body.contentLength(charset);
+    }
+
+    @Override
+    public InputStream getContent() throws IOException {
+        return body.openStream(charset);
+    }
+
+    @Override
+    public void writeTo(OutputStream outStream) throws IOException {
+        body.writeTo(Channels.newChannel(outStream), charset);
+        outStream.flush();
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+
+    @Override
+    public void close() {
+    }
+}
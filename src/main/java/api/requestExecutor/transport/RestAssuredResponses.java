@@ -0,0 +1,94 @@
+package api.requestExecutor.transport;
+
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.http.Cookie;
+import io.restassured.http.Cookies;
+import io.restassured.http.Header;
+import io.restassured.http.Headers;
+import io.restassured.response.Response;
+import unifiedUtils.ResponseBodyBuffer;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Builds Rest Assured responses from raw status, headers and body bytes, so transports that do not use
+ * Rest Assured on the wire still return responses that support jsonPath, cookies and validation.
+ */
+public final class RestAssuredResponses {
+
+    private RestAssuredResponses() {
+    }
+
+    /**
+     * @param statusCode - HTTP status code
+     * @param statusLine - status line, e.g. "HTTP/1.1 200 OK"
+     * @param headers - response headers in wire order
+     * @param body - body bytes, not copied
+     * @return Rest Assured Response with the body buffer attached
+     */
+    public static Response of(int statusCode, String statusLine, List<Header> headers, byte[] body) {
+        List<String> setCookies = new ArrayList<>();
+        String contentType = null;
+        for (Header header : headers) {
+            if ("Set-Cookie".equalsIgnoreCase(header.getName())) setCookies.add(header.getValue());
+            if (contentType == null && "Content-Type".equalsIgnoreCase(header.getName())) contentType = header.getValue();
+        }
+        ResponseBuilder responseBuilder = new ResponseBuilder()
+                .setStatusCode(statusCode)
+                .setStatusLine(statusLine)
+                .setHeaders(new Headers(headers))
+                .setCookies(parseCookies(setCookies))
+                .setBody(body);
+        if (contentType != null) {
+            responseBuilder.setContentType(contentType);
+        }
+        Response built = responseBuilder.build();
+        // loggers and chaining read the body from this buffer instead of re-materializing it
+        ResponseBodyBuffer.attach(built, body);
+        return built;
+    }
+
+    /**
+     * Parses Set-Cookie headers as RFC 6265 describes: name and value as sent (quotes included), then the
+     * attributes Rest Assured exposes. Headers without a name=value pair are skipped.
+     * @param setCookies - Set-Cookie header values
+     * @return cookies as Rest Assured exposes them
+     */
+    static Cookies parseCookies(List<String> setCookies) {
+        List<Cookie> cookies = new ArrayList<>();
+        for (String setCookie : setCookies) {
+            String[] parts = setCookie.split(";");
+            int equals = parts[0].indexOf('=');
+            if (equals <= 0 || parts[0].substring(0, equals).isBlank()) {
+                continue;
+            }
+            Cookie.Builder builder = new Cookie.Builder(parts[0].substring(0, equals).trim(), parts[0].substring(equals + 1).trim());
+            for (int i = 1; i < parts.length; i++) {
+                String part = parts[i].trim();
+                int separator = part.indexOf('=');
+                String name = separator < 0 ? part : part.substring(0, separator).trim();
+                String value = separator < 0 ? "" : part.substring(separator + 1).trim();
+                try {
+                    if ("Domain".equalsIgnoreCase(name)) builder.setDomain(value);
+                    else if ("Path".equalsIgnoreCase(name)) builder.setPath(value);
+                    else if ("Max-Age".equalsIgnoreCase(name)) builder.setMaxAge(Long.parseLong(value));
+                    else if ("Expires".equalsIgnoreCase(name)) builder.setExpiryDate(Date.from(ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant()));
+                    else if ("Secure".equalsIgnoreCase(name)) builder.setSecured(true);
+                    else if ("HttpOnly".equalsIgnoreCase(name)) builder.setHttpOnly(true);
+                    else if ("SameSite".equalsIgnoreCase(name)) builder.setSameSite(value);
+                    else if ("Comment".equalsIgnoreCase(name)) builder.setComment(value);
+                    else if ("Version".equalsIgnoreCase(name)) builder.setVersion(Integer.parseInt(value));
+                } catch (NumberFormatException | DateTimeParseException e) {
+                    // an attribute with a malformed value is ignored, as user agents do
+                }
+            }
+            cookies.add(builder.build());
+        }
+        return new Cookies(cookies);
+    }
+}
@@ -0,0 +1,69 @@
+package api.requestExecutor.transport;
+
+import api.requestExecutor.ApiCallResult;
+import api.requestExecutor.ApiRequest;
+import api.requestExecutor.RequestBody;
+import api.requestExecutor.RequestTimings;
+import io.restassured.RestAssured;
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Transport for requests that carry a Rest Assured {@link io.restassured.config.SSLConfig}
+ * (client certificates fetched through SecretsAndCertificates). The SSL configuration is scoped to the
+ * request specification, so global Rest Assured state is never reset or modified.
+ */
+public final class RestAssuredTransport implements HttpTransport {
+    private static final RestAssuredTransport INSTANCE = new RestAssuredTransport();
+
+    private RestAssuredTransport() {
+    }
+
+    public static RestAssuredTransport getInstance() {
+        return INSTANCE;
+    }
+
+    @Override
+    public ApiCallResult execute(ApiRequest request) {
+        // the URI is resolved and percent-encoded like for every other transport, Rest Assured must not encode it again
+        RequestSpecification requestSpecification = RestAssured.given().urlEncodingEnabled(false);
+        if (request.getContentType() != null) requestSpecification.contentType(request.getContentType());
+        RequestBody body = request.getRequestBody();
+        if (body != null) {
+            // text stays text so Rest Assured applies its own charset handling as before
+            if (body.getFile() != null) requestSpecification.body(body.getFile().toFile());
+            else if (body.isStreamed()) requestSpecification.body(openStream(body, request));
+            else if (body.isText()) requestSpecification.body(request.getBody());
+            else requestSpecification.body(body.toByteArray(request.getBodyCharset()));
+        }
+        if (!request.getHeaders().isEmpty()) requestSpecification.headers(request.getHeaders());
+        if (body == null && !request.getFormParams().isEmpty() && request.getContentType() == null
+                && request.getHeaders().keySet().stream().noneMatch("Content-Type"::equalsIgnoreCase)) {
+            // form values are encoded as UTF-8 below, as by the other transports
+            requestSpecification.contentType("application/x-www-form-urlencoded; charset=UTF-8");
+        }
+        request.getFormParams().forEach((name, value) ->
+                requestSpecification.formParam(URLEncoder.encode(name, StandardCharsets.UTF_8), URLEncoder.encode(value, StandardCharsets.UTF_8)));
+        if (request.getSslConfig() != null) requestSpecification.config(RestAssuredConfig.config().sslConfig(request.getSslConfig()));
+
+        // Rest Assured does not expose connection phases, only the complete call is measured
+        long start = System.nanoTime();
+        Response response = requestSpecification.request(request.getMethod(), request.resolveUri().toString());
+        return new ApiCallResult(response, RequestTimings.totalOnly(System.nanoTime() - start));
+    }
+
+    private static InputStream openStream(RequestBody body, ApiRequest request) {
+        try {
+            return body.openStream(request.getBodyCharset());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read request body " + body, e);
+        }
+    }
+}
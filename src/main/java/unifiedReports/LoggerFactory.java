@@ -6,6 +6,8 @@ import unifiedReports.webLogger.WebConsoleLogger;
 import unifiedReports.webLogger.WebReportLogger;
 
 public class LoggerFactory {
+    // -1 disables truncation; overridable per run with -Dunified.log.maxBodyBytes=<bytes>
+    private static volatile int maxLoggedBodyBytes = Integer.getInteger("unified.log.maxBodyBytes", 64 * 1024);
 
     public static APIConsoleLogger getApiConsoleLogger() {
         return APIConsoleLogger.getInstance();
@@ -23,4 +25,19 @@ public class LoggerFactory {
         return WebReportLogger.getInstance();
     }
 
+    /**
+     * @return maximum number of body bytes written to the console and report logs
+     */
+    public static int getMaxLoggedBodyBytes() {
+        return maxLoggedBodyBytes;
+    }
+
+    /**
+     * Sets the maximum number of body bytes written to the console and report logs; larger bodies are
+     * truncated and never parsed for pretty printing.
+     * @param maxBytes - byte cap, or -1 to log complete bodies
+     */
+    public static void setMaxLoggedBodyBytes(int maxBytes) {
+        maxLoggedBodyBytes = maxBytes;
+    }
 }
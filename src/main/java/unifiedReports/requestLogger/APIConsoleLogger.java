@@ -1,10 +1,14 @@
 package unifiedReports.requestLogger;
 
+import api.requestExecutor.RequestTimings;
 import com.google.gson.JsonElement;
 import io.restassured.http.Method;
 import io.restassured.response.Response;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import unifiedReports.LoggerFactory;
+import unifiedUtils.ResponseBodyBuffer;
+
 import java.util.Map;
 import java.util.regex.Pattern;
 
@@ -32,6 +36,17 @@ public final class APIConsoleLogger {
      * Logs all details of an outgoing API request.
      */
     public void logRequest(Method method, String url, Map<String, String> headers, String body, Map<String, String> queryParams, Map<String, String> pathParams, Response response, long duration) {
+        logRequest(method, url, headers, body, queryParams, pathParams, response, duration, null);
+    }
+
+    /**
+     * Logs all details of an outgoing API request including the per-phase timings of the call.
+     */
+    public void logRequest(Method method, String url, Map<String, String> headers, String body, Map<String, String> queryParams, Map<String, String> pathParams, Response response, RequestTimings timings) {
+        logRequest(method, url, headers, body, queryParams, pathParams, response, Math.round(timings.getTotalMillis()), timings);
+    }
+
+    private void logRequest(Method method, String url, Map<String, String> headers, String body, Map<String, String> queryParams, Map<String, String> pathParams, Response response, long duration, RequestTimings timings) {
         StringBuilder sb = new StringBuilder();
         sb.append("\n====================== API REQUEST ======================\n");
         sb.append("HTTP Method   : ").append(method).append("\n");
@@ -50,14 +65,17 @@ public final class APIConsoleLogger {
         }
 
         if (body != null && !body.isEmpty()) {
-            sb.append("Request Body  : ").append(body).append("\n");
+            sb.append("Request Body  : ").append(capped(body)).append("\n");
         } else {
             sb.append("Request Body  : <EMPTY>\n");
         }
         if(response!=null){
             sb.append("Status Code  : ").append(response.getStatusCode()).append("\n");
             sb.append("Response Time : ").append(duration).append(" ms\n");
-            sb.append("Response Body  : ").append(response.getBody().asPrettyString()).append("\n");
+            if (timings != null) {
+                sb.append("Timings       : ").append(timings).append("\n");
+            }
+            sb.append("Response Body  : ").append(ResponseBodyBuffer.of(response).preview(LoggerFactory.getMaxLoggedBodyBytes())).append("\n");
         }else {
             sb.append("Response Time : ").append(duration).append(" ms\n");
             sb.append("Response Body : <EMPTY>\n");
@@ -67,6 +85,17 @@ public final class APIConsoleLogger {
             logger.info(stripAnsi(sb.toString()));
         }
     }
+    /**
+     * Cuts a request body at the same cap as response bodies, see {@link LoggerFactory#getMaxLoggedBodyBytes()}.
+     */
+    private static String capped(String body) {
+        int maxChars = LoggerFactory.getMaxLoggedBodyBytes();
+        if (maxChars >= 0 && body.length() > maxChars) {
+            return body.substring(0, maxChars) + "... <truncated, " + (body.length() - maxChars) + " of " + body.length() + " chars not shown>";
+        }
+        return body;
+    }
+
     public void logMessage(String message){
         StringBuilder sb = new StringBuilder();
         sb.append(message+"\n");
@@ -1,12 +1,25 @@
 package unifiedReports.requestLogger;
 
+import api.requestExecutor.RequestTimings;
 import com.aventstack.chaintest.plugins.ChainTestListener;
 import com.google.gson.*;
+import unifiedReports.LoggerFactory;
+import unifiedUtils.ResponseBodyBuffer;
+
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 public class APIReportLogger {
-    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().disableHtmlEscaping().create();
     private static final APIReportLogger INSTANCE = new APIReportLogger();
+    // ChainTest attaches logs to the test running on the current thread, so entries rendered on
+    // request worker threads are parked here until the owning test thread flushes them. The queue is
+    // replaced at every test boundary (PendingApiLogsListener), so requests that complete after their
+    // test ended never reach the report of the next test on the same pooled thread.
+    private static final ThreadLocal<Queue<String>> PENDING_LOGS = ThreadLocal.withInitial(ConcurrentLinkedQueue::new);
 
     private APIReportLogger() {
     }
@@ -19,20 +32,95 @@ public class APIReportLogger {
      */
     public void logApiDetails(String method, String url, String requestBody, int statusCode, String responseBody,
                               boolean isPassed, long duration) {
-        ChainTestListener.log("********************************************************");
+        for (String line : renderApiDetails(method, url, requestBody, statusCode, renderBody(responseBody), duration, null)) {
+            ChainTestListener.log(line);
+        }
+    }
+
+    /**
+     * Logs full API request and response cycle including the per-phase timings of the call.
+     * The response body is rendered from the shared buffer and capped at {@link LoggerFactory#getMaxLoggedBodyBytes()}.
+     */
+    public void logApiDetails(String method, String url, String requestBody, int statusCode, ResponseBodyBuffer responseBody,
+                              boolean isPassed, RequestTimings timings) {
+        for (String line : renderApiDetails(method, url, requestBody, statusCode, responseBody.preview(LoggerFactory.getMaxLoggedBodyBytes()), Math.round(timings.getTotalMillis()), timings)) {
+            ChainTestListener.log(line);
+        }
+    }
+
+    /**
+     * Renders the request and response cycle on the calling (worker) thread and parks it in the pending
+     * queue of the test thread that submitted the request. See {@link #flushPendingLogs()}.
+     * @param pendingLogs - queue obtained from {@link #pendingLogsOfCurrentThread()} on the test thread
+     */
+    public void deferApiDetails(Queue<String> pendingLogs, String method, String url, String requestBody, int statusCode,
+                                ResponseBodyBuffer responseBody, boolean isPassed, RequestTimings timings) {
+        List<String> lines = renderApiDetails(method, url, requestBody, statusCode, responseBody.preview(LoggerFactory.getMaxLoggedBodyBytes()), Math.round(timings.getTotalMillis()), timings);
+        // keep the lines of one entry together when several requests complete at once
+        synchronized (pendingLogs) {
+            pendingLogs.addAll(lines);
+        }
+    }
+
+    /**
+     * @return queue collecting report entries that asynchronous requests produce for the current test thread
+     */
+    public Queue<String> pendingLogsOfCurrentThread() {
+        return PENDING_LOGS.get();
+    }
+
+    /**
+     * Writes the entries produced by asynchronous requests into the report of the test on the current thread.
+     */
+    public void flushPendingLogs() {
+        Queue<String> pendingLogs = PENDING_LOGS.get();
+        // the lock deferApiDetails takes, so an entry is never split between two flushes
+        synchronized (pendingLogs) {
+            String line;
+            while ((line = pendingLogs.poll()) != null) {
+                ChainTestListener.log(line);
+            }
+        }
+    }
+
+    /**
+     * Gives the test starting on the current thread its own pending queue; entries of requests submitted by an
+     * earlier test on this thread stay in that test's queue.
+     */
+    public void startTestLogs() {
+        PENDING_LOGS.set(new ConcurrentLinkedQueue<>());
+    }
+
+    /**
+     * Writes the pending entries into the report of the test ending on the current thread and detaches its queue.
+     * Requests of the test that complete later are logged to the console only.
+     */
+    public void endTestLogs() {
+        flushPendingLogs();
+        PENDING_LOGS.remove();
+    }
+
+    // responseBody is already rendered for logging, so it is never parsed here
+    private List<String> renderApiDetails(String method, String url, String requestBody, int statusCode, String responseBody,
+                                          long duration, RequestTimings timings) {
+        List<String> lines = new ArrayList<>();
+        lines.add("********************************************************");
         String stepTitle = "{"+method +"} - " + url + "(" +duration+"ms)";
-        ChainTestListener.log(stepTitle);
+        lines.add(stepTitle);
+        if (timings != null) {
+            lines.add("Timings: " + timings);
+        }
         if (requestBody != null && !requestBody.isEmpty()) {
-            String prettyReq = prettyJson(requestBody);
-            ChainTestListener.log("Request Body:\n" + prettyReq);
+            String prettyReq = renderBody(requestBody);
+            lines.add("Request Body:\n" + prettyReq);
         }else{
-            ChainTestListener.log("Request Body: <EMPTY>");
+            lines.add("Request Body: <EMPTY>");
         }
-        ChainTestListener.log("Response Status Code:" + statusCode);
+        lines.add("Response Status Code:" + statusCode);
         if (responseBody != null && !responseBody.isEmpty()) {
-            String prettyRes = prettyJson(responseBody);
-            ChainTestListener.log("Response Body: \n" + prettyRes);
+            lines.add("Response Body: \n" + responseBody);
         }
+        return lines;
     }
 
     /**
@@ -51,6 +139,20 @@ public class APIReportLogger {
         }
     }
 
+    /**
+     * Pretty-prints a body that fits the logging cap; larger bodies are cut at the cap without being parsed.
+     */
+    private String renderBody(String body) {
+        if (body == null) {
+            return null;
+        }
+        int maxChars = LoggerFactory.getMaxLoggedBodyBytes();
+        if (maxChars >= 0 && body.length() > maxChars) {
+            return body.substring(0, maxChars) + "... <truncated, " + (body.length() - maxChars) + " of " + body.length() + " chars not shown>";
+        }
+        return prettyJson(body);
+    }
+
     /**
      * Pretty-print JSON safely using Gson.
      */
@@ -0,0 +1,27 @@
+package unifiedReports.requestLogger;
+
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ITestResult;
+
+/**
+ * Scopes the report entries of asynchronous requests to the test that submitted them: every test method starts
+ * with an empty pending queue, and entries still pending when it ends are written into its report before the
+ * queue is detached. Registered through META-INF/services, so no @Listeners annotation is needed.
+ */
+public class PendingApiLogsListener implements IInvokedMethodListener {
+
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (method.isTestMethod()) {
+            APIReportLogger.getInstance().startTestLogs();
+        }
+    }
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (method.isTestMethod()) {
+            APIReportLogger.getInstance().endTestLogs();
+        }
+    }
+}
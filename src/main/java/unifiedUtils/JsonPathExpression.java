@@ -0,0 +1,443 @@
+package unifiedUtils;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * Dotted JSON path parsed once into steps and evaluated by walking a Gson tree, e.g. {@code data.items[0].id}.
+ * Covers the subset of Rest Assured GPath that chained values use:
+ * <ul>
+ *   <li>name, 'quoted.name' or ["quoted.name"] - object member; applied to an array it collects the member of
+ *   every element, as GPath does</li>
+ *   <li>[n] - array element, negative indexes count from the end</li>
+ *   <li>* or [*] - every element of an array or every value of an object</li>
+ *   <li>size() - number of elements or members, last step only</li>
+ * </ul>
+ * Anything else (closures, method calls, operators) is not {@link #isSimple() simple} and has to be evaluated by
+ * Rest Assured. Simple paths can also be written with {@link #set} and {@link #update}. Expressions are immutable
+ * and cached by their text, so hot paths do no parsing.
+ */
+public final class JsonPathExpression {
+    private static final int MAX_CACHED_EXPRESSIONS = 4096;
+    private static final Map<String, JsonPathExpression> CACHE = new ConcurrentHashMap<>();
+    private static final String SPECIAL_CHARACTERS = "(){}?*=<>!&|,;+/\\'\"[] \t";
+
+    private final String path;
+    private final List<Step> steps;
+    private final boolean simple;
+    private final String indexKey;
+
+    private JsonPathExpression(String path) {
+        this.path = path;
+        List<Step> parsed = new ArrayList<>();
+        this.simple = parse(path, parsed);
+        this.steps = simple ? Collections.unmodifiableList(parsed) : List.of();
+        this.indexKey = simple ? indexKeyOf(steps) : null;
+    }
+
+    /**
+     * Returns the parsed expression for the given path, parsing it on first use only.
+     * @param path - dotted path, "" or "$" for the root
+     * @return shared parsed expression
+     */
+    public static JsonPathExpression compile(String path) {
+        JsonPathExpression compiled = CACHE.get(path);
+        if (compiled == null) {
+            compiled = new JsonPathExpression(path);
+            if (CACHE.size() < MAX_CACHED_EXPRESSIONS) {
+                JsonPathExpression existing = CACHE.putIfAbsent(path, compiled);
+                if (existing != null) compiled = existing;
+            }
+        }
+        return compiled;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * @return true when the path only uses the syntax above and can be evaluated here
+     */
+    public boolean isSimple() {
+        return simple;
+    }
+
+    public List<Step> getSteps() {
+        return steps;
+    }
+
+    /**
+     * @return canonical key of the single value the path addresses, as built by {@link #appendName} and
+     * {@link #appendIndex}; null when the path may address several values (wildcards, member collection over
+     * arrays is resolved by walking), counts from the end or is not simple
+     */
+    public String getIndexKey() {
+        return indexKey;
+    }
+
+    /**
+     * Appends an object member to a canonical key, so flattened documents and parsed paths agree on keys.
+     * @param key - key built so far
+     * @param name - member name
+     */
+    public static void appendName(StringBuilder key, String name) {
+        if (!name.isEmpty() && !name.equals("*") && !containsSpecialCharacter(name) && name.indexOf('.') < 0) {
+            if (key.length() > 0) key.append('.');
+            key.append(name);
+        } else {
+            char quote = name.indexOf('\'') < 0 ? '\'' : '"';
+            key.append('[').append(quote).append(name).append(quote).append(']');
+        }
+    }
+
+    /**
+     * @param key - key built so far
+     * @param index - array index
+     */
+    public static void appendIndex(StringBuilder key, int index) {
+        key.append('[').append(index).append(']');
+    }
+
+    private static String indexKeyOf(List<Step> steps) {
+        StringBuilder key = new StringBuilder();
+        for (Step step : steps) {
+            if (step.kind == Step.Kind.NAME) {
+                appendName(key, step.name);
+            } else if (step.kind == Step.Kind.INDEX && step.index >= 0) {
+                appendIndex(key, step.index);
+            } else {
+                return null;
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * Walks the tree along the path.
+     * @param root - parsed document
+     * @return value at the path; null when the path is missing or the value is JSON null
+     * @throws IllegalStateException when the path is not simple
+     */
+    public JsonElement read(JsonElement root) {
+        if (!simple) {
+            throw new IllegalStateException("Not a simple JSON path: " + path);
+        }
+        JsonElement current = root;
+        for (int i = 0; i < steps.size() && current != null; i++) {
+            current = steps.get(i).apply(current);
+        }
+        return current == null || current.isJsonNull() ? null : current;
+    }
+
+    /**
+     * @return true when the path is simple, not empty and does not end with size(), so it can be set
+     */
+    public boolean isWritable() {
+        return simple && !steps.isEmpty() && steps.get(steps.size() - 1).kind != Step.Kind.SIZE;
+    }
+
+    /**
+     * Sets the value at the path, creating missing objects and arrays on the way; arrays are padded with nulls up to
+     * the index. Wildcards, and member names applied to arrays, set the value in every existing element, each a copy.
+     * @param root - object or array to modify
+     * @param value - value to set
+     * @throws IllegalArgumentException when the path is not simple, empty or ends with size()
+     */
+    public void set(JsonElement root, JsonElement value) {
+        boolean[] first = {true};
+        update(root, previous -> {
+            if (first[0]) {
+                first[0] = false;
+                return value;
+            }
+            return value.deepCopy();
+        });
+    }
+
+    /**
+     * Replaces the value at every position the path addresses, creating missing parents as {@link #set} does.
+     * @param root - object or array to modify
+     * @param updater - new value from the previous one, which is null when the position did not exist
+     * @throws IllegalArgumentException when the path is not simple, empty or ends with size()
+     */
+    public void update(JsonElement root, UnaryOperator<JsonElement> updater) {
+        if (!isWritable()) {
+            throw new IllegalArgumentException("Not a writable JSON path: " + path);
+        }
+        if (!root.isJsonObject() && !root.isJsonArray()) {
+            throw new IllegalArgumentException("Only objects and arrays can be modified, not " + root);
+        }
+        update(root, 0, updater);
+    }
+
+    private void update(JsonElement container, int index, UnaryOperator<JsonElement> updater) {
+        Step step = steps.get(index);
+        boolean last = index == steps.size() - 1;
+        switch (step.kind) {
+            case NAME:
+                if (container.isJsonArray()) {
+                    // GPath style: a member of an array is the member of every element
+                    for (JsonElement element : container.getAsJsonArray()) {
+                        if (element.isJsonObject() || element.isJsonArray()) update(element, index, updater);
+                    }
+                    return;
+                }
+                JsonObject object = container.getAsJsonObject();
+                if (last) {
+                    object.add(step.name, updater.apply(object.get(step.name)));
+                } else {
+                    JsonElement child = containerFor(object.get(step.name), steps.get(index + 1));
+                    object.add(step.name, child);
+                    update(child, index + 1, updater);
+                }
+                return;
+            case INDEX:
+                if (!container.isJsonArray()) {
+                    return;
+                }
+                JsonArray array = container.getAsJsonArray();
+                int position = step.index < 0 ? array.size() + step.index : step.index;
+                if (position < 0) {
+                    return;
+                }
+                while (array.size() <= position) {
+                    array.add(JsonNull.INSTANCE);
+                }
+                if (last) {
+                    array.set(position, updater.apply(array.get(position)));
+                } else {
+                    JsonElement child = containerFor(array.get(position), steps.get(index + 1));
+                    array.set(position, child);
+                    update(child, index + 1, updater);
+                }
+                return;
+            case WILDCARD:
+                // only existing positions, nothing is created below a wildcard
+                if (container.isJsonArray()) {
+                    JsonArray elements = container.getAsJsonArray();
+                    for (int i = 0; i < elements.size(); i++) {
+                        if (last) {
+                            elements.set(i, updater.apply(elements.get(i)));
+                        } else if (elements.get(i).isJsonObject() || elements.get(i).isJsonArray()) {
+                            update(elements.get(i), index + 1, updater);
+                        }
+                    }
+                } else {
+                    for (Map.Entry<String, JsonElement> member : container.getAsJsonObject().entrySet()) {
+                        if (last) {
+                            member.setValue(updater.apply(member.getValue()));
+                        } else if (member.getValue().isJsonObject() || member.getValue().isJsonArray()) {
+                            update(member.getValue(), index + 1, updater);
+                        }
+                    }
+                }
+                return;
+            default:
+                throw new IllegalArgumentException("Not a writable JSON path: " + path);
+        }
+    }
+
+    // existing child if the next step can be applied to it, otherwise a new container replacing it
+    private static JsonElement containerFor(JsonElement existing, Step next) {
+        if (next.kind == Step.Kind.INDEX) {
+            return existing != null && existing.isJsonArray() ? existing : new JsonArray();
+        }
+        return existing != null && (existing.isJsonObject() || existing.isJsonArray()) ? existing : new JsonObject();
+    }
+
+    // fills steps and returns true when the whole path was understood
+    private static boolean parse(String path, List<Step> steps) {
+        String rest = path.trim();
+        if (rest.equals("$")) {
+            return true;
+        }
+        if (rest.startsWith("$.") || rest.startsWith("$[")) {
+            rest = rest.substring(rest.charAt(1) == '.' ? 2 : 1);
+        }
+        int i = 0;
+        int length = rest.length();
+        boolean expectName = false;
+        while (i < length) {
+            char c = rest.charAt(i);
+            if (c == '[') {
+                int close = rest.indexOf(']', i);
+                if (close < 0) return false;
+                Step step = bracketStep(rest.substring(i + 1, close));
+                if (step == null) return false;
+                steps.add(step);
+                i = close + 1;
+            } else if (c == '\'' || c == '"') {
+                int close = rest.indexOf(c, i + 1);
+                if (close < 0) return false;
+                steps.add(Step.name(rest.substring(i + 1, close)));
+                i = close + 1;
+            } else {
+                int end = i;
+                while (end < length && rest.charAt(end) != '.' && rest.charAt(end) != '[') {
+                    end++;
+                }
+                String token = rest.substring(i, end);
+                if (token.equals("size()") && end == length) {
+                    steps.add(Step.SIZE);
+                } else if (token.equals("*")) {
+                    steps.add(Step.WILDCARD);
+                } else if (token.isEmpty() || containsSpecialCharacter(token)) {
+                    return false;
+                } else {
+                    steps.add(Step.name(token));
+                }
+                i = end;
+            }
+            expectName = false;
+            if (i < length && rest.charAt(i) == '.') {
+                i++;
+                expectName = true;
+            } else if (i < length && rest.charAt(i) != '[') {
+                return false;
+            }
+        }
+        return !expectName;
+    }
+
+    private static Step bracketStep(String content) {
+        String inner = content.trim();
+        if (inner.equals("*")) {
+            return Step.WILDCARD;
+        }
+        if (inner.length() >= 2 && (inner.charAt(0) == '\'' || inner.charAt(0) == '"') && inner.charAt(inner.length() - 1) == inner.charAt(0)) {
+            return Step.name(inner.substring(1, inner.length() - 1));
+        }
+        try {
+            return Step.index(Integer.parseInt(inner));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static boolean containsSpecialCharacter(String token) {
+        for (int i = 0; i < token.length(); i++) {
+            if (SPECIAL_CHARACTERS.indexOf(token.charAt(i)) >= 0) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+
+    /**
+     * One step of a path.
+     */
+    public static final class Step {
+        public enum Kind {
+            NAME, INDEX, WILDCARD, SIZE
+        }
+
+        static final Step WILDCARD = new Step(Kind.WILDCARD, null, 0);
+        static final Step SIZE = new Step(Kind.SIZE, null, 0);
+
+        private final Kind kind;
+        private final String name;
+        private final int index;
+
+        private Step(Kind kind, String name, int index) {
+            this.kind = kind;
+            this.name = name;
+            this.index = index;
+        }
+
+        static Step name(String name) {
+            return new Step(Kind.NAME, name, 0);
+        }
+
+        static Step index(int index) {
+            return new Step(Kind.INDEX, null, index);
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        /**
+         * @return member name of a NAME step
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return array index of an INDEX step, negative from the end
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        JsonElement apply(JsonElement current) {
+            switch (kind) {
+                case NAME:
+                    return member(current);
+                case INDEX:
+                    if (!current.isJsonArray()) return null;
+                    JsonArray array = current.getAsJsonArray();
+                    int position = index < 0 ? array.size() + index : index;
+                    return position >= 0 && position < array.size() ? array.get(position) : null;
+                case WILDCARD:
+                    if (current.isJsonArray()) return current;
+                    if (!current.isJsonObject()) return null;
+                    JsonArray values = new JsonArray();
+                    current.getAsJsonObject().entrySet().forEach(entry -> values.add(entry.getValue()));
+                    return values;
+                default:
+                    if (current.isJsonArray()) return new JsonPrimitive(current.getAsJsonArray().size());
+                    if (current.isJsonObject()) return new JsonPrimitive(current.getAsJsonObject().size());
+                    return null;
+            }
+        }
+
+        // member of an object, or of every element of an array (nested arrays are flattened like GPath)
+        private JsonElement member(JsonElement current) {
+            if (current.isJsonObject()) {
+                return current.getAsJsonObject().get(name);
+            }
+            if (!current.isJsonArray()) {
+                return null;
+            }
+            JsonArray collected = new JsonArray();
+            for (JsonElement element : current.getAsJsonArray()) {
+                JsonElement value = element.isJsonObject() || element.isJsonArray() ? member(element) : null;
+                if (element.isJsonArray() && value != null) {
+                    collected.addAll(value.getAsJsonArray());
+                } else {
+                    collected.add(value);
+                }
+            }
+            return collected;
+        }
+
+        @Override
+        public String toString() {
+            switch (kind) {
+                case NAME:
+                    return name;
+                case INDEX:
+                    return "[" + index + "]";
+                case WILDCARD:
+                    return "*";
+                default:
+                    return "size()";
+            }
+        }
+    }
+}
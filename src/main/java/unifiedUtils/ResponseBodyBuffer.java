@@ -0,0 +1,171 @@
+package unifiedUtils;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import io.restassured.response.Response;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Response body read once into a shared byte array. The decoded text, the parsed JSON tree and the
+ * log preview are each computed lazily and at most once, so loggers and value chaining never
+ * materialize or parse the same body again.
+ */
+public final class ResponseBodyBuffer {
+    private static final Gson PRETTY_GSON = new GsonBuilder().setPrettyPrinting().disableHtmlEscaping().create();
+    // Rest Assured responses do not override equals/hashCode, so this behaves as an identity map
+    private static final Map<Response, ResponseBodyBuffer> BY_RESPONSE = Collections.synchronizedMap(new WeakHashMap<>());
+    private static final JsonElement NOT_JSON = new JsonPrimitive("<not json>");
+
+    private final byte[] bytes;
+    private final Charset charset;
+    private volatile String text;
+    private volatile JsonElement json;
+    private volatile Preview preview;
+    private volatile ResponseIndex index;
+
+    private ResponseBodyBuffer(byte[] bytes, String contentType) {
+        this.bytes = bytes != null ? bytes : new byte[0];
+        this.charset = charsetOf(contentType);
+    }
+
+    /**
+     * Wraps the body bytes of a response and attaches the buffer to it, so later lookups through
+     * {@link #of(Response)} reuse the same buffer.
+     * @param response - response the bytes belong to
+     * @param bytes - body bytes, not copied
+     * @return buffer attached to the response
+     */
+    public static ResponseBodyBuffer attach(Response response, byte[] bytes) {
+        ResponseBodyBuffer buffer = new ResponseBodyBuffer(bytes, response.getContentType());
+        BY_RESPONSE.put(response, buffer);
+        return buffer;
+    }
+
+    /**
+     * Returns the buffer attached to a response, reading the body once for responses that were not
+     * produced by a library transport.
+     * @param response - Rest Assured response
+     * @return shared body buffer
+     */
+    public static ResponseBodyBuffer of(Response response) {
+        ResponseBodyBuffer buffer = BY_RESPONSE.get(response);
+        return buffer != null ? buffer : attach(response, response.getBody().asByteArray());
+    }
+
+    public int size() {
+        return bytes.length;
+    }
+
+    /**
+     * @return body bytes; callers must not modify the array
+     */
+    public byte[] bytes() {
+        return bytes;
+    }
+
+    public Charset charset() {
+        return charset;
+    }
+
+    /**
+     * @return body decoded with the charset of the Content-Type (UTF-8 by default), decoded once
+     */
+    public String asString() {
+        String result = text;
+        if (result == null) {
+            result = new String(bytes, charset);
+            text = result;
+        }
+        return result;
+    }
+
+    /**
+     * @return parsed JSON tree, parsed once, or null when the body is not valid JSON
+     */
+    public JsonElement asJson() {
+        JsonElement result = json;
+        if (result == null) {
+            try {
+                result = bytes.length == 0 ? NOT_JSON : JsonParser.parseString(asString());
+            } catch (JsonParseException e) {
+                result = NOT_JSON;
+            }
+            json = result;
+        }
+        return result == NOT_JSON ? null : result;
+    }
+
+    /**
+     * @return path index over the parsed body, created once
+     */
+    public ResponseIndex index() {
+        ResponseIndex result = index;
+        if (result == null) {
+            result = new ResponseIndex(this);
+            index = result;
+        }
+        return result;
+    }
+
+    /**
+     * Renders the body for logging. Bodies up to the limit are pretty printed when they are JSON;
+     * larger bodies are cut at the limit without being parsed.
+     * @param maxBytes - maximum number of body bytes rendered, negative for no limit
+     * @return log view of the body, rendered once per limit
+     */
+    public String preview(int maxBytes) {
+        Preview result = preview;
+        if (result == null || result.limit != maxBytes) {
+            result = new Preview(maxBytes, renderPreview(maxBytes));
+            preview = result;
+        }
+        return result.text;
+    }
+
+    private String renderPreview(int maxBytes) {
+        if (maxBytes >= 0 && bytes.length > maxBytes) {
+            return new String(bytes, 0, maxBytes, charset) + "... <truncated, " + (bytes.length - maxBytes) + " of " + bytes.length + " bytes not shown>";
+        }
+        JsonElement parsed = asJson();
+        return parsed != null && (parsed.isJsonObject() || parsed.isJsonArray()) ? PRETTY_GSON.toJson(parsed) : asString();
+    }
+
+    /**
+     * @param contentType - content type header value, may be null
+     * @return charset parameter of the content type, UTF-8 when it is missing or unknown
+     */
+    public static Charset charsetOf(String contentType) {
+        if (contentType != null) {
+            for (String part : contentType.split(";")) {
+                String trimmed = part.trim();
+                if (trimmed.regionMatches(true, 0, "charset=", 0, 8)) {
+                    try {
+                        return Charset.forName(trimmed.substring(8).replace("\"", "").trim());
+                    } catch (IllegalArgumentException e) {
+                        break;
+                    }
+                }
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    private static final class Preview {
+        private final int limit;
+        private final String text;
+
+        private Preview(int limit, String text) {
+            this.limit = limit;
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package unifiedUtils;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import io.restassured.path.json.JsonPath;
+import io.restassured.response.Response;
+
+/**
+ * Path lookups over a response body that is parsed once. Simple paths walk the JSON tree of the shared
+ * {@link ResponseBodyBuffer}; GPath expressions beyond them (closures, method calls) fall back to a Rest Assured
+ * JsonPath that is also created once per response. The index is cached with the response, so value chaining
+ * over many modifications and many earlier responses never parses a body twice.
+ */
+public final class ResponseIndex {
+    private static final Gson GSON = new Gson();
+
+    private final ResponseBodyBuffer body;
+    private volatile JsonPath gpath;
+
+    ResponseIndex(ResponseBodyBuffer body) {
+        this.body = body;
+    }
+
+    /**
+     * @param response - Rest Assured response
+     * @return index shared by every lookup on the response
+     */
+    public static ResponseIndex of(Response response) {
+        return ResponseBodyBuffer.of(response).index();
+    }
+
+    /**
+     * @param path - Rest Assured style json path, e.g. data.items[0].id
+     * @return value at the path, or null when it is missing, JSON null or the body is not JSON; structures are
+     * shared with the index and must be copied before they are modified
+     */
+    public JsonElement get(String path) {
+        JsonPathExpression expression = JsonPathExpression.compile(path);
+        JsonElement root = body.asJson();
+        if (root == null) {
+            return null;
+        }
+        if (expression.isSimple()) {
+            return expression.read(root);
+        }
+        Object value = gpath().get(path);
+        return value != null ? GSON.toJsonTree(value) : null;
+    }
+
+    /**
+     * @param path - Rest Assured style json path
+     * @return value at the path as text: strings unquoted, numbers as written, structures as JSON; null when missing
+     */
+    public String getString(String path) {
+        return asText(get(path));
+    }
+
+    /**
+     * @param value - JSON value, may be null
+     * @return strings unquoted, other primitives as written, structures as JSON, null for null
+     */
+    public static String asText(JsonElement value) {
+        if (value == null || value.isJsonNull()) {
+            return null;
+        }
+        return value.isJsonPrimitive() ? value.getAsString() : value.toString();
+    }
+
+    private JsonPath gpath() {
+        JsonPath result = gpath;
+        if (result == null) {
+            result = new JsonPath(body.asString());
+            gpath = result;
+        }
+        return result;
+    }
+}
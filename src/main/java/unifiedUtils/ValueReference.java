@@ -0,0 +1,87 @@
+package unifiedUtils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Value reference of a chained header, parameter or payload value, split into source name and compiled path:
+ * <ul>
+ *   <li>%json.path - unnamed, the first source having a value at json.path</li>
+ *   <li>%[name].path or $[name].path - path in the source of that name</li>
+ * </ul>
+ * Source names start with a letter; %[0].path is an unnamed path into a root array. References come from a finite
+ * set of templates, so parsed references are cached by their text like {@link JsonPathExpression}.
+ */
+public final class ValueReference {
+    private static final int MAX_CACHED = 4096;
+    private static final Map<String, ValueReference> CACHE = new ConcurrentHashMap<>();
+
+    private final String name;
+    private final JsonPathExpression path;
+
+    private ValueReference(String name, JsonPathExpression path) {
+        this.name = name;
+        this.path = path;
+    }
+
+    /**
+     * @param reference - %path, %[name].path or $[name].path
+     * @return parsed reference
+     * @throws IllegalArgumentException when the value is not a reference
+     */
+    public static ValueReference parse(String reference) {
+        ValueReference parsed = CACHE.get(reference);
+        if (parsed == null) {
+            String name = referencedName(reference);
+            if (name == null && !reference.startsWith("%")) {
+                throw new IllegalArgumentException("Not a reference: " + reference);
+            }
+            parsed = new ValueReference(name, JsonPathExpression.compile(reference.substring(name != null ? name.length() + 4 : 1)));
+            if (CACHE.size() < MAX_CACHED) {
+                CACHE.putIfAbsent(reference, parsed);
+            }
+        }
+        return parsed;
+    }
+
+    /**
+     * @param value - header, parameter or payload value
+     * @return true when the value is a %path, %[name].path or $[name].path reference
+     */
+    public static boolean isReference(String value) {
+        return value != null && (value.startsWith("%") || (value.startsWith("$[") && referencedName(value) != null));
+    }
+
+    /**
+     * @param name - step or source name
+     * @return true when the name starts with a letter and can therefore appear in %[name] references
+     */
+    public static boolean isName(String name) {
+        char first = name.isEmpty() ? 0 : name.charAt(0);
+        return (first >= 'a' && first <= 'z') || (first >= 'A' && first <= 'Z');
+    }
+
+    /**
+     * @param reference - a reference
+     * @return name of a %[name].path or $[name].path reference, null for %path including %[0].path
+     */
+    public static String referencedName(String reference) {
+        if (reference.length() < 5 || reference.charAt(1) != '[' || (reference.charAt(0) != '%' && reference.charAt(0) != '$')
+                || !isName(reference.substring(2, 3))) {
+            return null;
+        }
+        int close = reference.indexOf("].", 2);
+        return close > 2 ? reference.substring(2, close) : null;
+    }
+
+    /**
+     * @return source name, null for an unnamed reference
+     */
+    public String getName() {
+        return name;
+    }
+
+    public JsonPathExpression getPath() {
+        return path;
+    }
+}
@@ -0,0 +1,50 @@
+package api.requestBuilder.payloadCreation;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.response.Response;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Map;
+
+public class PayloadBuilderTest {
+    private static final JsonObject BASE = JsonParser.parseString("{\"id\":0,\"sku\":\"none\",\"count\":0}").getAsJsonObject();
+    private static final JsonObject PREVIOUS = JsonParser.parseString(
+            "{\"order\":{\"id\":5},\"lines\":[{\"sku\":\"p\",\"qty\":1},{\"sku\":\"q\",\"qty\":3}]}").getAsJsonObject();
+
+    private static JsonObject json(String text) {
+        return JsonParser.parseString(text).getAsJsonObject();
+    }
+
+    @Test
+    public void previousPayloadsAnswerPlainPathsAndGPath() {
+        JsonObject payload = PayloadBuilder.getPayloadBuilderInstance().buildRequestPayload(BASE,
+                json("{\"id\":\"%order.id\",\"sku\":\"%lines.find { it.qty > 2 }.sku\",\"count\":\"%lines.size()\"}"),
+                List.of(), List.of(PREVIOUS));
+        Assert.assertEquals(payload, json("{\"id\":5,\"sku\":\"q\",\"count\":2}"));
+        Assert.assertEquals(PREVIOUS.getAsJsonArray("lines").size(), 2);
+    }
+
+    @Test
+    public void responsesTakePrecedenceOverPreviousPayloads() {
+        Response response = new ResponseBuilder().setStatusCode(200).setContentType("application/json")
+                .setBody("{\"lines\":[{\"sku\":\"r\",\"qty\":4}]}").build();
+        JsonObject payload = PayloadBuilder.getPayloadBuilderInstance().buildRequestPayload(BASE,
+                json("{\"sku\":\"%lines.find { it.qty > 2 }.sku\",\"id\":\"%order.id\"}"), List.of(response), List.of(PREVIOUS));
+        Assert.assertEquals(payload, json("{\"id\":5,\"sku\":\"r\",\"count\":0}"));
+    }
+
+    @Test
+    public void referencesResolveThroughTheGivenValues() {
+        Map<String, JsonObject> values = Map.of("%[login].user", json("{\"id\":42}"));
+        JsonObject payload = PayloadBuilder.getPayloadBuilderInstance().buildRequestPayload(BASE,
+                json("{\"id\":\"%[login].user\",\"sku\":\"%missing\",\"count\":3}"), values::get);
+        Assert.assertEquals(payload, json("{\"id\":{\"id\":42},\"sku\":\"none\",\"count\":3}"));
+        // the resolved value is copied into the payload
+        payload.getAsJsonObject("id").addProperty("id", 1);
+        Assert.assertEquals(values.get("%[login].user").get("id").getAsInt(), 42);
+    }
+}
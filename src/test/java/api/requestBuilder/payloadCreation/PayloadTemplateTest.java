@@ -0,0 +1,74 @@
+package api.requestBuilder.payloadCreation;
+
+import api.requestExecutor.scenario.ScenarioContext;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+
+public class PayloadTemplateTest {
+    private static final String BASE = "{\"id\":1,\"name\":\"base\",\"owner\":{\"id\":7,\"tags\":[\"a\",\"b\"]},"
+            + "\"items\":[{\"sku\":\"x\",\"qty\":1},{\"sku\":\"y\",\"qty\":2}],\"note\":null}";
+
+    @DataProvider
+    public Object[][] modifications() {
+        return new Object[][]{
+                {"{}"},
+                {"{\"name\":\"changed\",\"id\":2}"},
+                {"{\"extra\":{\"nested\":[1,2]},\"note\":\"set\"}"},
+                {"{\"owner.id\":8,\"owner.tags[1]\":\"c\"}"},
+                {"{\"items[1].qty\":5,\"items[*].sku\":\"z\"}"},
+                {"{\"created.by.user\":\"u\",\"list[2]\":true}"},
+                {"{\"['a.b'].c\":1}"},
+                {"{\"name\":\"%user.name\",\"owner.id\":\"%user.id\"}"},
+                {"{\"name\":\"%[order].status\",\"items[0].sku\":\"%[order].lines[1].sku\"}"},
+                {"{\"name\":\"%missing.path\",\"owner.id\":\"%also.missing\"}"},
+                {"{\"owner\":{\"id\":9},\"owner.id\":\"%user.id\"}"},
+                {"{\"owner.id\":\"%user.id\",\"owner\":\"replaced\"}"},
+                {"{\"text\":\"quote \\\" and \\u00e9 and \\u2028\"}"},
+        };
+    }
+
+    @Test(dataProvider = "modifications")
+    public void matchesBuildRequestPayload(String modifications) {
+        JsonObject base = JsonParser.parseString(BASE).getAsJsonObject();
+        JsonObject mods = JsonParser.parseString(modifications).getAsJsonObject();
+        ScenarioContext context = context();
+
+        String expected = PayloadBuilder.getPayloadBuilderInstance().buildRequestPayload(base, mods, context::resolve).toString();
+        PayloadTemplate template = PayloadTemplate.compile(base, mods);
+
+        Assert.assertEquals(template.toJson(context::resolve), expected);
+        Assert.assertEquals(new String(template.toBytes(context::resolve), StandardCharsets.UTF_8), expected);
+        Assert.assertEquals(template.build(context::resolve).toString(), expected);
+        // rendering must not change the template or the base payload
+        Assert.assertEquals(template.toJson(context::resolve), expected);
+        Assert.assertEquals(base, JsonParser.parseString(BASE));
+    }
+
+    @Test
+    public void builtTreeDoesNotShareModifiedContainers() {
+        PayloadTemplate template = PayloadTemplate.compile(JsonParser.parseString(BASE).getAsJsonObject(),
+                JsonParser.parseString("{\"owner.id\":\"%user.id\"}").getAsJsonObject());
+        JsonObject first = template.build(context()::resolve);
+        first.getAsJsonObject("owner").addProperty("id", 100);
+        Assert.assertEquals(template.build(context()::resolve).getAsJsonObject("owner").get("id").getAsInt(), 42);
+    }
+
+    @Test
+    public void listsReferences() {
+        PayloadTemplate template = PayloadTemplate.compile(JsonParser.parseString(BASE).getAsJsonObject(),
+                JsonParser.parseString("{\"name\":\"%user.name\",\"id\":3,\"owner.id\":\"$[order].id\"}").getAsJsonObject());
+        Assert.assertEquals(template.getReferences(), java.util.Set.of("%user.name", "$[order].id"));
+    }
+
+    private static ScenarioContext context() {
+        ScenarioContext context = new ScenarioContext();
+        context.addPayload("login", JsonParser.parseString("{\"user\":{\"id\":42,\"name\":\"ann\"}}").getAsJsonObject());
+        context.addPayload("order", JsonParser.parseString("{\"id\":5,\"status\":\"open\",\"lines\":[{\"sku\":\"p\"},{\"sku\":\"q\"}]}").getAsJsonObject());
+        return context;
+    }
+}
@@ -0,0 +1,60 @@
+package api.requestBuilder.payloadCreation;
+
+import api.requestBuilder.uriConstruction.ParameterRows;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+public class StreamingPayloadTest {
+    private static final String BASE = "{\"sku\":\"x\",\"qty\":1,\"active\":false,\"price\":9.5,\"tags\":[\"a\"],\"meta\":{\"k\":1}}";
+    private static final String MODIFICATIONS = "{\"sku\":\"%sku\",\"qty\":\"%qty\",\"active\":\"%active\",\"price\":\"%price\","
+            + "\"tags\":\"%tags\",\"note\":\"%note\"}";
+    private static final String CSV = "sku,qty,active,price,tags,note\n"
+            + "A1,5,true,12.50,\"[\"\"x\"\",\"\"y\"\"]\",hello\n"
+            + "B2,,FALSE,abc,oops,7\n";
+
+    private static String generate(StreamingPayload payload) throws IOException {
+        try (InputStream in = payload.openStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    public void keepsTheJsonTypeOfTheBaseFieldsLikeBuildRequestPayload() throws IOException {
+        JsonObject base = JsonParser.parseString(BASE).getAsJsonObject();
+        StreamingPayload payload = StreamingPayload.newBuilder()
+                .element(base, JsonParser.parseString(MODIFICATIONS).getAsJsonObject())
+                .parameterRows(() -> ParameterRows.fromCsv(new StringReader(CSV)))
+                .build();
+
+        PayloadBuilder builder = PayloadBuilder.getPayloadBuilderInstance();
+        JsonArray expected = new JsonArray();
+        expected.add(builder.buildRequestPayload(base, JsonParser.parseString(
+                "{\"sku\":\"A1\",\"qty\":5,\"active\":true,\"price\":12.50,\"tags\":[\"x\",\"y\"],\"note\":\"hello\"}").getAsJsonObject()));
+        // an empty column keeps the base field, values that do not parse as the base type stay strings
+        expected.add(builder.buildRequestPayload(base, JsonParser.parseString(
+                "{\"sku\":\"B2\",\"active\":false,\"price\":\"abc\",\"tags\":\"oops\",\"note\":\"7\"}").getAsJsonObject()));
+
+        Assert.assertEquals(generate(payload), expected.toString());
+        // the rows are opened again for every send
+        Assert.assertEquals(generate(payload), expected.toString());
+    }
+
+    @Test
+    public void wrapsTheArrayInTheEnvelope() throws IOException {
+        JsonObject envelope = JsonParser.parseString("{\"source\":\"import\",\"items\":null,\"count\":2}").getAsJsonObject();
+        StreamingPayload payload = StreamingPayload.newBuilder()
+                .element(JsonParser.parseString("{\"qty\":0}").getAsJsonObject(), JsonParser.parseString("{\"qty\":\"%qty\"}").getAsJsonObject())
+                .parameterRows(() -> ParameterRows.fromCsv(new StringReader("qty\n1\n2\n")))
+                .envelope(envelope, "items")
+                .build();
+        Assert.assertEquals(generate(payload), "{\"source\":\"import\",\"items\":[{\"qty\":1},{\"qty\":2}],\"count\":2}");
+    }
+}
@@ -0,0 +1,120 @@
+package api.requestBuilder.uriConstruction;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ParameterRowsTest {
+
+    @Test
+    public void readsQuotedCsvFields() {
+        ParameterRows rows = ParameterRows.fromCsv(new StringReader(
+                "id,name,note\r\n1,\"Doe, Jane\",\"said \"\"hi\"\"\"\n2,\"two\nlines\",\n3,,\"\"\n"));
+        Assert.assertEquals(rows.getColumns(), List.of("id", "name", "note"));
+        assertRows(rows, new String[][]{
+                {"1", "Doe, Jane", "said \"hi\""},
+                {"2", "two\nlines", ""},
+                {"3", "", ""},
+        });
+    }
+
+    @Test
+    public void padsShortRowsAndKeepsExtraFields() {
+        ParameterRows rows = ParameterRows.fromCsv(new StringReader("a,b,c\n1\n1,2,3,4"));
+        assertRows(rows, new String[][]{
+                {"1", null, null},
+                {"1", "2", "3", "4"},
+        });
+    }
+
+    @Test
+    public void skipsBlankLinesAndByteOrderMark() {
+        ParameterRows rows = ParameterRows.fromCsv(new StringReader("\uFEFFid,v\n\n1,x\r\n\r\n2,y"));
+        Assert.assertEquals(rows.getColumns(), List.of("id", "v"));
+        assertRows(rows, new String[][]{{"1", "x"}, {"2", "y"}});
+    }
+
+    @Test
+    public void readsFieldsAcrossBufferBoundaries() {
+        StringBuilder csv = new StringBuilder("k,v\n");
+        String quoted = "\"" + "x".repeat(10_000) + "\"\"," + "\n" + "y".repeat(10_000) + "\"";
+        for (int i = 0; i < 3; i++) csv.append(i).append(',').append(quoted).append('\n');
+        List<String[]> read = readAll(ParameterRows.fromCsv(new StringReader(csv.toString())));
+        Assert.assertEquals(read.size(), 3);
+        for (String[] row : read) {
+            Assert.assertEquals(row[1], "x".repeat(10_000) + "\",\n" + "y".repeat(10_000));
+        }
+    }
+
+    @Test
+    public void hasNoRowsWithoutInput() {
+        ParameterRows csv = ParameterRows.fromCsv(new StringReader(""));
+        Assert.assertEquals(csv.getColumns(), List.of());
+        Assert.assertFalse(csv.hasNext());
+        ParameterRows headerOnly = ParameterRows.fromCsv(new StringReader("a,b\n"));
+        Assert.assertEquals(headerOnly.getColumns(), List.of("a", "b"));
+        Assert.assertFalse(headerOnly.hasNext());
+    }
+
+    @Test
+    public void readsJsonArraysAndObjectStreams() {
+        String objects = "{\"id\":1,\"name\":\"a\",\"tags\":[1,2]}{\"name\":\"b\",\"extra\":true,\"id\":2.50}{\"id\":null}";
+        for (String json : new String[]{"[" + objects.replace("}{", "},{") + "]", objects.replace("}{", "}\n{")}) {
+            ParameterRows rows = ParameterRows.fromJson(new StringReader(json));
+            Assert.assertEquals(rows.getColumns(), List.of("id", "name", "tags"));
+            assertRows(rows, new String[][]{
+                    {"1", "a", "[1,2]"},
+                    {"2.50", "b", null},
+                    {null, null, null},
+            });
+        }
+    }
+
+    @Test
+    public void hasNoRowsForEmptyJson() {
+        for (String json : new String[]{"", " \n", "[]"}) {
+            ParameterRows rows = ParameterRows.fromJson(new StringReader(json));
+            Assert.assertEquals(rows.getColumns(), List.of(), "'" + json + "'");
+            Assert.assertFalse(rows.hasNext(), "'" + json + "'");
+        }
+    }
+
+    @Test
+    public void rejectsJsonRowsThatAreNotObjects() {
+        ParameterRows rows = ParameterRows.fromJson(new StringReader("[{\"a\":1},2]"));
+        rows.next();
+        Assert.assertThrows(IllegalStateException.class, rows::hasNext);
+    }
+
+    @Test
+    public void expandsRowsInOrderInParallel() {
+        StringBuilder csv = new StringBuilder("id\n");
+        for (int i = 0; i < 20_000; i++) csv.append(i).append('\n');
+        List<String> urls = new UrlBuilder().buildRequestUrls("https://h/", "", "items/{id}", ParameterRows.fromCsv(new StringReader(csv.toString())), true)
+                .toList();
+        Assert.assertEquals(urls.size(), 20_000);
+        for (int i = 0; i < urls.size(); i++) {
+            Assert.assertEquals(urls.get(i), "https://h/items/" + i);
+        }
+    }
+
+    private static void assertRows(ParameterRows rows, String[][] expected) {
+        List<String[]> read = readAll(rows);
+        Assert.assertEquals(read.size(), expected.length);
+        for (int i = 0; i < expected.length; i++) {
+            Assert.assertEquals(read.get(i), expected[i], "row " + i + ": " + Arrays.toString(read.get(i)));
+        }
+    }
+
+    private static List<String[]> readAll(ParameterRows rows) {
+        List<String[]> read = new ArrayList<>();
+        try (rows) {
+            rows.forEachRemaining(read::add);
+        }
+        return read;
+    }
+}
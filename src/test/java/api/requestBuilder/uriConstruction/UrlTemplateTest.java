@@ -0,0 +1,77 @@
+package api.requestBuilder.uriConstruction;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class UrlTemplateTest {
+    private static final String TEMPLATE = "https://api.example.com/v2/users/{user}/{id}/orders?status={}&limit={}";
+
+    @Test
+    public void expandsPathAndQueryPlaceholders() {
+        Assert.assertEquals(UrlTemplate.compile(TEMPLATE).expand(Map.of("status", "open", "limit", "10"), Map.of("user", "ann", "id", "7")),
+                "https://api.example.com/v2/users/ann/7/orders?status=open&limit=10");
+    }
+
+    @Test
+    public void encodesValuesForTheirPosition() {
+        String url = UrlTemplate.compile(TEMPLATE).expand(Map.of("status", "a b&c=d/e+f", "limit", "é"), Map.of("user", "a/b c", "id", "x:y@z!"));
+        Assert.assertEquals(url, "https://api.example.com/v2/users/a%2Fb%20c/x:y@z!/orders?status=a%20b%26c%3Dd%2Fe%2Bf&limit=%C3%A9");
+    }
+
+    @Test
+    public void keepsExistingEscapes() {
+        String url = UrlTemplate.compile(TEMPLATE).expand(Map.of("status", "a%20b", "limit", "100%"), Map.of("user", "a%2Fb", "id", "%zz"));
+        Assert.assertEquals(url, "https://api.example.com/v2/users/a%2Fb/%25zz/orders?status=a%20b&limit=100%25");
+    }
+
+    @Test
+    public void encodesSupplementaryCharactersAsOneCodePoint() {
+        Assert.assertEquals(UrlTemplate.compile("/e/{v}").expand(null, Map.of("v", "😀")), "/e/%F0%9F%98%80");
+    }
+
+    @Test
+    public void keepsMissingPathPlaceholdersAndEmptiesMissingQueryValues() {
+        Assert.assertEquals(UrlTemplate.compile(TEMPLATE).expand(null, Map.of("user", "ann")),
+                "https://api.example.com/v2/users/ann/{id}/orders?status=&limit=");
+    }
+
+    @Test
+    public void expandsPathPlaceholdersInTheQueryAsQueryComponents() {
+        Assert.assertEquals(UrlTemplate.compile("/search?q={term}&page={}").expand(Map.of("page", "2"), Map.of("term", "a/b c")),
+                "/search?q=a%2Fb%20c&page=2");
+    }
+
+    @Test
+    public void expandsRawValuesAsGiven() {
+        Map<String, String> query = new HashMap<>(Map.of("status", "a%20b"));
+        Assert.assertEquals(UrlTemplate.compile(TEMPLATE).expandRaw(query, Map.of("user", "a/b")),
+                "https://api.example.com/v2/users/a/b/{id}/orders?status=a%20b&limit=");
+    }
+
+    @Test
+    public void leavesBracesThatAreNotPlaceholders() {
+        UrlTemplate template = UrlTemplate.compile("/a?filter={}&x={&b={}c");
+        Assert.assertEquals(template.getQueryParameterNames(), java.util.Set.of("filter"));
+        Assert.assertEquals(template.expand(Map.of("filter", "f"), null), "/a?filter=f&x={&b={}c");
+    }
+
+    @Test
+    public void bindsColumnsByName() {
+        UrlTemplate.Binding binding = UrlTemplate.compile(TEMPLATE).bind(List.of("limit", "user", "status", "unused"));
+        Assert.assertEquals(binding.expand(new String[]{"5", "a b", "open", "x"}),
+                "https://api.example.com/v2/users/a%20b/{id}/orders?status=open&limit=5");
+        Assert.assertEquals(binding.expand(new String[]{"5"}),
+                "https://api.example.com/v2/users/{user}/{id}/orders?status=&limit=5");
+    }
+
+    @Test
+    public void matchesUrlBuilder() {
+        Assert.assertEquals(new UrlBuilder().buildRequestUrl("https://api.example.com/", "v2/", "users/{user}/{id}/orders?status={}&limit={}",
+                        Map.of("status", "true", "limit", "100"), Map.of("user", "kunal", "id", "123456")),
+                "https://api.example.com/v2/users/kunal/123456/orders?status=true&limit=100");
+    }
+}
@@ -0,0 +1,76 @@
+package api.requestExecutor;
+
+import io.restassured.http.Method;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BatchRequestExecutorTest {
+    private static final int REQUESTS = 12;
+
+    private static List<ApiRequest> requests(int count) {
+        List<ApiRequest> requests = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            requests.add(ApiRequest.newBuilder(Method.GET, "http://stub.test/items/" + i).build());
+        }
+        return requests;
+    }
+
+    private static int indexOf(ApiRequest request) {
+        return Integer.parseInt(request.getUrl().substring(request.getUrl().lastIndexOf('/') + 1));
+    }
+
+    @Test(timeOut = 10_000)
+    public void returnsResultsInInputOrderWithBoundedConcurrency() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        // later requests complete first
+        StubTransport stub = StubTransport.answeringAsync(request -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            int index = indexOf(request);
+            return CompletableFuture.supplyAsync(() -> {
+                inFlight.decrementAndGet();
+                return StubTransport.response(200, "item-" + index);
+            }, CompletableFuture.delayedExecutor((REQUESTS - index) * 5L, TimeUnit.MILLISECONDS, ApiExecutors.requestExecutor()));
+        });
+        BatchRequestExecutor batch = BatchRequestExecutor.newBuilder().invokeApiRequest(new InvokeApiRequest(stub)).maxConcurrency(3).build();
+
+        List<BatchResult> results = batch.execute(requests(REQUESTS));
+
+        Assert.assertEquals(results.size(), REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            Assert.assertEquals(results.get(i).getIndex(), i);
+            Assert.assertTrue(results.get(i).isCompleted(), results.get(i).toString());
+            Assert.assertEquals(results.get(i).getResponse().asString(), "item-" + i);
+        }
+        Assert.assertTrue(maxInFlight.get() <= 3, "in flight " + maxInFlight.get());
+        Assert.assertEquals(stub.getAsyncCalls(), REQUESTS);
+    }
+
+    @Test(timeOut = 10_000)
+    public void failedRequestsReleaseTheirPermitAndAreReportedInPlace() {
+        StubTransport stub = StubTransport.answeringAsync(request -> indexOf(request) % 2 == 0
+                ? CompletableFuture.failedFuture(new UncheckedIOException(new IOException("connection reset")))
+                : CompletableFuture.completedFuture(StubTransport.response(200, "ok")));
+        // more failures than permits: a permit kept by a failed request would block the batch
+        BatchRequestExecutor batch = BatchRequestExecutor.newBuilder().invokeApiRequest(new InvokeApiRequest(stub)).maxConcurrency(2).build();
+
+        List<BatchResult> results = batch.execute(requests(REQUESTS));
+
+        for (int i = 0; i < REQUESTS; i++) {
+            BatchResult result = results.get(i);
+            Assert.assertEquals(result.isCompleted(), i % 2 != 0, result.toString());
+            if (i % 2 == 0) {
+                Assert.assertTrue(result.getFailure() instanceof UncheckedIOException, String.valueOf(result.getFailure()));
+            }
+        }
+        Assert.assertThrows(IllegalStateException.class, () -> batch.executeAndGetResponses(requests(4)));
+    }
+}
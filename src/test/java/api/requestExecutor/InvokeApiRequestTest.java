@@ -0,0 +1,28 @@
+package api.requestExecutor;
+
+import api.requestExecutor.retry.RetryPolicy;
+import api.requestExecutor.retry.RetryingTransport;
+import io.restassured.http.Method;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+
+public class InvokeApiRequestTest {
+
+    @Test
+    public void placesTheCallersRetriesAboveRateLimitingInsteadOfAddingASecondLayer() {
+        System.setProperty("unified.retry.maxAttempts", "3");
+        System.setProperty("unified.rateLimit.perSecond", "1000");
+        try {
+            StubTransport stub = StubTransport.answering(request -> StubTransport.response(503, "busy"));
+            RetryPolicy policy = RetryPolicy.newBuilder().maxAttempts(2).initialBackoff(Duration.ofMillis(1)).build();
+            InvokeApiRequest executor = new InvokeApiRequest(RetryingTransport.newBuilder(stub).defaultPolicy(policy).build());
+            Assert.assertEquals(executor.execute(ApiRequest.newBuilder(Method.GET, "http://stub.test/orders").build()).getStatusCode(), 503);
+            Assert.assertEquals(stub.getRequests().size(), 2);
+        } finally {
+            System.clearProperty("unified.retry.maxAttempts");
+            System.clearProperty("unified.rateLimit.perSecond");
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package api.requestExecutor;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class RequestBodyTest {
+    private static final String FILE_CONTENT = "id,qty\n1,2\n";
+    private Path file;
+
+    @BeforeClass
+    public void createFile() throws IOException {
+        file = Files.createTempFile("request-body", ".csv");
+        Files.writeString(file, FILE_CONTENT);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    private static String written(RequestBody body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(Channels.newChannel(out), StandardCharsets.UTF_8);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static String read(RequestBody body) throws IOException {
+        try (InputStream in = body.openStream(StandardCharsets.UTF_8)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    public void encodesMultipartFormData() throws IOException {
+        RequestBody body = RequestBody.newMultipartBuilder()
+                .boundary("b0undary")
+                .field("note", "größe")
+                .file("upload", file, "rows.csv", "text/csv")
+                .bytes("meta", "{}".getBytes(StandardCharsets.UTF_8), "my \"meta\".json", "application/json")
+                .build();
+        String expected = "--b0undary\r\n"
+                + "Content-Disposition: form-data; name=\"note\"\r\n\r\n"
+                + "größe\r\n"
+                + "--b0undary\r\n"
+                + "Content-Disposition: form-data; name=\"upload\"; filename=\"rows.csv\"\r\n"
+                + "Content-Type: text/csv\r\n\r\n"
+                + FILE_CONTENT + "\r\n"
+                + "--b0undary\r\n"
+                + "Content-Disposition: form-data; name=\"meta\"; filename=\"my %22meta%22.json\"\r\n"
+                + "Content-Type: application/json\r\n\r\n"
+                + "{}\r\n"
+                + "--b0undary--\r\n";
+
+        Assert.assertEquals(body.getContentType(), "multipart/form-data; boundary=b0undary");
+        Assert.assertEquals(written(body), expected);
+        Assert.assertEquals(read(body), expected);
+        // every send writes the same bytes
+        Assert.assertEquals(written(body), expected);
+        Assert.assertEquals(body.contentLength(StandardCharsets.UTF_8), expected.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    @Test
+    public void multipartBodiesAreStreamedAndDescribedWithoutTheirContent() {
+        RequestBody body = RequestBody.newMultipartBuilder().field("a", "1").file("upload", file).build();
+        Assert.assertTrue(body.isStreamed());
+        Assert.assertThrows(IllegalStateException.class, () -> body.toByteArray(StandardCharsets.UTF_8));
+        Assert.assertTrue(body.getContentType().startsWith("multipart/form-data; boundary="), body.getContentType());
+        String description = body.asString(StandardCharsets.UTF_8);
+        Assert.assertTrue(description.contains("a=1") && description.contains("upload=" + file.getFileName()), description);
+        Assert.assertFalse(description.contains(FILE_CONTENT), description);
+    }
+
+    @Test
+    public void rejectsEmptyMultipartBodiesAndMissingFiles() {
+        Assert.assertThrows(IllegalArgumentException.class, () -> RequestBody.newMultipartBuilder().build());
+        Assert.assertThrows(IllegalArgumentException.class,
+                () -> RequestBody.newMultipartBuilder().file("upload", file.resolveSibling("missing-" + file.getFileName())));
+    }
+
+    @Test
+    public void sendsFileChannelRegions() throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            RequestBody body = RequestBody.ofFileChannel(channel, 3, 4);
+            Assert.assertEquals(written(body), "qty\n");
+            Assert.assertEquals(read(body), "qty\n");
+            Assert.assertEquals(body.contentLength(StandardCharsets.UTF_8), 4);
+            Assert.assertEquals(channel.position(), 0);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package api.requestExecutor;
+
+import api.requestExecutor.transport.HttpTransport;
+import api.requestExecutor.transport.RestAssuredResponses;
+import io.restassured.http.Header;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Offline transport for tests: answers every request with the responder and records what was sent.
+ */
+public class StubTransport implements HttpTransport {
+    private final Function<ApiRequest, CompletableFuture<ApiCallResult>> responder;
+    private final List<ApiRequest> requests = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger syncCalls = new AtomicInteger();
+    private final AtomicInteger asyncCalls = new AtomicInteger();
+
+    private StubTransport(Function<ApiRequest, CompletableFuture<ApiCallResult>> responder) {
+        this.responder = responder;
+    }
+
+    /**
+     * @param responder - response of each request, computed on the calling thread
+     */
+    public static StubTransport answering(Function<ApiRequest, ApiCallResult> responder) {
+        return new StubTransport(request -> CompletableFuture.completedFuture(responder.apply(request)));
+    }
+
+    /**
+     * @param responder - future response of each request, e.g. one the test completes later
+     */
+    public static StubTransport answeringAsync(Function<ApiRequest, CompletableFuture<ApiCallResult>> responder) {
+        return new StubTransport(responder);
+    }
+
+    /**
+     * @param statusCode - status of the response
+     * @param body - UTF-8 body
+     * @param headers - alternating header names and values
+     */
+    public static ApiCallResult response(int statusCode, String body, String... headers) {
+        List<Header> headerList = new ArrayList<>();
+        for (int i = 0; i < headers.length; i += 2) {
+            headerList.add(new Header(headers[i], headers[i + 1]));
+        }
+        return new ApiCallResult(RestAssuredResponses.of(statusCode, "HTTP/1.1 " + statusCode, headerList,
+                body.getBytes(StandardCharsets.UTF_8)), RequestTimings.totalOnly(0));
+    }
+
+    @Override
+    public ApiCallResult execute(ApiRequest request) {
+        syncCalls.incrementAndGet();
+        requests.add(request);
+        try {
+            return responder.apply(request).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    @Override
+    public CompletableFuture<ApiCallResult> executeAsync(ApiRequest request) {
+        asyncCalls.incrementAndGet();
+        requests.add(request);
+        return responder.apply(request);
+    }
+
+    public List<ApiRequest> getRequests() {
+        synchronized (requests) {
+            return new ArrayList<>(requests);
+        }
+    }
+
+    public int getSyncCalls() {
+        return syncCalls.get();
+    }
+
+    public int getAsyncCalls() {
+        return asyncCalls.get();
+    }
+}
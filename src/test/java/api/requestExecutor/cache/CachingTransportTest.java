@@ -0,0 +1,108 @@
+package api.requestExecutor.cache;
+
+import api.requestExecutor.ApiCallResult;
+import api.requestExecutor.ApiRequest;
+import api.requestExecutor.StubTransport;
+import io.restassured.http.Method;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+public class CachingTransportTest {
+
+    private static ApiRequest get(String path) {
+        return ApiRequest.newBuilder(Method.GET, "http://stub.test" + path).build();
+    }
+
+    private static CachingTransport caching(StubTransport stub, ResponseCache cache) {
+        return CachingTransport.newBuilder(stub).cache(cache).httpCaching(true).build();
+    }
+
+    @Test
+    public void servesFreshResponsesFromTheCache() {
+        StubTransport stub = StubTransport.answering(request -> StubTransport.response(200, "fresh", "Cache-Control", "max-age=60"));
+        CachingTransport transport = caching(stub, ResponseCache.newBuilder().build());
+        transport.execute(get("/a"));
+        ApiCallResult cached = transport.execute(get("/a"));
+        Assert.assertEquals(cached.getResponse().asString(), "fresh");
+        Assert.assertEquals(stub.getRequests().size(), 1);
+    }
+
+    @Test
+    public void evictsTheLeastRecentlyUsedEntry() {
+        StubTransport stub = StubTransport.answering(request -> StubTransport.response(200, request.getUrl(), "Cache-Control", "max-age=60"));
+        CachingTransport transport = caching(stub, ResponseCache.newBuilder().maxEntries(2).build());
+        transport.execute(get("/a"));
+        transport.execute(get("/b"));
+        transport.execute(get("/a"));
+        transport.execute(get("/c"));
+        Assert.assertEquals(stub.getRequests().size(), 3);
+        transport.execute(get("/a"));
+        Assert.assertEquals(stub.getRequests().size(), 3);
+        transport.execute(get("/b"));
+        Assert.assertEquals(stub.getRequests().size(), 4);
+    }
+
+    @Test
+    public void revalidatesStaleEntriesWithTheirETag() {
+        StubTransport stub = StubTransport.answering(request -> "\"v1\"".equals(request.getHeaders().get("If-None-Match"))
+                ? StubTransport.response(304, "", "ETag", "\"v1\"", "Cache-Control", "max-age=0")
+                : StubTransport.response(200, "original", "ETag", "\"v1\"", "Cache-Control", "max-age=0"));
+        ResponseCache cache = ResponseCache.newBuilder().build();
+        CachingTransport transport = caching(stub, cache);
+        transport.execute(get("/a"));
+        ApiCallResult revalidated = transport.execute(get("/a"));
+        Assert.assertEquals(revalidated.getResponse().getStatusCode(), 200);
+        Assert.assertEquals(revalidated.getResponse().asString(), "original");
+        Assert.assertEquals(stub.getRequests().get(1).getHeaders().get("If-None-Match"), "\"v1\"");
+        Assert.assertEquals(cache.size(), 1);
+    }
+
+    @Test
+    public void sendsAsynchronousCallsThroughTheDelegatesAsynchronousPath() {
+        StubTransport stub = StubTransport.answering(request -> StubTransport.response(200, "async", "Cache-Control", "max-age=60"));
+        CachingTransport transport = caching(stub, ResponseCache.newBuilder().build());
+        Assert.assertEquals(transport.executeAsync(get("/a")).join().getResponse().asString(), "async");
+        Assert.assertEquals(transport.executeAsync(get("/a")).join().getResponse().asString(), "async");
+        Assert.assertEquals(transport.executeAsync(ApiRequest.newBuilder(Method.POST, "http://stub.test/a").build()).join()
+                .getResponse().getStatusCode(), 200);
+        Assert.assertEquals(stub.getAsyncCalls(), 2);
+        Assert.assertEquals(stub.getSyncCalls(), 0);
+    }
+
+    @Test
+    public void passesAsynchronousCallsThroughWhenHttpCachingIsOff() {
+        StubTransport stub = StubTransport.answering(request -> StubTransport.response(200, "plain"));
+        CachingTransport transport = CachingTransport.newBuilder(stub).cache(ResponseCache.newBuilder().build()).build();
+        transport.executeAsync(get("/a")).join();
+        Assert.assertEquals(stub.getAsyncCalls(), 1);
+        Assert.assertEquals(stub.getSyncCalls(), 0);
+    }
+
+    @Test
+    public void sharesOneFetchBetweenConcurrentMemoizedCalls() {
+        CompletableFuture<ApiCallResult> pending = new CompletableFuture<>();
+        StubTransport stub = StubTransport.answeringAsync(request -> pending);
+        CachingTransport transport = caching(stub, ResponseCache.newBuilder().build());
+        ApiRequest reference = ApiRequest.newBuilder(Method.GET, "http://stub.test/countries").memoize().build();
+        CompletableFuture<ApiCallResult> first = transport.executeAsync(reference);
+        CompletableFuture<ApiCallResult> second = transport.executeAsync(reference);
+        Assert.assertFalse(second.isDone());
+        pending.complete(StubTransport.response(200, "[\"NL\"]"));
+        Assert.assertEquals(first.join().getResponse().asString(), "[\"NL\"]");
+        Assert.assertEquals(second.join().getResponse().asString(), "[\"NL\"]");
+        Assert.assertEquals(transport.execute(reference).getResponse().asString(), "[\"NL\"]");
+        Assert.assertEquals(stub.getRequests().size(), 1);
+    }
+
+    @Test
+    public void doesNotMemoizeFailures() {
+        StubTransport stub = StubTransport.answering(request -> StubTransport.response(500, "down"));
+        CachingTransport transport = caching(stub, ResponseCache.newBuilder().build());
+        ApiRequest reference = ApiRequest.newBuilder(Method.GET, "http://stub.test/countries").memoize().build();
+        transport.execute(reference);
+        transport.execute(reference);
+        Assert.assertEquals(stub.getRequests().size(), 2);
+    }
+}
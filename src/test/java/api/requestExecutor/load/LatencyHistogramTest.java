@@ -0,0 +1,92 @@
+package api.requestExecutor.load;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Random;
+
+public class LatencyHistogramTest {
+    private static final long MAX_TRACKABLE = (1L << 40) - 1;
+
+    @Test
+    public void bucketsAreContiguousAndOrdered() {
+        int last = LatencyHistogram.indexOf(MAX_TRACKABLE);
+        for (int i = 0; i < last; i++) {
+            long highest = LatencyHistogram.highestEquivalentValue(i);
+            Assert.assertEquals(LatencyHistogram.indexOf(highest), i, "highest value of bucket " + i);
+            Assert.assertEquals(LatencyHistogram.indexOf(highest + 1), i + 1, "first value after bucket " + i);
+        }
+        Assert.assertEquals(LatencyHistogram.highestEquivalentValue(last), MAX_TRACKABLE);
+    }
+
+    @Test
+    public void valuesBelow256AreExact() {
+        for (long value = 0; value < 256; value++) {
+            Assert.assertEquals(LatencyHistogram.highestEquivalentValue(LatencyHistogram.indexOf(value)), value);
+        }
+    }
+
+    @Test
+    public void relativeErrorStaysBelowOnePart() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            long value = 256 + (long) Math.exp(random.nextDouble() * Math.log(MAX_TRACKABLE - 256));
+            long highest = LatencyHistogram.highestEquivalentValue(LatencyHistogram.indexOf(value));
+            Assert.assertTrue(highest >= value && highest - value < value / 128.0, value + " -> " + highest);
+        }
+    }
+
+    @Test
+    public void reportsPercentilesOfRecordedValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 100_000; micros++) {
+            histogram.recordMicros(micros);
+        }
+        Assert.assertEquals(histogram.getTotalCount(), 100_000);
+        Assert.assertEquals(histogram.getMeanMillis(), 50.0005, 1e-9);
+        Assert.assertEquals(histogram.getPercentileMillis(50), 50.0, 50.0 / 128);
+        Assert.assertEquals(histogram.getPercentileMillis(99), 99.0, 99.0 / 128);
+        Assert.assertEquals(histogram.getPercentileMillis(100), 100.0);
+        Assert.assertEquals(histogram.getMaxMillis(), 100.0);
+        Assert.assertEquals(histogram.getPercentileMillis(0), 0.001);
+    }
+
+    @Test
+    public void emptyHistogramReportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Assert.assertEquals(histogram.getPercentileMillis(99), 0.0);
+        Assert.assertEquals(histogram.getMeanMillis(), 0.0);
+    }
+
+    @Test
+    public void clampsValuesOutsideTheRange() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordMicros(-5);
+        histogram.recordMicros(Long.MAX_VALUE);
+        Assert.assertEquals(histogram.getPercentileMillis(50), 0.0);
+        Assert.assertEquals(histogram.getMaxMillis(), MAX_TRACKABLE / 1_000.0);
+    }
+
+    @Test
+    public void backFillsSamplesOfStalledCallers() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordMicrosWithExpectedInterval(1_000, 100);
+        // the measured value plus 900, 800, ... 100 for the requests that were never sent
+        Assert.assertEquals(histogram.getTotalCount(), 10);
+        Assert.assertEquals(histogram.getMeanMillis(), 0.55, 1e-9);
+    }
+
+    @Test
+    public void mergesHistograms() {
+        LatencyHistogram first = new LatencyHistogram();
+        LatencyHistogram second = new LatencyHistogram();
+        first.recordNanos(2_000_000);
+        second.recordMicros(10_000);
+        second.recordMicros(10_000);
+        first.add(second);
+        Assert.assertEquals(first.getTotalCount(), 3);
+        Assert.assertEquals(first.getPercentileMillis(30), 2.0, 2.0 / 128);
+        Assert.assertEquals(first.getPercentileMillis(50), 10.0, 10.0 / 128);
+        Assert.assertEquals(first.getMaxMillis(), 10.0);
+    }
+}
@@ -0,0 +1,57 @@
+package api.requestExecutor.load;
+
+import api.requestExecutor.ApiRequest;
+import api.requestExecutor.scenario.Scenario;
+import com.sun.net.httpserver.HttpServer;
+import io.restassured.http.Method;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+public class VirtualUserRunnerTest {
+    private HttpServer server;
+
+    @BeforeClass
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            byte[] body = "{\"id\":7}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void opensADedicatedPoolForEveryRun() {
+        String base = "http://127.0.0.1:" + server.getAddress().getPort();
+        Scenario scenario = Scenario.newBuilder()
+                .step("create", ApiRequest.newBuilder(Method.GET, base + "/items").build())
+                .step("read", ApiRequest.newBuilder(Method.GET, base + "/items/{id}")
+                        .pathParams(Map.of("id", "%[create].id")).build())
+                .build();
+        VirtualUserRunner runner = VirtualUserRunner.newBuilder(scenario).virtualUsers(2).maxIterations(3)
+                .duration(Duration.ofSeconds(30)).build();
+        for (int run = 0; run < 2; run++) {
+            LoadReport report = runner.run();
+            Assert.assertEquals(report.getTotal().getCompletedCount(), 12, report.toString());
+            Assert.assertEquals(report.getTotal().getErrorCount(), 0, report.toString());
+        }
+    }
+}
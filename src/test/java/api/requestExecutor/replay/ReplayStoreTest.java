@@ -0,0 +1,130 @@
+package api.requestExecutor.replay;
+
+import io.restassured.http.Header;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class ReplayStoreTest {
+    private Path directory;
+    private Path file;
+
+    @BeforeMethod
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("replay-store");
+        file = directory.resolve("recordings/responses.rec");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void deleteDirectory() throws IOException {
+        ReplayStore.open(file).close();
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted((a, b) -> b.compareTo(a)).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Test
+    public void readsEntriesBackBeforeAndAfterReopening() {
+        ReplayStore store = ReplayStore.open(file);
+        store.append(key(1), response(200, "{\"id\":1}"));
+        store.append(key(2), response(404, ""));
+        assertResponse(store.lookup(key(1)), 200, "{\"id\":1}");
+        store.close();
+
+        ReplayStore reopened = ReplayStore.open(file);
+        Assert.assertEquals(reopened.size(), 2);
+        assertResponse(reopened.lookup(key(1)), 200, "{\"id\":1}");
+        assertResponse(reopened.lookup(key(2)), 404, "");
+        Assert.assertNull(reopened.lookup(key(3)));
+    }
+
+    @Test
+    public void laterEntriesSupersedeEarlierOnes() {
+        ReplayStore store = ReplayStore.open(file);
+        store.append(key(1), response(200, "old"));
+        store.append(key(1), response(201, "new"));
+        Assert.assertEquals(store.size(), 1);
+        assertResponse(store.lookup(key(1)), 201, "new");
+        store.close();
+        assertResponse(ReplayStore.open(file).lookup(key(1)), 201, "new");
+    }
+
+    @Test
+    public void cutsOffATornEntryWhenOpened() throws IOException {
+        ReplayStore store = ReplayStore.open(file);
+        store.append(key(1), response(200, "complete"));
+        long completeEnd = Files.size(file);
+        store.append(key(2), response(200, "torn"));
+        store.close();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(file) - 3);
+        }
+
+        ReplayStore reopened = ReplayStore.open(file);
+        Assert.assertEquals(reopened.size(), 1);
+        Assert.assertNull(reopened.lookup(key(2)));
+        Assert.assertEquals(Files.size(file), completeEnd);
+        reopened.append(key(3), response(200, "after"));
+        reopened.close();
+
+        ReplayStore recovered = ReplayStore.open(file);
+        assertResponse(recovered.lookup(key(1)), 200, "complete");
+        assertResponse(recovered.lookup(key(3)), 200, "after");
+    }
+
+    @Test
+    public void cutsOffAnEntryWithAnImpossibleLength() throws IOException {
+        ReplayStore store = ReplayStore.open(file);
+        store.append(key(1), response(200, "complete"));
+        long completeEnd = Files.size(file);
+        store.close();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(6).putInt(Integer.MAX_VALUE).putShort((short) 1).flip(), completeEnd);
+        }
+        ReplayStore reopened = ReplayStore.open(file);
+        Assert.assertEquals(reopened.size(), 1);
+        Assert.assertEquals(Files.size(file), completeEnd);
+    }
+
+    @Test
+    public void rejectsFilesThatAreNotStores() throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, "not a replay store");
+        Assert.assertThrows(IllegalStateException.class, () -> ReplayStore.open(file));
+        Files.delete(file);
+    }
+
+    private static void assertResponse(RecordedResponse response, int statusCode, String body) {
+        Assert.assertNotNull(response);
+        Assert.assertEquals(response.getStatusCode(), statusCode);
+        Assert.assertEquals(response.getStatusLine(), "HTTP/1.1 " + statusCode);
+        Assert.assertEquals(response.getHeaders().size(), 2);
+        Assert.assertEquals(response.getHeaders().get(1).getValue(), "ü");
+        Assert.assertEquals(new String(response.getBody(), StandardCharsets.UTF_8), body);
+    }
+
+    private static RecordedResponse response(int statusCode, String body) {
+        return new RecordedResponse(statusCode, "HTTP/1.1 " + statusCode,
+                List.of(new Header("Content-Type", "application/json"), new Header("X-Name", "ü")), body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] key(int value) {
+        byte[] key = new byte[RequestFingerprint.LENGTH];
+        Arrays.fill(key, (byte) value);
+        return key;
+    }
+}
@@ -0,0 +1,106 @@
+package api.requestExecutor.resilience;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+
+public class CircuitBreakerTest {
+
+    private static CircuitBreaker breaker(Duration openDuration) {
+        return CircuitBreaker.newBuilder().failureRateThreshold(0.5).minimumCalls(4).windowSize(6)
+                .openDuration(openDuration).halfOpenCalls(2).build("host");
+    }
+
+    private static void call(CircuitBreaker breaker, boolean success) {
+        breaker.record(breaker.acquire(), success);
+    }
+
+    @Test
+    public void staysClosedUntilTheMinimumCallsAreRecorded() {
+        CircuitBreaker breaker = breaker(Duration.ofMinutes(1));
+        for (int i = 0; i < 3; i++) call(breaker, false);
+        Assert.assertEquals(breaker.getState(), CircuitBreaker.State.CLOSED);
+        call(breaker, false);
+        Assert.assertEquals(breaker.getState(), CircuitBreaker.State.OPEN);
+        Assert.assertThrows(CircuitOpenException.class, breaker::acquire);
+    }
+
+    @Test
+    public void evaluatesOnlyTheLastWindowOfCalls() {
+        CircuitBreaker breaker = breaker(Duration.ofMinutes(1));
+        call(breaker, false);
+        for (int i = 0; i < 6; i++) call(breaker, true);
+        // the first failure has dropped out of the window of six, two new ones stay below half
+        call(breaker, false);
+        call(breaker, false);
+        Assert.assertEquals(breaker.getState(), CircuitBreaker.State.CLOSED);
+        call(breaker, false);
+        Assert.assertEquals(breaker.getState(), CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    public void probesAfterTheOpenDurationAndClosesWhenProbesSucceed() throws InterruptedException {
+        CircuitBreaker breaker = breaker(Duration.ofMillis(50));
+        for (int i = 0; i < 4; i++) call(breaker, false);
+        Thread.sleep(80);
+        CircuitBreaker.Permit first = breaker.acquire();
+        Assert.assertEquals(breaker.getState(), CircuitBreaker.State.HALF_OPEN);
+        CircuitBreaker.Permit second = breaker.acquire();
+        // both probes are in flight, further calls fail fast
+        Assert.assertThrows(CircuitOpenException.class, breaker::acquire);
+        breaker.record(first, true);
+        Assert.assertEquals(breaker.getState(), CircuitBreaker.State.HALF_OPEN);
+        breaker.record(second, true);
+        Assert.assertEquals(breaker.getState(), CircuitBreaker.State.CLOSED);
+        // the window starts empty again
+        for (int i = 0; i < 3; i++) call(breaker, false);
+        Assert.assertEquals(breaker.getState(), CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    public void reopensWhenAProbeFails() throws InterruptedException {
+        CircuitBreaker breaker = breaker(Duration.ofMillis(50));
+        for (int i = 0; i < 4; i++) call(breaker, false);
+        Thread.sleep(80);
+        call(breaker, false);
+        Assert.assertEquals(breaker.getState(), CircuitBreaker.State.OPEN);
+        Assert.assertThrows(CircuitOpenException.class, breaker::acquire);
+    }
+
+    @Test
+    public void ignoresOutcomesOfCallsStartedBeforeOpening() {
+        CircuitBreaker breaker = breaker(Duration.ofMinutes(1));
+        CircuitBreaker.Permit slow = breaker.acquire();
+        for (int i = 0; i < 4; i++) call(breaker, false);
+        breaker.record(slow, true);
+        Assert.assertEquals(breaker.getState(), CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    public void ignoresOutcomesOfClosedCallsCompletingWhileHalfOpen() throws InterruptedException {
+        CircuitBreaker breaker = breaker(Duration.ofMillis(50));
+        CircuitBreaker.Permit slowSuccess = breaker.acquire();
+        CircuitBreaker.Permit slowFailure = breaker.acquire();
+        for (int i = 0; i < 4; i++) call(breaker, false);
+        Thread.sleep(80);
+        CircuitBreaker.Permit probe = breaker.acquire();
+        Assert.assertEquals(breaker.getState(), CircuitBreaker.State.HALF_OPEN);
+        // calls sent while the circuit was closed are not probes
+        breaker.record(slowFailure, false);
+        Assert.assertEquals(breaker.getState(), CircuitBreaker.State.HALF_OPEN);
+        breaker.record(slowSuccess, true);
+        breaker.record(probe, true);
+        Assert.assertEquals(breaker.getState(), CircuitBreaker.State.HALF_OPEN);
+        call(breaker, true);
+        Assert.assertEquals(breaker.getState(), CircuitBreaker.State.CLOSED);
+        // a probe completing after the circuit closed does not enter the new window
+        breaker.record(probe, false);
+        Assert.assertEquals(breaker.toString(), "host circuit=CLOSED failures=0/0");
+    }
+
+    @Test
+    public void rejectsMinimumCallsBeyondTheWindow() {
+        Assert.assertThrows(IllegalArgumentException.class, () -> CircuitBreaker.newBuilder().minimumCalls(10).windowSize(5).build("host"));
+    }
+}
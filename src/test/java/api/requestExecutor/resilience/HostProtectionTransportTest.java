@@ -0,0 +1,70 @@
+package api.requestExecutor.resilience;
+
+import api.requestExecutor.ApiCallResult;
+import api.requestExecutor.ApiRequest;
+import api.requestExecutor.StubTransport;
+import io.restassured.http.Method;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class HostProtectionTransportTest {
+
+    private static ApiRequest get() {
+        return ApiRequest.newBuilder(Method.GET, "http://stub.test/orders").build();
+    }
+
+    @Test
+    public void sendsAsynchronousCallsThroughTheDelegatesAsynchronousPath() {
+        StubTransport stub = StubTransport.answering(request -> StubTransport.response(200, "ok"));
+        HostProtectionTransport transport = HostProtectionTransport.newBuilder(stub)
+                .circuitBreaker(CircuitBreaker.newBuilder()).adaptiveConcurrency(AdaptiveConcurrencyLimit.newBuilder()).build();
+        Assert.assertEquals(transport.executeAsync(get()).join().getResponse().getStatusCode(), 200);
+        Assert.assertEquals(stub.getAsyncCalls(), 1);
+        Assert.assertEquals(stub.getSyncCalls(), 0);
+        Assert.assertEquals(transport.getConcurrencyLimit("stub.test").getInFlight(), 0);
+    }
+
+    @Test
+    public void failsAsynchronousCallsFastOnceTheCircuitIsOpen() {
+        StubTransport stub = StubTransport.answering(request -> StubTransport.response(500, "down"));
+        HostProtectionTransport transport = HostProtectionTransport.newBuilder(stub)
+                .circuitBreaker(CircuitBreaker.newBuilder().minimumCalls(2).windowSize(2).openDuration(Duration.ofMinutes(1))).build();
+        transport.executeAsync(get()).join();
+        transport.executeAsync(get()).join();
+        Assert.assertEquals(transport.getCircuitBreaker("stub.test").getState(), CircuitBreaker.State.OPEN);
+        CompletableFuture<ApiCallResult> refused = transport.executeAsync(get());
+        CompletionException failure = Assert.expectThrows(CompletionException.class, refused::join);
+        Assert.assertTrue(failure.getCause() instanceof CircuitOpenException);
+        Assert.assertEquals(stub.getAsyncCalls(), 2);
+    }
+
+    @Test
+    public void queuesAsynchronousCallsBehindAFullConcurrencyLimit() {
+        List<CompletableFuture<ApiCallResult>> pending = new CopyOnWriteArrayList<>();
+        StubTransport stub = StubTransport.answeringAsync(request -> {
+            CompletableFuture<ApiCallResult> response = new CompletableFuture<>();
+            pending.add(response);
+            return response;
+        });
+        HostProtectionTransport transport = HostProtectionTransport.newBuilder(stub)
+                .adaptiveConcurrency(AdaptiveConcurrencyLimit.newBuilder().initialLimit(1).minLimit(1).maxLimit(1)).build();
+        CompletableFuture<ApiCallResult> first = transport.executeAsync(get());
+        CompletableFuture<ApiCallResult> second = transport.executeAsync(get());
+        Assert.assertEquals(stub.getAsyncCalls(), 1);
+        pending.get(0).complete(StubTransport.response(200, "first"));
+        Assert.assertEquals(first.join().getResponse().asString(), "first");
+        long deadline = System.currentTimeMillis() + 5000;
+        while (pending.size() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        pending.get(1).complete(StubTransport.response(200, "second"));
+        Assert.assertEquals(second.join().getResponse().asString(), "second");
+        Assert.assertEquals(transport.getConcurrencyLimit("stub.test").getInFlight(), 0);
+    }
+}
@@ -0,0 +1,68 @@
+package api.requestExecutor.resilience;
+
+import api.requestExecutor.ApiCallResult;
+import api.requestExecutor.ApiRequest;
+import api.requestExecutor.StubTransport;
+import io.restassured.http.Method;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RateLimitingTransportTest {
+
+    private static ApiRequest get() {
+        return ApiRequest.newBuilder(Method.GET, "http://stub.test/search").build();
+    }
+
+    private static StubTransport limitedOnce(int status) {
+        AtomicInteger calls = new AtomicInteger();
+        return StubTransport.answering(request -> calls.incrementAndGet() == 1
+                ? StubTransport.response(status, "slow down", "Retry-After", "0")
+                : StubTransport.response(200, "ok"));
+    }
+
+    @Test
+    public void resendsRequestsRejectedWith429() {
+        StubTransport stub = limitedOnce(429);
+        RateLimitingTransport transport = RateLimitingTransport.newBuilder(stub).build();
+        Assert.assertEquals(transport.execute(get()).getResponse().getStatusCode(), 200);
+        Assert.assertEquals(stub.getRequests().size(), 2);
+        Assert.assertNotNull(transport.getBucket(get()));
+    }
+
+    @Test
+    public void returns503ToTheCallerAfterPausing() {
+        StubTransport stub = limitedOnce(503);
+        RateLimitingTransport transport = RateLimitingTransport.newBuilder(stub).build();
+        Assert.assertEquals(transport.execute(get()).getResponse().getStatusCode(), 503);
+        Assert.assertEquals(stub.getRequests().size(), 1);
+        Assert.assertNotNull(transport.getBucket(get()));
+    }
+
+    @Test
+    public void resendsAsynchronousCallsThroughTheDelegatesAsynchronousPath() {
+        StubTransport stub = limitedOnce(429);
+        RateLimitingTransport transport = RateLimitingTransport.newBuilder(stub).build();
+        Assert.assertEquals(transport.executeAsync(get()).join().getResponse().getStatusCode(), 200);
+        Assert.assertEquals(stub.getAsyncCalls(), 2);
+        Assert.assertEquals(stub.getSyncCalls(), 0);
+    }
+
+    @Test
+    public void schedulesAsynchronousCallsInsteadOfBlockingTheCaller() {
+        StubTransport stub = StubTransport.answering(request -> StubTransport.response(200, "ok"));
+        RateLimitingTransport transport = RateLimitingTransport.newBuilder(stub).hostRate(5, 1).build();
+        long start = System.nanoTime();
+        CompletableFuture<ApiCallResult> first = transport.executeAsync(get());
+        CompletableFuture<ApiCallResult> second = transport.executeAsync(get());
+        CompletableFuture<ApiCallResult> third = transport.executeAsync(get());
+        Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 150);
+        Assert.assertFalse(third.isDone());
+        CompletableFuture.allOf(first, second, third).join();
+        Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 150);
+        Assert.assertEquals(stub.getAsyncCalls(), 3);
+    }
+}
@@ -0,0 +1,70 @@
+package api.requestExecutor.resilience;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class TokenBucketTest {
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void grantsTheBurstAtOnceAndPacesTheRest() {
+        TokenBucket bucket = new TokenBucket("host", 10, 3);
+        long start = System.nanoTime();
+        // the stored burst plus the permit that is due now
+        for (int i = 0; i < 4; i++) bucket.acquire();
+        Assert.assertTrue(System.nanoTime() - start < 50 * MILLIS, "burst was paced");
+        bucket.acquire();
+        bucket.acquire();
+        long elapsed = System.nanoTime() - start;
+        Assert.assertTrue(elapsed >= 180 * MILLIS && elapsed < 1_000 * MILLIS, "elapsed " + elapsed / MILLIS + "ms");
+    }
+
+    @Test
+    public void unlimitedBucketsOnlyHonorPauses() {
+        TokenBucket bucket = new TokenBucket("host", Double.POSITIVE_INFINITY, 1);
+        long start = System.nanoTime();
+        for (int i = 0; i < 1_000; i++) bucket.acquire();
+        Assert.assertTrue(System.nanoTime() - start < 100 * MILLIS);
+        Assert.assertTrue(bucket.pause(System.nanoTime(), System.nanoTime() + 150 * MILLIS, false));
+        long paused = System.nanoTime();
+        bucket.acquire();
+        Assert.assertTrue(System.nanoTime() - paused >= 140 * MILLIS, "pause was not honored");
+    }
+
+    @Test
+    public void rejectionsSentBeforeThePauseDoNotExtendIt() {
+        TokenBucket bucket = new TokenBucket("host", 100, 1);
+        long sentBefore = bucket.acquire();
+        long sentAt = bucket.acquire();
+        long now = System.nanoTime();
+        Assert.assertTrue(bucket.pause(sentAt, now + 50 * MILLIS, false));
+        Assert.assertFalse(bucket.pause(sentBefore, now + 500 * MILLIS, false), "stale rejection extended the pause");
+        Assert.assertFalse(bucket.pause(System.nanoTime(), now + 10 * MILLIS, false), "shorter pause replaced a longer one");
+        Assert.assertTrue(bucket.pause(System.nanoTime(), now + 60 * MILLIS, false));
+    }
+
+    @Test
+    public void slowsDownOn429AndRecoversOnAcceptedCalls() {
+        TokenBucket bucket = new TokenBucket("host", 100, 1);
+        bucket.pause(System.nanoTime(), System.nanoTime() + 1, true);
+        Assert.assertEquals(bucket.getRate(), 80.0, 1e-9);
+        bucket.pause(System.nanoTime(), System.nanoTime() + 2, false);
+        Assert.assertEquals(bucket.getRate(), 80.0, 1e-9, "a 503 pause lowered the rate");
+        for (int i = 3; i < 40; i++) {
+            bucket.pause(System.nanoTime(), System.nanoTime() + i, true);
+        }
+        Assert.assertEquals(bucket.getRate(), 10.0, 1e-9, "rate fell below its floor");
+        bucket.onAccepted();
+        Assert.assertEquals(bucket.getRate(), 11.0, 1e-9);
+        for (int i = 0; i < 200; i++) bucket.onAccepted();
+        Assert.assertEquals(bucket.getRate(), 100.0, 1e-9);
+    }
+
+    @Test
+    public void rejectsInvalidLimits() {
+        Assert.assertThrows(IllegalArgumentException.class, () -> new TokenBucket("host", 0, 1));
+        Assert.assertThrows(IllegalArgumentException.class, () -> new TokenBucket("host", 1, 0));
+    }
+}
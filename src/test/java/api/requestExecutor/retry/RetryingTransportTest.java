@@ -0,0 +1,182 @@
+package api.requestExecutor.retry;
+
+import api.requestExecutor.ApiCallResult;
+import api.requestExecutor.ApiRequest;
+import api.requestExecutor.StubTransport;
+import io.restassured.http.Method;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import unifiedReports.LoggerFactory;
+
+import java.io.UncheckedIOException;
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RetryingTransportTest {
+    private static final RetryPolicy FAST = RetryPolicy.newBuilder().maxAttempts(3)
+            .initialBackoff(Duration.ofMillis(1)).maxBackoff(Duration.ofMillis(2)).build();
+
+    @BeforeClass
+    public void initializeLogging() {
+        // the first log message sets up the loggers, which would otherwise delay the hedge under test
+        LoggerFactory.getApiConsoleLogger().logMessage("Testing RetryingTransport");
+    }
+
+    private static ApiRequest request(Method method) {
+        return ApiRequest.newBuilder(method, "http://stub.test/orders").build();
+    }
+
+    private static StubTransport failingTimes(int failures, int status) {
+        AtomicInteger calls = new AtomicInteger();
+        return StubTransport.answering(request -> StubTransport.response(calls.incrementAndGet() <= failures ? status : 200, "ok"));
+    }
+
+    @Test
+    public void retriesIdempotentRequestsOnRetryableStatus() {
+        StubTransport stub = failingTimes(2, 503);
+        ApiCallResult result = RetryingTransport.newBuilder(stub).defaultPolicy(FAST).build().execute(request(Method.GET));
+        Assert.assertEquals(result.getResponse().getStatusCode(), 200);
+        Assert.assertEquals(stub.getRequests().size(), 3);
+    }
+
+    @Test
+    public void returnsTheLastResponseOnceAttemptsAreExhausted() {
+        StubTransport stub = failingTimes(5, 503);
+        ApiCallResult result = RetryingTransport.newBuilder(stub).defaultPolicy(FAST).build().execute(request(Method.PUT));
+        Assert.assertEquals(result.getResponse().getStatusCode(), 503);
+        Assert.assertEquals(stub.getRequests().size(), 3);
+    }
+
+    @Test
+    public void doesNotRetryNonIdempotentRequests() {
+        StubTransport stub = failingTimes(2, 503);
+        ApiCallResult result = RetryingTransport.newBuilder(stub).defaultPolicy(FAST).build().execute(request(Method.POST));
+        Assert.assertEquals(result.getResponse().getStatusCode(), 503);
+        Assert.assertEquals(stub.getRequests().size(), 1);
+    }
+
+    @Test
+    public void retriesPostsCarryingAnIdempotencyKey() {
+        StubTransport stub = failingTimes(1, 503);
+        ApiRequest post = ApiRequest.newBuilder(Method.POST, "http://stub.test/orders").header("Idempotency-Key", "k-1").build();
+        ApiCallResult result = RetryingTransport.newBuilder(stub).defaultPolicy(FAST).build().execute(post);
+        Assert.assertEquals(result.getResponse().getStatusCode(), 200);
+        Assert.assertEquals(stub.getRequests().size(), 2);
+    }
+
+    @Test
+    public void doesNotRetryStatusesOutsideThePolicy() {
+        StubTransport stub = failingTimes(1, 500);
+        RetryingTransport.newBuilder(stub).defaultPolicy(FAST).build().execute(request(Method.GET));
+        Assert.assertEquals(stub.getRequests().size(), 1);
+    }
+
+    @Test
+    public void retriesTransportFailures() {
+        AtomicInteger calls = new AtomicInteger();
+        StubTransport stub = StubTransport.answering(request -> {
+            if (calls.incrementAndGet() == 1) throw new UncheckedIOException(new ConnectException("refused"));
+            return StubTransport.response(200, "ok");
+        });
+        ApiCallResult result = RetryingTransport.newBuilder(stub).defaultPolicy(FAST).build().execute(request(Method.GET));
+        Assert.assertEquals(result.getResponse().getStatusCode(), 200);
+        Assert.assertEquals(calls.get(), 2);
+    }
+
+    @Test
+    public void prefersTheLongestMatchingEndpointPolicy() {
+        StubTransport stub = failingTimes(5, 503);
+        RetryingTransport transport = RetryingTransport.newBuilder(stub).defaultPolicy(FAST)
+                .endpointPolicy("http://stub.test/", FAST)
+                .endpointPolicy("http://stub.test/orders", RetryPolicy.none())
+                .build();
+        transport.execute(request(Method.GET));
+        Assert.assertEquals(stub.getRequests().size(), 1);
+    }
+
+    @Test
+    public void backoffUsesFullJitterBelowTheExponentialCeiling() {
+        RetryPolicy policy = RetryPolicy.newBuilder().initialBackoff(Duration.ofMillis(100)).multiplier(2)
+                .maxBackoff(Duration.ofMillis(300)).build();
+        for (int i = 0; i < 200; i++) {
+            Assert.assertTrue(policy.backoffNanos(2) <= TimeUnit.MILLISECONDS.toNanos(100));
+            Assert.assertTrue(policy.backoffNanos(3) <= TimeUnit.MILLISECONDS.toNanos(200));
+            long capped = policy.backoffNanos(6);
+            Assert.assertTrue(capped >= 0 && capped <= TimeUnit.MILLISECONDS.toNanos(300));
+        }
+    }
+
+    @Test
+    public void retriesAsynchronousCallsThroughTheDelegatesAsynchronousPath() {
+        AtomicInteger calls = new AtomicInteger();
+        StubTransport stub = StubTransport.answeringAsync(request -> calls.incrementAndGet() < 3
+                ? CompletableFuture.supplyAsync(() -> StubTransport.response(503, "busy"))
+                : CompletableFuture.completedFuture(StubTransport.response(200, "ok")));
+        ApiCallResult result = RetryingTransport.newBuilder(stub).defaultPolicy(FAST).build().executeAsync(request(Method.GET)).join();
+        Assert.assertEquals(result.getResponse().getStatusCode(), 200);
+        Assert.assertEquals(stub.getAsyncCalls(), 3);
+        Assert.assertEquals(stub.getSyncCalls(), 0);
+    }
+
+    @Test
+    public void failsAsynchronousCallsWithTheDelegatesFailure() {
+        StubTransport stub = StubTransport.answeringAsync(request -> CompletableFuture.failedFuture(new IllegalStateException("boom")));
+        CompletableFuture<ApiCallResult> result = RetryingTransport.newBuilder(stub).defaultPolicy(FAST).build().executeAsync(request(Method.GET));
+        IllegalStateException failure = Assert.expectThrows(IllegalStateException.class, () -> {
+            try {
+                result.join();
+            } catch (RuntimeException e) {
+                throw (RuntimeException) e.getCause();
+            }
+        });
+        Assert.assertEquals(failure.getMessage(), "boom");
+        Assert.assertEquals(stub.getAsyncCalls(), 1);
+    }
+
+    @Test
+    public void hedgesAfterThePercentileOfTheRouteSharedByAllIds() {
+        AtomicInteger calls = new AtomicInteger();
+        StubTransport stub = StubTransport.answeringAsync(request -> {
+            int call = calls.incrementAndGet();
+            long delayMillis = call <= 20 ? 20 : call == 21 ? 2000 : 0;
+            return CompletableFuture.supplyAsync(() -> StubTransport.response(200, "call " + call),
+                    CompletableFuture.delayedExecutor(delayMillis, TimeUnit.MILLISECONDS));
+        });
+        RetryingTransport transport = RetryingTransport.newBuilder(stub).defaultPolicy(RetryPolicy.none())
+                .hedging(HedgingPolicy.newBuilder().minSamples(20).initialDelay(Duration.ofSeconds(5)).minDelay(Duration.ofMillis(1)).build())
+                .build();
+        for (int id = 1; id <= 20; id++) {
+            transport.execute(ApiRequest.newBuilder(Method.GET, "http://stub.test/orders/" + id + "?expand=lines").build());
+        }
+        ApiRequest slow = ApiRequest.newBuilder(Method.GET, "http://stub.test/orders/4f1c2a9e-7d3b-4c55-9a3e-2b8f0c6d1e77").build();
+        Assert.assertSame(transport.getLatencies(slow), transport.getLatencies(ApiRequest.newBuilder(Method.GET, "http://stub.test/orders/7").build()));
+        Assert.assertEquals(transport.getLatencies(slow).getTotalCount(), 20);
+        double p95 = transport.getLatencies(slow).getPercentileMillis(95);
+        Assert.assertTrue(p95 >= 20 && p95 < 1000, "p95 " + p95);
+
+        long start = System.nanoTime();
+        ApiCallResult result = transport.execute(slow);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        Assert.assertEquals(result.getResponse().asString(), "call 22");
+        Assert.assertTrue(elapsedMillis < 1000, "hedged after " + elapsedMillis + "ms");
+        Assert.assertEquals(stub.getAsyncCalls(), 22);
+    }
+
+    @Test
+    public void boundsTheNumberOfTrackedRoutes() {
+        StubTransport stub = StubTransport.answering(request -> StubTransport.response(200, "ok"));
+        RetryingTransport transport = RetryingTransport.newBuilder(stub).defaultPolicy(RetryPolicy.none())
+                .hedging(HedgingPolicy.newBuilder().build()).build();
+        for (int i = 0; i < RetryingTransport.MAX_ROUTES + 10; i++) {
+            transport.execute(ApiRequest.newBuilder(Method.GET, "http://stub.test/route" + (char) ('a' + i % 26) + "/" + (char) ('a' + i / 26)).build());
+        }
+        ApiRequest overflow = ApiRequest.newBuilder(Method.GET, "http://stub.test/another/route").build();
+        transport.execute(overflow);
+        Assert.assertSame(transport.getLatencies(overflow), transport.getLatencies(
+                ApiRequest.newBuilder(Method.GET, "http://stub.test/yet/another").build()));
+    }
+}
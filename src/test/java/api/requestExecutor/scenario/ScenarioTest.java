@@ -0,0 +1,117 @@
+package api.requestExecutor.scenario;
+
+import api.requestExecutor.ApiCallResult;
+import api.requestExecutor.ApiRequest;
+import api.requestExecutor.InvokeApiRequest;
+import api.requestExecutor.StubTransport;
+import io.restassured.http.Method;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class ScenarioTest {
+
+    private static ApiRequest get(String path) {
+        return ApiRequest.newBuilder(Method.GET, "http://stub.test" + path).build();
+    }
+
+    private static ApiRequest authorized(String path) {
+        return ApiRequest.newBuilder(Method.GET, "http://stub.test" + path).header("Authorization", "%[login].token").build();
+    }
+
+    private static Scenario.Builder branches() {
+        return Scenario.newBuilder()
+                .step("login", get("/login"))
+                .step("orders", authorized("/orders"))
+                .step("profile", authorized("/profile"))
+                .step("audit", get("/audit"))
+                .step("checkout", ApiRequest.newBuilder(Method.GET, "http://stub.test/orders/{id}/checkout")
+                        .pathParams(Map.of("id", "%[orders].id"))
+                        .queryParams(Map.of("name", "$[profile].name"))
+                        .build());
+    }
+
+    @Test
+    public void infersDependenciesFromNamedReferences() {
+        Scenario scenario = branches().build();
+        Assert.assertEquals(scenario.getLevels(), 3);
+        Assert.assertEquals(scenario.getDependencies("login"), List.of());
+        Assert.assertEquals(scenario.getDependencies("orders"), List.of("login"));
+        Assert.assertEquals(scenario.getDependencies("audit"), List.of());
+        Assert.assertEquals(scenario.getDependencies("checkout"), List.of("orders", "profile"));
+    }
+
+    @Test
+    public void makesStepsWithUnnamedReferencesWaitForEveryEarlierStep() {
+        Scenario scenario = branches()
+                .step("summary", ApiRequest.newBuilder(Method.GET, "http://stub.test/summary").header("X-Total", "%total").build())
+                .build();
+        Assert.assertEquals(scenario.getLevels(), 4);
+        Assert.assertEquals(scenario.getDependencies("summary"), List.of("login", "orders", "profile", "audit", "checkout"));
+    }
+
+    @Test
+    public void honoursExplicitDependencies() {
+        Scenario scenario = Scenario.newBuilder()
+                .step(ScenarioStep.newBuilder("cleanup", get("/cleanup")).dependsOn("check").build())
+                .step("check", get("/check"))
+                .build();
+        Assert.assertEquals(scenario.getDependencies("cleanup"), List.of("check"));
+        List<String> order = new ArrayList<>();
+        scenario.getSteps().forEach(step -> order.add(step.getName()));
+        Assert.assertEquals(order, List.of("check", "cleanup"));
+    }
+
+    @Test
+    public void rejectsCycles() {
+        Scenario.Builder builder = Scenario.newBuilder()
+                .step(ScenarioStep.newBuilder("a", get("/a")).dependsOn("b").build())
+                .step(ScenarioStep.newBuilder("b", get("/b")).dependsOn("a").build());
+        IllegalArgumentException failure = Assert.expectThrows(IllegalArgumentException.class, builder::build);
+        Assert.assertTrue(failure.getMessage().contains("cycle"), failure.getMessage());
+    }
+
+    @Test
+    public void rejectsReferencesToUnknownSteps() {
+        Scenario.Builder builder = Scenario.newBuilder().step("orders", ApiRequest.newBuilder(Method.GET, "http://stub.test/orders")
+                .header("Authorization", "%[login].token").build());
+        Assert.assertThrows(IllegalArgumentException.class, builder::build);
+        Assert.assertThrows(IllegalArgumentException.class, () -> branches().build().getDependencies("missing"));
+    }
+
+    @Test
+    public void runsIndependentBranchesConcurrently() {
+        // orders and profile only answer once both have been sent, so a sequential run would time out
+        CountDownLatch bothSent = new CountDownLatch(2);
+        StubTransport stub = StubTransport.answeringAsync(request -> {
+            String path = request.resolveUri().getPath();
+            if (path.equals("/orders") || path.equals("/profile")) {
+                bothSent.countDown();
+                return CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return bothSent.await(5, TimeUnit.SECONDS)
+                                ? StubTransport.response(200, path.equals("/orders") ? "{\"id\":42}" : "{\"name\":\"ann\"}")
+                                : StubTransport.response(504, "{}");
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+            }
+            ApiCallResult result = StubTransport.response(200, path.equals("/login") ? "{\"token\":\"t-1\"}" : "{}");
+            return CompletableFuture.completedFuture(result);
+        });
+        ScenarioResult result = branches().invokeApiRequest(new InvokeApiRequest(stub)).build().run();
+        Assert.assertTrue(result.isCompleted(), result.toString());
+        Assert.assertEquals(result.getStep("orders").getRequest().getHeaders().get("Authorization"), "t-1");
+        URI checkout = result.getStep("checkout").getRequest().resolveUri();
+        Assert.assertEquals(checkout.getPath(), "/orders/42/checkout");
+        Assert.assertEquals(checkout.getQuery(), "name=ann");
+    }
+}
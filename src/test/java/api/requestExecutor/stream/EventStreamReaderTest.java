@@ -0,0 +1,124 @@
+package api.requestExecutor.stream;
+
+import api.requestExecutor.StreamedResponse;
+import io.restassured.http.Header;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class EventStreamReaderTest {
+
+    private static StreamedResponse response(String contentType, InputStream body, AtomicBoolean closed) {
+        return new StreamedResponse(200, "HTTP/1.1 200", List.of(new Header("Content-Type", contentType)), body,
+                () -> closed.set(true), System.nanoTime());
+    }
+
+    private static EventStreamReader reader(String contentType, String body, Charset charset) {
+        return EventStreamReader.of(response(contentType, new ByteArrayInputStream(body.getBytes(charset)), new AtomicBoolean()),
+                StreamFormat.AUTO);
+    }
+
+    @Test
+    public void parsesServerSentEvents() throws IOException {
+        String body = ": keep-alive comment\r\n"
+                + "retry: 1000\r\n"
+                + "\r\n"
+                + "event: progress\r\n"
+                + "id: 1\r\n"
+                + "data: {\"done\":1,\r\n"
+                + "data:\"of\":2}\r\n"
+                + "\r\n"
+                + "data\r\n"
+                + "\r\n"
+                + "event: ignored-without-data\n"
+                + "\n"
+                + "id: 2\n"
+                + "data:  leading space kept\n"
+                + "\n"
+                + "data: incomplete, never terminated\n";
+        try (EventStreamReader reader = reader("text/event-stream", body, StandardCharsets.UTF_8)) {
+            Assert.assertEquals(reader.getFormat(), StreamFormat.SSE);
+
+            StreamEvent first = reader.next();
+            Assert.assertEquals(first.getIndex(), 0);
+            Assert.assertEquals(first.getType(), "progress");
+            Assert.assertEquals(first.getId(), "1");
+            Assert.assertEquals(first.getData(), "{\"done\":1,\n\"of\":2}");
+            Assert.assertEquals(first.asJson().getAsJsonObject().get("of").getAsInt(), 2);
+
+            // a field without a colon has an empty value, the last id carries over
+            StreamEvent second = reader.next();
+            Assert.assertEquals(second.getType(), "message");
+            Assert.assertEquals(second.getId(), "1");
+            Assert.assertEquals(second.getData(), "");
+
+            StreamEvent third = reader.next();
+            Assert.assertEquals(third.getIndex(), 2);
+            Assert.assertEquals(third.getType(), "message");
+            Assert.assertEquals(third.getId(), "2");
+            Assert.assertEquals(third.getData(), " leading space kept");
+
+            Assert.assertNull(reader.next());
+        }
+    }
+
+    @Test
+    public void parsesNewlineDelimitedJsonInTheResponseCharset() throws IOException {
+        String body = "{\"name\":\"größe\"}\n\n   \r\n{\"name\":\"b\"}";
+        try (EventStreamReader reader = reader("application/x-ndjson; charset=ISO-8859-1", body, StandardCharsets.ISO_8859_1)) {
+            Assert.assertEquals(reader.getFormat(), StreamFormat.NDJSON);
+            Assert.assertEquals(reader.next().asJson().getAsJsonObject().get("name").getAsString(), "größe");
+            StreamEvent last = reader.next();
+            Assert.assertEquals(last.getIndex(), 1);
+            Assert.assertNull(last.getType());
+            Assert.assertEquals(last.getData(), "{\"name\":\"b\"}");
+            Assert.assertNull(reader.next());
+        }
+    }
+
+    @Test(timeOut = 10_000)
+    public void returnsEventsBeforeTheStreamEnds() throws IOException {
+        PipedOutputStream server = new PipedOutputStream();
+        AtomicBoolean closed = new AtomicBoolean();
+        EventStreamReader reader = EventStreamReader.of(response("text/event-stream", new PipedInputStream(server), closed),
+                StreamFormat.AUTO);
+        server.write("data: first\n\n".getBytes(StandardCharsets.UTF_8));
+        server.flush();
+        // the server has not closed the stream, the first event is complete nevertheless
+        Assert.assertEquals(reader.next().getData(), "first");
+        server.write("data: second\n\n".getBytes(StandardCharsets.UTF_8));
+        server.close();
+        Assert.assertEquals(reader.next().getData(), "second");
+        Assert.assertNull(reader.next());
+        reader.close();
+        Assert.assertTrue(closed.get());
+    }
+
+    @Test
+    public void resolvesTheFormatFromTheContentType() {
+        Assert.assertEquals(StreamFormat.AUTO.resolve("text/event-stream;charset=utf-8"), StreamFormat.SSE);
+        Assert.assertEquals(StreamFormat.AUTO.resolve("application/stream+json"), StreamFormat.NDJSON);
+        Assert.assertEquals(StreamFormat.AUTO.resolve("application/jsonl"), StreamFormat.NDJSON);
+        Assert.assertEquals(StreamFormat.AUTO.resolve("application/octet-stream"), StreamFormat.CHUNKS);
+        Assert.assertEquals(StreamFormat.AUTO.resolve(null), StreamFormat.CHUNKS);
+        Assert.assertEquals(StreamFormat.SSE.resolve("application/json"), StreamFormat.SSE);
+    }
+
+    @Test
+    public void deliversChunksAsRead() throws IOException {
+        try (EventStreamReader reader = reader("application/octet-stream", "abc", StandardCharsets.UTF_8)) {
+            Assert.assertEquals(reader.getFormat(), StreamFormat.CHUNKS);
+            Assert.assertEquals(reader.next().getData(), "abc");
+            Assert.assertNull(reader.next());
+        }
+    }
+}
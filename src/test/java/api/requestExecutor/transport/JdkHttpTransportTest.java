@@ -0,0 +1,132 @@
+package api.requestExecutor.transport;
+
+import api.requestExecutor.ApiCallResult;
+import api.requestExecutor.ApiRequest;
+import api.requestExecutor.InvokeApiRequest;
+import com.sun.net.httpserver.HttpServer;
+import io.restassured.http.Method;
+import io.restassured.response.Response;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class JdkHttpTransportTest {
+    private static final int CONCURRENT = 8;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private volatile CountDownLatch release;
+    private ExecutorService serverThreads;
+    private HttpServer server;
+    private String base;
+
+    @BeforeClass
+    public void startServer() throws IOException {
+        serverThreads = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        // answers once the test releases the latch, echoing the path, a header and the body
+        server.createContext("/", exchange -> {
+            waiting.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            String requestBody = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            byte[] body = (exchange.getRequestURI().getPath() + " " + exchange.getRequestHeaders().getFirst("X-Run") + " " + requestBody)
+                    .trim().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "text/plain; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.setExecutor(serverThreads);
+        server.start();
+        base = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopServer() {
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    private static ApiRequest get(String url) {
+        return ApiRequest.newBuilder(Method.GET, url).headers(Map.of("X-Run", "async")).build();
+    }
+
+    @Test(timeOut = 10_000)
+    public void executeAsyncReturnsBeforeTheResponsesArrive() throws InterruptedException {
+        release = new CountDownLatch(1);
+        waiting.set(0);
+        JdkHttpTransport transport = JdkHttpTransport.newBuilder().build();
+        List<CompletableFuture<ApiCallResult>> futures = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT; i++) {
+            futures.add(transport.executeAsync(get(base + "/items/" + i)));
+        }
+        // every request reaches the server while none has been answered
+        while (waiting.get() < CONCURRENT) {
+            Thread.sleep(5);
+        }
+        Assert.assertTrue(futures.stream().noneMatch(CompletableFuture::isDone));
+        release.countDown();
+        for (int i = 0; i < CONCURRENT; i++) {
+            Response response = futures.get(i).join().getResponse();
+            Assert.assertEquals(response.getStatusCode(), 200);
+            Assert.assertEquals(response.asString(), "/items/" + i + " async");
+        }
+    }
+
+    @Test(timeOut = 10_000)
+    public void sendsTheRequestBody() {
+        release = new CountDownLatch(0);
+        ApiRequest request = ApiRequest.newBuilder(Method.POST, base + "/orders").contentType("application/json")
+                .headers(Map.of("X-Run", "post")).body("{\"qty\":2}").build();
+        Response response = JdkHttpTransport.newBuilder().build().executeAsync(request).join().getResponse();
+        Assert.assertEquals(response.asString(), "/orders post {\"qty\":2}");
+    }
+
+    @Test(timeOut = 10_000)
+    public void connectionFailuresCompleteTheFutureExceptionally() throws IOException {
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            closedPort = socket.getLocalPort();
+        }
+        CompletableFuture<ApiCallResult> future = JdkHttpTransport.newBuilder().build()
+                .executeAsync(get("http://127.0.0.1:" + closedPort + "/items"));
+        CompletionException failure = Assert.expectThrows(CompletionException.class, future::join);
+        Assert.assertTrue(failure.getCause() instanceof UncheckedIOException, String.valueOf(failure.getCause()));
+    }
+
+    @Test(timeOut = 10_000)
+    public void joinAllKeepsTheOrderOfTheFutures() {
+        release = new CountDownLatch(0);
+        InvokeApiRequest executor = new InvokeApiRequest(JdkHttpTransport.newBuilder().build());
+        List<CompletableFuture<Response>> futures = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT; i++) {
+            futures.add(executor.executeAsync(get(base + "/items/" + i)));
+        }
+        List<Response> responses = executor.joinAll(futures);
+        for (int i = 0; i < CONCURRENT; i++) {
+            Assert.assertEquals(responses.get(i).asString(), "/items/" + i + " async");
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package unifiedUtils;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class JsonPathExpressionTest {
+    private static final JsonElement DOCUMENT = JsonParser.parseString("{\"data\":{\"items\":[{\"id\":1,\"sku\":\"a\"},"
+            + "{\"id\":2,\"sku\":\"b\"},{\"id\":3}],\"a.b\":{\"c\":true},\"empty\":null,\"count\":0}}");
+
+    @DataProvider
+    public Object[][] reads() {
+        return new Object[][]{
+                {"data.items[0].id", "1"},
+                {"$.data.items[1].sku", "\"b\""},
+                {"data.items[-1].id", "3"},
+                {"data.items.id", "[1,2,3]"},
+                {"data.items[*].id", "[1,2,3]"},
+                {"data.items.size()", "3"},
+                {"data['a.b'].c", "true"},
+                {"data[\"a.b\"].c", "true"},
+                {"data.count", "0"},
+                {"data.empty", null},
+                {"data.missing", null},
+                {"data.items[5].id", null},
+                {"data.items[0].id.deeper", null},
+                {"$", DOCUMENT.toString()},
+        };
+    }
+
+    @Test(dataProvider = "reads")
+    public void readsSimplePaths(String path, String expected) {
+        JsonPathExpression expression = JsonPathExpression.compile(path);
+        Assert.assertTrue(expression.isSimple(), path);
+        JsonElement value = expression.read(DOCUMENT);
+        Assert.assertEquals(value != null ? value.toString() : null, expected, path);
+    }
+
+    @Test
+    public void rejectsGPathBeyondPlainPaths() {
+        for (String path : new String[]{"data.items.find { it.id == 1 }", "data.items.collect { it.id }", "data.", "data..id", "data.items[x]"}) {
+            JsonPathExpression expression = JsonPathExpression.compile(path);
+            Assert.assertFalse(expression.isSimple(), path);
+            Assert.assertThrows(IllegalStateException.class, () -> expression.read(DOCUMENT));
+        }
+    }
+
+    @Test
+    public void indexKeysAddressSingleValues() {
+        Assert.assertEquals(JsonPathExpression.compile("data.items[0].id").getIndexKey(),
+                JsonPathExpression.compile("$.data['items'][0]['id']").getIndexKey());
+        Assert.assertNotEquals(JsonPathExpression.compile("data['a.b'].c").getIndexKey(),
+                JsonPathExpression.compile("data.a.b.c").getIndexKey());
+        Assert.assertNull(JsonPathExpression.compile("data.items[*].id").getIndexKey());
+        Assert.assertNull(JsonPathExpression.compile("data.items[-1].id").getIndexKey());
+    }
+
+    @Test
+    public void compiledExpressionsAreShared() {
+        Assert.assertSame(JsonPathExpression.compile("data.items[0].id"), JsonPathExpression.compile("data.items[0].id"));
+    }
+
+    @DataProvider
+    public Object[][] writes() {
+        return new Object[][]{
+                {"{\"a\":1}", "b", "{\"a\":1,\"b\":9}"},
+                {"{\"a\":1}", "a", "{\"a\":9}"},
+                {"{}", "x.y.z", "{\"x\":{\"y\":{\"z\":9}}}"},
+                {"{}", "list[2]", "{\"list\":[null,null,9]}"},
+                {"{}", "list[1].id", "{\"list\":[null,{\"id\":9}]}"},
+                {"{\"list\":[1,2]}", "list[-1]", "{\"list\":[1,9]}"},
+                {"{\"list\":[1,2]}", "list[-3]", "{\"list\":[1,2]}"},
+                {"{\"x\":\"text\"}", "x.y", "{\"x\":{\"y\":9}}"},
+                {"{\"x\":{}}", "x[0]", "{\"x\":[9]}"},
+                {"{\"items\":[{\"p\":1},{\"p\":2},3]}", "items.p", "{\"items\":[{\"p\":9},{\"p\":9},3]}"},
+                {"{\"items\":[{\"p\":1},{\"q\":2}]}", "items[*].p", "{\"items\":[{\"p\":9},{\"q\":2,\"p\":9}]}"},
+                {"{\"items\":[]}", "items[*].p", "{\"items\":[]}"},
+                {"{\"m\":{\"a\":1,\"b\":2}}", "m.*", "{\"m\":{\"a\":9,\"b\":9}}"},
+                {"{}", "['a.b'].c", "{\"a.b\":{\"c\":9}}"},
+        };
+    }
+
+    @Test(dataProvider = "writes")
+    public void setsValues(String document, String path, String expected) {
+        JsonElement root = JsonParser.parseString(document);
+        JsonPathExpression.compile(path).set(root, new JsonPrimitive(9));
+        Assert.assertEquals(root, JsonParser.parseString(expected), path);
+    }
+
+    @Test
+    public void setCopiesTheValueForEveryPosition() {
+        JsonElement root = JsonParser.parseString("{\"items\":[{},{}]}");
+        JsonObject value = new JsonObject();
+        JsonPathExpression.compile("items[*].v").set(root, value);
+        value.addProperty("changed", true);
+        JsonElement items = root.getAsJsonObject().get("items");
+        Assert.assertNotSame(items.getAsJsonArray().get(0).getAsJsonObject().get("v"), items.getAsJsonArray().get(1).getAsJsonObject().get("v"));
+        Assert.assertEquals(items.getAsJsonArray().get(1).getAsJsonObject().get("v"), new JsonObject());
+    }
+
+    @Test
+    public void updatesFromThePreviousValue() {
+        JsonElement root = JsonParser.parseString("{\"items\":[{\"qty\":1},{\"qty\":2},{}]}");
+        JsonPathExpression.compile("items[*].qty").update(root, previous ->
+                new JsonPrimitive(previous != null ? previous.getAsInt() * 10 : -1));
+        Assert.assertEquals(root, JsonParser.parseString("{\"items\":[{\"qty\":10},{\"qty\":20},{\"qty\":-1}]}"));
+    }
+
+    @Test
+    public void rejectsPathsThatCannotBeWritten() {
+        JsonObject root = new JsonObject();
+        for (String path : new String[]{"$", "items.size()", "items.find { it }"}) {
+            Assert.assertFalse(JsonPathExpression.compile(path).isWritable(), path);
+            Assert.assertThrows(IllegalArgumentException.class, () -> JsonPathExpression.compile(path).set(root, new JsonPrimitive(1)));
+        }
+        Assert.assertThrows(IllegalArgumentException.class, () -> JsonPathExpression.compile("a").set(new JsonPrimitive(1), new JsonPrimitive(1)));
+    }
+}